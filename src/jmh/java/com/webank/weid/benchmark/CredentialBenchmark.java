@@ -0,0 +1,87 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.CredentialPojoUtils;
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * Benchmarks for the credential create, disclose, hash and verify hot paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CredentialBenchmark {
+
+    @Benchmark
+    public String thumbprint(CredentialState state) {
+        CredentialPojo credential = state.credential;
+        return CredentialPojoUtils
+            .getCredentialThumbprintWithoutSig(credential, credential.getSalt(), null);
+    }
+
+    @Benchmark
+    public String hash(CredentialState state) {
+        return CredentialPojoUtils.getCredentialPojoHash(state.credential, null);
+    }
+
+    @Benchmark
+    public boolean verifySignature(CredentialState state) {
+        return DataToolUtils
+            .verifySecp256k1Signature(state.rawData, state.signature, state.publicKey);
+    }
+
+    @Benchmark
+    public ResponseData<CredentialPojo> createCredential(CredentialState state) {
+        return state.credentialPojoService.createCredential(state.createArgs);
+    }
+
+    @Benchmark
+    public ResponseData<CredentialPojo> createSelectiveCredential(CredentialState state) {
+        return state.credentialPojoService
+            .createSelectiveCredential(state.credential, state.claimPolicy);
+    }
+
+    @Benchmark
+    public ResponseData<Boolean> verifyOffline(CredentialState state) {
+        return state.credentialPojoService
+            .verifyOffline(state.issuerPublicKey, state.credential);
+    }
+
+    @Benchmark
+    public ResponseData<Boolean> verifySelectiveOffline(CredentialState state) {
+        return state.credentialPojoService
+            .verifyOffline(state.issuerPublicKey, state.selectiveCredential);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fisco.bcos.web3j.crypto.ECKeyPair;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.ClaimPolicy;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.protocol.base.WeIdAuthentication;
+import com.webank.weid.protocol.base.WeIdPublicKey;
+import com.webank.weid.protocol.request.CreateCredentialPojoArgs;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.rpc.CptService;
+import com.webank.weid.rpc.CredentialPojoService;
+import com.webank.weid.rpc.WeIdService;
+import com.webank.weid.service.impl.CredentialPojoServiceImpl;
+import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.DateUtils;
+import com.webank.weid.util.WeIdUtils;
+
+/**
+ * Shared fixture for the credential benchmarks. Every operation measured here is off-chain.
+ * The WeID and CPT services of CredentialPojoServiceImpl are replaced by stubs which fail
+ * instead of connecting, so the benchmarks never reach a node and break loudly if an
+ * operation starts to need one.
+ */
+@State(Scope.Benchmark)
+public class CredentialState {
+
+    public static final String DISCLOSURE =
+        "{\"name\":1,\"gender\":0,\"age\":1,\"id\":1,\"address\":{\"city\":1,\"street\":0}}";
+
+    public CredentialPojoService credentialPojoService;
+
+    public CreateCredentialPojoArgs<Map<String, Object>> createArgs;
+
+    public WeIdPublicKey issuerPublicKey;
+
+    public CredentialPojo credential;
+
+    public CredentialPojo selectiveCredential;
+
+    public ClaimPolicy claimPolicy;
+
+    public String rawData;
+
+    public String signature;
+
+    public BigInteger publicKey;
+
+    public String credentialJson;
+
+    /**
+     * Create an issuer key pair and sign a credential with a multi-level claim.
+     *
+     * @throws Exception if the key pair cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stubService("weIdService", WeIdService.class);
+        stubService("cptService", CptService.class);
+        credentialPojoService = new CredentialPojoServiceImpl();
+
+        ECKeyPair keyPair = DataToolUtils.createKeyPair();
+        publicKey = keyPair.getPublicKey();
+        issuerPublicKey = new WeIdPublicKey();
+        issuerPublicKey.setPublicKey(publicKey.toString());
+        String issuer = WeIdUtils.convertPublicKeyToWeId(publicKey.toString());
+
+        createArgs = new CreateCredentialPojoArgs<>();
+        createArgs.setCptId(2000000);
+        createArgs.setIssuer(issuer);
+        createArgs.setExpirationDate(DateUtils.getNoMillisecondTimeStamp() + 3600 * 1000L);
+        createArgs.setClaim(buildClaim());
+        createArgs.setWeIdAuthentication(new WeIdAuthentication(
+            issuer, keyPair.getPrivateKey().toString(), issuer + "#keys-0"));
+
+        credential = checkResult(credentialPojoService.createCredential(createArgs));
+
+        claimPolicy = new ClaimPolicy();
+        claimPolicy.setFieldsToBeDisclosed(DISCLOSURE);
+        selectiveCredential = checkResult(
+            credentialPojoService.createSelectiveCredential(credential, claimPolicy));
+
+        rawData = credential.getHash();
+        signature = DataToolUtils.secp256k1Sign(rawData, keyPair.getPrivateKey());
+        credentialJson = DataToolUtils.serialize(credential);
+    }
+
+    /**
+     * Replace a lazily created service of CredentialPojoServiceImpl with a stub failing on use.
+     */
+    private static <T> void stubService(String fieldName, Class<T> serviceClass)
+        throws ReflectiveOperationException {
+        Object stub = Proxy.newProxyInstance(
+            serviceClass.getClassLoader(),
+            new Class<?>[]{serviceClass},
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return method.invoke(serviceClass, args);
+                }
+                throw new UnsupportedOperationException(
+                    "the benchmarks must not reach the chain: " + method.getName());
+            });
+        Field field = CredentialPojoServiceImpl.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(null, stub);
+    }
+
+    private static Map<String, Object> buildClaim() {
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", "Shenzhen");
+        address.put("street", "Keyuan Road");
+        List<Object> hobbies = new ArrayList<>();
+        hobbies.add("swimming");
+        hobbies.add("reading");
+        hobbies.add("hiking");
+        Map<String, Object> claim = new HashMap<>();
+        claim.put("name", "zhang san");
+        claim.put("gender", "F");
+        claim.put("age", 18);
+        claim.put("id", "110101199003077777");
+        claim.put("address", address);
+        claim.put("hobbies", hobbies);
+        return claim;
+    }
+
+    private static <T> T checkResult(ResponseData<T> response) {
+        if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            throw new IllegalStateException(
+                "benchmark fixture setup failed: " + response.getErrorMessage());
+        }
+        return response.getResult();
+    }
+}
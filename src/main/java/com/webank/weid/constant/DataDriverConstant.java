@@ -147,6 +147,12 @@ public final class DataDriverConstant {
      */
     public static final String JDBC_MAX_ACTIVE = "jdbc.maxActive";
 
+    /**
+     * the lower and upper bounds of maxActive in the adaptive pool sizing.
+     */
+    public static final String JDBC_ADAPTIVE_MIN_ACTIVE = "jdbc.adaptive.minActive";
+    public static final String JDBC_ADAPTIVE_MAX_ACTIVE = "jdbc.adaptive.maxActive";
+
     /**
      * jdbc minIdle properties.
      */
@@ -182,6 +188,17 @@ public final class DataDriverConstant {
      */
     public static final String JDBC_INIT_SIZE = "jdbc.initialSize";
 
+    /**
+     * jdbc maxOpenPreparedStatements properties.
+     */
+    public static final String JDBC_MAX_OPEN_PREPARED_STATEMENTS =
+        "jdbc.maxOpenPreparedStatements";
+
+    /**
+     * jdbc poolPreparedStatements properties.
+     */
+    public static final String JDBC_POOL_PREPARED_STATEMENTS = "jdbc.poolPreparedStatements";
+
     /**
      * jdbc driverClassName.
      */
@@ -258,6 +275,8 @@ public final class DataDriverConstant {
     public static final String POOL_NUM_TEST_PER_ER = "numTestsPerEvictionRun";
     public static final String POOL_VALIDATION_QUERY = "validationQuery";
     public static final String POOL_MIN_EITM = "minEvictableIdleTimeMillis";
+    public static final String POOL_PREPARED_STATEMENTS = "poolPreparedStatements";
+    public static final String POOL_MAX_OPEN_PREPARED_STATEMENTS = "maxOpenPreparedStatements";
 
     /**
      * the default value for pool.
@@ -271,6 +290,95 @@ public final class DataDriverConstant {
     public static final String POOL_NUM_TEST_PER_ER_DEFAULT_VALUE = "5";
     public static final String POOL_TIME_BETWEEN_ERM_DEFAULT_VALUE = "600000";
     public static final String POOL_MIN_EITM_DEFAULT_VALUE = "1800000";
+    public static final String POOL_MAX_OPEN_PREPARED_STATEMENTS_DEFAULT_VALUE = "100";
+    public static final String POOL_PREPARED_STATEMENTS_DEFAULT_VALUE = "true";
+
+    /**
+     * the interval in milliseconds of purging the expired mysql data, 0 to disable.
+     */
+    public static final String PERSISTENCE_PURGE_INTERVAL = "persistence.purge.interval";
+
+    /**
+     * the number of the expired mysql rows deleted per statement.
+     */
+    public static final String PERSISTENCE_PURGE_BATCH_SIZE = "persistence.purge.batchSize";
+
+    /**
+     * the default value for purging the expired mysql data.
+     */
+    public static final String PERSISTENCE_PURGE_INTERVAL_DEFAULT_VALUE = "0";
+    public static final String PERSISTENCE_PURGE_BATCH_SIZE_DEFAULT_VALUE = "1000";
+
+    /**
+     * the number of rows inserted by one multi-row statement in batch add.
+     */
+    public static final String PERSISTENCE_BATCH_ADD_CHUNK_SIZE = "persistence.batchAdd.chunkSize";
+    public static final String PERSISTENCE_BATCH_ADD_CHUNK_SIZE_DEFAULT_VALUE = "500";
+
+    /**
+     * the comma-separated domains cached in the local near cache.
+     */
+    public static final String PERSISTENCE_CACHE_DOMAINS = "persistence.cache.domains";
+
+    /**
+     * the max milliseconds a write waits in the group commit queue, 0 to disable group commit.
+     */
+    public static final String PERSISTENCE_GROUP_COMMIT_INTERVAL =
+        "persistence.groupCommit.interval";
+
+    /**
+     * the max number of rows flushed in one group commit batch.
+     */
+    public static final String PERSISTENCE_GROUP_COMMIT_BATCH_SIZE =
+        "persistence.groupCommit.batchSize";
+
+    /**
+     * the capacity of the group commit queue, writers block when it is full.
+     */
+    public static final String PERSISTENCE_GROUP_COMMIT_QUEUE_SIZE =
+        "persistence.groupCommit.queueSize";
+
+    /**
+     * when the group commit write is acknowledged, flush or enqueue.
+     */
+    public static final String PERSISTENCE_GROUP_COMMIT_ACK = "persistence.groupCommit.ack";
+
+    /**
+     * the default value for group commit.
+     */
+    public static final String PERSISTENCE_GROUP_COMMIT_INTERVAL_DEFAULT_VALUE = "0";
+    public static final String PERSISTENCE_GROUP_COMMIT_BATCH_SIZE_DEFAULT_VALUE = "100";
+    public static final String PERSISTENCE_GROUP_COMMIT_QUEUE_SIZE_DEFAULT_VALUE = "10000";
+    public static final String PERSISTENCE_GROUP_COMMIT_ACK_DEFAULT_VALUE = "flush";
+
+    /**
+     * whether to register the connection pool and query metrics as JMX MXBeans.
+     */
+    public static final String PERSISTENCE_METRICS_JMX = "persistence.metrics.jmx";
+
+    /**
+     * the class name of the PoolMetricsListener notified of the pool and query metrics.
+     */
+    public static final String PERSISTENCE_METRICS_LISTENER = "persistence.metrics.listener";
+
+    /**
+     * the interval in milliseconds of adapting maxActive to the borrow wait, 0 to disable.
+     */
+    public static final String PERSISTENCE_POOL_ADAPTIVE_INTERVAL =
+        "persistence.pool.adaptive.interval";
+
+    /**
+     * the mean borrow wait in milliseconds above which maxActive grows.
+     */
+    public static final String PERSISTENCE_POOL_ADAPTIVE_WAIT_THRESHOLD =
+        "persistence.pool.adaptive.waitThreshold";
+
+    /**
+     * the default value for the connection pool metrics.
+     */
+    public static final String PERSISTENCE_METRICS_JMX_DEFAULT_VALUE = "true";
+    public static final String PERSISTENCE_POOL_ADAPTIVE_INTERVAL_DEFAULT_VALUE = "0";
+    public static final String PERSISTENCE_POOL_ADAPTIVE_WAIT_THRESHOLD_DEFAULT_VALUE = "20";
 
     /**
      * 系统默认的domain.
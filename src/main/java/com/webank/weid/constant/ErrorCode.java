@@ -370,6 +370,12 @@ public enum ErrorCode {
      */
     OFFLINE_EVIDENCE_SAVE_FAILED(100505, "offline evidence transaction saved failed."),
 
+    /**
+     * offline transaction replay failed.
+     */
+    OFFLINE_TRANSACTION_REPLAY_FAILED(100506,
+        "offline transaction replay failed, please check the error log."),
+
     /**
      * The challenge is invalid.
      */
@@ -638,6 +644,14 @@ public enum ErrorCode {
         "the data does not match for batch add."
     ),
 
+    /**
+     * some chunks of the batch add failed.
+     */
+    PERSISTENCE_BATCH_ADD_PARTIAL_FAILED(
+        100905,
+        "some chunks of the batch add failed, please check the error log."
+    ),
+
     /**
      * The Authority Issuer Contract level error: subject already exists.
      */
@@ -34,5 +34,11 @@ public enum ProcessingMode {
     /**
      * 批量延迟上链模式，此模式下会先将数据存入介质中，然后异步去上链处理.
      */
-    PERIODIC_AND_BATCH
+    PERIODIC_AND_BATCH,
+
+    /**
+     * 微批上链模式，此模式下会将同一群组同一私钥的并发上链请求在短时间内合并为一笔批量交易上链，
+     * 并从交易回执中为每个请求分别返回结果.
+     */
+    MICRO_BATCH
 }
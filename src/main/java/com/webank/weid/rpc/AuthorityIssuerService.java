@@ -20,6 +20,7 @@
 package com.webank.weid.rpc;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.weid.protocol.base.AuthorityIssuer;
 import com.webank.weid.protocol.base.IssuerType;
@@ -49,6 +50,15 @@ public interface AuthorityIssuerService {
      */
     ResponseData<Boolean> registerAuthorityIssuer(RegisterAuthorityIssuerArgs args);
 
+    /**
+     * Register a new Authority Issuer on Chain without blocking on the transaction receipt.
+     *
+     * @param args the args
+     * @return the future of the result, true if succeeds, false otherwise
+     */
+    CompletableFuture<ResponseData<Boolean>> registerAuthorityIssuerAsync(
+        RegisterAuthorityIssuerArgs args);
+
     /**
      * Remove a new Authority Issuer on Chain.
      *
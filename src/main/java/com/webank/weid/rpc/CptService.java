@@ -20,6 +20,7 @@
 package com.webank.weid.rpc;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.wedpr.selectivedisclosure.CredentialTemplateEntity;
 
@@ -44,6 +45,14 @@ public interface CptService {
      */
     ResponseData<CptBaseInfo> registerCpt(CptMapArgs args);
 
+    /**
+     * Register a new CPT to the blockchain without blocking on the transaction receipt.
+     *
+     * @param args the args
+     * @return the future of the registered CPT info
+     */
+    CompletableFuture<ResponseData<CptBaseInfo>> registerCptAsync(CptMapArgs args);
+
     /**
      * Register a new CPT with a pre-set CPT ID, to the blockchain.
      *
@@ -20,6 +20,7 @@
 package com.webank.weid.rpc;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import com.github.fge.jsonschema.core.report.ProcessingReport;
 
@@ -149,6 +150,30 @@ public interface CredentialPojoService {
         PresentationE presentationE
     );
 
+    /**
+     * Verify a batch of credentials in parallel, each against its own issuer. Public keys will be
+     * fetched from chain, and the WeID Document of each distinct issuer is resolved only once.
+     * The thread count of the default executor can be set by credential.verify.batch.threads.
+     *
+     * @param credentialList the credential list
+     * @return the verification result of each credential, in the same order as the input
+     */
+    ResponseData<List<ResponseData<Boolean>>> batchVerify(List<CredentialPojo> credentialList);
+
+    /**
+     * Verify a batch of credentials in parallel on the given executor, each against its own
+     * issuer. Public keys will be fetched from chain, and the WeID Document of each distinct
+     * issuer is resolved only once.
+     *
+     * @param credentialList the credential list
+     * @param executor the executor to run the verification on
+     * @return the verification result of each credential, in the same order as the input
+     */
+    ResponseData<List<ResponseData<Boolean>>> batchVerify(
+        List<CredentialPojo> credentialList,
+        ExecutorService executor
+    );
+
     /**
      * Verify the validity of a credential. Public key must be provided. This is offline interface.
      * 
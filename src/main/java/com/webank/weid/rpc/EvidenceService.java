@@ -19,6 +19,8 @@
 
 package com.webank.weid.rpc;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.webank.weid.protocol.base.CredentialPojo;
 import com.webank.weid.protocol.base.EvidenceInfo;
 import com.webank.weid.protocol.base.HashString;
@@ -46,6 +48,19 @@ public interface EvidenceService {
      */
     ResponseData<String> createEvidence(Hashable object, WeIdPrivateKey weIdPrivateKey);
 
+    /**
+     * Create a new evidence to blockchain without blocking on the transaction receipt. The future
+     * completes with the same result as createEvidence() once the receipt arrives.
+     *
+     * @param object the given Java object
+     * @param weIdPrivateKey the signer WeID's private key
+     * @return the future of the evidence hash value
+     */
+    CompletableFuture<ResponseData<String>> createEvidenceAsync(
+        Hashable object,
+        WeIdPrivateKey weIdPrivateKey
+    );
+
     /**
      * Create a new evidence to blockchain and return the hash value, with appending log. This will
      * fail if evidence already exists.
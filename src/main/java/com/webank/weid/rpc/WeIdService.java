@@ -20,6 +20,7 @@
 package com.webank.weid.rpc;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.weid.protocol.base.WeIdAuthentication;
 import com.webank.weid.protocol.base.WeIdDocument;
@@ -57,6 +58,15 @@ public interface WeIdService {
      */
     ResponseData<String> createWeId(CreateWeIdArgs createWeIdArgs);
 
+    /**
+     * Create a WeIdentity DID from the provided public key without blocking on the transaction
+     * receipt.
+     *
+     * @param createWeIdArgs you need to input a public key
+     * @return the future of the WeIdentity DID
+     */
+    CompletableFuture<ResponseData<String>> createWeIdAsync(CreateWeIdArgs createWeIdArgs);
+
     /**
      * Create a WeIdentity DID from the provided public key.
      *
@@ -85,6 +95,14 @@ public interface WeIdService {
      */
     ResponseData<WeIdDocument> getWeIdDocument(String weId);
 
+    /**
+     * Query WeIdentity DID documents in batch, the related blocks are fetched only once.
+     *
+     * @param weIdList the WeIdentity DID list
+     * @return weId document of each WeIdentity DID, in the same order as the input
+     */
+    ResponseData<List<ResponseData<WeIdDocument>>> getWeIdDocuments(List<String> weIdList);
+
     /**
      * Add a public key in the WeIdentity DID Document. If this key is already revoked, then it will
      * be un-revoked.
@@ -123,6 +141,17 @@ public interface WeIdService {
     ResponseData<Boolean> setService(String weId, ServiceArgs serviceArgs,
         WeIdPrivateKey privateKey);
 
+    /**
+     * Set service properties without blocking on the transaction receipt.
+     *
+     * @param weId the WeID to set service to
+     * @param serviceArgs your service name and endpoint
+     * @param privateKey the private key
+     * @return the future of the "set" operation result
+     */
+    CompletableFuture<ResponseData<Boolean>> setServiceAsync(String weId,
+        ServiceArgs serviceArgs, WeIdPrivateKey privateKey);
+
     /**
      * Set service properties.
      *
@@ -62,6 +62,8 @@ public abstract class BaseService {
 
     protected WeServer<?, ?, ?> weServer;
 
+    protected Integer groupId;
+
     static {
         fiscoConfig = new FiscoConfig();
         if (!fiscoConfig.load()) {
@@ -75,6 +77,7 @@ public abstract class BaseService {
      * Constructor.
      */
     public BaseService() {
+        groupId = masterGroupId;
         weServer = getWeServer(masterGroupId);
     }
 
@@ -84,6 +87,7 @@ public abstract class BaseService {
      * @param groupId 群组编号
      */
     public BaseService(Integer groupId) {
+        this.groupId = groupId;
         weServer = getWeServer(groupId);
     }
 
@@ -23,6 +23,7 @@ import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -75,6 +76,29 @@ public class AuthorityIssuerServiceImpl extends AbstractService implements Autho
         }
     }
 
+    /**
+     * Register a new Authority Issuer on Chain without blocking on the transaction receipt.
+     *
+     * @param args the args
+     * @return the future of the Boolean response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> registerAuthorityIssuerAsync(
+        RegisterAuthorityIssuerArgs args) {
+
+        ErrorCode innerResponseData = checkRegisterAuthorityIssuerArgs(args);
+        if (ErrorCode.SUCCESS.getCode() != innerResponseData.getCode()) {
+            return CompletableFuture.completedFuture(new ResponseData<>(false, innerResponseData));
+        }
+        try {
+            return authEngine.addAuthorityIssuerAsync(args);
+        } catch (Exception e) {
+            logger.error("register has error, Error Message:{}", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR));
+        }
+    }
+
     /**
      * Remove a new Authority Issuer on Chain.
      *
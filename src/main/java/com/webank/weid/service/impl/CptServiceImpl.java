@@ -23,6 +23,7 @@ import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.wedpr.selectivedisclosure.CredentialTemplateEntity;
 import org.apache.commons.lang3.StringUtils;
@@ -189,6 +190,49 @@ public class CptServiceImpl extends AbstractService implements CptService {
         }
     }
 
+    /**
+     * This is used to register a new CPT to the blockchain without blocking on the transaction
+     * receipt.
+     *
+     * @param args the args
+     * @return the future of the response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<CptBaseInfo>> registerCptAsync(CptMapArgs args) {
+
+        try {
+            if (args == null) {
+                logger.error("[registerCptAsync]input CptMapArgs is null");
+                return CompletableFuture.completedFuture(
+                    new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT));
+            }
+            ErrorCode validateResult =
+                this.validateCptArgs(
+                    args.getWeIdAuthentication(),
+                    args.getCptJsonSchema()
+                );
+
+            if (validateResult.getCode() != ErrorCode.SUCCESS.getCode()) {
+                return CompletableFuture.completedFuture(new ResponseData<>(null, validateResult));
+            }
+
+            String weId = args.getWeIdAuthentication().getWeId();
+            WeIdPrivateKey weIdPrivateKey = args.getWeIdAuthentication().getWeIdPrivateKey();
+            String cptJsonSchemaNew = DataToolUtils.cptSchemaToString(args);
+            RsvSignature rsvSignature = sign(
+                weId,
+                cptJsonSchemaNew,
+                weIdPrivateKey);
+            String address = WeIdUtils.convertWeIdToAddress(weId);
+            return cptServiceEngine.registerCptAsync(address, cptJsonSchemaNew, rsvSignature,
+                weIdPrivateKey.getPrivateKey(), WeIdConstant.CPT_DATA_INDEX);
+        } catch (Exception e) {
+            logger.error("[registerCptAsync] register cpt failed due to unknown error. ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(null, ErrorCode.UNKNOW_ERROR));
+        }
+    }
+
     /**
      * this is used to query cpt with the latest version which has been registered.
      *
@@ -201,15 +245,12 @@ public class CptServiceImpl extends AbstractService implements CptService {
             if (cptId == null || cptId < 0) {
                 return new ResponseData<>(null, ErrorCode.CPT_ID_ILLEGAL);
             }
-            String cptIdStr = String.valueOf(cptId);
-            ResponseData<Cpt> result = cptCahceNode.get(cptIdStr);
-            if (result == null) {
-                result = cptServiceEngine.queryCpt(cptId, WeIdConstant.CPT_DATA_INDEX);
-                if (result.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()) {
-                    cptCahceNode.put(cptIdStr, result);
-                }
-            }
-            return result;
+            // concurrent misses of a same cpt wait for one query, only success is cached
+            return cptCahceNode.get(
+                String.valueOf(cptId),
+                key -> cptServiceEngine.queryCpt(cptId, WeIdConstant.CPT_DATA_INDEX),
+                result -> result.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+            );
         } catch (Exception e) {
             logger.error("[updateCpt] query cpt failed due to unknown error. ", e);
             return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
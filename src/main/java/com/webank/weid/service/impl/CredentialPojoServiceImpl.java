@@ -23,13 +23,21 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
 import com.webank.wedpr.common.Utils;
 import com.webank.wedpr.selectivedisclosure.CredentialTemplateEntity;
 import com.webank.wedpr.selectivedisclosure.PredicateType;
@@ -108,6 +116,14 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
     private static Persistence dataDriver;
     private static PersistenceType persistenceType;
     private static PdfTransportation pdfTransportation;
+    private static volatile ExecutorService batchVerifyExecutor;
+
+    /**
+     * the thread count of the default batch verify executor.
+     */
+    private static final String BATCH_VERIFY_THREADS_KEY = "credential.verify.batch.threads";
+
+    private static final AtomicInteger BATCH_VERIFY_THREAD_INDEX = new AtomicInteger();
 
     private static Persistence getDataDriver() {
         String type = PropertyUtils.getProperty("persistence_type");
@@ -136,6 +152,25 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         return cptService;
     }
 
+    private static ExecutorService getBatchVerifyExecutor() {
+        if (batchVerifyExecutor == null) {
+            synchronized (CredentialPojoServiceImpl.class) {
+                if (batchVerifyExecutor == null) {
+                    int threads = Integer.parseInt(PropertyUtils.getProperty(
+                        BATCH_VERIFY_THREADS_KEY,
+                        String.valueOf(Runtime.getRuntime().availableProcessors())));
+                    batchVerifyExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                        Thread thread = new Thread(runnable,
+                            "weid-batch-verify-" + BATCH_VERIFY_THREAD_INDEX.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return batchVerifyExecutor;
+    }
+
     private static PdfTransportation getPdfTransportation() {
         if (pdfTransportation == null) {
             pdfTransportation = new PdfTransportationImpl();
@@ -480,10 +515,21 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         String publicKey,
         boolean offLine,
         String weIdPublicKeyId
+    ) {
+        return verifyContent(credential, publicKey, offLine, weIdPublicKeyId, null);
+    }
+
+    private static ErrorCode verifyContent(
+        CredentialPojo credential,
+        String publicKey,
+        boolean offLine,
+        String weIdPublicKeyId,
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments
     ) {
         ErrorCode errorCode;
         try {
-            errorCode = verifyContentInner(credential, publicKey, offLine, weIdPublicKeyId);
+            errorCode = verifyContentInner(
+                credential, publicKey, offLine, weIdPublicKeyId, resolvedDocuments);
         } catch (WeIdBaseException ex) {
             logger.error("[verifyContent] verify credential has exception.", ex);
             return ex.getErrorCode();
@@ -548,7 +594,8 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         CredentialPojo credential,
         String publicKey,
         boolean offline,
-        String weIdPublicKeyId
+        String weIdPublicKeyId,
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments
     ) {
         ErrorCode checkResp = CredentialPojoUtils.isCredentialPojoValid(credential);
         if (ErrorCode.SUCCESS.getCode() != checkResp.getCode()) {
@@ -564,7 +611,7 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
             .intValue()) {
             // This is a multi-signed Credential. We firstly verify itself (i.e. external check)
             ErrorCode errorCode = verifySingleSignedCredential(
-                credential, publicKey, offline, weIdPublicKeyId);
+                credential, publicKey, offline, weIdPublicKeyId, resolvedDocuments);
             if (errorCode != ErrorCode.SUCCESS) {
                 return errorCode;
             }
@@ -593,7 +640,7 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
                         innerCredential = (CredentialPojo) innerCredentialObject;
                     }
                     errorCode = verifyContentInner(
-                        innerCredential, null, offline, weIdPublicKeyId);
+                        innerCredential, null, offline, weIdPublicKeyId, resolvedDocuments);
                     if (errorCode != ErrorCode.SUCCESS) {
                         return errorCode;
                     }
@@ -604,14 +651,16 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
             }
             return ErrorCode.SUCCESS;
         }
-        return verifySingleSignedCredential(credential, publicKey, offline, weIdPublicKeyId);
+        return verifySingleSignedCredential(
+            credential, publicKey, offline, weIdPublicKeyId, resolvedDocuments);
     }
 
     private static ErrorCode verifySingleSignedCredential(
         CredentialPojo credential,
         String publicKey,
         boolean offline,
-        String weIdPublicKeyId
+        String weIdPublicKeyId,
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments
     ) {
         ErrorCode errorCode = verifyCptFormat(
             credential.getCptId(),
@@ -649,7 +698,7 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         if (StringUtils.isEmpty(publicKey)) {
             // Fetch public key from chain
             ResponseData<WeIdDocument> innerResponseData =
-                getWeIdService().getWeIdDocument(issuerWeid);
+                getIssuerWeIdDocument(issuerWeid, resolvedDocuments);
             if (innerResponseData.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
                 logger.error(
                     "Error occurred when fetching WeIdentity DID document for: {}, msg: {}",
@@ -710,10 +759,8 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
                 logger.error(ErrorCode.CREDENTIAL_CPT_NOT_EXISTS.getCodeDesc());
                 return ErrorCode.CREDENTIAL_CPT_NOT_EXISTS;
             }
-            //String cptJsonSchema = JsonUtil.objToJsonStr(cpt.getCptJsonSchema());
-            String cptJsonSchema = DataToolUtils.serialize(cpt.getCptJsonSchema());
-
-            if (!DataToolUtils.isCptJsonSchemaValid(cptJsonSchema)) {
+            JsonSchema cptJsonSchema = DataToolUtils.loadCptJsonSchema(cpt);
+            if (cptJsonSchema == null) {
                 logger.error(ErrorCode.CPT_JSON_SCHEMA_INVALID.getCodeDesc());
                 return ErrorCode.CPT_JSON_SCHEMA_INVALID;
             }
@@ -733,6 +780,26 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         }
     }
 
+    /**
+     * Get the issuer WeID Document, using the already resolved one if provided.
+     *
+     * @param issuerWeId the issuer WeID
+     * @param resolvedDocuments the resolved WeID Documents keyed by WeID, can be null
+     * @return the WeID Document response
+     */
+    private static ResponseData<WeIdDocument> getIssuerWeIdDocument(
+        String issuerWeId,
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments
+    ) {
+        if (resolvedDocuments != null) {
+            ResponseData<WeIdDocument> resolved = resolvedDocuments.get(issuerWeId);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        return getWeIdService().getWeIdDocument(issuerWeId);
+    }
+
     private static ResponseData<Boolean> verifyZkpCredential(CredentialPojo credential) {
 
         Map<String, Object> proof = credential.getProof();
@@ -915,6 +982,14 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         CredentialPojo credential,
         String publicKey,
         String weIdPublicKeyId) {
+        return verifyLiteCredential(credential, publicKey, weIdPublicKeyId, null);
+    }
+
+    private static ResponseData<Boolean> verifyLiteCredential(
+        CredentialPojo credential,
+        String publicKey,
+        String weIdPublicKeyId,
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments) {
         // Lite Credential only contains limited areas (others truncated)
         if (credential.getCptId() == null || credential.getCptId().intValue() < 0) {
             return new ResponseData<>(false, ErrorCode.CPT_ID_ILLEGAL);
@@ -951,7 +1026,7 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         String issuerWeid = credential.getIssuer();
         // Fetch public key from chain
         ResponseData<WeIdDocument> innerResponseData =
-            getWeIdService().getWeIdDocument(issuerWeid);
+            getIssuerWeIdDocument(issuerWeid, resolvedDocuments);
         if (innerResponseData.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
             logger.error(
                 "Error occurred when fetching WeIdentity DID document for: {}, msg: {}",
@@ -1506,6 +1581,145 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
         return new ResponseData<Boolean>(true, ErrorCode.SUCCESS);
     }
 
+    /* (non-Javadoc)
+     * @see com.webank.weid.rpc.CredentialPojoService#batchVerify(java.util.List)
+     */
+    @Override
+    public ResponseData<List<ResponseData<Boolean>>> batchVerify(
+        List<CredentialPojo> credentialList) {
+        return batchVerify(credentialList, getBatchVerifyExecutor());
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.rpc.CredentialPojoService#batchVerify(
+     *          java.util.List,
+     *          java.util.concurrent.ExecutorService
+     *      )
+     */
+    @Override
+    public ResponseData<List<ResponseData<Boolean>>> batchVerify(
+        List<CredentialPojo> credentialList,
+        ExecutorService executor) {
+
+        if (credentialList == null || executor == null) {
+            logger.error("[batchVerify] The input credential list or executor is null.");
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        // Step 1: resolve every distinct issuer WeID Document and CPT only once
+        Set<String> issuers = new LinkedHashSet<>();
+        Set<Integer> cptIds = new HashSet<>();
+        for (CredentialPojo credential : credentialList) {
+            if (credential == null || credential.getType() == null
+                || isZkpCredential(credential)) {
+                continue;
+            }
+            if (WeIdUtils.isWeIdValid(credential.getIssuer())) {
+                issuers.add(credential.getIssuer());
+            }
+            if (credential.getCptId() != null && credential.getCptId() >= 0) {
+                cptIds.add(credential.getCptId());
+            }
+        }
+        List<Future<?>> cptFutures = new ArrayList<>();
+        for (Integer cptId : cptIds) {
+            cptFutures.add(executor.submit(() -> {
+                // Warm up both CPT and compiled json schema caches for the verify step
+                Cpt cpt = getCptService().queryCpt(cptId).getResult();
+                if (cpt != null) {
+                    DataToolUtils.loadCptJsonSchema(cpt);
+                }
+                return null;
+            }));
+        }
+        // The issuers are resolved in one batch while the CPTs are loading, so that the blocks
+        // shared by their event links are fetched only once
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments =
+            resolveIssuerDocuments(new ArrayList<>(issuers));
+        try {
+            for (Future<?> future : cptFutures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Not fatal: the CPT is queried again in the verification using it
+                    logger.error("[batchVerify] query CPT failed.", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.error("[batchVerify] interrupted when resolving issuers.", e);
+            Thread.currentThread().interrupt();
+            return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
+        }
+
+        // Step 2: verify every credential in parallel with the resolved documents
+        List<Future<ResponseData<Boolean>>> verifyFutures = new ArrayList<>();
+        for (CredentialPojo credential : credentialList) {
+            verifyFutures.add(
+                executor.submit(() -> verifyWithResolvedDocuments(credential, resolvedDocuments)));
+        }
+        List<ResponseData<Boolean>> result = new ArrayList<>();
+        for (Future<ResponseData<Boolean>> future : verifyFutures) {
+            try {
+                result.add(future.get());
+            } catch (InterruptedException e) {
+                logger.error("[batchVerify] interrupted when verifying credentials.", e);
+                Thread.currentThread().interrupt();
+                return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
+            } catch (ExecutionException e) {
+                logger.error("[batchVerify] verify credential failed.", e);
+                result.add(new ResponseData<>(false, ErrorCode.UNKNOW_ERROR));
+            }
+        }
+        return new ResponseData<>(result, ErrorCode.SUCCESS);
+    }
+
+    private static Map<String, ResponseData<WeIdDocument>> resolveIssuerDocuments(
+        List<String> issuers) {
+
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments = new HashMap<>();
+        if (issuers.isEmpty()) {
+            return resolvedDocuments;
+        }
+        ResponseData<List<ResponseData<WeIdDocument>>> response;
+        try {
+            response = getWeIdService().getWeIdDocuments(issuers);
+        } catch (Exception e) {
+            logger.error("[batchVerify] resolve issuers failed.", e);
+            response = new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
+        }
+        for (int i = 0; i < issuers.size(); i++) {
+            if (response.getResult() == null) {
+                // Only the credentials of these issuers fail, the others are still verified
+                resolvedDocuments.put(issuers.get(i), new ResponseData<>(null,
+                    ErrorCode.getTypeByErrorCode(response.getErrorCode())));
+            } else {
+                resolvedDocuments.put(issuers.get(i), response.getResult().get(i));
+            }
+        }
+        return resolvedDocuments;
+    }
+
+    private static ResponseData<Boolean> verifyWithResolvedDocuments(
+        CredentialPojo credential,
+        Map<String, ResponseData<WeIdDocument>> resolvedDocuments) {
+
+        if (credential == null) {
+            logger.error("[batchVerify] The input credential is invalid.");
+            return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
+        }
+        if (isZkpCredential(credential)) {
+            return verifyZkpCredential(credential);
+        }
+        if (CredentialPojoUtils.isLiteCredential(credential)) {
+            return verifyLiteCredential(credential, null, null, resolvedDocuments);
+        }
+        ErrorCode errorCode = verifyContent(credential, null, false, null, resolvedDocuments);
+        if (errorCode.getCode() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[batchVerify] credential verify failed. error message :{}", errorCode);
+            return new ResponseData<>(false, errorCode);
+        }
+        return new ResponseData<>(true, ErrorCode.SUCCESS);
+    }
+
     /* (non-Javadoc)
      * @see com.webank.weid.rpc.CredentialPojoService#verify(
      *          com.webank.weid.protocol.base.CredentialPojo,
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.UUID;
 
 import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.abi.datatypes.Address;
 import org.fisco.bcos.web3j.crypto.ECKeyPair;
@@ -435,10 +436,8 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
                 logger.error(ErrorCode.CREDENTIAL_CPT_NOT_EXISTS.getCodeDesc());
                 return ErrorCode.CREDENTIAL_CPT_NOT_EXISTS;
             }
-            //String cptJsonSchema = JsonUtil.objToJsonStr(cpt.getCptJsonSchema());
-            String cptJsonSchema = DataToolUtils.serialize(cpt.getCptJsonSchema());
-
-            if (!DataToolUtils.isCptJsonSchemaValid(cptJsonSchema)) {
+            JsonSchema cptJsonSchema = DataToolUtils.loadCptJsonSchema(cpt);
+            if (cptJsonSchema == null) {
                 logger.error(ErrorCode.CPT_JSON_SCHEMA_INVALID.getCodeDesc());
                 return ErrorCode.CPT_JSON_SCHEMA_INVALID;
             }
@@ -0,0 +1,273 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.service.impl.engine.EvidenceServiceEngine;
+import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * Merges the concurrent single evidence creations of a group into batch transactions, one batch
+ * per signer. A batch is sent once it holds evidence.batch.size hashes, or evidence.batch.interval
+ * milliseconds after its first hash, and the result of each hash is picked out of the batch
+ * receipt for its caller.
+ */
+final class EvidenceBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceBatcher.class);
+
+    /**
+     * the max milliseconds a hash waits for other hashes of the same signer.
+     */
+    private static final String BATCH_INTERVAL_KEY = "evidence.batch.interval";
+
+    /**
+     * the max number of hashes sent in one batch transaction.
+     */
+    private static final String BATCH_SIZE_KEY = "evidence.batch.size";
+
+    private static final int DEFAULT_BATCH_INTERVAL = 10;
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final Map<Integer, EvidenceBatcher> BATCHERS = new ConcurrentHashMap<>();
+
+    /**
+     * only schedules the flushes, the batches are signed and sent by SEND_EXECUTOR so that a slow
+     * send does not hold back the batches of the other signers.
+     */
+    private static final ScheduledExecutorService FLUSH_TIMER =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weid-evidence-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private static final AtomicInteger SEND_THREAD_INDEX = new AtomicInteger();
+
+    private static final ExecutorService SEND_EXECUTOR =
+        Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(
+                runnable, "weid-evidence-batch-send-" + SEND_THREAD_INDEX.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final EvidenceServiceEngine evidenceServiceEngine;
+
+    private final long interval;
+
+    private final int batchSize;
+
+    /**
+     * the batch being filled of each signer, keyed by the private key.
+     */
+    private final Map<String, Batch> pendingBatches = new HashMap<>();
+
+    private EvidenceBatcher(EvidenceServiceEngine evidenceServiceEngine) {
+        this(
+            evidenceServiceEngine,
+            NumberUtils.toInt(
+                PropertyUtils.getProperty(BATCH_INTERVAL_KEY), DEFAULT_BATCH_INTERVAL),
+            NumberUtils.toInt(PropertyUtils.getProperty(BATCH_SIZE_KEY), DEFAULT_BATCH_SIZE));
+    }
+
+    EvidenceBatcher(EvidenceServiceEngine evidenceServiceEngine, long interval, int batchSize) {
+        this.evidenceServiceEngine = evidenceServiceEngine;
+        this.interval = Math.max(1, interval);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Get the batcher of the group, all evidence services of a group share the same batcher.
+     *
+     * @param groupId the group id
+     * @param evidenceServiceEngine the engine used if the batcher is not created yet
+     * @return the batcher of the group
+     */
+    static EvidenceBatcher getInstance(
+        Integer groupId,
+        EvidenceServiceEngine evidenceServiceEngine) {
+
+        return BATCHERS.computeIfAbsent(groupId, id -> new EvidenceBatcher(evidenceServiceEngine));
+    }
+
+    /**
+     * Add a hash to the batch of its signer.
+     *
+     * @param hashValue the hash value to be uploaded
+     * @param signature the signature of the hash
+     * @param log the log of the evidence
+     * @param timestamp the timestamp of the evidence
+     * @param privateKey the private key of the signer
+     * @return the future completed with the hash once the batch receipt arrives
+     */
+    CompletableFuture<ResponseData<String>> submit(
+        String hashValue,
+        String signature,
+        String log,
+        Long timestamp,
+        String privateKey) {
+
+        if (!DataToolUtils.isValidHash(hashValue)) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.ILLEGAL_INPUT));
+        }
+        CompletableFuture<ResponseData<String>> future = new CompletableFuture<>();
+        Batch full = null;
+        synchronized (pendingBatches) {
+            Batch batch = pendingBatches.get(privateKey);
+            if (batch == null) {
+                batch = new Batch(privateKey);
+                pendingBatches.put(privateKey, batch);
+                Batch scheduled = batch;
+                batch.flushTask = FLUSH_TIMER.schedule(
+                    () -> flush(scheduled), interval, TimeUnit.MILLISECONDS);
+            }
+            if (batch.hashValues.contains(hashValue)) {
+                // the same hash can only be created once, as if the calls were sequential
+                return CompletableFuture.completedFuture(new ResponseData<>(
+                    StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS));
+            }
+            batch.hashValues.add(hashValue);
+            batch.signatures.add(signature);
+            batch.logs.add(log);
+            batch.timestamps.add(timestamp);
+            batch.futures.add(future);
+            if (batch.hashValues.size() >= batchSize) {
+                pendingBatches.remove(privateKey);
+                batch.flushTask.cancel(false);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    private void flush(Batch batch) {
+        synchronized (pendingBatches) {
+            if (pendingBatches.get(batch.privateKey) != batch) {
+                // already sent because it is full
+                return;
+            }
+            pendingBatches.remove(batch.privateKey);
+        }
+        SEND_EXECUTOR.execute(() -> send(batch));
+    }
+
+    private void send(Batch batch) {
+        List<String> signers = new ArrayList<>();
+        String signer = DataToolUtils.convertPrivateKeyToDefaultWeId(batch.privateKey);
+        for (int i = 0; i < batch.hashValues.size(); i++) {
+            signers.add(signer);
+        }
+        try {
+            evidenceServiceEngine.batchCreateEvidenceAsync(
+                batch.hashValues,
+                batch.signatures,
+                batch.logs,
+                batch.timestamps,
+                signers,
+                batch.privateKey
+            ).whenComplete((resp, e) -> {
+                if (e != null) {
+                    logger.error("[EvidenceBatcher] create evidence batch failed. ", e);
+                    complete(batch, new ResponseData<>(null,
+                        ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR));
+                } else {
+                    complete(batch, resp);
+                }
+            });
+        } catch (WeIdBaseException e) {
+            logger.error("[EvidenceBatcher] create evidence batch failed. ", e);
+            complete(batch, new ResponseData<>(null, e.getErrorCode()));
+        } catch (Exception e) {
+            logger.error("[EvidenceBatcher] create evidence batch failed. ", e);
+            complete(batch, new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR));
+        }
+    }
+
+    private static void complete(Batch batch, ResponseData<List<Boolean>> resp) {
+        List<Boolean> result = resp.getResult();
+        boolean isSuccess = resp.getErrorCode() == ErrorCode.SUCCESS.getCode();
+        for (int i = 0; i < batch.futures.size(); i++) {
+            if (!isSuccess) {
+                batch.futures.get(i).complete(new ResponseData<>(StringUtils.EMPTY,
+                    ErrorCode.getTypeByErrorCode(resp.getErrorCode()),
+                    resp.getTransactionInfo()));
+            } else if (result != null && i < result.size() && result.get(i)) {
+                batch.futures.get(i).complete(new ResponseData<>(batch.hashValues.get(i),
+                    ErrorCode.SUCCESS, resp.getTransactionInfo()));
+            } else {
+                // not created by this batch, the same as a single call without its event
+                batch.futures.get(i).complete(new ResponseData<>(StringUtils.EMPTY,
+                    ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT,
+                    resp.getTransactionInfo()));
+            }
+        }
+    }
+
+    /**
+     * The hashes of one signer sent in one transaction.
+     */
+    private static final class Batch {
+
+        private final String privateKey;
+
+        private final List<String> hashValues = new ArrayList<>();
+
+        private final List<String> signatures = new ArrayList<>();
+
+        private final List<String> logs = new ArrayList<>();
+
+        private final List<Long> timestamps = new ArrayList<>();
+
+        private final List<CompletableFuture<ResponseData<String>>> futures = new ArrayList<>();
+
+        private ScheduledFuture<?> flushTask;
+
+        private Batch(String privateKey) {
+            this.privateKey = privateKey;
+        }
+    }
+}
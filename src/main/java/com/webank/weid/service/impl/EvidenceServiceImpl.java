@@ -25,6 +25,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.common.base.Charsets;
 import com.google.common.io.Files;
@@ -73,6 +74,8 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
 
     private Integer groupId;
 
+    private EvidenceBatcher evidenceBatcher;
+
     public EvidenceServiceImpl() {
         super();
         initEvidenceServiceEngine(masterGroupId);
@@ -93,6 +96,9 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
     private void initEvidenceServiceEngine(Integer groupId) {
         evidenceServiceEngine = EngineFactory.createEvidenceServiceEngine(groupId);
         this.groupId = groupId;
+        if (processingMode == ProcessingMode.MICRO_BATCH) {
+            evidenceBatcher = EvidenceBatcher.getInstance(groupId, evidenceServiceEngine);
+        }
     }
 
     @Override
@@ -177,6 +183,55 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
             StringUtils.EMPTY);
     }
 
+    /**
+     * Create a new evidence to the blockchain without blocking on the transaction receipt. In
+     * PERIODIC_AND_BATCH mode the evidence is only written to the batch file, so the returned
+     * future is already completed.
+     *
+     * @param object the given Java object
+     * @param weIdPrivateKey the caller WeID Authentication
+     * @return the future of the evidence address
+     */
+    @Override
+    public CompletableFuture<ResponseData<String>> createEvidenceAsync(
+        Hashable object,
+        WeIdPrivateKey weIdPrivateKey) {
+
+        ResponseData<String> hashResp = getHashValue(object);
+        if (StringUtils.isEmpty(hashResp.getResult())) {
+            return CompletableFuture.completedFuture(new ResponseData<>(StringUtils.EMPTY,
+                hashResp.getErrorCode(), hashResp.getErrorMessage()));
+        }
+        if (!WeIdUtils.isPrivateKeyValid(weIdPrivateKey)) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_PRIVATEKEY_INVALID));
+        }
+        String hashValue = hashResp.getResult();
+        String privateKey = weIdPrivateKey.getPrivateKey();
+        if (processingMode == ProcessingMode.PERIODIC_AND_BATCH) {
+            return CompletableFuture.completedFuture(
+                hashToNewEvidence(hashValue, privateKey, StringUtils.EMPTY));
+        }
+        try {
+            String signature = DataToolUtils.secp256k1Sign(hashValue, new BigInteger(privateKey));
+            if (processingMode == ProcessingMode.MICRO_BATCH) {
+                return evidenceBatcher.submit(hashValue, signature, StringUtils.EMPTY,
+                    DateUtils.getCurrentTimeStamp(), privateKey);
+            }
+            return evidenceServiceEngine.createEvidenceAsync(
+                hashValue,
+                signature,
+                StringUtils.EMPTY,
+                DateUtils.getCurrentTimeStamp(),
+                privateKey
+            );
+        } catch (Exception e) {
+            logger.error("create evidence failed due to system error. ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR));
+        }
+    }
+
     /**
      * Create a new evidence to blockchain and return the hash value, with appending log. This will
      * fail if evidence already exists.
@@ -504,6 +559,12 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
                 }
             }
 
+            if (processingMode == ProcessingMode.MICRO_BATCH) {
+                return evidenceBatcher
+                    .submit(hashValue, signature, extra, timestamp, privateKey)
+                    .get();
+            }
+
             return evidenceServiceEngine.createEvidence(
                 hashValue,
                 signature,
@@ -511,6 +572,10 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
                 timestamp,
                 privateKey
             );
+        } catch (InterruptedException e) {
+            logger.error("create evidence interrupted while waiting for the batch. ", e);
+            Thread.currentThread().interrupt();
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         } catch (Exception e) {
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
@@ -23,6 +23,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -159,6 +160,76 @@ public class WeIdServiceImpl extends AbstractService implements WeIdService {
         }
     }
 
+    /**
+     * Create a WeIdentity DID without blocking on the transaction receipt. Input checks and the
+     * existence query run on the caller thread, the returned future completes once the receipt
+     * arrives.
+     *
+     * @param createWeIdArgs the create WeIdentity DID args
+     * @return the future of the response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<String>> createWeIdAsync(
+        CreateWeIdArgs createWeIdArgs) {
+
+        if (createWeIdArgs == null) {
+            logger.error("[createWeIdAsync]: input parameter createWeIdArgs is null.");
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.ILLEGAL_INPUT));
+        }
+        if (!WeIdUtils.isPrivateKeyValid(createWeIdArgs.getWeIdPrivateKey()) || !WeIdUtils
+            .isPrivateKeyLengthValid(createWeIdArgs.getWeIdPrivateKey().getPrivateKey())) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_PRIVATEKEY_INVALID));
+        }
+        String privateKey = createWeIdArgs.getWeIdPrivateKey().getPrivateKey();
+        String publicKey = createWeIdArgs.getPublicKey();
+        if (StringUtils.isBlank(publicKey)) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_PUBLICKEY_INVALID));
+        }
+        if (!WeIdUtils.isKeypairMatch(privateKey, publicKey)) {
+            return CompletableFuture.completedFuture(new ResponseData<>(
+                StringUtils.EMPTY,
+                ErrorCode.WEID_PUBLICKEY_AND_PRIVATEKEY_NOT_MATCHED
+            ));
+        }
+        String weId = WeIdUtils.convertPublicKeyToWeId(publicKey);
+        ResponseData<Boolean> isWeIdExistResp = this.isWeIdExist(weId);
+        if (isWeIdExistResp.getResult() == null || isWeIdExistResp.getResult()) {
+            logger.error("[createWeIdAsync]: create weid failed, the weid :{} is already exist",
+                weId);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_ALREADY_EXIST));
+        }
+        CompletableFuture<ResponseData<Boolean>> innerFuture;
+        try {
+            innerFuture = weIdServiceEngine.createWeIdAsync(
+                WeIdUtils.convertWeIdToAddress(weId), publicKey, privateKey, false);
+        } catch (PrivateKeyIllegalException | LoadContractException e) {
+            logger.error("[createWeIdAsync] create weid failed. ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, e.getErrorCode()));
+        } catch (Exception e) {
+            logger.error("[createWeIdAsync] create weid failed with exception. ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(StringUtils.EMPTY, ErrorCode.UNKNOW_ERROR));
+        }
+        return innerFuture.thenApply(innerResp -> {
+            ErrorCode errorCode = ErrorCode.getTypeByErrorCode(innerResp.getErrorCode());
+            if (errorCode != ErrorCode.SUCCESS) {
+                logger.error(
+                    "[createWeIdAsync]: create weid failed. error message is :{}, public key is {}",
+                    innerResp.getErrorMessage(),
+                    publicKey
+                );
+                return new ResponseData<>(StringUtils.EMPTY, errorCode,
+                    innerResp.getTransactionInfo());
+            }
+            return new ResponseData<>(weId, errorCode, innerResp.getTransactionInfo());
+        });
+    }
+
     /**
      * Get a WeIdentity DID Document.
      *
@@ -176,6 +247,50 @@ public class WeIdServiceImpl extends AbstractService implements WeIdService {
         return weIdDocResp;
     }
 
+    /**
+     * Get WeIdentity DID Documents in batch.
+     *
+     * @param weIdList the WeIdentity DID list
+     * @return the WeIdentity DID documents, in the same order as the input
+     */
+    @Override
+    public ResponseData<List<ResponseData<WeIdDocument>>> getWeIdDocuments(
+        List<String> weIdList) {
+
+        if (weIdList == null || weIdList.isEmpty()) {
+            logger.error("[getWeIdDocuments] input weId list is empty.");
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        List<String> validWeIdList = new ArrayList<>();
+        for (String weId : weIdList) {
+            if (WeIdUtils.isWeIdValid(weId)) {
+                validWeIdList.add(weId);
+            } else {
+                logger.error("Input weId : {} is invalid.", weId);
+            }
+        }
+        List<ResponseData<WeIdDocument>> validResults = new ArrayList<>();
+        if (!validWeIdList.isEmpty()) {
+            ResponseData<List<ResponseData<WeIdDocument>>> resp =
+                weIdServiceEngine.getWeIdDocuments(validWeIdList);
+            if (resp.getResult() == null) {
+                return new ResponseData<>(null,
+                    ErrorCode.getTypeByErrorCode(resp.getErrorCode()));
+            }
+            validResults = resp.getResult();
+        }
+        List<ResponseData<WeIdDocument>> result = new ArrayList<>();
+        int index = 0;
+        for (String weId : weIdList) {
+            if (WeIdUtils.isWeIdValid(weId)) {
+                result.add(validResults.get(index++));
+            } else {
+                result.add(new ResponseData<>(null, ErrorCode.WEID_INVALID));
+            }
+        }
+        return new ResponseData<>(result, ErrorCode.SUCCESS);
+    }
+
     /**
      * Get a WeIdentity DID Document Json.
      *
@@ -431,6 +546,65 @@ public class WeIdServiceImpl extends AbstractService implements WeIdService {
 
     }
 
+    /**
+     * Set service properties without blocking on the transaction receipt.
+     *
+     * @param weId the WeID to set service to
+     * @param serviceArgs your service name and endpoint
+     * @param privateKey the private key
+     * @return the future of the "set" operation result
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> setServiceAsync(String weId,
+        ServiceArgs serviceArgs, WeIdPrivateKey privateKey) {
+        if (!verifyServiceArgs(serviceArgs)) {
+            logger.error("[setServiceAsync]: input parameter setServiceArgs is illegal.");
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT));
+        }
+        if (!WeIdUtils.isPrivateKeyValid(privateKey)) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_INVALID));
+        }
+        if (!verifyServiceType(serviceArgs.getType())) {
+            logger.error("[setServiceAsync]: the length of service type is overlimit");
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.WEID_SERVICE_TYPE_OVERLIMIT));
+        }
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            logger.error("[setServiceAsync] set service failed, weid -->{} is invalid.", weId);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.WEID_INVALID));
+        }
+        ResponseData<Boolean> isWeIdExistResp = this.isWeIdExist(weId);
+        if (isWeIdExistResp.getResult() == null || !isWeIdExistResp.getResult()) {
+            logger.error("[setServiceAsync]: failed, the weid :{} does not exist", weId);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.WEID_DOES_NOT_EXIST));
+        }
+        // Service type is defined in key hence use the old slash identifier
+        String attributeKey = new StringBuffer()
+            .append(WeIdConstant.WEID_DOC_SERVICE_PREFIX)
+            .append("/")
+            .append(serviceArgs.getType())
+            .toString();
+        try {
+            return weIdServiceEngine.setAttributeAsync(
+                WeIdUtils.convertWeIdToAddress(weId),
+                attributeKey,
+                serviceArgs.getServiceEndpoint(),
+                privateKey.getPrivateKey(),
+                false);
+        } catch (PrivateKeyIllegalException | LoadContractException e) {
+            logger.error("[setServiceAsync] set service failed. ", e);
+            return CompletableFuture.completedFuture(new ResponseData<>(false, e.getErrorCode()));
+        } catch (Exception e) {
+            logger.error("[setServiceAsync] set service failed with exception. ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.UNKNOW_ERROR));
+        }
+    }
+
     /**
      * Check if WeIdentity DID exists on Chain.
      *
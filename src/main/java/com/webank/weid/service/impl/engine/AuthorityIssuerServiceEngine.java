@@ -20,6 +20,7 @@
 package com.webank.weid.service.impl.engine;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.weid.protocol.base.AuthorityIssuer;
 import com.webank.weid.protocol.base.IssuerType;
@@ -43,6 +44,15 @@ public interface AuthorityIssuerServiceEngine extends ReloadStaticContract {
      */
     public ResponseData<Boolean> addAuthorityIssuer(RegisterAuthorityIssuerArgs args);
 
+    /**
+     * call authority issuer contract method to add an authority issuer without blocking the caller.
+     *
+     * @param args parameters
+     * @return the future of the result
+     */
+    public CompletableFuture<ResponseData<Boolean>> addAuthorityIssuerAsync(
+        RegisterAuthorityIssuerArgs args);
+
     /**
      * call authority issuer contract method to remove an authority issuer.
      *
@@ -19,20 +19,111 @@
 
 package com.webank.weid.service.impl.engine;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+import org.fisco.bcos.channel.client.TransactionSucCallback;
+import org.fisco.bcos.web3j.crypto.Credentials;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BlockTransactionReceipts;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.constant.WeIdConstant;
 import com.webank.weid.exception.LoadContractException;
+import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.service.BaseService;
+import com.webank.weid.suite.cache.CacheManager;
+import com.webank.weid.suite.cache.CacheNode;
+import com.webank.weid.util.DataToolUtils;
 
 public abstract class BaseEngine extends BaseService {
 
     private static final Logger logger = LoggerFactory.getLogger(BaseEngine.class);
+
+    /**
+     * Receipts of committed blocks never change, so they are shared by all the engines and
+     * bounded by their estimated serialized size, since block sizes vary a lot.
+     */
+    private static CacheNode<BlockTransactionReceipts> blockReceiptsCacheNode =
+        CacheManager.registerWeighedCacheNode(
+            "SYS_BLOCK_RECEIPTS", 1000 * 3600 * 24L, BaseEngine::weighBlockReceipts);
+
+    /**
+     * The estimated size of the numeric fields and json field names of a receipt.
+     */
+    private static final int RECEIPT_FIXED_SIZE = 512;
+
+    /**
+     * Credentials derived from the private keys of the signers, keyed by the hash of the
+     * private key, so the EC point multiplication runs once per signer.
+     */
+    private static CacheNode<Object> credentialsCacheNode =
+        CacheManager.registerCacheNode("SYS_CREDENTIALS", 1000 * 3600 * 24L);
+
+    /**
+     * Contract wrappers loaded for the signers, keyed by group, contract and signer address.
+     */
+    private static CacheNode<Object> contractCacheNode =
+        CacheManager.registerCacheNode("SYS_SIGNER_CONTRACT", 1000 * 3600 * 24L);
+
+    /**
+     * The static load method handle of each contract wrapper class.
+     */
+    private static final Map<Class<?>, MethodHandle> LOADERS = new ConcurrentHashMap<>();
+
+    /**
+     * Fails the async transactions whose receipts do not arrive in time.
+     */
+    private static final ScheduledExecutorService RECEIPT_TIMER =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weid-receipt-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * The pending receipts waiting to be processed, beyond which the receipts are processed on
+     * the thread delivering them.
+     */
+    private static final int ASYNC_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Processes the receipts of the async transactions. It is not the web3sdk thread pool, whose
+     * AbortPolicy would fail the future when the pool is busy, and it runs the task on the
+     * caller when its own queue is full.
+     */
+    private static final ThreadPoolExecutor ASYNC_EXECUTOR = new ThreadPoolExecutor(
+        Runtime.getRuntime().availableProcessors(),
+        Runtime.getRuntime().availableProcessors(),
+        0L,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(ASYNC_QUEUE_CAPACITY),
+        runnable -> {
+            Thread thread = new Thread(runnable, "weid-async-receipt");
+            thread.setDaemon(true);
+            return thread;
+        },
+        new ThreadPoolExecutor.CallerRunsPolicy()
+    );
     
     public BaseEngine() {
         super();
@@ -45,31 +136,40 @@ public abstract class BaseEngine extends BaseService {
     private <T> T loadContract(
         String contractAddress,
         Object credentials,
-        Class<T> cls) throws NoSuchMethodException, IllegalAccessException,
-        InvocationTargetException {
-        Object contract;
-        Method method = cls.getMethod(
-            "load",
+        Class<T> cls) throws Throwable {
+        MethodHandle loader = LOADERS.computeIfAbsent(cls, c -> findLoader(c, credentials));
+        Object contract = loader.invoke(
+            contractAddress,
+            weServer.getWeb3j(),
+            credentials,
+            WeIdConstant.GAS_PRICE,
+            WeIdConstant.GAS_LIMIT
+        );
+        return cls.cast(contract);
+    }
+
+    /**
+     * Find the static load method of the contract wrapper, which is resolved once per class.
+     */
+    private MethodHandle findLoader(Class<?> cls, Object credentials) {
+        MethodType methodType = MethodType.methodType(
+            cls,
             String.class,
             getWeb3jClass(),
             credentials.getClass(),
             BigInteger.class,
             BigInteger.class
         );
-        Object obj = weServer.getWeb3j();
-        contract = method.invoke(
-            null,
-            contractAddress,
-            obj,
-            credentials,
-            WeIdConstant.GAS_PRICE,
-            WeIdConstant.GAS_LIMIT
-        );
-        return (T) contract;
+        try {
+            return MethodHandles.publicLookup().findStatic(cls, "load", methodType);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new LoadContractException(e);
+        }
     }
 
     /**
-     * Reload contract.
+     * Reload contract with the signer of the private key. The credentials are derived once per
+     * private key and the contract is loaded once per group, contract and signer.
      *
      * @param contractAddress the contract address
      * @param privateKey the privateKey of the sender
@@ -84,9 +184,23 @@ public abstract class BaseEngine extends BaseService {
 
         T contract = null;
         try {
-            // load contract
-            contract = loadContract(contractAddress, weServer.createCredentials(privateKey), cls);
-            logger.info(cls.getSimpleName() + " init succ");
+            Credentials credentials = (Credentials) credentialsCacheNode.get(
+                DataToolUtils.sha3(privateKey), k -> weServer.createCredentials(privateKey));
+            String key = groupId + "-" + cls.getName() + "-" + contractAddress + "-"
+                + credentials.getAddress();
+            contract = cls.cast(contractCacheNode.get(key, k -> {
+                try {
+                    Object loaded = loadContract(contractAddress, credentials, cls);
+                    logger.info(cls.getSimpleName() + " init succ");
+                    return loaded;
+                } catch (Throwable e) {
+                    throw new LoadContractException(e);
+                }
+            }));
+        } catch (LoadContractException e) {
+            logger.error("load contract :{} failed. Error message is :{}",
+                cls.getSimpleName(), e.getMessage(), e);
+            throw e;
         } catch (Exception e) {
             logger.error("load contract :{} failed. Error message is :{}",
                 cls.getSimpleName(), e.getMessage(), e);
@@ -114,11 +228,11 @@ public abstract class BaseEngine extends BaseService {
             contract = loadContract(contractAddress, weServer.getCredentials(), cls);
             logger.info(cls.getSimpleName() + " init succ");
 
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+        } catch (LoadContractException e) {
             logger.error("load contract :{} failed. Error message is :{}",
                 cls.getSimpleName(), e.getMessage(), e);
-            throw new LoadContractException(e);
-        } catch (Exception e) {
+            throw e;
+        } catch (Throwable e) {
             logger.error("load contract Exception:{} failed. Error message is :{}",
                 cls.getSimpleName(), e.getMessage(), e);
             throw new LoadContractException(e);
@@ -129,4 +243,132 @@ public abstract class BaseEngine extends BaseService {
         }
         return contract;
     }
+
+    /**
+     * Send a transaction without blocking the caller. The future completes with the receipt in
+     * the web3sdk callback, or with a TimeoutException when the receipt does not arrive in
+     * TRANSACTION_RECEIPT_TIMEOUT seconds.
+     *
+     * @param sender sends the transaction through the callback overload of the contract
+     * @return the future of the transaction receipt
+     */
+    protected static CompletableFuture<TransactionReceipt> sendAsync(
+        Consumer<TransactionSucCallback> sender) {
+
+        CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        try {
+            sender.accept(new TransactionSucCallback() {
+                @Override
+                public void onResponse(TransactionReceipt receipt) {
+                    future.complete(receipt);
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        ScheduledFuture<?> timeout = RECEIPT_TIMER.schedule(
+            () -> future.completeExceptionally(
+                new TimeoutException("the transaction receipt is timeout.")),
+            WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT,
+            TimeUnit.SECONDS
+        );
+        future.whenComplete((receipt, e) -> timeout.cancel(false));
+        return future;
+    }
+
+    /**
+     * Gets the executor processing the receipts of the async transactions.
+     *
+     * @return the executor
+     */
+    protected static Executor getAsyncExecutor() {
+        return ASYNC_EXECUTOR;
+    }
+
+    /**
+     * Map the failure of an async transaction to the error code.
+     *
+     * @param method the method name for logging
+     * @param e the failure
+     * @param errorCode the error code the synchronous method returns on an exception
+     * @return TRANSACTION_TIMEOUT if the receipt is timeout, otherwise the given error code
+     */
+    protected static ErrorCode toErrorCode(String method, Throwable e, ErrorCode errorCode) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null
+            ? e.getCause() : e;
+        logger.error("[{}] the async transaction failed.", method, cause);
+        if (cause instanceof TimeoutException) {
+            return ErrorCode.TRANSACTION_TIMEOUT;
+        }
+        return errorCode;
+    }
+
+    /**
+     * Get the transaction receipts of a block from the shared cache, a miss is loaded from the
+     * chain only once no matter how many threads are asking for the same block.
+     *
+     * @param groupId the group id of the chain
+     * @param blockNumber the block number
+     * @return the block transaction receipts
+     */
+    protected static BlockTransactionReceipts getBlockTransactionReceipts(
+        Integer groupId,
+        int blockNumber) {
+
+        Integer chainGroupId = groupId == null ? masterGroupId : groupId;
+        String key = chainGroupId + "-" + blockNumber;
+        return blockReceiptsCacheNode.get(key, k -> {
+            BlockTransactionReceipts receipts;
+            try {
+                receipts = ((Web3j) getWeb3j(chainGroupId))
+                    .getBlockTransactionReceipts(BigInteger.valueOf(blockNumber)).send();
+            } catch (Exception e) {
+                logger.error("[getBlockTransactionReceipts] get block {} of group {} failed.",
+                    blockNumber, chainGroupId, e);
+                throw new WeIdBaseException("get the transactionReceipts failed.", e);
+            }
+            if (receipts == null || receipts.getBlockTransactionReceipts() == null) {
+                logger.info("[getBlockTransactionReceipts] get block {} of group {} is null.",
+                    blockNumber, chainGroupId);
+                throw new WeIdBaseException("the transactionReceipts is null.");
+            }
+            return receipts;
+        });
+    }
+
+    /**
+     * Estimate the serialized size in bytes of the block receipts, counting the hex encoded
+     * fields which dominate the payload.
+     *
+     * @param key the cache key
+     * @param receipts the block transaction receipts
+     * @return the estimated size in bytes
+     */
+    private static int weighBlockReceipts(String key, BlockTransactionReceipts receipts) {
+        long size = key.length();
+        for (TransactionReceipt receipt : receipts.getBlockTransactionReceipts()
+            .getTransactionReceipts()) {
+            size += lengthOf(receipt.getTransactionHash())
+                + lengthOf(receipt.getBlockHash())
+                + lengthOf(receipt.getFrom())
+                + lengthOf(receipt.getTo())
+                + lengthOf(receipt.getInput())
+                + lengthOf(receipt.getOutput())
+                + lengthOf(receipt.getLogsBloom())
+                + lengthOf(receipt.getContractAddress())
+                + RECEIPT_FIXED_SIZE;
+            for (Log log : receipt.getLogs()) {
+                size += lengthOf(log.getData()) + lengthOf(log.getAddress());
+                for (String topic : log.getTopics()) {
+                    size += lengthOf(topic);
+                }
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static int lengthOf(String value) {
+        return value == null ? 0 : value.length();
+    }
 }
@@ -20,6 +20,7 @@
 package com.webank.weid.service.impl.engine;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.wedpr.selectivedisclosure.CredentialTemplateEntity;
 
@@ -95,6 +96,24 @@ public interface CptServiceEngine extends ReloadStaticContract {
         int dataStorageIndex
     );
 
+    /**
+     * call cpt contract to register cpt without blocking the caller.
+     *
+     * @param address publisher's address
+     * @param cptJsonSchemaNew cpt content
+     * @param rsvSignature signature
+     * @param privateKey private key
+     * @param dataStorageIndex 0 is cpt, 1 is policy
+     * @return the future of the result
+     */
+    CompletableFuture<ResponseData<CptBaseInfo>> registerCptAsync(
+        String address,
+        String cptJsonSchemaNew,
+        RsvSignature rsvSignature,
+        String privateKey,
+        int dataStorageIndex
+    );
+
     /**
      * call cpt contract method to query cpt info from blockchain.
      *
@@ -20,6 +20,7 @@
 package com.webank.weid.service.impl.engine;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.weid.protocol.base.EvidenceInfo;
 import com.webank.weid.protocol.response.ResponseData;
@@ -34,6 +35,14 @@ public interface EvidenceServiceEngine {
         String privateKey
     );
 
+    CompletableFuture<ResponseData<String>> createEvidenceAsync(
+        String hashValue,
+        String signature,
+        String log,
+        Long timestamp,
+        String privateKey
+    );
+
     ResponseData<List<Boolean>> batchCreateEvidence(
         List<String> hashValues,
         List<String> signatures,
@@ -43,6 +52,15 @@ public interface EvidenceServiceEngine {
         String privateKey
     );
 
+    CompletableFuture<ResponseData<List<Boolean>>> batchCreateEvidenceAsync(
+        List<String> hashValues,
+        List<String> signatures,
+        List<String> logs,
+        List<Long> timestamp,
+        List<String> signers,
+        String privateKey
+    );
+
     ResponseData<Boolean> addLog(
         String hashValue,
         String sig,
@@ -20,6 +20,7 @@
 package com.webank.weid.service.impl.engine;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.webank.weid.protocol.base.WeIdDocument;
 import com.webank.weid.protocol.base.WeIdPojo;
@@ -67,6 +68,40 @@ public interface WeIdServiceEngine extends ReloadStaticContract {
         boolean isDelegate
     );
 
+    /**
+     * call weid contract to create a new weid without blocking the caller.
+     *
+     * @param weAddress identity on blockchain
+     * @param publicKey public key of the identity
+     * @param privateKey privateKey identity's private key
+     * @param isDelegate true if the caller is a delegate
+     * @return the future of the result
+     */
+    CompletableFuture<ResponseData<Boolean>> createWeIdAsync(
+        String weAddress,
+        String publicKey,
+        String privateKey,
+        boolean isDelegate
+    );
+
+    /**
+     * write attribute to blockchain without blocking the caller.
+     *
+     * @param weAddress identity on blockchain
+     * @param attributeKey the key of the attribute
+     * @param value the value of the attribute
+     * @param privateKey identity's private key
+     * @param isDelegate true if the caller is a delegate
+     * @return the future of the result
+     */
+    CompletableFuture<ResponseData<Boolean>> setAttributeAsync(
+        String weAddress,
+        String attributeKey,
+        String value,
+        String privateKey,
+        boolean isDelegate
+    );
+
     /**
      * check if the weid exists on blockchain.
      *
@@ -83,6 +118,14 @@ public interface WeIdServiceEngine extends ReloadStaticContract {
      */
     ResponseData<WeIdDocument> getWeIdDocument(String weId);
 
+    /**
+     * get weid documents from blockchain in one pass, each block is fetched only once.
+     *
+     * @param weIdList the entities' weid list
+     * @return weid document of each weid, in the same order as the input
+     */
+    ResponseData<List<ResponseData<WeIdDocument>>> getWeIdDocuments(List<String> weIdList);
+
     /**
      * query data according to block height, index location and search direction.
      * 
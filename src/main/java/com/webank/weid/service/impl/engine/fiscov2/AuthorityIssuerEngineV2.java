@@ -22,6 +22,7 @@ package com.webank.weid.service.impl.engine.fiscov2;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.abi.datatypes.Address;
@@ -106,6 +107,60 @@ public class AuthorityIssuerEngineV2 extends BaseEngine implements AuthorityIssu
     public ResponseData<Boolean> addAuthorityIssuer(RegisterAuthorityIssuerArgs args) {
         AuthorityIssuer authorityIssuer = args.getAuthorityIssuer();
         String weAddress = WeIdUtils.convertWeIdToAddress(authorityIssuer.getWeId());
+        try {
+            AuthorityIssuerController authorityIssuerController = reloadContract(
+                fiscoConfig.getIssuerAddress(),
+                args.getWeIdPrivateKey().getPrivateKey(),
+                AuthorityIssuerController.class);
+
+            TransactionReceipt receipt = authorityIssuerController.addAuthorityIssuer(
+                weAddress,
+                buildStringAttributes(authorityIssuer),
+                buildLongAttributes(authorityIssuer),
+                authorityIssuer.getAccValue().getBytes()
+            ).send();
+            return processAddAuthorityIssuerReceipt(receipt);
+        } catch (Exception e) {
+            logger.error("register authority issuer failed.", e);
+            return new ResponseData<>(Boolean.FALSE, ErrorCode.AUTHORITY_ISSUER_ERROR);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.service.impl.engine.AuthorityIssuerServiceEngine
+     * #addAuthorityIssuerAsync(com.webank.weid.protocol.request.RegisterAuthorityIssuerArgs)
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> addAuthorityIssuerAsync(
+        RegisterAuthorityIssuerArgs args) {
+
+        try {
+            AuthorityIssuer authorityIssuer = args.getAuthorityIssuer();
+            String weAddress = WeIdUtils.convertWeIdToAddress(authorityIssuer.getWeId());
+            List<byte[]> stringAttributes = buildStringAttributes(authorityIssuer);
+            List<BigInteger> longAttributes = buildLongAttributes(authorityIssuer);
+            AuthorityIssuerController authorityIssuerController = reloadContract(
+                fiscoConfig.getIssuerAddress(),
+                args.getWeIdPrivateKey().getPrivateKey(),
+                AuthorityIssuerController.class);
+            return sendAsync(callback -> authorityIssuerController.addAuthorityIssuer(
+                weAddress,
+                stringAttributes,
+                longAttributes,
+                authorityIssuer.getAccValue().getBytes(),
+                callback
+            )).thenApplyAsync(
+                this::processAddAuthorityIssuerReceipt,
+                getAsyncExecutor()
+            ).exceptionally(e -> new ResponseData<>(Boolean.FALSE, toErrorCode(
+                "addAuthorityIssuerAsync", e, ErrorCode.AUTHORITY_ISSUER_ERROR)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new ResponseData<>(Boolean.FALSE, toErrorCode(
+                "addAuthorityIssuerAsync", e, ErrorCode.AUTHORITY_ISSUER_ERROR)));
+        }
+    }
+
+    private List<byte[]> buildStringAttributes(AuthorityIssuer authorityIssuer) {
         List<byte[]> stringAttributes = new ArrayList<byte[]>();
         stringAttributes.add(authorityIssuer.getName().getBytes());
         if (!StringUtils.isEmpty(authorityIssuer.getDescription())) {
@@ -115,6 +170,13 @@ public class AuthorityIssuerEngineV2 extends BaseEngine implements AuthorityIssu
         for (int index = 0; index < extraStr32s.size(); index++) {
             stringAttributes.add(extraStr32s.get(index).getBytes());
         }
+        return DataToolUtils.bytesArrayListToBytes32ArrayList(
+            stringAttributes,
+            WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
+        );
+    }
+
+    private List<BigInteger> buildLongAttributes(AuthorityIssuer authorityIssuer) {
         List<BigInteger> longAttributes = new ArrayList<>();
         Long createDate = DateUtils.getNoMillisecondTimeStamp();
         longAttributes.add(BigInteger.valueOf(createDate));
@@ -124,34 +186,19 @@ public class AuthorityIssuerEngineV2 extends BaseEngine implements AuthorityIssu
         for (int index = 0; index < extraInts.size(); index++) {
             longAttributes.add(BigInteger.valueOf(extraInts.get(index)));
         }
-        try {
-            AuthorityIssuerController authorityIssuerController = reloadContract(
-                fiscoConfig.getIssuerAddress(),
-                args.getWeIdPrivateKey().getPrivateKey(),
-                AuthorityIssuerController.class);
+        return DataToolUtils.listToListBigInteger(
+            longAttributes,
+            WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
+        );
+    }
 
-            TransactionReceipt receipt = authorityIssuerController.addAuthorityIssuer(
-                weAddress,
-                DataToolUtils.bytesArrayListToBytes32ArrayList(
-                    stringAttributes,
-                    WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
-                ),
-                DataToolUtils.listToListBigInteger(
-                    longAttributes,
-                    WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
-                ),
-                authorityIssuer.getAccValue().getBytes()
-            ).send();
-            ErrorCode errorCode = resolveRegisterAuthorityIssuerEvents(receipt);
-            TransactionInfo info = new TransactionInfo(receipt);
-            if (errorCode.equals(ErrorCode.SUCCESS)) {
-                return new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS, info);
-            } else {
-                return new ResponseData<>(Boolean.FALSE, errorCode, info);
-            }
-        } catch (Exception e) {
-            logger.error("register authority issuer failed.", e);
-            return new ResponseData<>(Boolean.FALSE, ErrorCode.AUTHORITY_ISSUER_ERROR);
+    private ResponseData<Boolean> processAddAuthorityIssuerReceipt(TransactionReceipt receipt) {
+        ErrorCode errorCode = resolveRegisterAuthorityIssuerEvents(receipt);
+        TransactionInfo info = new TransactionInfo(receipt);
+        if (errorCode.equals(ErrorCode.SUCCESS)) {
+            return new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS, info);
+        } else {
+            return new ResponseData<>(Boolean.FALSE, errorCode, info);
         }
     }
 
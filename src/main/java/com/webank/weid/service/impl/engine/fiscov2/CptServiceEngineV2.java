@@ -19,15 +19,14 @@
 
 package com.webank.weid.service.impl.engine.fiscov2;
 
-import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import com.webank.wedpr.selectivedisclosure.CredentialTemplateEntity;
 import com.webank.wedpr.selectivedisclosure.IssuerClient;
@@ -39,12 +38,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.abi.EventEncoder;
 import org.fisco.bcos.web3j.crypto.Sign;
-import org.fisco.bcos.web3j.protocol.Web3j;
-import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameterNumber;
-import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
-import org.fisco.bcos.web3j.protocol.core.methods.response.BcosTransactionReceipt;
 import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
-import org.fisco.bcos.web3j.protocol.core.methods.response.Transaction;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.fisco.bcos.web3j.tuples.generated.Tuple2;
 import org.fisco.bcos.web3j.tuples.generated.Tuple7;
@@ -337,27 +331,88 @@ public class CptServiceEngineV2 extends BaseEngine implements CptServiceEngine {
         }
     }
 
+    /* (non-Javadoc)
+     * @see com.webank.weid.service.impl.engine.CptServiceEngine
+     * #registerCptAsync(java.lang.String, java.lang.String,
+     * com.webank.weid.protocol.response.RsvSignature, java.lang.String, int)
+     */
+    @Override
+    public CompletableFuture<ResponseData<CptBaseInfo>> registerCptAsync(
+        String address,
+        String cptJsonSchemaNew,
+        RsvSignature rsvSignature,
+        String privateKey,
+        int dataStorageIndex) {
+
+        try {
+            CptController cptController =
+                reloadContract(fiscoConfig.getCptAddress(), privateKey, CptController.class);
+            List<BigInteger> longArray = DataToolUtils.listToListBigInteger(
+                DataToolUtils.getParamCreatedList(WeIdConstant.CPT_LONG_ARRAY_LENGTH),
+                WeIdConstant.CPT_LONG_ARRAY_LENGTH
+            );
+            List<byte[]> stringArray = DataToolUtils.bytesArrayListToBytes32ArrayList(
+                new ArrayList<>(),
+                WeIdConstant.CPT_STRING_ARRAY_LENGTH
+            );
+            List<byte[]> jsonSchemaArray = DataToolUtils.stringToByte32ArrayList(
+                cptJsonSchemaNew, WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH);
+            return sendAsync(callback -> {
+                if (dataStorageIndex == WeIdConstant.CPT_DATA_INDEX) {
+                    cptController.registerCpt(
+                        address,
+                        longArray,
+                        stringArray,
+                        jsonSchemaArray,
+                        rsvSignature.getV().getValue(),
+                        rsvSignature.getR().getValue(),
+                        rsvSignature.getS().getValue(),
+                        callback
+                    );
+                } else {
+                    cptController.registerPolicy(
+                        address,
+                        longArray,
+                        stringArray,
+                        jsonSchemaArray,
+                        rsvSignature.getV().getValue(),
+                        rsvSignature.getR().getValue(),
+                        rsvSignature.getS().getValue(),
+                        callback
+                    );
+                }
+            }).thenApplyAsync(
+                receipt -> processRegisterEventLog(cptController, receipt),
+                getAsyncExecutor()
+            ).thenCompose(response -> {
+                if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                return processTemplateAsync(response.getResult().getCptId(), cptJsonSchemaNew)
+                    .thenApply(errorCode -> {
+                        if (errorCode.getCode() != ErrorCode.SUCCESS.getCode()) {
+                            logger.error("[registerCptAsync]register cpt failed, error code is {}",
+                                errorCode.getCode());
+                            return new ResponseData<CptBaseInfo>(null, errorCode);
+                        }
+                        return response;
+                    });
+            }).exceptionally(e -> new ResponseData<CptBaseInfo>(null, toErrorCode(
+                "registerCptAsync", e, ErrorCode.UNKNOW_ERROR)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new ResponseData<CptBaseInfo>(null,
+                toErrorCode("registerCptAsync", e, ErrorCode.UNKNOW_ERROR)));
+        }
+    }
+
     private ErrorCode processTemplate(Integer cptId, String cptJsonSchemaNew) {
 
         //if the cpt is not zkp type, no need to make template.
         if (!CredentialPojoUtils.isZkpCpt(cptJsonSchemaNew)) {
             return ErrorCode.SUCCESS;
         }
-        List<String> attributeList;
         try {
-            attributeList = JsonUtil.extractCptProperties(cptJsonSchemaNew);
-            IssuerResult issuerResult = IssuerClient.makeCredentialTemplate(attributeList);
-            CredentialTemplateEntity template = issuerResult.credentialTemplateEntity;
-            String templateSecretKey = issuerResult.templateSecretKey;
-            ResponseData<Integer> resp =
-                getDataDriver().addOrUpdate(
-                    DataDriverConstant.DOMAIN_ISSUER_TEMPLATE_SECRET,
-                    String.valueOf(cptId),
-                    templateSecretKey);
-            if (resp.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
-                logger.error("[processTemplate] save credential template to db failed.");
-                throw new DatabaseException("database error!");
-            }
+            CredentialTemplateEntity template = makeTemplate(cptId, cptJsonSchemaNew);
             TransactionReceipt receipt = cptController.putCredentialTemplate(
                 new BigInteger(String.valueOf(cptId)),
                 template.getPublicKey().getCredentialPublicKey().getBytes(),
@@ -374,6 +429,63 @@ public class CptServiceEngineV2 extends BaseEngine implements CptServiceEngine {
         return ErrorCode.SUCCESS;
     }
 
+    /**
+     * make the credential template of the zkp cpt and save its secret key to db.
+     *
+     * @param cptId the cpt id
+     * @param cptJsonSchemaNew the cpt json schema
+     * @return the credential template
+     * @throws Exception make or save the template failed
+     */
+    private CredentialTemplateEntity makeTemplate(Integer cptId, String cptJsonSchemaNew)
+        throws Exception {
+
+        List<String> attributeList = JsonUtil.extractCptProperties(cptJsonSchemaNew);
+        IssuerResult issuerResult = IssuerClient.makeCredentialTemplate(attributeList);
+        ResponseData<Integer> resp =
+            getDataDriver().addOrUpdate(
+                DataDriverConstant.DOMAIN_ISSUER_TEMPLATE_SECRET,
+                String.valueOf(cptId),
+                issuerResult.templateSecretKey);
+        if (resp.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[processTemplate] save credential template to db failed.");
+            throw new DatabaseException("database error!");
+        }
+        return issuerResult.credentialTemplateEntity;
+    }
+
+    private CompletableFuture<ErrorCode> processTemplateAsync(
+        Integer cptId,
+        String cptJsonSchemaNew) {
+
+        if (!CredentialPojoUtils.isZkpCpt(cptJsonSchemaNew)) {
+            return CompletableFuture.completedFuture(ErrorCode.SUCCESS);
+        }
+        CredentialTemplateEntity template;
+        try {
+            template = makeTemplate(cptId, cptJsonSchemaNew);
+        } catch (Exception e) {
+            logger.error("[processTemplate] process credential template failed.", e);
+            return CompletableFuture.completedFuture(ErrorCode.CPT_CREDENTIAL_TEMPLATE_SAVE_ERROR);
+        }
+        return sendAsync(callback -> cptController.putCredentialTemplate(
+            new BigInteger(String.valueOf(cptId)),
+            template.getPublicKey().getCredentialPublicKey().getBytes(),
+            template.getCredentialKeyCorrectnessProof().getBytes(),
+            callback
+        )).thenApply(receipt -> {
+            if (!StringUtils.equals(
+                receipt.getStatus(), ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS)) {
+                logger.error("[processTemplate] put credential template to blockchain failed.");
+                return ErrorCode.CPT_CREDENTIAL_TEMPLATE_SAVE_ERROR;
+            }
+            return ErrorCode.SUCCESS;
+        }).exceptionally(e -> {
+            logger.error("[processTemplate] process credential template failed.", e);
+            return ErrorCode.CPT_CREDENTIAL_TEMPLATE_SAVE_ERROR;
+        });
+    }
+
     /**
      * process UpdateEventLog.
      *
@@ -521,36 +633,22 @@ public class CptServiceEngineV2 extends BaseEngine implements CptServiceEngine {
                 cptId);
             return new ResponseData<CredentialTemplateEntity>(null, ErrorCode.BASE_ERROR);
         }
-        BcosBlock bcosBlock = null;
+        List<TransactionReceipt> receipts;
         try {
-            bcosBlock = ((Web3j) getWeb3j())
-                .getBlockByNumber(new DefaultBlockParameterNumber(blockNum), true).send();
-        } catch (IOException e) {
+            receipts = getBlockTransactionReceipts(masterGroupId, blockNum)
+                .getBlockTransactionReceipts().getTransactionReceipts();
+        } catch (Exception e) {
             logger.error(
                 "[queryCredentialTemplate] get block by number :{} failed. Error message:{}",
                 blockNum,
                 e);
-        }
-        if (bcosBlock == null) {
-            logger.info(
-                "[queryCredentialTemplate]:get block by number :{} . latestBlock is null",
-                blockNum);
             return new ResponseData<CredentialTemplateEntity>(null, ErrorCode.BASE_ERROR);
         }
 
-        List<Transaction> transList = bcosBlock.getBlock().getTransactions().stream()
-            .map(transactionResult -> (Transaction) transactionResult.get())
-            .collect(Collectors.toList());
-
         CredentialTemplateEntity credentialTemplateStorage = new CredentialTemplateEntity();
         try {
-            for (Transaction transaction : transList) {
-                String transHash = transaction.getHash();
-
-                BcosTransactionReceipt rec1 = ((Web3j) getWeb3j()).getTransactionReceipt(transHash)
-                    .send();
-                TransactionReceipt receipt = rec1.getTransactionReceipt().get();
-                List<Log> logs = rec1.getResult().getLogs();
+            for (TransactionReceipt receipt : receipts) {
+                List<Log> logs = receipt.getLogs();
                 for (Log log : logs) {
 
                     if (StringUtils.equals(log.getTopics().get(0), CREDENTIAL_TEMPLATE_EVENT)) {
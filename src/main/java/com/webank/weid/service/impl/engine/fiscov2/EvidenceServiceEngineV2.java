@@ -27,13 +27,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.abi.datatypes.generated.Bytes32;
 import org.fisco.bcos.web3j.abi.datatypes.generated.Uint256;
-import org.fisco.bcos.web3j.protocol.Web3j;
 import org.fisco.bcos.web3j.protocol.core.methods.response.BlockTransactionReceipts;
 import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
@@ -69,15 +69,13 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
 
     private static final Logger logger = LoggerFactory.getLogger(EvidenceServiceEngineV2.class);
 
-    private static CacheNode<BlockTransactionReceipts> receiptsNode =
-        CacheManager.registerCacheNode("SYS_TX_RECEIPTS", 1000 * 3600 * 24L);
+    private static CacheNode<ResolvedEvidenceInfo> evidenceInfoCacheNode =
+        CacheManager.registerCacheNode("SYS_EVIDENCE_INFO", 1000 * 3600 * 24L);
 
     private EvidenceContract evidenceContract;
 
     private String evidenceAddress;
 
-    private Integer groupId;
-
     /**
      * 构造函数.
      *
@@ -85,7 +83,6 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
      */
     public EvidenceServiceEngineV2(Integer groupId) {
         super(groupId);
-        this.groupId = groupId;
         initEvidenceAddress();
         evidenceContract = getContractService(this.evidenceAddress, EvidenceContract.class);
     }
@@ -146,29 +143,82 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
                     logList,
                     timestampList
                 ).send();
+            return processCreateEvidenceReceipt(receipt, hashValue, signature, address);
+        } catch (Exception e) {
+            logger.error("create evidence failed due to system error. ", e);
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
+        }
+    }
 
-            TransactionInfo info = new TransactionInfo(receipt);
-            List<EvidenceAttributeChangedEventResponse> eventList =
-                evidenceContract.getEvidenceAttributeChangedEvents(receipt);
-            if (eventList == null) {
-                return new ResponseData<>(StringUtils.EMPTY,
-                    ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR, info);
-            } else if (eventList.isEmpty()) {
-                return new ResponseData<>(StringUtils.EMPTY,
-                    ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS, info);
-            } else {
-                for (EvidenceAttributeChangedEventResponse event : eventList) {
-                    if (event.sigs.toArray()[0].toString().equalsIgnoreCase(signature)
-                        && event.signer.toArray()[0].toString().equalsIgnoreCase(address)) {
-                        return new ResponseData<>(hashValue, ErrorCode.SUCCESS, info);
-                    }
+    private ResponseData<String> processCreateEvidenceReceipt(
+        TransactionReceipt receipt,
+        String hashValue,
+        String signature,
+        String address) {
+
+        TransactionInfo info = new TransactionInfo(receipt);
+        List<EvidenceAttributeChangedEventResponse> eventList =
+            evidenceContract.getEvidenceAttributeChangedEvents(receipt);
+        if (eventList == null) {
+            return new ResponseData<>(StringUtils.EMPTY,
+                ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR, info);
+        } else if (eventList.isEmpty()) {
+            return new ResponseData<>(StringUtils.EMPTY,
+                ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS, info);
+        } else {
+            for (EvidenceAttributeChangedEventResponse event : eventList) {
+                if (event.sigs.toArray()[0].toString().equalsIgnoreCase(signature)
+                    && event.signer.toArray()[0].toString().equalsIgnoreCase(address)) {
+                    return new ResponseData<>(hashValue, ErrorCode.SUCCESS, info);
                 }
             }
-            return new ResponseData<>(StringUtils.EMPTY,
-                ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
+        }
+        return new ResponseData<>(StringUtils.EMPTY,
+            ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<String>> createEvidenceAsync(
+        String hashValue,
+        String signature,
+        String extra,
+        Long timestamp,
+        String privateKey
+    ) {
+        try {
+            if (!DataToolUtils.isValidHash(hashValue)) {
+                return CompletableFuture.completedFuture(
+                    new ResponseData<>(StringUtils.EMPTY, ErrorCode.ILLEGAL_INPUT, null));
+            }
+            List<byte[]> hashByteList = new ArrayList<>();
+            hashByteList.add(DataToolUtils.convertHashStrIntoHashByte32Array(hashValue));
+            String address = WeIdUtils
+                .convertWeIdToAddress(DataToolUtils.convertPrivateKeyToDefaultWeId(privateKey));
+            List<String> signerList = new ArrayList<>();
+            signerList.add(address);
+            List<String> sigList = new ArrayList<>();
+            sigList.add(signature);
+            List<String> logList = new ArrayList<>();
+            logList.add(extra);
+            List<BigInteger> timestampList = new ArrayList<>();
+            timestampList.add(new BigInteger(String.valueOf(timestamp), 10));
+            EvidenceContract evidenceContractWriter =
+                reloadContract(this.evidenceAddress, privateKey, EvidenceContract.class);
+            return sendAsync(callback -> evidenceContractWriter.createEvidence(
+                hashByteList,
+                signerList,
+                sigList,
+                logList,
+                timestampList,
+                callback
+            )).thenApplyAsync(
+                receipt -> processCreateEvidenceReceipt(receipt, hashValue, signature, address),
+                getAsyncExecutor()
+            ).exceptionally(e -> new ResponseData<>(StringUtils.EMPTY, toErrorCode(
+                "createEvidenceAsync", e, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR)));
         } catch (Exception e) {
-            logger.error("create evidence failed due to system error. ", e);
-            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
+            return CompletableFuture.completedFuture(new ResponseData<>(StringUtils.EMPTY,
+                toErrorCode("createEvidenceAsync", e, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR)));
         }
     }
 
@@ -248,6 +298,96 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
         }
     }
 
+    @Override
+    public CompletableFuture<ResponseData<List<Boolean>>> batchCreateEvidenceAsync(
+        List<String> hashValues,
+        List<String> signatures,
+        List<String> logs,
+        List<Long> timestamp,
+        List<String> signers,
+        String privateKey
+    ) {
+        try {
+            List<byte[]> hashByteList = new ArrayList<>();
+            List<String> signerList = new ArrayList<>();
+            List<BigInteger> timestampList = new ArrayList<>();
+            List<String> logList = new ArrayList<>();
+            List<String> sigList = new ArrayList<>();
+            for (int i = 0; i < hashValues.size(); i++) {
+                if (!DataToolUtils.isValidHash(hashValues.get(i))) {
+                    continue;
+                }
+                hashByteList
+                    .add(DataToolUtils.convertHashStrIntoHashByte32Array(hashValues.get(i)));
+                signerList.add(WeIdUtils.convertWeIdToAddress(signers.get(i)));
+                timestampList.add(new BigInteger(String.valueOf(timestamp.get(i)), 10));
+                logList.add(logs.get(i));
+                sigList.add(signatures.get(i));
+            }
+            EvidenceContract evidenceContractWriter =
+                reloadContract(this.evidenceAddress, privateKey, EvidenceContract.class);
+            return sendAsync(callback -> evidenceContractWriter.createEvidence(
+                hashByteList,
+                signerList,
+                sigList,
+                logList,
+                timestampList,
+                callback
+            )).thenApplyAsync(
+                receipt -> processBatchCreateEvidenceReceipt(receipt, hashValues, signatures),
+                getAsyncExecutor()
+            ).exceptionally(e -> batchCreateEvidenceFailed(hashValues.size(), e));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(
+                batchCreateEvidenceFailed(hashValues.size(), e));
+        }
+    }
+
+    private static ResponseData<List<Boolean>> batchCreateEvidenceFailed(int size, Throwable e) {
+        List<Boolean> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            result.add(false);
+        }
+        return new ResponseData<>(result, toErrorCode(
+            "batchCreateEvidenceAsync", e, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR));
+    }
+
+    /**
+     * Match the created evidences in the receipt to the requests by hash and signature, so that
+     * an evidence created by another request with the same hash is not taken as this one.
+     */
+    private ResponseData<List<Boolean>> processBatchCreateEvidenceReceipt(
+        TransactionReceipt receipt,
+        List<String> hashValues,
+        List<String> signatures) {
+
+        List<Boolean> result = new ArrayList<>();
+        TransactionInfo info = new TransactionInfo(receipt);
+        List<EvidenceAttributeChangedEventResponse> eventList =
+            evidenceContract.getEvidenceAttributeChangedEvents(receipt);
+        if (eventList == null) {
+            for (int i = 0; i < hashValues.size(); i++) {
+                result.add(false);
+            }
+            return new ResponseData<>(result, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR, info);
+        }
+        Set<String> created = new HashSet<>();
+        for (EvidenceAttributeChangedEventResponse event : eventList) {
+            Object[] hashArray = event.hash.toArray();
+            Object[] sigArray = event.sigs.toArray();
+            for (int i = 0; i < hashArray.length && i < sigArray.length; i++) {
+                String hash = DataToolUtils
+                    .convertHashByte32ArrayIntoHashStr(((Bytes32) hashArray[i]).getValue());
+                created.add(hash.toLowerCase() + sigArray[i].toString().toLowerCase());
+            }
+        }
+        for (int i = 0; i < hashValues.size(); i++) {
+            result.add(created.contains(StringUtils.lowerCase(hashValues.get(i))
+                + StringUtils.lowerCase(signatures.get(i))));
+        }
+        return new ResponseData<>(result, ErrorCode.SUCCESS, info);
+    }
+
     @Override
     public ResponseData<List<Boolean>> batchCreateEvidenceWithCustomKey(
         List<String> hashValues,
@@ -476,33 +616,78 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
      */
     @Override
     public ResponseData<EvidenceInfo> getInfo(String hash) {
-        EvidenceInfo evidenceInfo = new EvidenceInfo();
-        evidenceInfo.setCredentialHash(hash);
-        Map<String, List<String>> perSignerRedoLog = new HashMap<>();
-        int latestBlockNumber = 0;
         byte[] hashByte = DataToolUtils.convertHashStrIntoHashByte32Array(hash);
         try {
-            latestBlockNumber
+            int latestBlockNumber
                 = evidenceContract.getLatestRelatedBlock(hashByte).send().intValue();
             if (latestBlockNumber == 0) {
                 return new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
             }
-            resolveTransaction(hash, latestBlockNumber, evidenceInfo, perSignerRedoLog);
-            // Reverse the order of the list
-            for (String signer : evidenceInfo.getSigners()) {
-                List<String> extraList = evidenceInfo.getSignInfo().get(signer).getLogs();
-                if (extraList != null && !extraList.isEmpty()) {
-                    Collections.reverse(evidenceInfo.getSignInfo().get(signer).getLogs());
-                }
-            }
-            return new ResponseData<>(evidenceInfo, ErrorCode.SUCCESS);
+            // The history up to a given block never changes, so concurrent queries of a same
+            // evidence at a same height share one resolving, and a full result is cached.
+            String cacheKey = groupId + "-" + hash + "-" + latestBlockNumber;
+            ResolvedEvidenceInfo resolved = evidenceInfoCacheNode.get(
+                cacheKey,
+                key -> resolveEvidenceInfo(hash, latestBlockNumber),
+                ResolvedEvidenceInfo::isComplete
+            );
+            return new ResponseData<>(copyEvidenceInfo(resolved.getEvidenceInfo()),
+                ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error("get evidence failed.", e);
             return new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
     }
 
-    private void resolveTransaction(
+    private ResolvedEvidenceInfo resolveEvidenceInfo(String hash, int latestBlockNumber) {
+        EvidenceInfo evidenceInfo = new EvidenceInfo();
+        evidenceInfo.setCredentialHash(hash);
+        Map<String, List<String>> perSignerRedoLog = new HashMap<>();
+        boolean complete =
+            resolveTransaction(hash, latestBlockNumber, evidenceInfo, perSignerRedoLog);
+        // Reverse the order of the list
+        for (String signer : evidenceInfo.getSigners()) {
+            List<String> extraList = evidenceInfo.getSignInfo().get(signer).getLogs();
+            if (extraList != null && !extraList.isEmpty()) {
+                Collections.reverse(evidenceInfo.getSignInfo().get(signer).getLogs());
+            }
+        }
+        return new ResolvedEvidenceInfo(evidenceInfo, complete);
+    }
+
+    /**
+     * Copy the evidence info so that the cached one can not be modified by the caller.
+     *
+     * @param evidenceInfo the evidence info
+     * @return the copied evidence info
+     */
+    private static EvidenceInfo copyEvidenceInfo(EvidenceInfo evidenceInfo) {
+        EvidenceInfo copy = new EvidenceInfo();
+        copy.setCredentialHash(evidenceInfo.getCredentialHash());
+        for (Map.Entry<String, EvidenceSignInfo> entry : evidenceInfo.getSignInfo().entrySet()) {
+            EvidenceSignInfo signInfo = entry.getValue();
+            EvidenceSignInfo signInfoCopy = new EvidenceSignInfo();
+            signInfoCopy.setSignature(signInfo.getSignature());
+            signInfoCopy.setTimestamp(signInfo.getTimestamp());
+            if (signInfo.getLogs() != null) {
+                signInfoCopy.setLogs(new ArrayList<>(signInfo.getLogs()));
+            }
+            signInfoCopy.setRevoked(signInfo.getRevoked());
+            copy.getSignInfo().put(entry.getKey(), signInfoCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Resolve the evidence event link backwards from the start block.
+     *
+     * @param hash the evidence hash
+     * @param startBlockNumber the latest related block of the evidence
+     * @param evidenceInfo the evidence info to fill in
+     * @param perSignerRedoLog the redo logs of each signer
+     * @return true if the whole event link is resolved, false if stopped by a failure
+     */
+    private boolean resolveTransaction(
         String hash,
         int startBlockNumber,
         EvidenceInfo evidenceInfo,
@@ -513,25 +698,14 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
             int currentBlockNumber = previousBlock;
             BlockTransactionReceipts blockTransactionReceipts = null;
             try {
-                blockTransactionReceipts = receiptsNode.get(String.valueOf(currentBlockNumber));
-                if (blockTransactionReceipts == null) {
-                    blockTransactionReceipts = ((Web3j) weServer.getWeb3j())
-                        .getBlockTransactionReceipts(BigInteger.valueOf(currentBlockNumber)).send();
-                    // Store big transactions into memory (bigger than 1) to avoid memory explode
-                    if (blockTransactionReceipts != null
-                        && blockTransactionReceipts.getBlockTransactionReceipts()
-                        .getTransactionReceipts().size() > WeIdConstant.RECEIPTS_COUNT_THRESHOLD) {
-                        receiptsNode
-                            .put(String.valueOf(currentBlockNumber), blockTransactionReceipts);
-                    }
-                }
+                blockTransactionReceipts = getBlockTransactionReceipts(groupId, currentBlockNumber);
             } catch (Exception e) {
                 logger.error(
                     "Get block by number:{} failed. Exception message:{}", currentBlockNumber, e);
             }
             if (blockTransactionReceipts == null) {
                 logger.info("Get block by number:{}. latestBlock is null", currentBlockNumber);
-                return;
+                return false;
             }
             previousBlock = 0;
             try {
@@ -560,8 +734,10 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
                 }
             } catch (Exception e) {
                 logger.error("Get TransactionReceipt by key :{} failed.", hash, e);
+                return false;
             }
         }
+        return true;
     }
 
     private ResolveEventLogResult resolveEventLog(
@@ -923,4 +1099,27 @@ public class EvidenceServiceEngineV2 extends BaseEngine implements EvidenceServi
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
     }
+
+    /**
+     * The evidence info resolved from chain, and whether its event link is fully resolved.
+     */
+    private static final class ResolvedEvidenceInfo {
+
+        private final EvidenceInfo evidenceInfo;
+
+        private final boolean complete;
+
+        ResolvedEvidenceInfo(EvidenceInfo evidenceInfo, boolean complete) {
+            this.evidenceInfo = evidenceInfo;
+            this.complete = complete;
+        }
+
+        EvidenceInfo getEvidenceInfo() {
+            return evidenceInfo;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+    }
 }
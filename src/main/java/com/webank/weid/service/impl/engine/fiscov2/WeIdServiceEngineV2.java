@@ -23,10 +23,16 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.zip.DataFormatException;
@@ -34,15 +40,12 @@ import java.util.zip.DataFormatException;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.abi.EventEncoder;
-import org.fisco.bcos.web3j.protocol.Web3j;
-import org.fisco.bcos.web3j.protocol.core.methods.response.BlockTransactionReceipts;
 import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.webank.weid.constant.ErrorCode;
-import com.webank.weid.constant.ResolveEventLogStatus;
 import com.webank.weid.constant.WeIdConstant;
 import com.webank.weid.constant.WeIdConstant.PublicKeyType;
 import com.webank.weid.constant.WeIdEventConstant;
@@ -57,11 +60,12 @@ import com.webank.weid.protocol.base.PublicKeyProperty;
 import com.webank.weid.protocol.base.ServiceProperty;
 import com.webank.weid.protocol.base.WeIdDocument;
 import com.webank.weid.protocol.base.WeIdPojo;
-import com.webank.weid.protocol.response.ResolveEventLogResult;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.protocol.response.TransactionInfo;
 import com.webank.weid.service.impl.engine.BaseEngine;
 import com.webank.weid.service.impl.engine.WeIdServiceEngine;
+import com.webank.weid.suite.cache.CacheManager;
+import com.webank.weid.suite.cache.CacheNode;
 import com.webank.weid.util.DataToolUtils;
 import com.webank.weid.util.DateUtils;
 import com.webank.weid.util.WeIdUtils;
@@ -90,6 +94,18 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
      */
     private static WeIdContract weIdContract;
 
+    /**
+     * Resolved WeID Document cache, validated by the latest related block of the WeID.
+     */
+    private static CacheNode<ResolvedWeIdDocument> weIdDocumentCacheNode =
+        CacheManager.registerCacheNode("SYS_WEID_DOCUMENT", 1000 * 3600 * 24L);
+
+    /**
+     * Orders the resolved WeID Documents by the block they are resolved at.
+     */
+    private static final Comparator<ResolvedWeIdDocument> BLOCK_NUMBER_ORDER =
+        Comparator.comparingInt(ResolvedWeIdDocument::getBlockNumber);
+
     static {
         // initialize the event topic
         topicMap = new HashMap<String, String>();
@@ -134,120 +150,38 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
     }
 
     /**
-     * Resolve the event history given weId as key, reversely from on-chain linked blocks.
+     * Resolve the event history of a WeID, reversely from on-chain linked blocks.
      *
-     * @param weId WeID as key
-     * @param blockNumber the current latest block number
-     * @param blockList stored block height list
-     * @param blockEventMap stored block event map
+     * @param context the resolve context to fill-in with the blocks and their events
+     * @param stopBlockNumber the already resolved block to stop at, 0 to resolve full history
+     * @return the block number where the resolving stopped
      */
-    private static void resolveEventHistory(
-        String weId,
-        int blockNumber,
-        List<Integer> blockList,
-        Map<Integer, List<WeIdAttributeChangedEventResponse>> blockEventMap
-    ) {
-        int previousBlock = blockNumber;
-        while (previousBlock != STOP_RESOLVE_BLOCK_NUMBER) {
+    private static int resolveEventHistory(ResolveContext context, int stopBlockNumber) {
+        Map<String, List<ResolveContext>> waitingContexts =
+            Collections.singletonMap(context.getAddress(), Collections.singletonList(context));
+        int previousBlock = context.getLatestBlockNumber();
+        while (previousBlock != STOP_RESOLVE_BLOCK_NUMBER && previousBlock != stopBlockNumber) {
             int currentBlockNumber = previousBlock;
             // Fill-in blockList
-            blockList.add(currentBlockNumber);
-            previousBlock = 0;
+            context.getBlockList().add(currentBlockNumber);
+            Map<ResolveContext, Integer> previousBlocks = new HashMap<>();
             try {
                 List<TransactionReceipt> receipts = getTransactionReceipts(currentBlockNumber);
                 for (TransactionReceipt receipt : receipts) {
-                    List<Log> logs = receipt.getLogs();
-                    for (Log log : logs) {
-                        ResolveEventLogResult returnValue =
-                            resolveSingleEventLog(weId, log, receipt, currentBlockNumber,
-                                blockEventMap);
-                        if (returnValue.getResultStatus().equals(
-                            ResolveEventLogStatus.STATUS_SUCCESS)) {
-                            if (returnValue.getPreviousBlock() == currentBlockNumber) {
-                                continue;
-                            }
-                            previousBlock = returnValue.getPreviousBlock();
-                        }
-                    }
+                    extractEventsFromReceipt(
+                        receipt, currentBlockNumber, waitingContexts, previousBlocks);
                 }
             } catch (IOException | DataTypeCastException | DataFormatException e) {
-                logger.error(
-                    "[resolveEventHistory]: get TransactionReceipt by weId :{} failed.", weId, e);
+                logger.error("[resolveEventHistory]: get TransactionReceipt by weId :{} failed.",
+                    context.getWeId(), e);
                 throw new ResolveAttributeException(
                     ErrorCode.TRANSACTION_EXECUTE_ERROR.getCode(),
                     ErrorCode.TRANSACTION_EXECUTE_ERROR.getCodeDesc(),
                     e);
             }
+            previousBlock = previousBlocks.getOrDefault(context, STOP_RESOLVE_BLOCK_NUMBER);
         }
-    }
-
-    private static ResolveEventLogResult resolveSingleEventLog(
-        String weId,
-        Log log,
-        TransactionReceipt receipt,
-        int currentBlockNumber,
-        Map<Integer, List<WeIdAttributeChangedEventResponse>> blockEventMap
-    ) {
-        String topic = log.getTopics().get(0);
-        String event = topicMap.get(topic);
-
-        if (StringUtils.isNotBlank(event)) {
-            return extractEventsFromBlock(weId, receipt, currentBlockNumber, blockEventMap);
-        }
-        ResolveEventLogResult response = new ResolveEventLogResult();
-        response.setResolveEventLogStatus(ResolveEventLogStatus.STATUS_EVENT_NULL);
-        return response;
-    }
-
-
-    private static ResolveEventLogResult extractEventsFromBlock(
-        String weId,
-        TransactionReceipt receipt,
-        int currentBlockNumber,
-        Map<Integer, List<WeIdAttributeChangedEventResponse>> blockEventMap
-    ) {
-
-        List<WeIdAttributeChangedEventResponse> eventlog =
-            weIdContract.getWeIdAttributeChangedEvents(receipt);
-        ResolveEventLogResult response = new ResolveEventLogResult();
-
-        if (CollectionUtils.isEmpty(eventlog)) {
-            response.setResolveEventLogStatus(ResolveEventLogStatus.STATUS_EVENTLOG_NULL);
-            return response;
-        }
-
-        int previousBlock = 0;
-        for (WeIdAttributeChangedEventResponse res : eventlog) {
-            if (res.identity == null || res.updated == null || res.previousBlock == null) {
-                response.setResolveEventLogStatus(ResolveEventLogStatus.STATUS_RES_NULL);
-                return response;
-            }
-
-            String identity = res.identity.toString();
-            String weAddress = WeIdUtils.convertWeIdToAddress(weId);
-            if (!StringUtils.equals(weAddress, identity)) {
-                response.setResolveEventLogStatus(ResolveEventLogStatus.STATUS_KEY_NOT_MATCH);
-                return response;
-            }
-
-            // Fill-in blockEventMap
-            List<WeIdAttributeChangedEventResponse> events = blockEventMap.get(currentBlockNumber);
-            if (CollectionUtils.isEmpty(events)) {
-                List<WeIdAttributeChangedEventResponse> newEvents = new ArrayList<>();
-                newEvents.add(res);
-                blockEventMap.put(currentBlockNumber, newEvents);
-            } else {
-                events.add(res);
-            }
-
-            //String key = new String(res.key);
-            //String value = new String(res.value);
-            previousBlock = res.previousBlock.intValue();
-        }
-
-        response.setPreviousBlock(previousBlock);
-        response.setResolveEventLogStatus(ResolveEventLogStatus.STATUS_SUCCESS);
-        return response;
+        return previousBlock;
     }
 
     /* (non-Javadoc)
@@ -255,29 +189,26 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
      */
     @Override
     public ResponseData<WeIdDocument> getWeIdDocument(String weId) {
-        Map<Integer, List<WeIdAttributeChangedEventResponse>> blockEventMap = new HashMap<>();
-        List<Integer> blockList = new ArrayList<>();
-        WeIdDocument result = new WeIdDocument();
-        result.setId(weId);
-        int latestBlockNumber = 0;
         try {
             String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
-            latestBlockNumber = weIdContract
+            int latestBlockNumber = weIdContract
                 .getLatestRelatedBlock(identityAddr).send().intValue();
             if (0 == latestBlockNumber) {
                 return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
             }
 
-            // Step 1: fetch all blocks in this event link in REVERSE order from chain
-            resolveEventHistory(weId, latestBlockNumber, blockList, blockEventMap);
-
-            // Step 2: reverse this the block list (so it is ascending order now)
-            Collections.reverse(blockList);
-
-            // Step 3: construct WeID Document in NORMAL order off-chain
-            constructWeIdDocument(blockList, blockEventMap, result);
-
-            return new ResponseData<>(result, ErrorCode.SUCCESS);
+            // Any attribute change moves the latest related block, so an entry resolved at
+            // the same height is still up to date, and an older one is a valid snapshot.
+            // Concurrent misses of a same WeID wait for one resolving, and a caller which read
+            // an older latest block never replaces the entry resolved at a newer one.
+            ResolvedWeIdDocument resolved = weIdDocumentCacheNode.get(
+                weId,
+                cached -> cached.getBlockNumber() == latestBlockNumber,
+                (key, snapshot) -> resolveWeIdDocument(weId, latestBlockNumber, snapshot),
+                BLOCK_NUMBER_ORDER
+            );
+            return new ResponseData<>(copyWeIdDocument(resolved.getDocument()),
+                ErrorCode.SUCCESS);
         } catch (InterruptedException | ExecutionException e) {
             logger.error("Set weId service failed. Error message :{}", e);
             return new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
@@ -290,6 +221,8 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
                 weId,
                 e.getErrorCode(),
                 e);
+            WeIdDocument result = new WeIdDocument();
+            result.setId(weId);
             return new ResponseData<WeIdDocument>(result,
                 ErrorCode.getTypeByErrorCode(e.getErrorCode()));
         } catch (Exception e) {
@@ -298,6 +231,250 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
         }
     }
 
+    /**
+     * Resolve the WeID Document at the latest related block, starting from the snapshot if the
+     * event link reaches it.
+     *
+     * @param weId the WeID
+     * @param latestBlockNumber the latest related block of the WeID
+     * @param snapshot the previously resolved document, null if there is none
+     * @return the resolved WeID Document
+     */
+    private ResolvedWeIdDocument resolveWeIdDocument(
+        String weId,
+        int latestBlockNumber,
+        ResolvedWeIdDocument snapshot) {
+        if (snapshot != null && snapshot.getBlockNumber() >= latestBlockNumber) {
+            snapshot = null;
+        }
+        ResolveContext context = new ResolveContext(
+            weId, WeIdUtils.convertWeIdToAddress(weId), latestBlockNumber, snapshot);
+
+        // Step 1: fetch the blocks newer than the snapshot (or all blocks if there is no
+        // snapshot) in this event link in REVERSE order from chain
+        int snapshotBlockNumber =
+            snapshot == null ? STOP_RESOLVE_BLOCK_NUMBER : snapshot.getBlockNumber();
+        int stoppedBlockNumber = resolveEventHistory(context, snapshotBlockNumber);
+        context.setReachedSnapshot(
+            snapshot != null && stoppedBlockNumber == snapshotBlockNumber);
+
+        // Step 2: construct WeID Document in NORMAL order off-chain, applying only the
+        // delta blocks on top of the snapshot when the event link reached it
+        return new ResolvedWeIdDocument(latestBlockNumber, constructWeIdDocument(context));
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.service.impl.engine.WeIdServiceEngine#getWeIdDocuments(java.util.List)
+     */
+    @Override
+    public ResponseData<List<ResponseData<WeIdDocument>>> getWeIdDocuments(
+        List<String> weIdList) {
+        Map<String, ResponseData<WeIdDocument>> resultMap = new HashMap<>();
+        // Blocks to fetch in DESCENDING order, with the WeIDs whose event link is waiting there
+        TreeMap<Integer, Set<ResolveContext>> pendingBlocks =
+            new TreeMap<>(Collections.reverseOrder());
+        List<ResolveContext> contextList = new ArrayList<>();
+
+        // Step 1: find the head block of each WeID, and serve the up to date ones from cache
+        for (String weId : new LinkedHashSet<>(weIdList)) {
+            try {
+                String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
+                int latestBlockNumber = weIdContract
+                    .getLatestRelatedBlock(identityAddr).send().intValue();
+                if (0 == latestBlockNumber) {
+                    resultMap.put(weId, new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST));
+                    continue;
+                }
+                ResolvedWeIdDocument snapshot = weIdDocumentCacheNode.get(weId);
+                if (snapshot != null && snapshot.getBlockNumber() == latestBlockNumber) {
+                    resultMap.put(weId, new ResponseData<>(
+                        copyWeIdDocument(snapshot.getDocument()), ErrorCode.SUCCESS));
+                    continue;
+                }
+                if (snapshot != null && snapshot.getBlockNumber() > latestBlockNumber) {
+                    snapshot = null;
+                }
+                ResolveContext context =
+                    new ResolveContext(weId, identityAddr, latestBlockNumber, snapshot);
+                contextList.add(context);
+                pendingBlocks.computeIfAbsent(latestBlockNumber, k -> new HashSet<>())
+                    .add(context);
+            } catch (Exception e) {
+                logger.error("[getWeIdDocuments]: get latest block of weId :{} failed.", weId, e);
+                resultMap.put(weId, new ResponseData<>(null, ErrorCode.UNKNOW_ERROR));
+            }
+        }
+
+        // Step 2: walk all the event links together from the highest block, so that each block
+        // is fetched and each receipt is decoded only once for all the interested WeIDs
+        while (!pendingBlocks.isEmpty()) {
+            Map.Entry<Integer, Set<ResolveContext>> entry = pendingBlocks.pollFirstEntry();
+            int currentBlockNumber = entry.getKey();
+            Map<String, List<ResolveContext>> waitingContexts = new HashMap<>();
+            for (ResolveContext context : entry.getValue()) {
+                waitingContexts.computeIfAbsent(context.getAddress(), k -> new ArrayList<>())
+                    .add(context);
+                context.getBlockList().add(currentBlockNumber);
+            }
+            Map<ResolveContext, Integer> previousBlocks = new HashMap<>();
+            try {
+                List<TransactionReceipt> receipts = getTransactionReceipts(currentBlockNumber);
+                for (TransactionReceipt receipt : receipts) {
+                    extractEventsFromReceipt(
+                        receipt, currentBlockNumber, waitingContexts, previousBlocks);
+                }
+            } catch (Exception e) {
+                logger.error("[getWeIdDocuments]: get TransactionReceipt of block :{} failed.",
+                    currentBlockNumber, e);
+                for (ResolveContext context : entry.getValue()) {
+                    resultMap.put(context.getWeId(),
+                        new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR));
+                    context.setFailed(true);
+                }
+                continue;
+            }
+            for (ResolveContext context : entry.getValue()) {
+                int previousBlock = previousBlocks.getOrDefault(context, STOP_RESOLVE_BLOCK_NUMBER);
+                if (previousBlock == STOP_RESOLVE_BLOCK_NUMBER) {
+                    continue;
+                }
+                if (context.getSnapshot() != null
+                    && previousBlock == context.getSnapshot().getBlockNumber()) {
+                    context.setReachedSnapshot(true);
+                    continue;
+                }
+                pendingBlocks.computeIfAbsent(previousBlock, k -> new HashSet<>()).add(context);
+            }
+        }
+
+        // Step 3: construct the documents in NORMAL order off-chain
+        for (ResolveContext context : contextList) {
+            if (context.isFailed()) {
+                continue;
+            }
+            String weId = context.getWeId();
+            WeIdDocument result = constructWeIdDocument(context);
+            weIdDocumentCacheNode.putIfNewer(weId, new ResolvedWeIdDocument(
+                context.getLatestBlockNumber(), copyWeIdDocument(result)), BLOCK_NUMBER_ORDER);
+            resultMap.put(weId, new ResponseData<>(result, ErrorCode.SUCCESS));
+        }
+
+        List<ResponseData<WeIdDocument>> result = new ArrayList<>();
+        for (String weId : weIdList) {
+            result.add(resultMap.get(weId));
+        }
+        return new ResponseData<>(result, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * Decode the attribute changed events of a receipt once, and dispatch them to the WeIDs
+     * waiting at this block. Both the single and the batch resolution extract the events here,
+     * the events of the other identities in the same receipt are skipped one by one.
+     *
+     * @param receipt the transaction receipt
+     * @param currentBlockNumber the current block number
+     * @param waitingContexts the waiting resolve contexts keyed by WeID address
+     * @param previousBlocks the found previous block of each resolve context
+     */
+    private static void extractEventsFromReceipt(
+        TransactionReceipt receipt,
+        int currentBlockNumber,
+        Map<String, List<ResolveContext>> waitingContexts,
+        Map<ResolveContext, Integer> previousBlocks
+    ) {
+        boolean hasEvent = false;
+        for (Log log : receipt.getLogs()) {
+            if (StringUtils.isNotBlank(topicMap.get(log.getTopics().get(0)))) {
+                hasEvent = true;
+                break;
+            }
+        }
+        if (!hasEvent) {
+            return;
+        }
+        List<WeIdAttributeChangedEventResponse> eventlog =
+            weIdContract.getWeIdAttributeChangedEvents(receipt);
+        if (CollectionUtils.isEmpty(eventlog)) {
+            return;
+        }
+        for (WeIdAttributeChangedEventResponse res : eventlog) {
+            if (res.identity == null || res.updated == null || res.previousBlock == null) {
+                continue;
+            }
+            List<ResolveContext> contexts = waitingContexts.get(res.identity.toString());
+            if (contexts == null) {
+                continue;
+            }
+            for (ResolveContext context : contexts) {
+                context.getBlockEventMap()
+                    .computeIfAbsent(currentBlockNumber, k -> new ArrayList<>())
+                    .add(res);
+                // Events pointing to the current block only chain the ones in the same block
+                if (res.previousBlock.intValue() != currentBlockNumber) {
+                    previousBlocks.put(context, res.previousBlock.intValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the WeID Document so that the cached one can not be modified by the caller.
+     *
+     * @param document the source document
+     * @return the copied document
+     */
+    private static WeIdDocument copyWeIdDocument(WeIdDocument document) {
+        WeIdDocument copy = new WeIdDocument();
+        copy.setId(document.getId());
+        copy.setCreated(document.getCreated());
+        copy.setUpdated(document.getUpdated());
+        for (PublicKeyProperty publicKey : document.getPublicKey()) {
+            PublicKeyProperty property = new PublicKeyProperty();
+            property.setId(publicKey.getId());
+            property.setType(publicKey.getType());
+            property.setOwner(publicKey.getOwner());
+            property.setPublicKey(publicKey.getPublicKey());
+            property.setRevoked(publicKey.getRevoked());
+            copy.getPublicKey().add(property);
+        }
+        for (AuthenticationProperty authentication : document.getAuthentication()) {
+            AuthenticationProperty property = new AuthenticationProperty();
+            property.setType(authentication.getType());
+            property.setPublicKey(authentication.getPublicKey());
+            property.setRevoked(authentication.getRevoked());
+            copy.getAuthentication().add(property);
+        }
+        for (ServiceProperty service : document.getService()) {
+            ServiceProperty property = new ServiceProperty();
+            property.setType(service.getType());
+            property.setServiceEndpoint(service.getServiceEndpoint());
+            copy.getService().add(property);
+        }
+        return copy;
+    }
+
+    /**
+     * Construct the WeID Document of a resolve context, on top of a copy of the snapshot if the
+     * event link reached it.
+     *
+     * @param context the resolve context
+     * @return the constructed WeID Document
+     */
+    private WeIdDocument constructWeIdDocument(ResolveContext context) {
+        WeIdDocument result;
+        if (context.isReachedSnapshot()) {
+            result = copyWeIdDocument(context.getSnapshot().getDocument());
+        } else {
+            result = new WeIdDocument();
+            result.setId(context.getWeId());
+        }
+        // the block list is fetched in REVERSE order, make it ascending
+        List<Integer> blockList = context.getBlockList();
+        Collections.reverse(blockList);
+        constructWeIdDocument(blockList, context.getBlockEventMap(), result);
+        return result;
+    }
+
     private void constructWeIdDocument(
         List<Integer> blockList,
         Map<Integer, List<WeIdAttributeChangedEventResponse>> blockEventMap,
@@ -530,24 +707,71 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
                 ).send();
             }
 
-            TransactionInfo info = new TransactionInfo(receipt);
-            List<WeIdAttributeChangedEventResponse> response =
-                weIdContract.getWeIdAttributeChangedEvents(receipt);
-            if (CollectionUtils.isEmpty(response)) {
-                logger.error(
-                    "The input private key does not match the current weid, operation of "
-                        + "modifying weid is not allowed. we address is {}",
-                    weAddress
-                );
-                return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH, info);
-            }
-            return new ResponseData<>(true, ErrorCode.SUCCESS, info);
+            return processCreateWeIdReceipt(weIdContract, receipt, weAddress);
         } catch (Exception e) {
             logger.error("[createWeId] create weid has error, Error Message：{}", e);
             return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
         }
     }
 
+    private ResponseData<Boolean> processCreateWeIdReceipt(
+        WeIdContract weIdContract,
+        TransactionReceipt receipt,
+        String weAddress) {
+
+        TransactionInfo info = new TransactionInfo(receipt);
+        List<WeIdAttributeChangedEventResponse> response =
+            weIdContract.getWeIdAttributeChangedEvents(receipt);
+        if (CollectionUtils.isEmpty(response)) {
+            logger.error(
+                "The input private key does not match the current weid, operation of "
+                    + "modifying weid is not allowed. we address is {}",
+                weAddress
+            );
+            return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH, info);
+        }
+        return new ResponseData<>(true, ErrorCode.SUCCESS, info);
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.service.impl.engine.WeIdServiceEngine
+     * #createWeIdAsync(java.lang.String, java.lang.String, java.lang.String, boolean)
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> createWeIdAsync(
+        String weAddress,
+        String publicKey,
+        String privateKey,
+        boolean isDelegate) {
+
+        try {
+            byte[] auth = DataToolUtils.stringToByteArray(new StringBuffer()
+                .append(publicKey)
+                .append(WeIdConstant.SEPARATOR)
+                .append(weAddress)
+                .toString());
+            byte[] created =
+                DataToolUtils.stringToByteArray(DateUtils.getNoMillisecondTimeStampString());
+            BigInteger updated = BigInteger.valueOf(DateUtils.getNoMillisecondTimeStamp());
+            WeIdContract weIdContract =
+                reloadContract(fiscoConfig.getWeIdAddress(), privateKey, WeIdContract.class);
+            return sendAsync(callback -> {
+                if (isDelegate) {
+                    weIdContract.delegateCreateWeId(weAddress, auth, created, updated, callback);
+                } else {
+                    weIdContract.createWeId(weAddress, auth, created, updated, callback);
+                }
+            }).thenApplyAsync(
+                receipt -> processCreateWeIdReceipt(weIdContract, receipt, weAddress),
+                getAsyncExecutor()
+            ).exceptionally(e -> new ResponseData<>(false, toErrorCode(
+                "createWeIdAsync", e, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new ResponseData<>(false, toErrorCode(
+                "createWeIdAsync", e, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH)));
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.webank.weid.service.impl.engine.WeIdController
      * #setAttribute(java.lang.String, java.lang.String, java.lang.String)
@@ -583,35 +807,79 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
                     ).send();
             }
 
-            TransactionInfo info = new TransactionInfo(transactionReceipt);
-            List<WeIdAttributeChangedEventResponse> response =
-                weIdContract.getWeIdAttributeChangedEvents(transactionReceipt);
-            if (CollectionUtils.isNotEmpty(response)) {
-                return new ResponseData<>(true, ErrorCode.SUCCESS, info);
-            } else {
-                return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH,
-                    info);
-            }
+            return processSetAttributeReceipt(weIdContract, transactionReceipt);
         } catch (Exception e) {
             logger.error("[setAttribute] set Attribute has error, Error Message：{}", e);
             return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
         }
     }
 
-    private static List<TransactionReceipt> getTransactionReceipts(Integer blockNumber) 
-        throws IOException, DataFormatException {
-        BlockTransactionReceipts blockTransactionReceipts = null;
+    private ResponseData<Boolean> processSetAttributeReceipt(
+        WeIdContract weIdContract,
+        TransactionReceipt transactionReceipt) {
+
+        TransactionInfo info = new TransactionInfo(transactionReceipt);
+        List<WeIdAttributeChangedEventResponse> response =
+            weIdContract.getWeIdAttributeChangedEvents(transactionReceipt);
+        if (CollectionUtils.isNotEmpty(response)) {
+            return new ResponseData<>(true, ErrorCode.SUCCESS, info);
+        } else {
+            return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH,
+                info);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.service.impl.engine.WeIdServiceEngine
+     * #setAttributeAsync(java.lang.String, java.lang.String, java.lang.String,
+     * java.lang.String, boolean)
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> setAttributeAsync(
+        String weAddress,
+        String attributeKey,
+        String value,
+        String privateKey,
+        boolean isDelegate) {
+
         try {
-            blockTransactionReceipts = ((Web3j)getWeb3j())
-                .getBlockTransactionReceipts(BigInteger.valueOf(blockNumber)).send();
+            WeIdContract weIdContract =
+                reloadContract(fiscoConfig.getWeIdAddress(), privateKey, WeIdContract.class);
+            byte[] attrValue = value.getBytes();
+            BigInteger updated = BigInteger.valueOf(DateUtils.getNoMillisecondTimeStamp());
+            return sendAsync(callback -> {
+                if (isDelegate) {
+                    weIdContract.delegateSetAttribute(
+                        weAddress,
+                        DataToolUtils.stringToByte32Array(attributeKey),
+                        attrValue,
+                        updated,
+                        callback
+                    );
+                } else {
+                    weIdContract.setAttribute(
+                        weAddress,
+                        DataToolUtils.stringToByte32Array(attributeKey),
+                        attrValue,
+                        updated,
+                        callback
+                    );
+                }
+            }).thenApplyAsync(
+                receipt -> processSetAttributeReceipt(weIdContract, receipt),
+                getAsyncExecutor()
+            ).exceptionally(e -> new ResponseData<>(false, toErrorCode(
+                "setAttributeAsync", e, ErrorCode.UNKNOW_ERROR)));
         } catch (Exception e) {
-            logger.error("[getTransactionReceipts] get block {} err: {}", blockNumber, e);
-        }
-        if (blockTransactionReceipts == null) {
-            logger.info("[getTransactionReceipts] get block {} err: is null", blockNumber);
-            throw new WeIdBaseException("the transactionReceipts is null.");
+            return CompletableFuture.completedFuture(new ResponseData<>(false, toErrorCode(
+                "setAttributeAsync", e, ErrorCode.UNKNOW_ERROR)));
         }
-        return blockTransactionReceipts.getBlockTransactionReceipts().getTransactionReceipts();
+    }
+
+    private static List<TransactionReceipt> getTransactionReceipts(Integer blockNumber) 
+        throws IOException, DataFormatException {
+        return getBlockTransactionReceipts(masterGroupId, blockNumber)
+            .getBlockTransactionReceipts().getTransactionReceipts();
     }
 
     private List<WeIdPojo> getWeIdListByBlockNumber(Integer blockNumber) {
@@ -804,4 +1072,101 @@ public class WeIdServiceEngineV2 extends BaseEngine implements WeIdServiceEngine
             return new ResponseData<>(0, ErrorCode.UNKNOW_ERROR);
         }
     }
+
+    /**
+     * The WeID Document resolved at a specific latest related block.
+     */
+    private static final class ResolvedWeIdDocument {
+
+        private final int blockNumber;
+
+        private final WeIdDocument document;
+
+        ResolvedWeIdDocument(int blockNumber, WeIdDocument document) {
+            this.blockNumber = blockNumber;
+            this.document = document;
+        }
+
+        int getBlockNumber() {
+            return blockNumber;
+        }
+
+        WeIdDocument getDocument() {
+            return document;
+        }
+    }
+
+    /**
+     * The resolving state of a WeID in a single or batch resolution.
+     */
+    private static final class ResolveContext {
+
+        private final String weId;
+
+        private final String address;
+
+        private final int latestBlockNumber;
+
+        private final ResolvedWeIdDocument snapshot;
+
+        private final List<Integer> blockList = new ArrayList<>();
+
+        private final Map<Integer, List<WeIdAttributeChangedEventResponse>> blockEventMap =
+            new HashMap<>();
+
+        private boolean reachedSnapshot;
+
+        private boolean failed;
+
+        ResolveContext(
+            String weId,
+            String address,
+            int latestBlockNumber,
+            ResolvedWeIdDocument snapshot) {
+            this.weId = weId;
+            this.address = address;
+            this.latestBlockNumber = latestBlockNumber;
+            this.snapshot = snapshot;
+        }
+
+        String getWeId() {
+            return weId;
+        }
+
+        String getAddress() {
+            return address;
+        }
+
+        int getLatestBlockNumber() {
+            return latestBlockNumber;
+        }
+
+        ResolvedWeIdDocument getSnapshot() {
+            return snapshot;
+        }
+
+        List<Integer> getBlockList() {
+            return blockList;
+        }
+
+        Map<Integer, List<WeIdAttributeChangedEventResponse>> getBlockEventMap() {
+            return blockEventMap;
+        }
+
+        boolean isReachedSnapshot() {
+            return reachedSnapshot;
+        }
+
+        void setReachedSnapshot(boolean reachedSnapshot) {
+            this.reachedSnapshot = reachedSnapshot;
+        }
+
+        boolean isFailed() {
+            return failed;
+        }
+
+        void setFailed(boolean failed) {
+            this.failed = failed;
+        }
+    }
 }
@@ -19,6 +19,9 @@
 
 package com.webank.weid.suite.api.persistence;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +29,8 @@ import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.suite.api.persistence.inf.Persistence;
 import com.webank.weid.suite.api.persistence.params.PersistenceType;
+import com.webank.weid.suite.persistence.CachedPersistence;
+import com.webank.weid.suite.persistence.GroupCommitPersistence;
 import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
 import com.webank.weid.suite.persistence.redis.driver.RedisDriver;
 
@@ -38,6 +43,12 @@ public class PersistenceFactory {
 
     private static final Logger logger = LoggerFactory.getLogger(PersistenceFactory.class);
 
+    /**
+     * 每种数据库共用一个组提交实例, 避免每次build都创建新的后台线程和队列.
+     */
+    private static final ConcurrentHashMap<PersistenceType, GroupCommitPersistence>
+        GROUP_COMMITS = new ConcurrentHashMap<>();
+
     private static Persistence newMysqlDriver() {
         return new MysqlDriver();
     }
@@ -48,10 +59,27 @@ public class PersistenceFactory {
 
     /**
      * 根据封装类型实例化对应的实例对象, 此方法目前支持Mysql, Redis.
+     * 如果开启了persistence.groupCommit, 则add请求通过该类型共用的组提交实例写入.
+     * 如果配置了persistence.cache.domains, 则返回带本地缓存的实例.
      * @param persistenceType 封装类型枚举
      * @return 返回具体处理类型
      */
     public static Persistence build(PersistenceType persistenceType) {
+        Persistence persistence;
+        if (GroupCommitPersistence.getInterval() > 0) {
+            persistence = GROUP_COMMITS.computeIfAbsent(
+                persistenceType, type -> new GroupCommitPersistence(newDriver(type)));
+        } else {
+            persistence = newDriver(persistenceType);
+        }
+        Set<String> cacheDomains = CachedPersistence.getCacheDomains();
+        if (cacheDomains.isEmpty()) {
+            return persistence;
+        }
+        return new CachedPersistence(persistence, cacheDomains);
+    }
+
+    private static Persistence newDriver(PersistenceType persistenceType) {
         switch (persistenceType) {
             case Mysql:
                 return newMysqlDriver();
@@ -19,10 +19,20 @@
 
 package com.webank.weid.suite.api.persistence.inf;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.apache.commons.lang3.StringUtils;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.protocol.request.TransactionArgs;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
 
 /**
  * Data access driver.
@@ -41,6 +51,22 @@ public interface Persistence {
      */
     public ResponseData<Integer> add(String domain, String id, String data);
 
+    /**
+     * add data to storage asynchronously, the drivers without a write pipeline complete it
+     * immediately.
+     *
+     * @param domain the domain of the data.
+     * @param id the key of the data.
+     * @param data which you want to store to the storage.
+     * @return the future of the execute status of the "add" operation.
+     */
+    public default CompletableFuture<ResponseData<Integer>> addAsync(
+        String domain,
+        String id,
+        String data) {
+        return CompletableFuture.completedFuture(add(domain, id, data));
+    }
+
     /**
      * batch add data to storage.
      *
@@ -50,6 +76,29 @@ public interface Persistence {
      */
     public ResponseData<Integer> batchAdd(String domain, Map<String, String> keyValueList);
 
+    /**
+     * batch add data to storage, and report the ids which are not added. The drivers which
+     * can not tell the failed rows apart report all the ids once the batch add fails.
+     *
+     * @param domain the domain of the data.
+     * @param keyValueList list of id-data.
+     * @return the ids not added, empty if all the data is added, the error code is
+     *     PERSISTENCE_BATCH_ADD_PARTIAL_FAILED if only part of the data is added.
+     */
+    public default ResponseData<List<String>> batchAddWithFailedIds(
+        String domain,
+        Map<String, String> keyValueList) {
+
+        ResponseData<Integer> response = batchAdd(domain, keyValueList);
+        List<String> failedIds = new ArrayList<>();
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+            && keyValueList != null) {
+            failedIds.addAll(keyValueList.keySet());
+        }
+        return new ResponseData<>(
+            failedIds, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+    }
+
     /**
      * query data from storage by id.
      *
@@ -59,6 +108,51 @@ public interface Persistence {
      */
     public ResponseData<String> get(String domain, String id);
 
+    /**
+     * batch query data from storage by ids. The default implementation queries the ids one by
+     * one, the drivers override it with a single round trip where the storage supports it.
+     *
+     * @param domain the domain of the data.
+     * @param ids the keys of the data.
+     * @return the data you stored mapped by id, the missing and expired ones are excluded.
+     */
+    public default ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+
+        if (ids == null || ids.isEmpty()) {
+            return new ResponseData<>(null, ErrorCode.PRESISTENCE_DATA_KEY_INVALID);
+        }
+        Map<String, String> result = new HashMap<>();
+        for (String id : ids) {
+            ResponseData<String> response = get(domain, id);
+            int errorCode = response.getErrorCode().intValue();
+            if (errorCode == ErrorCode.PERSISTENCE_DATA_EXPIRE.getCode()) {
+                continue;
+            }
+            if (errorCode != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(errorCode));
+            }
+            if (StringUtils.isNotEmpty(response.getResult())) {
+                result.put(id, response.getResult());
+            }
+        }
+        return new ResponseData<>(result, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * iterate all the data of the domain, batchSize rows are loaded at a time. The id of each
+     * returned value is the stored key, and the expired data is included with its expire time.
+     * The default implementation throws WeIdBaseException with THIS_IS_UNSUPPORTED, the drivers
+     * which can iterate their storage override it.
+     *
+     * @param domain the domain of the data.
+     * @param batchSize the number of rows loaded per round trip.
+     * @return the iterator of the data, WeIdBaseException is thrown if loading fails.
+     * @throws WeIdBaseException THIS_IS_UNSUPPORTED if the driver can not iterate its storage.
+     */
+    public default Iterator<PersistenceRecord> scan(String domain, int batchSize) {
+        throw new WeIdBaseException(ErrorCode.THIS_IS_UNSUPPORTED);
+    }
+
     /**
      * delete data by id.
      *
@@ -0,0 +1,56 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.api.persistence.params;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * The stored data of a domain returned by Persistence.scan().
+ */
+@Data
+public class PersistenceRecord {
+
+    /**
+     * The stored key of the data, which is the hash of the id passed to add().
+     */
+    private String id;
+
+    /**
+     * The stored data.
+     */
+    private String data;
+
+    /**
+     * The time the data is created, null if the storage does not record it.
+     */
+    private Date created;
+
+    /**
+     * The time the data is last updated, null if the storage does not record it.
+     */
+    private Date updated;
+
+    /**
+     * The time the data expires, null if it never expires.
+     */
+    private Date expire;
+}
@@ -48,12 +48,14 @@ import com.webank.weid.service.impl.AmopServiceImpl;
 import com.webank.weid.service.impl.WeIdServiceImpl;
 import com.webank.weid.service.impl.callback.RequestVerifyChallengeCallback;
 import com.webank.weid.service.impl.callback.WeIdAuthAmopCallback;
+import com.webank.weid.suite.api.persistence.PersistenceFactory;
 import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceType;
 import com.webank.weid.suite.auth.inf.WeIdAuth;
 import com.webank.weid.suite.auth.inf.WeIdAuthCallback;
 import com.webank.weid.suite.auth.protocol.WeIdAuthObj;
-import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
 import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.PropertyUtils;
 
 /**
  * weIdAuth service.
@@ -76,6 +78,8 @@ public class WeIdAuthImpl implements WeIdAuth {
         new RequestVerifyChallengeCallback();
 
     private static Persistence dataDriver;
+
+    private static PersistenceType persistenceType;
     /**
      * specify who has right to get weid auth.
      */
@@ -94,7 +98,14 @@ public class WeIdAuthImpl implements WeIdAuth {
 
     private static Persistence getDataDriver() {
         if (dataDriver == null) {
-            dataDriver = new MysqlDriver();
+            // MySQL stays the default store when persistence_type is not configured
+            String type = PropertyUtils.getProperty("persistence_type");
+            if ("redis".equals(type)) {
+                persistenceType = PersistenceType.Redis;
+            } else {
+                persistenceType = PersistenceType.Mysql;
+            }
+            dataDriver = PersistenceFactory.build(persistenceType);
         }
         return dataDriver;
     }
@@ -0,0 +1,46 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效通道，用于在多个SDK节点之间广播缓存节点的remove/removeAll.
+ * 通道会把消息投递给所有订阅者(包括发布者自身)，由订阅者根据消息来源决定是否处理.
+ */
+public interface CacheInvalidationChannel {
+
+    /**
+     * 发布缓存失效消息.
+     * @param message 缓存失效消息
+     */
+    void publish(CacheInvalidationMessage message);
+
+    /**
+     * 订阅缓存失效消息.
+     * @param listener 消息处理器
+     */
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+
+    /**
+     * 关闭通道，取消所有订阅.
+     */
+    void close();
+}
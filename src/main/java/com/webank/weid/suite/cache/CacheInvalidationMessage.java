@@ -0,0 +1,80 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.cache;
+
+/**
+ * 缓存失效消息，key为空时表示失效整个缓存节点.
+ */
+public class CacheInvalidationMessage {
+
+    //发布消息的节点标识
+    private String source;
+
+    private String cacheName;
+
+    private String key;
+
+    public CacheInvalidationMessage() {
+    }
+
+    /**
+     * 创建缓存失效消息.
+     * @param source 发布消息的节点标识
+     * @param cacheName 缓存名
+     * @param key 缓存key，为空时表示失效整个缓存节点
+     */
+    public CacheInvalidationMessage(String source, String cacheName, String key) {
+        this.source = source;
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidationMessage{source=" + source
+            + ", cacheName=" + cacheName
+            + ", key=" + key
+            + "}";
+    }
+}
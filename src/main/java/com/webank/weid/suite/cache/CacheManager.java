@@ -21,12 +21,16 @@ package com.webank.weid.suite.cache;
 
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.util.PropertyUtils;
@@ -39,6 +43,8 @@ import com.webank.weid.util.PropertyUtils;
  */
 public class CacheManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(CacheManager.class);
+
     //全局缓存上下文
     private static final ConcurrentHashMap<String, CacheNode<Object>> context = 
         new ConcurrentHashMap<String, CacheNode<Object>>();
@@ -47,6 +53,35 @@ public class CacheManager {
     private static final Integer MAX_SIZE = 1000;
     private static final String CACHE_MAXSIZE_KEY = "caffeineCache.maximumSize.";
 
+    //默认缓存权重上限
+    private static final Long MAX_WEIGHT = 64L * 1024 * 1024;
+    private static final String CACHE_MAXWEIGHT_KEY = "caffeineCache.maximumWeight.";
+
+    //缓存超时时间配置，没有配置则使用注册时传入的超时时间
+    private static final String CACHE_TIMEOUT_KEY = "caffeineCache.timeout.";
+
+    //缓存失效通道配置，目前支持redis，没有配置则缓存失效只在本节点生效
+    private static final String CACHE_INVALIDATION_CHANNEL_KEY =
+        "caffeineCache.invalidation.channel";
+    private static final String CACHE_INVALIDATION_CHANNEL_REDIS = "redis";
+
+    //本节点标识，用于忽略本节点发布的失效消息
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    //缓存失效通道
+    private static volatile CacheInvalidationChannel invalidationChannel;
+
+    static {
+        String channel = PropertyUtils.getProperty(CACHE_INVALIDATION_CHANNEL_KEY);
+        if (CACHE_INVALIDATION_CHANNEL_REDIS.equalsIgnoreCase(StringUtils.trim(channel))) {
+            try {
+                setInvalidationChannel(new RedisCacheInvalidationChannel());
+            } catch (Exception e) {
+                logger.error("[CacheManager] init the redis invalidation channel failed.", e);
+            }
+        }
+    }
+
     /**
      * 根据缓存名获取缓存节点最大缓存个数，如果没有配置则使用默认大小配置.
      * @param cacheKey 缓存名
@@ -60,15 +95,43 @@ public class CacheManager {
         return MAX_SIZE;
     }
     
+    /**
+     * 根据缓存名获取缓存节点最大权重，如果没有配置则使用默认权重配置.
+     * @param cacheName 缓存名
+     * @return
+     */
+    private static Long getMaxWeight(String cacheName) {
+        String maximumWeight = PropertyUtils.getProperty(CACHE_MAXWEIGHT_KEY + cacheName);
+        if (StringUtils.isNotBlank(maximumWeight)) {
+            return Long.parseLong(maximumWeight);
+        }
+        return MAX_WEIGHT;
+    }
+    
+    /**
+     * 根据缓存名获取缓存节点超时时间，如果没有配置则使用默认超时时间.
+     * @param cacheName 缓存名
+     * @param timeout 默认超时时间
+     * @return
+     */
+    private static Long getTimeout(String cacheName, Long timeout) {
+        String configTimeout = PropertyUtils.getProperty(CACHE_TIMEOUT_KEY + cacheName);
+        if (StringUtils.isNotBlank(configTimeout)) {
+            return Long.parseLong(configTimeout);
+        }
+        return timeout;
+    }
+    
     /**
      * 注册缓存节点,如果存在则直接返回,不存在则注册.
+     * 超时时间和最大缓存个数可以分别通过caffeineCache.timeout.xxx和caffeineCache.maximumSize.xxx配置.
      * @param <T> 需要存放的数据类型
      * @param cacheName 缓存名
-     * @param timeout 超时时间
+     * @param timeout 默认超时时间
      * @return 返回缓存节点
      */
     public static <T> CacheNode<T> registerCacheNode(String cacheName, Long timeout) {
-        return registerCacheNode(cacheName, timeout, getMaxSize(cacheName));
+        return registerCacheNode(cacheName, getTimeout(cacheName, timeout), getMaxSize(cacheName));
     }
     
     /**
@@ -93,6 +156,110 @@ public class CacheManager {
         return node;
     }
     
+    /**
+     * 注册按权重限制大小的缓存节点，适用于缓存项大小差异较大的场景(如按字节数限制).
+     * 超时时间和最大缓存权重可以分别通过caffeineCache.timeout.xxx和caffeineCache.maximumWeight.xxx配置.
+     * @param <T> 需要存放的数据类型
+     * @param cacheName 缓存名
+     * @param timeout 默认超时时间
+     * @param weigher 缓存项权重计算器
+     * @return 返回缓存节点
+     */
+    public static <T> CacheNode<T> registerWeighedCacheNode(
+        String cacheName, 
+        Long timeout, 
+        Weigher<String, T> weigher) {
+        return registerWeighedCacheNode(
+            cacheName, getTimeout(cacheName, timeout), getMaxWeight(cacheName), weigher);
+    }
+    
+    /**
+     * 注册按权重限制大小的缓存节点，适用于缓存项大小差异较大的场景(如按字节数限制).
+     * @param <T> 需要存放的数据类型
+     * @param cacheName 缓存名
+     * @param timeout 超时时间
+     * @param maximumWeight 最大缓存权重
+     * @param weigher 缓存项权重计算器
+     * @return 返回缓存节点
+     */
+    public static <T> CacheNode<T> registerWeighedCacheNode(
+        String cacheName, 
+        Long timeout, 
+        Long maximumWeight,
+        Weigher<String, T> weigher) {
+        
+        CacheNode<Object> cacheNode = context.get(cacheName);
+        if (cacheNode != null) {
+            throw new WeIdBaseException("the cacheName is registed, cacheName= " + cacheName);
+        }
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Object key, Object value) -> weigher.weigh((String) key, (T) value));
+        cacheNode = initCache(cacheName, timeout, builder);
+        CacheNode<T> node = (CacheNode<T>)cacheNode;
+        return node;
+    }
+    
+    /**
+     * 获取缓存节点的命中统计，用于评估缓存大小配置.
+     * @param cacheName 缓存名
+     * @return 返回统计信息，缓存节点不存在返回null
+     */
+    public static CacheStatistics getStatistics(String cacheName) {
+        CacheNode<Object> cacheNode = context.get(cacheName);
+        if (cacheNode == null) {
+            return null;
+        }
+        return cacheNode.getStatistics();
+    }
+    
+    /**
+     * 设置缓存失效通道，缓存节点的remove/removeAll会通过该通道通知其他节点.
+     * 原有通道会被关闭，传入null则缓存失效只在本节点生效.
+     * @param channel 缓存失效通道
+     */
+    public static synchronized void setInvalidationChannel(CacheInvalidationChannel channel) {
+        CacheInvalidationChannel oldChannel = invalidationChannel;
+        if (oldChannel != null) {
+            oldChannel.close();
+        }
+        if (channel != null) {
+            channel.subscribe(CacheManager::onInvalidation);
+        }
+        invalidationChannel = channel;
+    }
+    
+    /**
+     * 发布缓存失效消息.
+     * @param cacheName 缓存名
+     * @param key 缓存key，为空时表示失效整个缓存节点
+     */
+    static void publishInvalidation(String cacheName, String key) {
+        CacheInvalidationChannel channel = invalidationChannel;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.publish(new CacheInvalidationMessage(NODE_ID, cacheName, key));
+        } catch (Exception e) {
+            logger.error("[publishInvalidation] publish failed, cacheName= {}.", cacheName, e);
+        }
+    }
+    
+    /**
+     * 处理其他节点发布的缓存失效消息.
+     * @param message 缓存失效消息
+     */
+    private static void onInvalidation(CacheInvalidationMessage message) {
+        if (message == null || NODE_ID.equals(message.getSource())) {
+            return;
+        }
+        CacheNode<Object> cacheNode = context.get(message.getCacheName());
+        if (cacheNode != null) {
+            cacheNode.invalidateLocal(message.getKey());
+        }
+    }
+    
     /**
      * 失效缓存数据.
      */
@@ -115,11 +282,32 @@ public class CacheManager {
         Long timeout, 
         Integer maximumSize) {
         
-        Cache<String, Object> cache = Caffeine.newBuilder()
+        return initCache(cacheName, timeout, Caffeine.newBuilder().maximumSize(maximumSize));
+    }
+    
+    /**
+     * 根据缓存名、超时时间以及容量配置初始化缓存模块.
+     * @param cacheName 缓存名
+     * @param timeout 超时时间
+     * @param builder 已配置容量限制的缓存构建器
+     * @return 返回缓存节点对象
+     */
+    private static synchronized CacheNode<Object> initCache(
+        String cacheName, 
+        Long timeout, 
+        Caffeine<Object, Object> builder) {
+        
+        CacheStatistics statistics = new CacheStatistics();
+        Cache<String, Object> cache = builder
                 .expireAfterWrite(timeout, TimeUnit.MILLISECONDS)
-                .maximumSize(maximumSize)
+                .<String, Object>removalListener((key, value, cause) -> {
+                    // 只统计容量和超时引起的淘汰，主动删除不计入
+                    if (cause.wasEvicted()) {
+                        statistics.recordEviction();
+                    }
+                })
                 .build();
-        CacheNode<Object> node = new CacheNode<>(cacheName, cache);
+        CacheNode<Object> node = new CacheNode<>(cacheName, cache, statistics);
         context.put(cacheName, node);
         return node;
     }
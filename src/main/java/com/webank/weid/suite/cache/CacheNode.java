@@ -19,8 +19,19 @@
 
 package com.webank.weid.suite.cache;
 
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
 import com.github.benmanes.caffeine.cache.Cache;
 
+import com.webank.weid.exception.WeIdBaseException;
+
 /**
  * 缓存节点.
  * @author v_wbgyang
@@ -33,28 +44,296 @@ public class CacheNode<T> {
     
     private String cacheName;
     
-    CacheNode(String cacheName, Cache<String, T> cache) {
+    private CacheStatistics statistics;
+    
+    //正在加载中的数据，同一个key同时只有一个加载请求
+    private final ConcurrentHashMap<String, CompletableFuture<T>> loadingContext =
+        new ConcurrentHashMap<>();
+    
+    //失效计数的分段数
+    private static final int GENERATION_STRIPES = 64;
+    
+    //失效计数，按key的hash分段，每次删除缓存数据时递增，用于丢弃删除前加载的旧数据
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    
+    CacheNode(String cacheName, Cache<String, T> cache, CacheStatistics statistics) {
         this.cacheName = cacheName;
         this.cache = cache;
+        this.statistics = statistics;
     }
     
     public void put(String key, T t) {
         cache.put(key, t);
     }
     
+    /**
+     * 获取key当前的失效计数，在加载数据前调用，配合putIfGeneration使用.
+     * @param key 缓存key
+     * @return 返回失效计数
+     */
+    public long getGeneration(String key) {
+        return generations.get(stripe(key));
+    }
+    
+    /**
+     * 缓存加载的数据，如果加载期间该key被删除过则不缓存，避免旧数据覆盖删除.
+     * @param key 缓存key
+     * @param t 加载的数据
+     * @param generation 加载前获取的失效计数
+     * @return 返回是否缓存成功
+     */
+    public boolean putIfGeneration(String key, T t, long generation) {
+        return putIfGeneration(key, t, generation, null);
+    }
+    
+    /**
+     * 缓存数据，如果缓存中已有更新的数据则不覆盖，避免并发加载时旧数据覆盖新数据.
+     * @param key 缓存key
+     * @param t 加载的数据
+     * @param order 数据的新旧顺序，越新越大
+     * @return 返回是否缓存成功
+     */
+    public boolean putIfNewer(String key, T t, Comparator<? super T> order) {
+        return cache.asMap().merge(key, t, (cached, loaded) -> newer(cached, loaded, order)) == t;
+    }
+    
+    private boolean putIfGeneration(
+        String key,
+        T t,
+        long generation,
+        Comparator<? super T> order) {
+        
+        int stripe = stripe(key);
+        if (generations.get(stripe) != generation) {
+            return false;
+        }
+        if (order == null) {
+            cache.put(key, t);
+        } else if (!putIfNewer(key, t, order)) {
+            return false;
+        }
+        // 检查之后放入之前发生的删除，由放入之后的二次检查撤销
+        if (generations.get(stripe) != generation) {
+            cache.invalidate(key);
+            return false;
+        }
+        return true;
+    }
+    
+    private static <T> T newer(T cached, T loaded, Comparator<? super T> order) {
+        return order.compare(cached, loaded) > 0 ? cached : loaded;
+    }
+    
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+    
+    private void incrementGeneration(String key) {
+        if (key == null) {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+        } else {
+            generations.incrementAndGet(stripe(key));
+        }
+    }
+    
+    /**
+     * 获取缓存数据，并记录命中情况.
+     * @param key 缓存key
+     * @return 返回缓存数据，不存在返回null
+     */
     public T get(String key) {
-        return cache.getIfPresent(key);
+        T value = cache.getIfPresent(key);
+        if (value == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+        return value;
+    }
+    
+    /**
+     * 获取缓存数据，如果缓存数据未通过校验则将其淘汰并视为未命中.
+     * @param key 缓存key
+     * @param validator 缓存数据校验器
+     * @return 返回通过校验的缓存数据，否则返回null
+     */
+    public T getIfValid(String key, Predicate<? super T> validator) {
+        T value = cache.getIfPresent(key);
+        if (value == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        if (!validator.test(value)) {
+            cache.invalidate(key);
+            statistics.recordMiss();
+            statistics.recordEviction();
+            return null;
+        }
+        statistics.recordHit();
+        return value;
+    }
+    
+    /**
+     * 获取缓存数据，未命中时通过加载器加载并缓存非空结果.
+     * 同一个key并发未命中时只有一个线程执行加载，其余线程等待同一个加载结果.
+     * @param key 缓存key
+     * @param loader 数据加载器
+     * @return 返回缓存数据或加载的数据
+     */
+    public T get(String key, Function<String, ? extends T> loader) {
+        return get(key, loader, value -> true);
     }
     
+    /**
+     * 获取缓存数据，未命中时通过加载器加载，只缓存满足条件的结果(如成功的查询结果).
+     * 同一个key并发未命中时只有一个线程执行加载，其余线程等待同一个加载结果.
+     * @param key 缓存key
+     * @param loader 数据加载器
+     * @param cacheable 加载结果是否需要缓存
+     * @return 返回缓存数据或加载的数据
+     */
+    public T get(String key, Function<String, ? extends T> loader, Predicate<? super T> cacheable) {
+        T value = get(key);
+        if (value != null) {
+            return value;
+        }
+        // 抢到加载权时数据可能已经被上一个加载请求放入缓存
+        return load(
+            key, (k, cached) -> cached != null ? cached : loader.apply(k), cacheable, null);
+    }
+    
+    /**
+     * 获取通过校验的缓存数据，否则通过加载器重新加载并缓存非空结果.
+     * 未通过校验的旧数据会传给加载器(没有则为null)，便于在旧数据的基础上增量加载.
+     * 等待中的线程如果拿到的加载结果仍未通过自身校验，则自行加载.
+     * @param key 缓存key
+     * @param validator 缓存数据校验器
+     * @param loader 数据加载器，第二个参数为未通过校验的旧数据
+     * @return 返回通过校验的缓存数据或加载的数据
+     */
+    public T get(
+        String key,
+        Predicate<? super T> validator,
+        BiFunction<String, ? super T, ? extends T> loader) {
+        
+        return get(key, validator, loader, null);
+    }
+    
+    /**
+     * 获取通过校验的缓存数据，否则通过加载器重新加载，加载结果只在不比缓存中的数据旧时缓存.
+     * 不同线程的校验条件可能不同(如要求的块高不同)，按order比较可以避免较旧的加载结果覆盖较新的数据.
+     * @param key 缓存key
+     * @param validator 缓存数据校验器
+     * @param loader 数据加载器，第二个参数为未通过校验的旧数据
+     * @param order 数据的新旧顺序，越新越大，为空时总是覆盖
+     * @return 返回通过校验的缓存数据或加载的数据
+     */
+    public T get(
+        String key,
+        Predicate<? super T> validator,
+        BiFunction<String, ? super T, ? extends T> loader,
+        Comparator<? super T> order) {
+        
+        T value = cache.getIfPresent(key);
+        if (value != null && validator.test(value)) {
+            statistics.recordHit();
+            return value;
+        }
+        statistics.recordMiss();
+        if (value != null) {
+            // 与getIfValid一致，未通过校验的数据记为淘汰; 但数据留在缓存中直到被加载结果替换,
+            // 以便传给加载器做增量加载，并按order阻止较旧的加载结果覆盖它
+            statistics.recordEviction();
+        }
+        T loaded = load(key, loader, result -> true, order);
+        if (loaded != null && !validator.test(loaded)) {
+            long generation = getGeneration(key);
+            loaded = loader.apply(key, loaded);
+            if (loaded != null) {
+                putIfGeneration(key, loaded, generation, order);
+            }
+        }
+        return loaded;
+    }
+    
+    private T load(
+        String key,
+        BiFunction<String, ? super T, ? extends T> loader,
+        Predicate<? super T> cacheable,
+        Comparator<? super T> order) {
+        
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> loading = loadingContext.putIfAbsent(key, future);
+        if (loading != null) {
+            try {
+                return loading.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new WeIdBaseException("load cache data failed, key= " + key, e.getCause());
+            }
+        }
+        try {
+            long generation = getGeneration(key);
+            T value = cache.getIfPresent(key);
+            T loaded = loader.apply(key, value);
+            if (loaded != null && cacheable.test(loaded)) {
+                putIfGeneration(key, loaded, generation, order);
+            }
+            future.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingContext.remove(key, future);
+        }
+    }
+    
+    /**
+     * 删除缓存数据，并通知其他节点删除.
+     * @param key 缓存key
+     */
     public void remove(String key) {
+        incrementGeneration(key);
         cache.invalidate(key);
+        CacheManager.publishInvalidation(cacheName, key);
     }
     
+    /**
+     * 删除所有缓存数据，并通知其他节点删除.
+     */
     public void removeAll() {
+        incrementGeneration(null);
         cache.invalidateAll();
+        CacheManager.publishInvalidation(cacheName, null);
+    }
+    
+    /**
+     * 处理其他节点的失效消息，只删除本地缓存数据.
+     * @param key 缓存key，为空时删除所有缓存数据
+     */
+    void invalidateLocal(String key) {
+        incrementGeneration(key);
+        if (key == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(key);
+        }
     }
     
     public String getCacheName() {
         return cacheName;
     }
+    
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+    
+    public long size() {
+        return cache.estimatedSize();
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.suite.persistence.redis.driver.RedisDriver;
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * 基于Redis发布订阅的缓存失效通道，所有SDK节点订阅同一个topic.
+ * 消息异步发布，Redis发布订阅不保证送达，缓存仍然需要配置超时时间兜底.
+ * 通道不持有Redis客户端，关闭时只移除监听，不关闭客户端.
+ */
+public class RedisCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private static final Logger logger =
+        LoggerFactory.getLogger(RedisCacheInvalidationChannel.class);
+
+    /**
+     * 缓存失效消息的topic.
+     */
+    public static final String TOPIC_NAME = "weid:cache:invalidation";
+
+    private final RTopic topic;
+
+    private final List<Integer> listenerIds = new CopyOnWriteArrayList<>();
+
+    /**
+     * 使用RedisDriver共用的Redis客户端.
+     */
+    public RedisCacheInvalidationChannel() {
+        this(RedisDriver.getClient());
+    }
+
+    /**
+     * 使用调用方提供的Redis客户端，客户端由调用方负责关闭.
+     * @param client Redis客户端
+     */
+    public RedisCacheInvalidationChannel(RedissonClient client) {
+        this.topic = client.getTopic(TOPIC_NAME, StringCodec.INSTANCE);
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        topic.publishAsync(DataToolUtils.serialize(message)).onComplete((count, e) -> {
+            if (e != null) {
+                logger.error("[publish] publish the cache invalidation {} failed.", message, e);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        int listenerId = topic.addListener(String.class, (channel, msg) -> {
+            try {
+                listener.accept(DataToolUtils.deserialize(msg, CacheInvalidationMessage.class));
+            } catch (Exception e) {
+                logger.error("[subscribe] handle the cache invalidation {} failed.", msg, e);
+            }
+        });
+        listenerIds.add(listenerId);
+    }
+
+    @Override
+    public void close() {
+        topic.removeListener(listenerIds.toArray(new Integer[0]));
+        listenerIds.clear();
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.request.TransactionArgs;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
+import com.webank.weid.suite.cache.CacheManager;
+import com.webank.weid.suite.cache.CacheNode;
+import com.webank.weid.suite.cache.CacheStatistics;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * 带本地近端缓存的Persistence装饰类, 只缓存persistence.cache.domains中配置的domain.
+ * 读操作优先读取缓存, 写操作在写入底层存储后失效对应的缓存数据.
+ * 缓存数据不感知底层数据的超时时间, 缓存超时时间需要小于domain的超时时间.
+ */
+public class CachedPersistence implements Persistence {
+
+    /**
+     * 缓存名前缀, 每个domain对应一个缓存节点.
+     */
+    public static final String CACHE_NAME_PREFIX = "SYS_PERSISTENCE_";
+
+    /**
+     * 默认缓存超时时间, 可通过caffeineCache.timeout.xxx配置.
+     */
+    private static final Long DEFAULT_TIMEOUT = 300000L;
+
+    /**
+     * 所有实例共享同一个domain的缓存节点.
+     */
+    private static final ConcurrentHashMap<String, CacheNode<String>> CACHE_NODES =
+        new ConcurrentHashMap<>();
+
+    private final Persistence persistence;
+
+    private final Set<String> cacheDomains;
+
+    /**
+     * 包装底层Persistence, 缓存的domain读取persistence.cache.domains配置.
+     *
+     * @param persistence 底层Persistence
+     */
+    public CachedPersistence(Persistence persistence) {
+        this(persistence, getCacheDomains());
+    }
+
+    /**
+     * 包装底层Persistence.
+     *
+     * @param persistence 底层Persistence
+     * @param cacheDomains 需要缓存的domain
+     */
+    public CachedPersistence(Persistence persistence, Set<String> cacheDomains) {
+        this.persistence = persistence;
+        this.cacheDomains = cacheDomains;
+    }
+
+    /**
+     * 获取配置的需要缓存的domain.
+     *
+     * @return 返回domain集合, 没有配置返回空集合
+     */
+    public static Set<String> getCacheDomains() {
+        Set<String> domains = new HashSet<>();
+        String config = PropertyUtils.getProperty(DataDriverConstant.PERSISTENCE_CACHE_DOMAINS);
+        if (StringUtils.isNotBlank(config)) {
+            for (String domain : config.split(",")) {
+                if (StringUtils.isNotBlank(domain)) {
+                    domains.add(domain.trim());
+                }
+            }
+        }
+        return domains;
+    }
+
+    /**
+     * 获取domain缓存的命中统计.
+     *
+     * @param domain 数据所属domain
+     * @return 返回统计信息, 缓存节点不存在返回null
+     */
+    public static CacheStatistics getStatistics(String domain) {
+        return CacheManager.getStatistics(CACHE_NAME_PREFIX + resolveDomain(domain));
+    }
+
+    private static String resolveDomain(String domain) {
+        return StringUtils.isBlank(domain) ? DataDriverConstant.DOMAIN_DEFAULT_INFO : domain;
+    }
+
+    /**
+     * 获取domain对应的缓存节点, domain未开启缓存时返回null.
+     */
+    private CacheNode<String> getCacheNode(String domain) {
+        String domainKey = resolveDomain(domain);
+        if (!cacheDomains.contains(domainKey)) {
+            return null;
+        }
+        return CACHE_NODES.computeIfAbsent(domainKey,
+            key -> CacheManager.registerCacheNode(CACHE_NAME_PREFIX + key, DEFAULT_TIMEOUT));
+    }
+
+    private void invalidate(String domain, String id) {
+        CacheNode<String> cacheNode = getCacheNode(domain);
+        if (cacheNode != null && id != null) {
+            cacheNode.remove(id);
+        }
+    }
+
+    private static boolean isCacheable(ResponseData<String> response) {
+        return response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+            && StringUtils.isNotEmpty(response.getResult());
+    }
+
+    @Override
+    public ResponseData<Integer> add(String domain, String id, String data) {
+        ResponseData<Integer> response = persistence.add(domain, id, data);
+        invalidate(domain, id);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<Integer>> addAsync(
+        String domain,
+        String id,
+        String data) {
+        return persistence.addAsync(domain, id, data).whenComplete((response, e) -> {
+            invalidate(domain, id);
+        });
+    }
+
+    @Override
+    public ResponseData<Integer> batchAdd(String domain, Map<String, String> keyValueList) {
+        ResponseData<Integer> response = persistence.batchAdd(domain, keyValueList);
+        if (keyValueList != null) {
+            for (String id : keyValueList.keySet()) {
+                invalidate(domain, id);
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public ResponseData<List<String>> batchAddWithFailedIds(
+        String domain,
+        Map<String, String> keyValueList) {
+        ResponseData<List<String>> response =
+            persistence.batchAddWithFailedIds(domain, keyValueList);
+        if (keyValueList != null) {
+            for (String id : keyValueList.keySet()) {
+                invalidate(domain, id);
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public ResponseData<String> get(String domain, String id) {
+        CacheNode<String> cacheNode = getCacheNode(domain);
+        if (cacheNode == null || StringUtils.isEmpty(id)) {
+            return persistence.get(domain, id);
+        }
+        String data = cacheNode.get(id);
+        if (data != null) {
+            return new ResponseData<String>(data, ErrorCode.SUCCESS);
+        }
+        // 加载期间该id被写入时, 不缓存加载到的旧数据
+        long generation = cacheNode.getGeneration(id);
+        ResponseData<String> response = persistence.get(domain, id);
+        if (isCacheable(response)) {
+            cacheNode.putIfGeneration(id, response.getResult(), generation);
+        }
+        return response;
+    }
+
+    @Override
+    public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+        CacheNode<String> cacheNode = getCacheNode(domain);
+        if (cacheNode == null || ids == null || ids.isEmpty() || ids.contains(null)) {
+            return persistence.batchGet(domain, ids);
+        }
+        Map<String, String> result = new HashMap<>();
+        List<String> missIds = new ArrayList<>();
+        for (String id : ids) {
+            String data = result.containsKey(id) ? result.get(id) : cacheNode.get(id);
+            if (data != null) {
+                result.put(id, data);
+            } else {
+                missIds.add(id);
+            }
+        }
+        if (missIds.isEmpty()) {
+            return new ResponseData<Map<String, String>>(result, ErrorCode.SUCCESS);
+        }
+        Map<String, Long> generations = new HashMap<>();
+        for (String id : missIds) {
+            generations.put(id, cacheNode.getGeneration(id));
+        }
+        ResponseData<Map<String, String>> response = persistence.batchGet(domain, missIds);
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+            || response.getResult() == null) {
+            return response;
+        }
+        for (Map.Entry<String, String> entry : response.getResult().entrySet()) {
+            if (StringUtils.isNotEmpty(entry.getValue())) {
+                cacheNode.putIfGeneration(
+                    entry.getKey(), entry.getValue(), generations.get(entry.getKey()));
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return new ResponseData<Map<String, String>>(result, ErrorCode.SUCCESS);
+    }
+
+    @Override
+    public Iterator<PersistenceRecord> scan(String domain, int batchSize) {
+        return persistence.scan(domain, batchSize);
+    }
+
+    @Override
+    public ResponseData<Integer> delete(String domain, String id) {
+        ResponseData<Integer> response = persistence.delete(domain, id);
+        invalidate(domain, id);
+        return response;
+    }
+
+    @Override
+    public ResponseData<Integer> update(String domain, String id, String data) {
+        ResponseData<Integer> response = persistence.update(domain, id, data);
+        invalidate(domain, id);
+        return response;
+    }
+
+    @Override
+    public ResponseData<Integer> addOrUpdate(String domain, String id, String data) {
+        ResponseData<Integer> response = persistence.addOrUpdate(domain, id, data);
+        invalidate(domain, id);
+        return response;
+    }
+
+    @Override
+    public ResponseData<Integer> addTransaction(TransactionArgs transactionArgs) {
+        return persistence.addTransaction(transactionArgs);
+    }
+}
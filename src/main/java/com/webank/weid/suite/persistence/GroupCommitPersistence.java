@@ -0,0 +1,465 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.request.TransactionArgs;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * 组提交的Persistence装饰类, 多个线程的add请求先进入有界队列, 由后台线程每interval毫秒或
+ * 每batchSize条合并为一次batchAdd写入底层存储.
+ * 对同一个id的读写操作会先等待该id排队中的add写入完成, 保证读到自己的写.
+ */
+public class GroupCommitPersistence implements Persistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitPersistence.class);
+
+    private static final int SUCCESS_STATUS = 1;
+
+    /**
+     * 写请求的确认时机.
+     */
+    public enum AckMode {
+
+        /**
+         * 所在批次写入底层存储后确认.
+         */
+        FLUSH,
+
+        /**
+         * 进入队列后立即确认, 进程异常退出时队列中的数据会丢失.
+         */
+        ENQUEUE
+    }
+
+    private final Persistence persistence;
+
+    private final long interval;
+
+    private final int batchSize;
+
+    private final AckMode ackMode;
+
+    private final BlockingQueue<PendingWrite> queue;
+
+    /**
+     * 排队中的写请求, domain -> id -> 最后一次写请求.
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, PendingWrite>> pending =
+        new ConcurrentHashMap<>();
+
+    private final Thread flusher;
+
+    /**
+     * 入队持有读锁, close持有写锁, 保证close排空队列后不会再有写请求入队.
+     */
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private volatile boolean running = true;
+
+    /**
+     * 包装底层Persistence, 组提交参数读取persistence.groupCommit配置.
+     *
+     * @param persistence 底层Persistence
+     */
+    public GroupCommitPersistence(Persistence persistence) {
+        this(
+            persistence,
+            getInterval(),
+            Integer.parseInt(PropertyUtils.getProperty(
+                DataDriverConstant.PERSISTENCE_GROUP_COMMIT_BATCH_SIZE,
+                DataDriverConstant.PERSISTENCE_GROUP_COMMIT_BATCH_SIZE_DEFAULT_VALUE)),
+            Integer.parseInt(PropertyUtils.getProperty(
+                DataDriverConstant.PERSISTENCE_GROUP_COMMIT_QUEUE_SIZE,
+                DataDriverConstant.PERSISTENCE_GROUP_COMMIT_QUEUE_SIZE_DEFAULT_VALUE)),
+            AckMode.valueOf(PropertyUtils.getProperty(
+                DataDriverConstant.PERSISTENCE_GROUP_COMMIT_ACK,
+                DataDriverConstant.PERSISTENCE_GROUP_COMMIT_ACK_DEFAULT_VALUE).trim().toUpperCase())
+        );
+    }
+
+    /**
+     * 包装底层Persistence.
+     *
+     * @param persistence 底层Persistence
+     * @param interval 写请求在队列中的最长等待毫秒数
+     * @param batchSize 每批最多写入的条数
+     * @param queueSize 队列容量, 队列满时写请求等待后台线程消费
+     * @param ackMode 写请求的确认时机
+     */
+    public GroupCommitPersistence(
+        Persistence persistence,
+        long interval,
+        int batchSize,
+        int queueSize,
+        AckMode ackMode) {
+
+        this.persistence = persistence;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.ackMode = ackMode;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.flusher = new Thread(this::runFlush, "weid-persistence-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    /**
+     * 获取配置的组提交间隔.
+     *
+     * @return 返回组提交间隔, 0表示未开启组提交
+     */
+    public static long getInterval() {
+        return Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.PERSISTENCE_GROUP_COMMIT_INTERVAL,
+            DataDriverConstant.PERSISTENCE_GROUP_COMMIT_INTERVAL_DEFAULT_VALUE));
+    }
+
+    private static String resolveDomain(String domain) {
+        return StringUtils.isBlank(domain) ? DataDriverConstant.DOMAIN_DEFAULT_INFO : domain;
+    }
+
+    /**
+     * 停止后台线程, 并写入队列中剩余的数据, 之后的写请求直接写入底层存储.
+     */
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingWrite> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        flush(batch);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<Integer>> addAsync(
+        String domain,
+        String id,
+        String data) {
+
+        if (StringUtils.isEmpty(id)) {
+            return persistence.addAsync(domain, id, data);
+        }
+        PendingWrite write = new PendingWrite(resolveDomain(domain), id, data);
+        closeLock.readLock().lock();
+        try {
+            if (!running) {
+                return persistence.addAsync(domain, id, data);
+            }
+            pending.computeIfAbsent(write.domain, k -> new ConcurrentHashMap<>()).put(id, write);
+            enqueue(write);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        if (ackMode == AckMode.ENQUEUE && !write.future.isDone()) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS));
+        }
+        return write.future;
+    }
+
+    /**
+     * 写请求入队, 队列满时等待后台线程消费, 后台线程已退出时该请求以失败结束, 不会一直阻塞.
+     */
+    private void enqueue(PendingWrite write) {
+        try {
+            while (!queue.offer(write, Math.max(interval, 1L), TimeUnit.MILLISECONDS)) {
+                if (!flusher.isAlive()) {
+                    logger.error("[groupCommit] the flusher is stopped, the data {} is not added.",
+                        write.id);
+                    complete(write, failedResponse());
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(write, failedResponse());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> add(String domain, String id, String data) {
+        return addAsync(domain, id, data).join();
+    }
+
+    /**
+     * 等待该id排队中的写请求写入完成.
+     */
+    private void awaitPending(String domain, String id) {
+        Map<String, PendingWrite> writes = pending.get(resolveDomain(domain));
+        if (writes == null || id == null) {
+            return;
+        }
+        PendingWrite write = writes.get(id);
+        if (write != null) {
+            write.future.join();
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> batchAdd(String domain, Map<String, String> keyValueList) {
+        if (keyValueList != null) {
+            for (String id : keyValueList.keySet()) {
+                awaitPending(domain, id);
+            }
+        }
+        return persistence.batchAdd(domain, keyValueList);
+    }
+
+    @Override
+    public ResponseData<List<String>> batchAddWithFailedIds(
+        String domain,
+        Map<String, String> keyValueList) {
+        if (keyValueList != null) {
+            for (String id : keyValueList.keySet()) {
+                awaitPending(domain, id);
+            }
+        }
+        return persistence.batchAddWithFailedIds(domain, keyValueList);
+    }
+
+    @Override
+    public ResponseData<String> get(String domain, String id) {
+        awaitPending(domain, id);
+        return persistence.get(domain, id);
+    }
+
+    @Override
+    public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+        if (ids != null) {
+            for (String id : ids) {
+                awaitPending(domain, id);
+            }
+        }
+        return persistence.batchGet(domain, ids);
+    }
+
+    /**
+     * 遍历不等待排队中的写请求.
+     */
+    @Override
+    public Iterator<PersistenceRecord> scan(String domain, int batchSize) {
+        return persistence.scan(domain, batchSize);
+    }
+
+    @Override
+    public ResponseData<Integer> delete(String domain, String id) {
+        awaitPending(domain, id);
+        return persistence.delete(domain, id);
+    }
+
+    @Override
+    public ResponseData<Integer> update(String domain, String id, String data) {
+        awaitPending(domain, id);
+        return persistence.update(domain, id, data);
+    }
+
+    @Override
+    public ResponseData<Integer> addOrUpdate(String domain, String id, String data) {
+        awaitPending(domain, id);
+        return persistence.addOrUpdate(domain, id, data);
+    }
+
+    @Override
+    public ResponseData<Integer> addTransaction(TransactionArgs transactionArgs) {
+        return persistence.addTransaction(transactionArgs);
+    }
+
+    /**
+     * 后台线程, 收集队列中的写请求直到达到batchSize或第一条请求等待了interval毫秒.
+     */
+    private void runFlush() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                PendingWrite first =
+                    running ? queue.poll(interval, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first == null) {
+                    if (!running) {
+                        break;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueueTime + interval;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || wait <= 0 || !running) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                //只由close停止, 否则已入队的写请求要等到close才能写入
+                logger.warn("[groupCommit] the flusher is interrupted, it only stops on close.");
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 按domain合并写入, 同一批次中重复的id在批次写入后单独执行add, 与同步add的结果一致.
+     */
+    private void flush(List<PendingWrite> batch) {
+        Map<String, Map<String, PendingWrite>> domainWrites = new LinkedHashMap<>();
+        List<PendingWrite> duplicates = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            Map<String, PendingWrite> writes =
+                domainWrites.computeIfAbsent(write.domain, k -> new LinkedHashMap<>());
+            if (writes.containsKey(write.id)) {
+                duplicates.add(write);
+            } else {
+                writes.put(write.id, write);
+            }
+        }
+        for (Map.Entry<String, Map<String, PendingWrite>> entry : domainWrites.entrySet()) {
+            flushDomain(entry.getKey(), entry.getValue());
+        }
+        for (PendingWrite write : duplicates) {
+            complete(write, addDirectly(write));
+        }
+    }
+
+    private void flushDomain(String domain, Map<String, PendingWrite> writes) {
+        Map<String, String> keyValues = new LinkedHashMap<>();
+        for (PendingWrite write : writes.values()) {
+            keyValues.put(write.id, write.data);
+        }
+        ResponseData<List<String>> response = null;
+        try {
+            response = persistence.batchAddWithFailedIds(domain, keyValues);
+        } catch (RuntimeException e) {
+            logger.error("[groupCommit] batchAdd {} rows to {} failed.", writes.size(), domain, e);
+        }
+        if (response == null || response.getResult() == null) {
+            //整批失败时逐条写入, 以便每个调用方得到各自的结果
+            logger.warn("[groupCommit] batchAdd to {} failed, add the {} rows one by one.",
+                domain, writes.size());
+            for (PendingWrite write : writes.values()) {
+                complete(write, addDirectly(write));
+            }
+            return;
+        }
+        //只有未写入的id逐条重试, 重复的id由add返回与同步调用一致的结果
+        Set<String> failedIds = new HashSet<>(response.getResult());
+        if (!failedIds.isEmpty()) {
+            logger.warn("[groupCommit] {} of {} rows are not added to {}, add them one by one.",
+                failedIds.size(), writes.size(), domain);
+        }
+        for (PendingWrite write : writes.values()) {
+            if (failedIds.contains(write.id)) {
+                complete(write, addDirectly(write));
+            } else {
+                complete(write, new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS));
+            }
+        }
+    }
+
+    private ResponseData<Integer> addDirectly(PendingWrite write) {
+        try {
+            return persistence.add(write.domain, write.id, write.data);
+        } catch (RuntimeException e) {
+            logger.error("[groupCommit] add the data {} failed.", write.id, e);
+            return failedResponse();
+        }
+    }
+
+    private static ResponseData<Integer> failedResponse() {
+        return new ResponseData<Integer>(
+            DataDriverConstant.SQL_EXECUTE_FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+    }
+
+    private void complete(PendingWrite write, ResponseData<Integer> response) {
+        Map<String, PendingWrite> writes = pending.get(write.domain);
+        if (writes != null) {
+            writes.remove(write.id, write);
+        }
+        if (ackMode == AckMode.ENQUEUE
+            && response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[groupCommit] the acknowledged data {} of {} is lost, errorCode: {}.",
+                write.id, write.domain, response.getErrorCode());
+        }
+        write.future.complete(response);
+    }
+
+    /**
+     * 排队中的写请求.
+     */
+    private static class PendingWrite {
+
+        private final String domain;
+
+        private final String id;
+
+        private final String data;
+
+        private final long enqueueTime = System.currentTimeMillis();
+
+        private final CompletableFuture<ResponseData<Integer>> future =
+            new CompletableFuture<>();
+
+        PendingWrite(String domain, String id, String data) {
+            this.domain = domain;
+            this.id = id;
+            this.data = data;
+        }
+    }
+}
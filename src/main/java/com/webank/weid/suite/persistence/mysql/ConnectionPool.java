@@ -19,17 +19,24 @@
 
 package com.webank.weid.suite.persistence.mysql;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.ObjectName;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.dbcp2.BasicDataSourceFactory;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,7 +50,38 @@ public class ConnectionPool {
     private static  Map<String, BasicDataSource> connectionPoolMap = new ConcurrentHashMap<>();
     
     private static final LinkedList<String> SOURCE_NAME_LIST = new LinkedList<String>();
-    
+
+    /**
+     * JMX中连接池监控的ObjectName前缀.
+     */
+    private static final String JMX_POOL_NAME = "com.webank.weid:type=ConnectionPool,name=";
+
+    /**
+     * JMX中domain查询耗时监控的ObjectName前缀.
+     */
+    private static final String JMX_DOMAIN_NAME = "com.webank.weid:type=PersistenceDomain,name=";
+
+    /**
+     * 数据源名称与连接池监控的映射.
+     */
+    private static final Map<String, PoolMetrics> POOL_METRICS_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * domain与查询耗时直方图的映射.
+     */
+    private static final Map<String, LatencyHistogram> QUERY_METRICS_MAP =
+        new ConcurrentHashMap<>();
+
+    private static final List<PoolMetricsListener> METRICS_LISTENERS =
+        new CopyOnWriteArrayList<>();
+
+    private static final boolean JMX_ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty(
+            DataDriverConstant.PERSISTENCE_METRICS_JMX,
+            DataDriverConstant.PERSISTENCE_METRICS_JMX_DEFAULT_VALUE
+        )
+    );
+
     static {
         init();
     }
@@ -120,6 +158,18 @@ public class ConnectionPool {
             initSizeKey,
             DataDriverConstant.POOL_INIT_DEFAULT_VALUE
         );
+        // 是否缓存预编译语句
+        String poolPsKey = dsNamePrefix + DataDriverConstant.JDBC_POOL_PREPARED_STATEMENTS;
+        String poolPs = PropertyUtils.getProperty(
+            poolPsKey,
+            DataDriverConstant.POOL_PREPARED_STATEMENTS_DEFAULT_VALUE
+        );
+        // 每个连接缓存的预编译语句个数
+        String maxOpenPsKey = dsNamePrefix + DataDriverConstant.JDBC_MAX_OPEN_PREPARED_STATEMENTS;
+        String maxOpenPs = PropertyUtils.getProperty(
+            maxOpenPsKey,
+            DataDriverConstant.POOL_MAX_OPEN_PREPARED_STATEMENTS_DEFAULT_VALUE
+        );
         Properties p = new Properties();
         p.setProperty(DataDriverConstant.POOL_URL, dbUrl);
         p.setProperty(DataDriverConstant.POOL_DRIVER_CLASS_NAME, driverClass);
@@ -162,6 +212,9 @@ public class ConnectionPool {
             DataDriverConstant.JDBC_VALIDATION_QUERY
         );
         p.setProperty(DataDriverConstant.POOL_MIN_EITM, minEitm);
+        // 开启预编译语句缓存
+        p.setProperty(DataDriverConstant.POOL_PREPARED_STATEMENTS, poolPs);
+        p.setProperty(DataDriverConstant.POOL_MAX_OPEN_PREPARED_STATEMENTS, maxOpenPs);
         return p;
     }
     
@@ -179,10 +232,159 @@ public class ConnectionPool {
                 BasicDataSource connectionPool = 
                     (BasicDataSource) BasicDataSourceFactory.createDataSource(properties);
                 connectionPoolMap.put(string, connectionPool);
+                initPoolMetrics(string, connectionPool);
             }
         } catch (Exception e) {
             logger.error("init ConnectionPool error, please check the log.", e);
         }
+        initMetricsListener();
+        startAdaptiveTask();
+    }
+
+    /**
+     * 初始化连接池监控, 自适应调整的最大连接数默认在[minIdle, 2 * maxActive]之间.
+     */
+    private static void initPoolMetrics(String dsName, BasicDataSource connectionPool) {
+        String prefix = dsName + ".";
+        int maxActive = connectionPool.getMaxTotal();
+        int lower = Integer.parseInt(PropertyUtils.getProperty(
+            prefix + DataDriverConstant.JDBC_ADAPTIVE_MIN_ACTIVE,
+            String.valueOf(connectionPool.getMinIdle())
+        ));
+        int upper = Integer.parseInt(PropertyUtils.getProperty(
+            prefix + DataDriverConstant.JDBC_ADAPTIVE_MAX_ACTIVE,
+            String.valueOf(maxActive * 2)
+        ));
+        PoolMetrics metrics = new PoolMetrics(
+            connectionPool,
+            Math.max(1, Math.min(lower, maxActive)),
+            Math.max(upper, maxActive)
+        );
+        POOL_METRICS_MAP.put(dsName, metrics);
+        registerMBean(JMX_POOL_NAME, dsName, metrics);
+    }
+
+    private static void initMetricsListener() {
+        String listenerClass =
+            PropertyUtils.getProperty(DataDriverConstant.PERSISTENCE_METRICS_LISTENER);
+        if (StringUtils.isBlank(listenerClass)) {
+            return;
+        }
+        try {
+            addMetricsListener(
+                (PoolMetricsListener) Class.forName(listenerClass.trim()).newInstance());
+        } catch (Exception e) {
+            logger.error("init the metrics listener {} error.", listenerClass, e);
+        }
+    }
+
+    /**
+     * 启动连接池自适应调整任务, 周期为persistence.pool.adaptive.interval, 为0时不启动.
+     */
+    private static void startAdaptiveTask() {
+        long interval = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.PERSISTENCE_POOL_ADAPTIVE_INTERVAL,
+            DataDriverConstant.PERSISTENCE_POOL_ADAPTIVE_INTERVAL_DEFAULT_VALUE
+        ));
+        if (interval <= 0 || POOL_METRICS_MAP.isEmpty()) {
+            return;
+        }
+        long waitThreshold = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.PERSISTENCE_POOL_ADAPTIVE_WAIT_THRESHOLD,
+            DataDriverConstant.PERSISTENCE_POOL_ADAPTIVE_WAIT_THRESHOLD_DEFAULT_VALUE
+        ));
+        TimerTask task = new TimerTask() {
+            @Override
+            public void run() {
+                for (Map.Entry<String, PoolMetrics> entry : POOL_METRICS_MAP.entrySet()) {
+                    try {
+                        int oldMaxActive = entry.getValue().getMaxActive();
+                        int newMaxActive = entry.getValue().adapt(waitThreshold);
+                        if (newMaxActive == oldMaxActive) {
+                            continue;
+                        }
+                        logger.info("[adaptive] the maxActive of {} is changed from {} to {}.",
+                            entry.getKey(), oldMaxActive, newMaxActive);
+                        for (PoolMetricsListener listener : METRICS_LISTENERS) {
+                            listener.onResize(entry.getKey(), oldMaxActive, newMaxActive);
+                        }
+                    } catch (Exception e) {
+                        logger.error("[adaptive] adapt the pool {} error.", entry.getKey(), e);
+                    }
+                }
+            }
+        };
+        new Timer("weid-connection-pool-adaptive", true).schedule(task, interval, interval);
+    }
+
+    private static void registerMBean(String namePrefix, String name, Object mbean) {
+        if (!JMX_ENABLED) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName(namePrefix + ObjectName.quote(name));
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("register the MXBean {} error.", name, e);
+        }
+    }
+
+    /**
+     * 注册连接池监控的回调.
+     *
+     * @param listener 监控回调
+     */
+    public static void addMetricsListener(PoolMetricsListener listener) {
+        METRICS_LISTENERS.add(listener);
+    }
+
+    /**
+     * 移除连接池监控的回调.
+     *
+     * @param listener 监控回调
+     */
+    public static void removeMetricsListener(PoolMetricsListener listener) {
+        METRICS_LISTENERS.remove(listener);
+    }
+
+    /**
+     * 获取数据源的连接池监控.
+     *
+     * @param dsName 数据源名称
+     * @return 返回连接池监控, 数据源不存在时返回null
+     */
+    public static PoolMetrics getPoolMetrics(String dsName) {
+        return POOL_METRICS_MAP.get(dsName);
+    }
+
+    /**
+     * 获取domain的查询耗时直方图.
+     *
+     * @param domain domain的配置项名称
+     * @return 返回查询耗时直方图, 尚无查询时返回null
+     */
+    public static LatencyHistogram getQueryMetrics(String domain) {
+        return QUERY_METRICS_MAP.get(domain);
+    }
+
+    /**
+     * 记录domain的一次SQL执行耗时.
+     *
+     * @param domain domain的配置项名称
+     * @param nanos 执行耗时, 单位纳秒
+     * @param success 是否执行成功
+     */
+    public static void recordQuery(String domain, long nanos, boolean success) {
+        QUERY_METRICS_MAP.computeIfAbsent(domain, key -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            registerMBean(JMX_DOMAIN_NAME, key, histogram);
+            return histogram;
+        }).record(nanos, success);
+        for (PoolMetricsListener listener : METRICS_LISTENERS) {
+            listener.onQuery(domain, nanos, success);
+        }
     }
     
     /**
@@ -193,11 +395,24 @@ public class ConnectionPool {
      */
     public static Connection getConnection(String dsName) {
         Connection conn = null;
+        PoolMetrics metrics = POOL_METRICS_MAP.get(dsName);
+        long start = System.nanoTime();
+        if (metrics != null) {
+            metrics.beforeBorrow();
+        }
         try {
             conn = connectionPoolMap.get(dsName).getConnection();
             conn.setAutoCommit(true);
         } catch (Exception e) {
             logger.error("get connection error, please check the log.", e);
+        } finally {
+            long waitNanos = System.nanoTime() - start;
+            if (metrics != null) {
+                metrics.afterBorrow(waitNanos, conn != null);
+            }
+            for (PoolMetricsListener listener : METRICS_LISTENERS) {
+                listener.onBorrow(dsName, waitNanos, conn != null);
+            }
         }
         return conn;
     }
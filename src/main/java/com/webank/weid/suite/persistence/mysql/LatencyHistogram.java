@@ -0,0 +1,159 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.mysql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定分桶的耗时直方图, 记录无锁, 分位数取所在分桶的上界.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    /**
+     * 分桶上界, 单位毫秒, 最后一个分桶无上界.
+     */
+    private static final long[] BUCKET_BOUNDS = {
+        1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时.
+     *
+     * @param nanos 耗时, 单位纳秒
+     * @param success 是否成功
+     */
+    public void record(long nanos, boolean success) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int index = 0;
+        while (index < BUCKET_BOUNDS.length && millis >= BUCKET_BOUNDS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (!success) {
+            failureCount.increment();
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * 获取耗时总和, 用于计算两次采样之间的平均耗时.
+     *
+     * @return 耗时总和, 单位纳秒
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long total = getCount();
+        return total == 0 ? 0 : getTotalNanos() / 1000000.0 / total;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1000000.0;
+    }
+
+    @Override
+    public long getP50Millis() {
+        return getPercentileMillis(0.5);
+    }
+
+    @Override
+    public long getP99Millis() {
+        return getPercentileMillis(0.99);
+    }
+
+    /**
+     * 获取分位数所在分桶的上界, 落在最后一个分桶时返回最大耗时.
+     *
+     * @param percentile 分位数, 取值(0, 1]
+     * @return 耗时上界, 单位毫秒
+     */
+    public long getPercentileMillis(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= target) {
+                return BUCKET_BOUNDS[i];
+            }
+        }
+        return (long) Math.ceil(getMaxMillis());
+    }
+
+    @Override
+    public Map<String, Long> getBuckets() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            result.put("<" + BUCKET_BOUNDS[i] + "ms", buckets[i].sum());
+        }
+        result.put(">=" + BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] + "ms",
+            buckets[BUCKET_BOUNDS.length].sum());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount()
+            + ", failureCount=" + getFailureCount()
+            + ", meanMillis=" + getMeanMillis()
+            + ", p99Millis=" + getP99Millis()
+            + ", maxMillis=" + getMaxMillis()
+            + "}";
+    }
+}
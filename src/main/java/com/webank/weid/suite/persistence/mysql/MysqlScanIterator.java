@@ -0,0 +1,126 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
+
+/**
+ * 基于主键的分页遍历迭代器, 每次按id > lastId取batchSize条数据, 内存中最多保留一批数据.
+ * 分表的domain按分表顺序逐个遍历.
+ */
+public class MysqlScanIterator implements Iterator<PersistenceRecord> {
+
+    /**
+     * 映射SQL_SCAN的查询结果: id, data, created, updated, expire.
+     */
+    private static final RowMapper<PersistenceRecord> SCAN_ROW_MAPPER = rs -> {
+        PersistenceRecord value = new PersistenceRecord();
+        value.setId(rs.getString(1));
+        value.setData(rs.getString(2));
+        value.setCreated(toDate(rs.getTimestamp(3)));
+        value.setUpdated(toDate(rs.getTimestamp(4)));
+        value.setExpire(toDate(rs.getTimestamp(5)));
+        return value;
+    };
+
+    private final Iterator<SqlDomain> shards;
+
+    private SqlExecutor executor;
+
+    private final int batchSize;
+
+    private final LinkedList<PersistenceRecord> buffer = new LinkedList<>();
+
+    private String lastId = StringUtils.EMPTY;
+
+    private boolean finished = false;
+
+    public MysqlScanIterator(SqlDomain sqlDomain, int batchSize) {
+        this(Collections.singletonList(sqlDomain), batchSize);
+    }
+
+    public MysqlScanIterator(List<SqlDomain> sqlDomains, int batchSize) {
+        this.shards = sqlDomains.iterator();
+        this.batchSize = batchSize;
+        this.finished = !nextShard();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (buffer.isEmpty() && !finished) {
+            fetch();
+            if (finished) {
+                finished = !nextShard();
+            }
+        }
+        return !buffer.isEmpty();
+    }
+
+    @Override
+    public PersistenceRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return buffer.poll();
+    }
+
+    private boolean nextShard() {
+        if (!shards.hasNext()) {
+            return false;
+        }
+        executor = new SqlExecutor(shards.next());
+        lastId = StringUtils.EMPTY;
+        return true;
+    }
+
+    private void fetch() {
+        ResponseData<List<PersistenceRecord>> response =
+            executor.executeQueryForList(SqlExecutor.SQL_SCAN, SCAN_ROW_MAPPER, lastId, batchSize);
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+            || response.getResult() == null) {
+            throw new WeIdBaseException(ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        List<PersistenceRecord> values = response.getResult();
+        if (values.size() < batchSize) {
+            finished = true;
+        }
+        if (!values.isEmpty()) {
+            lastId = values.get(values.size() - 1).getId();
+            buffer.addAll(values);
+        }
+    }
+
+    private static Date toDate(Timestamp timestamp) {
+        return timestamp == null ? null : new Date(timestamp.getTime());
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.mysql;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+/**
+ * 单个数据源的连接池监控数据, 并根据获取连接的等待耗时自适应调整最大连接数.
+ */
+public class PoolMetrics implements PoolMetricsMXBean {
+
+    private final BasicDataSource dataSource;
+
+    /**
+     * 自适应调整的最大连接数下限.
+     */
+    private final int minActive;
+
+    /**
+     * 自适应调整的最大连接数上限.
+     */
+    private final int maxActive;
+
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+
+    /**
+     * 本次调整周期内的活跃连接数峰值.
+     */
+    private final LongAccumulator peakActive = new LongAccumulator(Math::max, 0L);
+
+    private long lastBorrowCount;
+
+    private long lastBorrowNanos;
+
+    PoolMetrics(BasicDataSource dataSource, int minActive, int maxActive) {
+        this.dataSource = dataSource;
+        this.minActive = minActive;
+        this.maxActive = maxActive;
+    }
+
+    void beforeBorrow() {
+        waitingCount.incrementAndGet();
+    }
+
+    void afterBorrow(long waitNanos, boolean success) {
+        waitingCount.decrementAndGet();
+        borrowWait.record(waitNanos, success);
+        peakActive.accumulate(dataSource.getNumActive());
+    }
+
+    /**
+     * 根据上一周期的平均等待耗时调整最大连接数, 由ConnectionPool的调整任务单线程调用.
+     *
+     * @param waitThresholdMillis 平均等待耗时阈值, 单位毫秒
+     * @return 返回调整后的最大连接数
+     */
+    int adapt(long waitThresholdMillis) {
+        long borrowCount = borrowWait.getCount();
+        long borrowNanos = borrowWait.getTotalNanos();
+        long count = borrowCount - lastBorrowCount;
+        double meanWaitMillis = count == 0
+            ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowNanos - lastBorrowNanos) / 1000.0 / count;
+        lastBorrowCount = borrowCount;
+        lastBorrowNanos = borrowNanos;
+        int peak = (int) Math.max(peakActive.getThenReset(), dataSource.getNumActive());
+
+        int current = dataSource.getMaxTotal();
+        int target = nextMaxActive(current, minActive, maxActive,
+            meanWaitMillis, waitThresholdMillis, waitingCount.get(), peak);
+        if (target != current) {
+            dataSource.setMaxTotal(target);
+        }
+        return target;
+    }
+
+    /**
+     * 计算下一周期的最大连接数: 有等待线程或平均等待超过阈值时扩大1/4,
+     * 几乎没有等待且峰值不足一半时缩小1/4, 均限制在[minActive, maxActive]之内.
+     *
+     * @param current 当前最大连接数
+     * @param minActive 最大连接数的下限
+     * @param maxActive 最大连接数的上限
+     * @param meanWaitMillis 本周期获取连接的平均等待毫秒数
+     * @param waitThresholdMillis 平均等待的扩容阈值
+     * @param waiting 当前等待连接的线程数
+     * @param peakActive 本周期活跃连接数的峰值
+     * @return 下一周期的最大连接数
+     */
+    public static int nextMaxActive(
+        int current,
+        int minActive,
+        int maxActive,
+        double meanWaitMillis,
+        long waitThresholdMillis,
+        int waiting,
+        int peakActive) {
+
+        int step = Math.max(1, current / 4);
+        if (waiting > 0 || meanWaitMillis >= waitThresholdMillis) {
+            return Math.min(maxActive, current + step);
+        }
+        if (meanWaitMillis < waitThresholdMillis / 4.0 && peakActive <= current / 2) {
+            return Math.max(Math.max(minActive, peakActive), current - step);
+        }
+        return current;
+    }
+
+    /**
+     * 获取获取连接等待耗时的直方图.
+     *
+     * @return 等待耗时直方图
+     */
+    public LatencyHistogram getBorrowWait() {
+        return borrowWait;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return dataSource.getNumActive();
+    }
+
+    @Override
+    public int getIdleCount() {
+        return dataSource.getNumIdle();
+    }
+
+    @Override
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    @Override
+    public int getMaxActive() {
+        return dataSource.getMaxTotal();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowWait.getCount();
+    }
+
+    @Override
+    public long getBorrowFailureCount() {
+        return borrowWait.getFailureCount();
+    }
+
+    @Override
+    public double getBorrowWaitMeanMillis() {
+        return borrowWait.getMeanMillis();
+    }
+
+    @Override
+    public long getBorrowWaitP99Millis() {
+        return borrowWait.getP99Millis();
+    }
+
+    @Override
+    public double getBorrowWaitMaxMillis() {
+        return borrowWait.getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{activeCount=" + getActiveCount()
+            + ", idleCount=" + getIdleCount()
+            + ", waitingCount=" + getWaitingCount()
+            + ", maxActive=" + getMaxActive()
+            + ", borrowWait=" + borrowWait
+            + "}";
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.mysql;
+
+/**
+ * 连接池监控的扩展点, 可通过persistence.metrics.listener配置实现类,
+ * 或调用ConnectionPool.addMetricsListener注册, 用于对接外部监控系统.
+ * 回调在业务线程中同步执行, 实现需要保证轻量且不抛出异常.
+ */
+public interface PoolMetricsListener {
+
+    /**
+     * 从连接池获取连接后回调.
+     *
+     * @param dataSource 数据源名称
+     * @param waitNanos 获取连接的等待耗时, 单位纳秒
+     * @param success 是否获取成功
+     */
+    default void onBorrow(String dataSource, long waitNanos, boolean success) {
+    }
+
+    /**
+     * SQL执行完成后回调.
+     *
+     * @param domain domain的配置项名称
+     * @param nanos 执行耗时, 单位纳秒, 包含获取连接的耗时
+     * @param success 是否执行成功
+     */
+    default void onQuery(String domain, long nanos, boolean success) {
+    }
+
+    /**
+     * 自适应调整连接池最大连接数后回调.
+     *
+     * @param dataSource 数据源名称
+     * @param oldMaxActive 调整前的最大连接数
+     * @param newMaxActive 调整后的最大连接数
+     */
+    default void onResize(String dataSource, int oldMaxActive, int newMaxActive) {
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 查询结果的行映射接口, 按列下标直接读取当前行数据.
+ *
+ * @param <T> 映射结果类型
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * 映射结果集的当前行.
+     *
+     * @param rs 结果集, 已定位到当前行
+     * @return 返回映射结果
+     * @throws SQLException 读取结果集异常
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
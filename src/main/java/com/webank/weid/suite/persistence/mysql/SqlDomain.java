@@ -19,8 +19,14 @@
 
 package com.webank.weid.suite.persistence.mysql;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +65,41 @@ public class SqlDomain extends BaseDomain {
      * 表名分隔符.
      */
     private static final String TABLE_SPLIT_CHAR = "_";
+
+    /**
+     * 分表个数配置项的后缀, 如domain.encryptKey.shards=16.
+     */
+    private static final String SHARDS_SUFFIX = ".shards";
+
+    /**
+     * 分表所在数据源配置项的后缀, 分表按下标轮流分布在配置的数据源上.
+     */
+    private static final String SHARD_DATASOURCES_SUFFIX = ".shardDataSources";
+
+    /**
+     * 数据源分隔符.
+     */
+    private static final String DATASOURCE_SPLIT_CHAR = ",";
+
+    /**
+     * 表名, 首次获取时生成.
+     */
+    private String tableName;
+
+    /**
+     * 分表个数, 1表示不分表.
+     */
+    private int shardCount = 1;
+
+    /**
+     * 分表下标, -1表示未路由到具体分表.
+     */
+    private int shardIndex = -1;
+
+    /**
+     * 分表所在的数据源.
+     */
+    private String[] shardDataSources;
     
     public SqlDomain() {
         resolveDomain();
@@ -69,6 +110,38 @@ public class SqlDomain extends BaseDomain {
         resolveDomain();
     }
 
+    /**
+     * 不读取配置, 直接根据数据源和表创建domain.
+     */
+    SqlDomain(
+        String domainKey,
+        String baseDomain,
+        String tableDomain,
+        int shardCount,
+        String... shardDataSources) {
+        this.key = domainKey;
+        this.baseDomain = baseDomain;
+        this.tableDomain = tableDomain;
+        this.shardCount = shardCount;
+        this.shardDataSources = shardDataSources.length == 0 ? null : shardDataSources;
+    }
+
+    /**
+     * 根据父domain创建分表domain.
+     */
+    private SqlDomain(SqlDomain parent, int shardIndex) {
+        this.key = parent.key;
+        this.value = parent.value;
+        this.tableDomain = parent.tableDomain;
+        this.timeout = parent.timeout;
+        this.shardCount = parent.shardCount;
+        this.shardDataSources = parent.shardDataSources;
+        this.shardIndex = shardIndex;
+        this.baseDomain = shardDataSources == null
+            ? parent.baseDomain
+            : shardDataSources[shardIndex % shardDataSources.length];
+    }
+
     private void resolveDomain() {
         if (StringUtils.isBlank(this.key)) {
             this.key = DataDriverConstant.DOMAIN_DEFAULT_INFO;
@@ -100,6 +173,95 @@ public class SqlDomain extends BaseDomain {
             throw new WeIdBaseException(ErrorCode.PRESISTENCE_DOMAIN_ILLEGAL);
         }
         resolveDomainTimeout();
+        resolveDomainShards();
+    }
+
+    private void resolveDomainShards() {
+        String shards = PropertyUtils.getProperty(this.key + SHARDS_SUFFIX);
+        if (StringUtils.isBlank(shards)) {
+            return;
+        }
+        this.shardCount = NumberUtils.toInt(shards.trim(), 0);
+        if (this.shardCount < 1) {
+            logger.error("[resolveDomainShards] the shards of {} is invalid.", this.key);
+            throw new WeIdBaseException(ErrorCode.PRESISTENCE_DOMAIN_ILLEGAL);
+        }
+        String dataSources = PropertyUtils.getProperty(this.key + SHARD_DATASOURCES_SUFFIX);
+        if (StringUtils.isBlank(dataSources)) {
+            return;
+        }
+        this.shardDataSources = StringUtils.stripAll(dataSources.split(DATASOURCE_SPLIT_CHAR));
+        for (String dataSource : this.shardDataSources) {
+            if (!ConnectionPool.checkDataSourceName(dataSource)) {
+                logger.error("[resolveDomainShards] the dataSource {} of {} is not exists.",
+                    dataSource, this.key);
+                throw new WeIdBaseException(ErrorCode.PRESISTENCE_DOMAIN_INVALID);
+            }
+        }
+    }
+
+    /**
+     * 是否分表.
+     * @return 配置了多个分表返回true
+     */
+    public boolean isSharded() {
+        return this.shardCount > 1;
+    }
+
+    /**
+     * 根据Hash(id)路由到对应的分表, 不分表时返回自身.
+     * @param dataKey Hash(id)
+     * @return 返回分表domain
+     */
+    public SqlDomain route(String dataKey) {
+        if (!isSharded() || this.shardIndex >= 0) {
+            return this;
+        }
+        return new SqlDomain(this, shardOf(dataKey));
+    }
+
+    /**
+     * 获取Hash(id)所在分表的下标, 与getShards()的顺序一致.
+     * @param dataKey Hash(id)
+     * @return 返回分表下标, 不分表时返回0
+     */
+    public int shardOf(String dataKey) {
+        if (!isSharded() || this.shardIndex >= 0) {
+            return 0;
+        }
+        return Math.floorMod(dataKey.hashCode(), this.shardCount);
+    }
+
+    /**
+     * 按分表对Hash(id)分组.
+     * @param dataKeys Hash(id)列表
+     * @return 返回每个分表的Hash(id), 下标与getShards()一致
+     */
+    public List<List<String>> groupByShard(Collection<String> dataKeys) {
+        int count = !isSharded() || this.shardIndex >= 0 ? 1 : this.shardCount;
+        List<List<String>> shardKeys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shardKeys.add(new ArrayList<>());
+        }
+        for (String dataKey : dataKeys) {
+            shardKeys.get(shardOf(dataKey)).add(dataKey);
+        }
+        return shardKeys;
+    }
+
+    /**
+     * 获取所有分表, 不分表时只返回自身.
+     * @return 返回所有分表domain
+     */
+    public List<SqlDomain> getShards() {
+        if (!isSharded() || this.shardIndex >= 0) {
+            return Collections.singletonList(this);
+        }
+        List<SqlDomain> shards = new ArrayList<>(this.shardCount);
+        for (int i = 0; i < this.shardCount; i++) {
+            shards.add(new SqlDomain(this, i));
+        }
+        return shards;
     }
     
     /**
@@ -107,15 +269,23 @@ public class SqlDomain extends BaseDomain {
      * @return the tableName
      */
     public String getTableName() {
+        if (this.tableName != null) {
+            return this.tableName;
+        }
         if (StringUtils.isBlank(ORG_ID)) {
             logger.error("[getTableName] the orgid is blank.");
             throw new WeIdBaseException(ErrorCode.ORG_ID_IS_NULL);
         }
-        return new StringBuffer(DEFAULT_TABLE_PREFIX)
+        StringBuffer buffer = new StringBuffer(DEFAULT_TABLE_PREFIX)
             .append(TABLE_SPLIT_CHAR)
             .append(ORG_ID)
             .append(TABLE_SPLIT_CHAR)
-            .append(this.tableDomain).toString();
+            .append(this.tableDomain);
+        if (this.shardIndex >= 0) {
+            buffer.append(TABLE_SPLIT_CHAR).append(this.shardIndex);
+        }
+        this.tableName = buffer.toString();
+        return this.tableName;
     }
     
     /**
@@ -26,10 +26,14 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -41,6 +45,7 @@ import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.PropertyUtils;
 
 
 /**
@@ -58,15 +63,39 @@ public class SqlExecutor {
      * 库占位符.
      */
     public static final String DATABASE_CHAR = "$2";
+    /**
+     * in条件占位符.
+     */
+    public static final String IN_CHAR = "$3";
     /**
      * sql for query.
      */
     public static final String SQL_QUERY = "select id,data,created,expire from $1 where id =?";
+    /**
+     * sql for query the data and expire columns.
+     */
+    public static final String SQL_QUERY_DATA = "select data,expire from $1 where id = ?";
+    /**
+     * sql for batch query, the $3 will be replaced by the placeholders of the ids.
+     */
+    public static final String SQL_QUERY_BATCH = "select id,data,expire from $1 where id in ($3)";
+    /**
+     * sql for scan the table page by page, ordered by the primary key.
+     */
+    public static final String SQL_SCAN =
+        "select id,data,created,updated,expire from $1 where id > ? order by id limit ?";
     /**
      * sql for add.
      */
     public static final String SQL_SAVE = "insert into $1(id, data, expire, created, updated) "
         + "values(?,?,?,?,?)";
+    /**
+     * sql for add or update.
+     */
+    public static final String SQL_SAVE_OR_UPDATE =
+        "insert into $1(id, data, expire, created, updated) values(?,?,?,?,?) "
+        + "on duplicate key update data = values(data), expire = values(expire), "
+        + "updated = values(updated)";
     /**
      * sql for update.
      */
@@ -76,6 +105,17 @@ public class SqlExecutor {
      * sql for delete.
      */
     public static final String SQL_DELETE = "delete from $1 where id = ?";
+    /**
+     * sql for delete the expired data in batches.
+     */
+    public static final String SQL_DELETE_EXPIRED = "delete from $1 where expire < ? limit ?";
+    /**
+     * sql for check whether the index of the table exists.
+     */
+    public static final String SQL_CHECK_INDEX =
+        "select index_name " + DataDriverConstant.SQL_COLUMN_DATA
+        + " from information_schema.STATISTICS where upper(table_schema) = upper('$2')"
+        + " and upper(table_name) = upper(?) and upper(index_name) = upper(?) limit 1";
     /**
      * sql for add.
      */
@@ -83,16 +123,52 @@ public class SqlExecutor {
         "insert into weidentity_offline_transaction_info"
         + "(request_id, transaction_method, transaction_args, transaction_timestamp, extra, batch)"
         + " values(?,?,?,?,?,?)";
+    /**
+     * sql for query the offline transactions of a batch, paged by request_id.
+     */
+    public static final String SQL_QUERY_TRANSACTION =
+        "select request_id, transaction_method, transaction_args, transaction_timestamp, extra,"
+        + " batch from weidentity_offline_transaction_info"
+        + " where batch = ? and request_id > ? order by request_id limit ?";
 
     private static final Logger logger = LoggerFactory.getLogger(SqlExecutor.class);
     /**
-     * 批次提交个数.
+     * 批量新增时每批的行数.
      */
-    private static final int BATCH_COMMIT_COUNT = 200;
+    private static final int BATCH_ADD_CHUNK_SIZE = Integer.parseInt(PropertyUtils.getProperty(
+        DataDriverConstant.PERSISTENCE_BATCH_ADD_CHUNK_SIZE,
+        DataDriverConstant.PERSISTENCE_BATCH_ADD_CHUNK_SIZE_DEFAULT_VALUE));
     /**
-     * tableDomain 与 tableName的映射.
+     * insert语句中values的关键字.
+     */
+    private static final String VALUES_KEYWORD = "values";
+    /**
+     * 批量查询时单条SQL的in条件个数.
+     */
+    private static final int BATCH_QUERY_COUNT = 200;
+    /**
+     * 数据源:表名 与 tableName的映射.
      */
     private static final Map<String, String> TABLE_CACHE = new ConcurrentHashMap<String, String>();
+    /**
+     * tableName 与 已替换表名的SQL语句的映射.
+     */
+    private static final Map<String, Map<String, String>> SQL_CACHE =
+        new ConcurrentHashMap<String, Map<String, String>>();
+    /**
+     * 可缓存的SQL, 只缓存本类的固定SQL, 调用方传入的SQL不缓存, 避免缓存无限增长.
+     */
+    private static final Set<String> CACHEABLE_SQL = new HashSet<String>(Arrays.asList(
+        SQL_QUERY,
+        SQL_QUERY_DATA,
+        SQL_QUERY_BATCH,
+        SQL_SCAN,
+        SQL_SAVE,
+        SQL_SAVE_OR_UPDATE,
+        SQL_UPDATE,
+        SQL_DELETE,
+        SQL_DELETE_EXPIRED
+    ));
     /**
      * the sql domain.
      */
@@ -130,6 +206,7 @@ public class SqlExecutor {
      */
     public ResponseData<Map<String, String>> executeQuery(String sql, Object... data) {
         ResponseData<Map<String, String>> result = new ResponseData<Map<String, String>>();
+        long start = System.nanoTime();
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
@@ -151,21 +228,7 @@ public class SqlExecutor {
             rs = ps.executeQuery();
             Map<String, String> dataMap = null;
             if (rs.next()) {
-                dataMap = new HashMap<String, String>();
-                ResultSetMetaData metaData = rs.getMetaData();
-                int columnCount = metaData.getColumnCount();
-                for (int i = 1; i <= columnCount; i++) {
-                    String columnLabel = metaData.getColumnLabel(i);
-                    int type = metaData.getColumnType(i);
-                    if (type == Types.TIMESTAMP) {
-                        Timestamp timestamp = rs.getTimestamp(columnLabel);
-                        if (timestamp != null) {
-                            dataMap.put(columnLabel, String.valueOf(timestamp.getTime()));
-                        }
-                    } else {
-                        dataMap.put(columnLabel, rs.getString(columnLabel));
-                    }
-                }
+                dataMap = readRow(rs);
             }
             rs.close();
             ps.close();
@@ -175,11 +238,186 @@ public class SqlExecutor {
             logger.error("Query data from {{}} with exception", sqlDomain.getBaseDomain(), e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
         } finally {
+            recordQuery(start, conn, result);
             ConnectionPool.close(conn, ps, rs);
         }
         return result;
     }
 
+    /**
+     * 查询操作, 通过rowMapper按列下标映射结果.
+     *
+     * @param sql 需要被执行的SQL语句
+     * @param rowMapper 结果行映射
+     * @param data 占位符所需要的数据
+     * @param <T> 映射结果类型
+     * @return 返回查询出来的单个数据, 无数据时结果为null
+     */
+    public <T> ResponseData<T> executeQueryForObject(
+        String sql,
+        RowMapper<T> rowMapper,
+        Object... data) {
+
+        ResponseData<T> result = new ResponseData<T>();
+        long start = System.nanoTime();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            if (conn == null) {
+                return new ResponseData<T>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            ps = conn.prepareStatement(buildExecuteSql(sql, conn));
+            for (int i = 0; i < data.length; i++) {
+                ps.setObject(i + 1, data[i]);
+            }
+            rs = ps.executeQuery();
+            T value = null;
+            if (rs.next()) {
+                value = rowMapper.mapRow(rs);
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(value);
+        } catch (SQLException e) {
+            logger.error("Query data from {{}} with exception", sqlDomain.getBaseDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            recordQuery(start, conn, result);
+            ConnectionPool.close(conn, ps, rs);
+        }
+        return result;
+    }
+
+    /**
+     * 查询操作, 通过rowMapper按列下标映射所有结果行.
+     *
+     * @param sql 需要被执行的SQL语句
+     * @param rowMapper 结果行映射
+     * @param data 占位符所需要的数据
+     * @param <T> 映射结果类型
+     * @return 返回查询出来的所有数据
+     */
+    public <T> ResponseData<List<T>> executeQueryForList(
+        String sql,
+        RowMapper<T> rowMapper,
+        Object... data) {
+
+        ResponseData<List<T>> result = new ResponseData<List<T>>();
+        long start = System.nanoTime();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            if (conn == null) {
+                return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            ps = conn.prepareStatement(buildExecuteSql(sql, conn));
+            for (int i = 0; i < data.length; i++) {
+                ps.setObject(i + 1, data[i]);
+            }
+            rs = ps.executeQuery();
+            List<T> values = new ArrayList<T>();
+            while (rs.next()) {
+                values.add(rowMapper.mapRow(rs));
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(values);
+        } catch (SQLException e) {
+            logger.error("Query data from {{}} with exception", sqlDomain.getBaseDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            recordQuery(start, conn, result);
+            ConnectionPool.close(conn, ps, rs);
+        }
+        return result;
+    }
+
+    /**
+     * 批量查询操作, 数据按批次拆分成多条in条件的SQL在同一个连接中执行.
+     *
+     * @param sql 需要被执行的SQL语句, in条件使用$3占位
+     * @param dataList in条件所需要的数据
+     * @param rowMapper 结果行映射
+     * @param <T> 映射结果类型
+     * @return 返回查询出来的所有数据
+     */
+    public <T> ResponseData<List<T>> executeBatchQuery(
+        String sql,
+        List<?> dataList,
+        RowMapper<T> rowMapper) {
+
+        ResponseData<List<T>> result = new ResponseData<List<T>>();
+        long start = System.nanoTime();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            if (conn == null) {
+                return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            List<T> values = new ArrayList<T>(dataList.size());
+            String exeSql = buildExecuteSql(sql, conn);
+            for (int from = 0; from < dataList.size(); from += BATCH_QUERY_COUNT) {
+                List<?> subList =
+                    dataList.subList(from, Math.min(from + BATCH_QUERY_COUNT, dataList.size()));
+                ps = conn.prepareStatement(exeSql.replace(IN_CHAR, buildInSql(subList.size())));
+                for (int i = 0; i < subList.size(); i++) {
+                    ps.setObject(i + 1, subList.get(i));
+                }
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    values.add(rowMapper.mapRow(rs));
+                }
+                rs.close();
+                ps.close();
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(values);
+        } catch (SQLException e) {
+            logger.error("Batch query data from {{}} with exception",
+                sqlDomain.getBaseDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            recordQuery(start, conn, result);
+            ConnectionPool.close(conn, ps, rs);
+        }
+        return result;
+    }
+
+    // 读取当前行的数据, 时间类型转换为毫秒数
+    private Map<String, String> readRow(ResultSet rs) throws SQLException {
+        Map<String, String> dataMap = new HashMap<String, String>();
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        for (int i = 1; i <= columnCount; i++) {
+            String columnLabel = metaData.getColumnLabel(i);
+            int type = metaData.getColumnType(i);
+            if (type == Types.TIMESTAMP) {
+                Timestamp timestamp = rs.getTimestamp(columnLabel);
+                if (timestamp != null) {
+                    dataMap.put(columnLabel, String.valueOf(timestamp.getTime()));
+                }
+            } else {
+                dataMap.put(columnLabel, rs.getString(columnLabel));
+            }
+        }
+        return dataMap;
+    }
+
+    private String buildInSql(int size) {
+        StringBuilder inSql = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                inSql.append(',');
+            }
+            inSql.append('?');
+        }
+        return inSql.toString();
+    }
+
     /**
      * 增删改的通用执行方法.
      *
@@ -189,6 +427,7 @@ public class SqlExecutor {
      */
     public ResponseData<Integer> execute(String sql, Object... data) {
         ResponseData<Integer> result = new ResponseData<Integer>();
+        long start = System.nanoTime();
         Connection conn = null;
         PreparedStatement ps = null;
         try {
@@ -217,76 +456,318 @@ public class SqlExecutor {
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
             result.setResult(DataDriverConstant.SQL_EXECUTE_FAILED_STATUS);
         } finally {
+            recordQuery(start, conn, result);
             ConnectionPool.close(conn, ps);
         }
         return result;
     }
 
     /**
-     * 批量新增的通用语句.
+     * 批量新增的语句, 按persistence.batchAdd.chunkSize拆分批次.
      *
-     * @param sql 需要被执行的数据
+     * @param sql 需要被执行的SQL语句
      * @param dataList 占位符所需要的数据
      * @return 返回受影响的行数
      */
     public ResponseData<Integer> batchAdd(String sql, List<List<Object>> dataList) {
-        ResponseData<Integer> result = new ResponseData<Integer>();
+        return batchAdd(sql, dataList, BATCH_ADD_CHUNK_SIZE);
+    }
+
+    /**
+     * 批量新增的语句, 失败的行见batchAddRows.
+     *
+     * @param sql 单行insert语句, 包含一组values(?,...)占位符
+     * @param dataList 占位符所需要的数据, 每个元素为一列
+     * @param chunkSize 每批的行数
+     * @return 返回成功写入的行数, 部分失败时错误码为PERSISTENCE_BATCH_ADD_PARTIAL_FAILED
+     */
+    public ResponseData<Integer> batchAdd(
+        String sql,
+        List<List<Object>> dataList,
+        int chunkSize) {
+
+        ResponseData<List<Integer>> response = batchAddRows(sql, dataList, chunkSize);
+        if (response.getResult() == null) {
+            return new ResponseData<Integer>(
+                DataDriverConstant.SQL_EXECUTE_FAILED_STATUS,
+                ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        int count = dataList.get(0).size() - response.getResult().size();
+        if (count == 0 && !response.getResult().isEmpty()) {
+            count = DataDriverConstant.SQL_EXECUTE_FAILED_STATUS;
+        }
+        return new ResponseData<Integer>(
+            count, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+    }
+
+    /**
+     * 批量新增的语句, 按persistence.batchAdd.chunkSize拆分批次, 返回写入失败的行.
+     *
+     * @param sql 需要被执行的SQL语句
+     * @param dataList 占位符所需要的数据
+     * @return 返回写入失败的行下标
+     */
+    public ResponseData<List<Integer>> batchAddRows(String sql, List<List<Object>> dataList) {
+        return batchAddRows(sql, dataList, BATCH_ADD_CHUNK_SIZE);
+    }
+
+    /**
+     * 批量新增的语句, 每批数据拼成一条多行insert语句并在单独的事务中提交.
+     * 某一批失败时回滚该批并逐行重试, 只有写入失败的行计入结果, 后续批次继续执行.
+     *
+     * @param sql 单行insert语句, 包含一组values(?,...)占位符
+     * @param dataList 占位符所需要的数据, 每个元素为一列
+     * @param chunkSize 每批的行数
+     * @return 返回写入失败的行下标, 全部成功时为空列表, 部分失败时错误码为
+     *     PERSISTENCE_BATCH_ADD_PARTIAL_FAILED, 全部失败时为PERSISTENCE_EXECUTE_FAILED,
+     *     数据不匹配或无法执行时结果为null
+     */
+    public ResponseData<List<Integer>> batchAddRows(
+        String sql,
+        List<List<Object>> dataList,
+        int chunkSize) {
+
+        ResponseData<List<Integer>> result = new ResponseData<List<Integer>>();
+        long start = System.nanoTime();
         Connection conn = null;
-        PreparedStatement psts = null;
         try {
             List<Object> values = dataList.get(dataList.size() - 1);
             for (List<Object> list : dataList) {
                 if (CollectionUtils.isEmpty(list) || list.size() != values.size()) {
-                    return
-                        new ResponseData<Integer>(
-                            DataDriverConstant.SQL_EXECUTE_FAILED_STATUS,
-                            ErrorCode.PERSISTENCE_BATCH_ADD_DATA_MISMATCH
-                        );
+                    return new ResponseData<List<Integer>>(
+                        null, ErrorCode.PERSISTENCE_BATCH_ADD_DATA_MISMATCH);
                 }
             }
             conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
             if (conn == null) {
-                return
-                    new ResponseData<Integer>(
-                        DataDriverConstant.SQL_EXECUTE_FAILED_STATUS,
-                        ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR
-                    );
+                return new ResponseData<List<Integer>>(
+                    null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
             }
             conn.setAutoCommit(false);
-            psts = conn.prepareStatement(buildExecuteSql(sql, conn));
-            int count = 0;
-            for (int i = 0; i < values.size(); i++) {
-                for (int j = 0; j < dataList.size(); j++) {
-                    psts.setObject(j + 1, dataList.get(j).get(i));
+            List<Integer> failedRows =
+                addInChunks(conn, buildExecuteSql(sql, conn), dataList, chunkSize);
+            if (failedRows.isEmpty()) {
+                result.setErrorCode(ErrorCode.SUCCESS);
+            } else if (failedRows.size() == values.size()) {
+                result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            } else {
+                logger.error("Batch add {} of {} rows to {{}} failed.",
+                    failedRows.size(), values.size(), sqlDomain.getTableName());
+                result.setErrorCode(ErrorCode.PERSISTENCE_BATCH_ADD_PARTIAL_FAILED);
+            }
+            result.setResult(failedRows);
+        } catch (SQLException e) {
+            logger.error("Batch add data to {{}} with exception", sqlDomain.getBaseDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            recordQuery(start, conn, result);
+            ConnectionPool.close(conn);
+        }
+        return result;
+    }
+
+    /**
+     * 按批写入数据, 连接需已关闭自动提交.
+     * 多行insert失败时回滚该批并逐行重试, 避免一行重复的id导致整批失败.
+     *
+     * @param conn 数据库连接
+     * @param sql 已替换表名的单行insert语句
+     * @param dataList 占位符所需要的数据, 每个元素为一列
+     * @param chunkSize 每批的行数
+     * @return 返回写入失败的行下标
+     */
+    static List<Integer> addInChunks(
+        Connection conn,
+        String sql,
+        List<List<Object>> dataList,
+        int chunkSize) {
+
+        ParamBinder[] binders = new ParamBinder[dataList.size()];
+        for (int j = 0; j < dataList.size(); j++) {
+            binders[j] = resolveBinder(dataList.get(j));
+        }
+        int rowCount = dataList.get(0).size();
+        List<Integer> failedRows = new ArrayList<Integer>();
+        for (int from = 0; from < rowCount; from += chunkSize) {
+            int rows = Math.min(chunkSize, rowCount - from);
+            try {
+                executeRows(conn, buildMultiRowSql(sql, rows), dataList, binders, from, rows);
+            } catch (SQLException e) {
+                logger.error("Batch add rows [{}, {}) failed, rollback and retry row by row.",
+                    from, from + rows, e);
+                rollback(conn);
+                if (rows == 1) {
+                    failedRows.add(from);
+                    continue;
                 }
-                psts.addBatch();
-                // 每500提交一次
-                if (i % BATCH_COMMIT_COUNT == 0) {
-                    int[] counts = psts.executeBatch();
-                    conn.commit();
-                    psts.clearBatch();
-                    for (int j : counts) {
-                        count += j;
+                for (int i = from; i < from + rows; i++) {
+                    try {
+                        executeRows(conn, sql, dataList, binders, i, 1);
+                    } catch (SQLException ex) {
+                        logger.error("Batch add row {} failed: {}", i, ex.getMessage());
+                        rollback(conn);
+                        failedRows.add(i);
                     }
                 }
             }
-            int[] counts = psts.executeBatch();
+        }
+        return failedRows;
+    }
+
+    // 执行并提交[from, from + rows)行的insert语句
+    private static void executeRows(
+        Connection conn,
+        String sql,
+        List<List<Object>> dataList,
+        ParamBinder[] binders,
+        int from,
+        int rows) throws SQLException {
+
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(sql);
+            int index = 1;
+            for (int i = from; i < from + rows; i++) {
+                for (int j = 0; j < dataList.size(); j++) {
+                    binders[j].bind(ps, index++, dataList.get(j).get(i));
+                }
+            }
+            ps.executeUpdate();
             conn.commit();
-            psts.clearBatch();
-            for (int j : counts) {
-                count += j;
+        } finally {
+            ConnectionPool.close(null, ps);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            logger.error("Rollback the batch add failed.", e);
+        }
+    }
+
+    /**
+     * 将单行insert语句扩展为rows行的insert语句.
+     */
+    static String buildMultiRowSql(String sql, int rows) {
+        int valuesIndex = sql.toLowerCase().indexOf(VALUES_KEYWORD);
+        if (valuesIndex < 0 || rows == 1) {
+            return sql;
+        }
+        int groupStart = sql.indexOf('(', valuesIndex);
+        int groupEnd = sql.indexOf(')', groupStart);
+        String group = sql.substring(groupStart, groupEnd + 1);
+        StringBuilder builder = new StringBuilder(groupStart + rows * (group.length() + 1));
+        builder.append(sql, 0, groupStart).append(group);
+        for (int i = 1; i < rows; i++) {
+            builder.append(',').append(group);
+        }
+        return builder.append(sql.substring(groupEnd + 1)).toString();
+    }
+
+    /**
+     * 根据列中第一个非空值的类型选择参数绑定方式, 避免每个值都通过setObject推断类型.
+     */
+    static ParamBinder resolveBinder(List<Object> column) {
+        Object sample = null;
+        for (Object value : column) {
+            if (value != null) {
+                sample = value;
+                break;
+            }
+        }
+        if (sample instanceof String) {
+            return (ps, index, value) -> ps.setString(index, (String) value);
+        }
+        if (sample instanceof Date) {
+            return (ps, index, value) -> ps.setTimestamp(
+                index, value == null ? null : new Timestamp(((Date) value).getTime()));
+        }
+        if (sample instanceof Long) {
+            return (ps, index, value) -> {
+                if (value == null) {
+                    ps.setNull(index, Types.BIGINT);
+                } else {
+                    ps.setLong(index, (Long) value);
+                }
+            };
+        }
+        if (sample instanceof Integer) {
+            return (ps, index, value) -> {
+                if (value == null) {
+                    ps.setNull(index, Types.INTEGER);
+                } else {
+                    ps.setInt(index, (Integer) value);
+                }
+            };
+        }
+        return (ps, index, value) -> ps.setObject(index, value);
+    }
+
+    /**
+     * 单列参数的绑定方式.
+     */
+    @FunctionalInterface
+    interface ParamBinder {
+
+        void bind(PreparedStatement ps, int index, Object value) throws SQLException;
+    }
+
+    /**
+     * 分批删除已过期的数据, 直到没有过期数据为止.
+     *
+     * @param expireBefore 过期时间点, 早于此时间的数据会被删除
+     * @param batchSize 每批删除的条数
+     * @return 返回删除的总条数
+     */
+    public ResponseData<Integer> purgeExpired(Date expireBefore, int batchSize) {
+        ResponseData<Integer> result = new ResponseData<Integer>();
+        long start = System.nanoTime();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        try {
+            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            if (conn == null) {
+                return
+                    new ResponseData<Integer>(
+                        DataDriverConstant.SQL_EXECUTE_FAILED_STATUS,
+                        ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR
+                    );
             }
+            ps = conn.prepareStatement(buildExecuteSql(SQL_DELETE_EXPIRED, conn));
+            ps.setTimestamp(1, new Timestamp(expireBefore.getTime()));
+            ps.setInt(2, batchSize);
+            int count = 0;
+            int deleted;
+            do {
+                deleted = ps.executeUpdate();
+                count += deleted;
+            } while (deleted >= batchSize);
+            result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(count);
         } catch (SQLException e) {
-            logger.error("Batch add data to {{}} with exception", sqlDomain.getBaseDomain(), e);
+            logger.error("Purge expired data of {{}} with exception",
+                sqlDomain.getBaseDomain(), e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
             result.setResult(DataDriverConstant.SQL_EXECUTE_FAILED_STATUS);
         } finally {
-            ConnectionPool.close(conn, psts);
+            recordQuery(start, conn, result);
+            ConnectionPool.close(conn, ps);
         }
         return result;
     }
 
+    private void recordQuery(long start, Connection conn, ResponseData<?> result) {
+        if (conn != null) {
+            ConnectionPool.recordQuery(
+                sqlDomain.getKey(),
+                System.nanoTime() - start,
+                result.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+            );
+        }
+    }
+
     /**
      * 检查表是否存在，如果不存在则创建表.
      *
@@ -295,7 +776,7 @@ public class SqlExecutor {
      */
     public void resolveTableDomain(String checkTableSql, String createTableSql) {
         synchronized (TABLE_CACHE) {
-            String tableName = TABLE_CACHE.get(sqlDomain.getKey());
+            String tableName = TABLE_CACHE.get(getTableCacheKey());
             //说明本地没有此tableDomain
             if (StringUtils.isBlank(tableName)) {
                 if (this.initLocalTable(checkTableSql)) {
@@ -342,7 +823,7 @@ public class SqlExecutor {
         if (result != null
             && tableName.equalsIgnoreCase(result.get(DataDriverConstant.SQL_COLUMN_DATA))) {
             //本地缓存记录此表
-            TABLE_CACHE.put(sqlDomain.getKey(), tableName);
+            TABLE_CACHE.put(getTableCacheKey(), tableName);
             logger.info(
                 "[initLocalTable] the domain {{}:{}} is init success.",
                 sqlDomain.getKey(),
@@ -353,6 +834,11 @@ public class SqlExecutor {
         return false;
     }
 
+    // 分表的domain共用同一个key, 按数据源和表名区分
+    private String getTableCacheKey() {
+        return sqlDomain.getBaseDomain() + SqlDomain.VALUE_SPLIT_CHAR + sqlDomain.getTableName();
+    }
+
     private void createTable(String createTableSql) {
         //动态创建此表
         ResponseData<Integer> createRes = this.execute(createTableSql);
@@ -368,6 +854,24 @@ public class SqlExecutor {
         }
     }
     
+    /**
+     * 检查表的索引是否存在, 不会修改表结构, 缺少的索引需要按文档手动添加.
+     *
+     * @param tableName 表名
+     * @param indexName 索引名
+     * @return 返回索引是否存在, 检查失败时返回false
+     */
+    public boolean hasIndex(String tableName, String indexName) {
+        ResponseData<Map<String, String>> checkRes =
+            this.executeQuery(SQL_CHECK_INDEX, tableName, indexName);
+        if (checkRes.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[hasIndex] check the index {} of {} fail, code:{}.",
+                indexName, tableName, checkRes.getErrorCode());
+            return false;
+        }
+        return checkRes.getResult() != null;
+    }
+
     /**
      * 此方法用于非Domain体系创建自定义表使用.
      * 
@@ -391,8 +895,26 @@ public class SqlExecutor {
     }
 
     private String buildExecuteSql(String exeSql, Connection conn) throws SQLException {
-        exeSql = exeSql.replace(TABLE_CHAR, sqlDomain.getTableName());
-        exeSql = exeSql.replace(DATABASE_CHAR, conn.getCatalog());
-        return exeSql;
+        if (exeSql.contains(DATABASE_CHAR)) {
+            exeSql = exeSql.replace(TABLE_CHAR, sqlDomain.getTableName());
+            return exeSql.replace(DATABASE_CHAR, conn.getCatalog());
+        }
+        return replaceTableName(exeSql, sqlDomain.getTableName());
+    }
+
+    /**
+     * 替换SQL中的表名, 固定SQL按表缓存, 避免每次执行都替换表名.
+     *
+     * @param exeSql 需要替换表名的SQL语句
+     * @param tableName 表名
+     * @return 替换表名后的SQL语句
+     */
+    static String replaceTableName(String exeSql, String tableName) {
+        if (!CACHEABLE_SQL.contains(exeSql)) {
+            return exeSql.replace(TABLE_CHAR, tableName);
+        }
+        return SQL_CACHE
+            .computeIfAbsent(tableName, key -> new ConcurrentHashMap<String, String>())
+            .computeIfAbsent(exeSql, key -> key.replace(TABLE_CHAR, tableName));
     }
 }
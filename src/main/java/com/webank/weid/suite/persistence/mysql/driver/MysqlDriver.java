@@ -19,14 +19,19 @@
 
 package com.webank.weid.suite.persistence.mysql.driver;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -38,7 +43,10 @@ import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.protocol.request.TransactionArgs;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
 import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.suite.persistence.mysql.MysqlScanIterator;
+import com.webank.weid.suite.persistence.mysql.RowMapper;
 import com.webank.weid.suite.persistence.mysql.SqlDomain;
 import com.webank.weid.suite.persistence.mysql.SqlExecutor;
 import com.webank.weid.util.DataToolUtils;
@@ -54,6 +62,27 @@ public class MysqlDriver implements Persistence {
     private static final Logger logger = LoggerFactory.getLogger(
             MysqlDriver.class);
 
+    /**
+     * the index on the expire column, which the purge of the expired data relies on. The tables
+     * created by the older versions need it added by hand before enabling the purge:
+     * alter table `weidentity_xxx` add index `idx_expire` (`expire`).
+     */
+    private static final String EXPIRE_INDEX = "idx_expire";
+
+    private static final String EXPIRE_INDEX_COLUMNS = "`expire`";
+
+    /**
+     * the index which the paged query of the offline transactions of a batch relies on. It is a
+     * prerequisite of the replay and needs to be added by hand:
+     * alter table `weidentity_offline_transaction_info`
+     * add index `idx_batch_request_id` (`batch`, `request_id`).
+     */
+    private static final String TRANSACTION_TABLE = "weidentity_offline_transaction_info";
+
+    private static final String TRANSACTION_INDEX = "idx_batch_request_id";
+
+    private static final String TRANSACTION_INDEX_COLUMNS = "`batch`, `request_id`";
+
     private static final String CHECK_TABLE_SQL =
         "SELECT table_name "
             + DataDriverConstant.SQL_COLUMN_DATA
@@ -74,15 +103,55 @@ public class MysqlDriver implements Persistence {
             + "`ext2` int DEFAULT NULL COMMENT 'extend field2', "
             + "`ext3` varchar(500) DEFAULT NULL COMMENT 'extend field3', "
             + "`ext4` varchar(500) DEFAULT NULL COMMENT 'extend field4', "
-            + "PRIMARY KEY (`id`) "
+            + "PRIMARY KEY (`id`), "
+            + "KEY `" + EXPIRE_INDEX + "` (" + EXPIRE_INDEX_COLUMNS + ") "
             + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the data table'";
 
     private static final Integer FAILED_STATUS = DataDriverConstant.SQL_EXECUTE_FAILED_STATUS;
 
     private static final ErrorCode KEY_INVALID = ErrorCode.PRESISTENCE_DATA_KEY_INVALID;
 
+    /**
+     * 映射SQL_QUERY_DATA的查询结果: data, expire.
+     */
+    private static final RowMapper<DefaultValue> DATA_ROW_MAPPER = rs -> {
+        DefaultValue value = new DefaultValue();
+        value.setData(rs.getString(1));
+        value.setExpire(toDate(rs.getTimestamp(2)));
+        return value;
+    };
+
+    /**
+     * 映射SQL_QUERY_BATCH的查询结果: id, data, expire.
+     */
+    private static final RowMapper<DefaultValue> ID_DATA_ROW_MAPPER = rs -> {
+        DefaultValue value = new DefaultValue();
+        value.setId(rs.getString(1));
+        value.setData(rs.getString(2));
+        value.setExpire(toDate(rs.getTimestamp(3)));
+        return value;
+    };
+
+    /**
+     * 映射SQL_QUERY_TRANSACTION的查询结果.
+     */
+    private static final RowMapper<TransactionArgs> TRANSACTION_ROW_MAPPER = rs -> {
+        TransactionArgs value = new TransactionArgs();
+        value.setRequestId(rs.getString(1));
+        value.setMethod(rs.getString(2));
+        value.setArgs(rs.getString(3));
+        value.setTimeStamp(rs.getLong(4));
+        value.setExtra(rs.getString(5));
+        value.setBatch(rs.getString(6));
+        return value;
+    };
+
     private static Boolean isinit = false;
 
+    private static Timer purgeTimer;
+
+    private static volatile boolean transactionIndexChecked = false;
+
     /**
      * the Constructor and init all domain.
      */
@@ -90,7 +159,8 @@ public class MysqlDriver implements Persistence {
         if (!isinit) {
             synchronized (MysqlDriver.class) {
                 if (!isinit) {
-                    initDomain();
+                    Set<String> domainKeySet = initDomain();
+                    startPurgeTask(domainKeySet);
                     isinit = true;
                 }
             }
@@ -108,13 +178,12 @@ public class MysqlDriver implements Persistence {
         try {
             ResponseData<String> result = new ResponseData<String>();
             result.setResult(StringUtils.EMPTY);
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                .executeQuery(SqlExecutor.SQL_QUERY, dataKey);
+            SqlDomain sqlDomain = new SqlDomain(domain).route(dataKey);
+            ResponseData<DefaultValue> response = new SqlExecutor(sqlDomain)
+                .executeQueryForObject(SqlExecutor.SQL_QUERY_DATA, DATA_ROW_MAPPER, dataKey);
             if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
                 && response.getResult() != null) {
-                DefaultValue tableData = DataToolUtils.deserialize(
-                    DataToolUtils.serialize(response.getResult()), DefaultValue.class);
+                DefaultValue tableData = response.getResult();
                 if (tableData.getExpire() != null && tableData.getExpire().before(new Date())) {
                     logger.error("[mysql->get] the data is expire.");
                     return new ResponseData<String>(StringUtils.EMPTY,
@@ -132,6 +201,84 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    private static Date toDate(Timestamp timestamp) {
+        return timestamp == null ? null : new Date(timestamp.getTime());
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.suite.api.persistence.inf.Persistence#batchGet(java.lang.String,
+     * java.util.List)
+     */
+    @Override
+    public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+
+        if (ids == null || ids.isEmpty()) {
+            logger.error("[mysql->batchGet] the ids of the data is empty.");
+            return new ResponseData<Map<String, String>>(null, KEY_INVALID);
+        }
+        Map<String, List<String>> idMapping = new LinkedHashMap<>();
+        for (String id : ids) {
+            if (StringUtils.isEmpty(id)) {
+                logger.error("[mysql->batchGet] the id of the data is empty.");
+                return new ResponseData<Map<String, String>>(null, KEY_INVALID);
+            }
+            idMapping.computeIfAbsent(DataToolUtils.getHash(id), k -> new ArrayList<>()).add(id);
+        }
+        try {
+            SqlDomain sqlDomain = new SqlDomain(domain);
+            List<SqlDomain> shards = sqlDomain.getShards();
+            List<List<String>> shardKeys = sqlDomain.groupByShard(idMapping.keySet());
+            List<DefaultValue> tableDatas = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                if (shardKeys.get(i).isEmpty()) {
+                    continue;
+                }
+                ResponseData<List<DefaultValue>> response = new SqlExecutor(shards.get(i))
+                    .executeBatchQuery(SqlExecutor.SQL_QUERY_BATCH,
+                        shardKeys.get(i), ID_DATA_ROW_MAPPER);
+                if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+                    || response.getResult() == null) {
+                    return new ResponseData<Map<String, String>>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+                }
+                tableDatas.addAll(response.getResult());
+            }
+            Map<String, String> result = new HashMap<>();
+            Date now = new Date();
+            for (DefaultValue tableData : tableDatas) {
+                if (tableData.getExpire() != null && tableData.getExpire().before(now)) {
+                    logger.info("[mysql->batchGet] the data {} is expire.", tableData.getId());
+                    continue;
+                }
+                List<String> rowIds = idMapping.get(tableData.getId());
+                if (rowIds == null) {
+                    continue;
+                }
+                String data = StringUtils.defaultString(tableData.getData());
+                for (String id : rowIds) {
+                    result.put(id, data);
+                }
+            }
+            return new ResponseData<Map<String, String>>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchGet] batchGet the data error.", e);
+            return new ResponseData<Map<String, String>>(null, e.getErrorCode());
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.suite.api.persistence.inf.Persistence#scan(java.lang.String, int)
+     */
+    @Override
+    public Iterator<PersistenceRecord> scan(String domain, int batchSize) {
+
+        if (batchSize <= 0) {
+            logger.error("[mysql->scan] the batchSize {} is invalid.", batchSize);
+            throw new WeIdBaseException(ErrorCode.ILLEGAL_INPUT);
+        }
+        return new MysqlScanIterator(new SqlDomain(domain).getShards(), batchSize);
+    }
+
     /* (non-Javadoc)
      * @see com.webank.weid.connectivity.driver.DBDriver#add(java.lang.String, java.lang.String)
      */
@@ -144,7 +291,7 @@ public class MysqlDriver implements Persistence {
         }
         String dataKey = DataToolUtils.getHash(id);
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = new SqlDomain(domain).route(dataKey);
             Date now = sqlDomain.getNow();
             Object[] datas = {dataKey, data, sqlDomain.getExpire(), now, now};
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE, datas);
@@ -160,37 +307,106 @@ public class MysqlDriver implements Persistence {
      */
     @Override
     public ResponseData<Integer> batchAdd(String domain, Map<String, String> keyValueList) {
+        ResponseData<List<String>> response = batchAddWithFailedIds(domain, keyValueList);
+        ErrorCode errorCode = ErrorCode.getTypeByErrorCode(response.getErrorCode());
+        if (response.getResult() == null) {
+            return new ResponseData<Integer>(FAILED_STATUS, errorCode);
+        }
+        int count = keyValueList.size() - response.getResult().size();
+        if (errorCode != ErrorCode.SUCCESS) {
+            logger.error("[mysql->batchAdd] only {} of {} rows are added to {}.",
+                count, keyValueList.size(), domain);
+        }
+        if (count == 0 && errorCode != ErrorCode.SUCCESS) {
+            return new ResponseData<Integer>(FAILED_STATUS, errorCode);
+        }
+        return new ResponseData<Integer>(count, errorCode);
+    }
+
+    /* (non-Javadoc)
+     * @see com.webank.weid.suite.api.persistence.inf.Persistence#batchAddWithFailedIds(
+     * java.lang.String, java.util.Map)
+     */
+    @Override
+    public ResponseData<List<String>> batchAddWithFailedIds(
+        String domain,
+        Map<String, String> keyValueList) {
+
         try {
-            List<Object> idHashList = new ArrayList<>();
-            List<Object> dataList = new ArrayList<>();
-            Iterator<String> iterator = keyValueList.keySet().iterator();
-            while (iterator.hasNext()) {
-                String id = iterator.next();
-                String data = keyValueList.get(id);
+            //dataKey:id的hash值, 相同的dataKey只写入一次
+            Map<String, String> dataMap = new LinkedHashMap<>();
+            Map<String, List<String>> idMapping = new HashMap<>();
+            for (Map.Entry<String, String> entry : keyValueList.entrySet()) {
+                String id = entry.getKey();
                 if (StringUtils.isEmpty(id)) {
                     logger.error("[mysql->batchAdd] the id of the data is empty.");
-                    return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+                    return new ResponseData<List<String>>(null, KEY_INVALID);
                 }
-                idHashList.add(DataToolUtils.getHash(id));
-                dataList.add(data);
+                String dataKey = DataToolUtils.getHash(id);
+                dataMap.put(dataKey, entry.getValue());
+                idMapping.computeIfAbsent(dataKey, k -> new ArrayList<>()).add(id);
             }
             SqlDomain sqlDomain = new SqlDomain(domain);
-            List<List<Object>> dataLists = new ArrayList<List<Object>>();
-            dataLists.add(idHashList);
-            dataLists.add(Arrays.asList(dataList.toArray()));
-            dataLists.add(fixedListWithDefault(idHashList.size(), sqlDomain.getExpire()));
-
-            //处理创建时间和更新时间
-            List<Object> nowList = fixedListWithDefault(idHashList.size(), sqlDomain.getNow());
-            dataLists.add(nowList);
-            dataLists.add(nowList);
-            return new SqlExecutor(sqlDomain).batchAdd(SqlExecutor.SQL_SAVE, dataLists);
+            List<SqlDomain> shards = sqlDomain.getShards();
+            List<List<String>> shardKeys = sqlDomain.groupByShard(dataMap.keySet());
+            List<String> failedIds = new ArrayList<>();
+            ErrorCode errorCode = ErrorCode.SUCCESS;
+            for (int i = 0; i < shards.size(); i++) {
+                List<String> dataKeys = shardKeys.get(i);
+                if (dataKeys.isEmpty()) {
+                    continue;
+                }
+                ResponseData<List<Integer>> response =
+                    batchAdd(shards.get(i), dataKeys, dataMap);
+                if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()) {
+                    continue;
+                }
+                errorCode = ErrorCode.getTypeByErrorCode(response.getErrorCode());
+                if (response.getResult() == null) {
+                    for (String dataKey : dataKeys) {
+                        failedIds.addAll(idMapping.get(dataKey));
+                    }
+                } else {
+                    for (Integer row : response.getResult()) {
+                        failedIds.addAll(idMapping.get(dataKeys.get(row)));
+                    }
+                }
+            }
+            if (failedIds.isEmpty()) {
+                return new ResponseData<List<String>>(failedIds, ErrorCode.SUCCESS);
+            }
+            if (failedIds.size() < keyValueList.size()) {
+                errorCode = ErrorCode.PERSISTENCE_BATCH_ADD_PARTIAL_FAILED;
+            }
+            return new ResponseData<List<String>>(failedIds, errorCode);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->batchAdd] batchAdd the data error.", e);
-            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+            return new ResponseData<List<String>>(null, e.getErrorCode());
         }
     }
 
+    private ResponseData<List<Integer>> batchAdd(
+        SqlDomain sqlDomain,
+        List<String> dataKeys,
+        Map<String, String> dataMap) {
+
+        List<Object> idHashList = new ArrayList<>(dataKeys);
+        List<Object> dataList = new ArrayList<>(dataKeys.size());
+        for (String dataKey : dataKeys) {
+            dataList.add(dataMap.get(dataKey));
+        }
+        List<List<Object>> dataLists = new ArrayList<List<Object>>();
+        dataLists.add(idHashList);
+        dataLists.add(dataList);
+        dataLists.add(fixedListWithDefault(idHashList.size(), sqlDomain.getExpire()));
+
+        //处理创建时间和更新时间
+        List<Object> nowList = fixedListWithDefault(idHashList.size(), sqlDomain.getNow());
+        dataLists.add(nowList);
+        dataLists.add(nowList);
+        return new SqlExecutor(sqlDomain).batchAddRows(SqlExecutor.SQL_SAVE, dataLists);
+    }
+
     private List<Object> fixedListWithDefault(int size, Object obj) {
         Object[] dates = new Object[size];
         Arrays.fill(dates, obj);
@@ -211,7 +427,7 @@ public class MysqlDriver implements Persistence {
         }
         String dataKey = DataToolUtils.getHash(id);
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = new SqlDomain(domain).route(dataKey);
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_DELETE, dataKey);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->delete] delete the data error.", e);
@@ -232,7 +448,7 @@ public class MysqlDriver implements Persistence {
         String dataKey = DataToolUtils.getHash(id);
         Date date = new Date();
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = new SqlDomain(domain).route(dataKey);
             Object[] datas = {date, data, sqlDomain.getExpire(), dataKey};
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE, datas);
         } catch (WeIdBaseException e) {
@@ -243,13 +459,85 @@ public class MysqlDriver implements Persistence {
 
     /**
      * 初始化domain.
+     *
+     * @return 返回初始化的domain配置项key
      */
-    private void initDomain() {
+    private Set<String> initDomain() {
         Set<String> domainKeySet = analyzeDomainValue();
         for (String domainKey : domainKeySet) {
-            SqlExecutor sqlExecutor = new SqlExecutor(new SqlDomain(domainKey));
-            sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_SQL);
+            for (SqlDomain sqlDomain : new SqlDomain(domainKey).getShards()) {
+                new SqlExecutor(sqlDomain).resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_SQL);
+            }
         }
+        return domainKeySet;
+    }
+
+    /**
+     * 启动定时任务, 按expire字段分批清理已过期的数据, 多个domain共用一张表时只清理一次.
+     *
+     * @param domainKeySet domain配置项key
+     */
+    private static void startPurgeTask(Set<String> domainKeySet) {
+        long interval = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.PERSISTENCE_PURGE_INTERVAL,
+            DataDriverConstant.PERSISTENCE_PURGE_INTERVAL_DEFAULT_VALUE));
+        int batchSize = Integer.parseInt(PropertyUtils.getProperty(
+            DataDriverConstant.PERSISTENCE_PURGE_BATCH_SIZE,
+            DataDriverConstant.PERSISTENCE_PURGE_BATCH_SIZE_DEFAULT_VALUE));
+        if (interval <= 0 || batchSize <= 0) {
+            logger.info("[startPurgeTask] the purge of the expired data is disabled.");
+            return;
+        }
+        Map<String, SqlDomain> tableDomains = new HashMap<>();
+        for (String domainKey : domainKeySet) {
+            for (SqlDomain sqlDomain : new SqlDomain(domainKey).getShards()) {
+                tableDomains.putIfAbsent(
+                    sqlDomain.getBaseDomain() + SqlDomain.VALUE_SPLIT_CHAR
+                        + sqlDomain.getTableName(),
+                    sqlDomain);
+            }
+        }
+        TimerTask task = new TimerTask() {
+
+            /**
+             * 已确认有expire索引的表, 旧版本创建的表需要手动添加索引后才会清理.
+             */
+            private final Set<String> indexedTables = new HashSet<>();
+
+            @Override
+            public void run() {
+                for (Map.Entry<String, SqlDomain> entry : tableDomains.entrySet()) {
+                    SqlDomain sqlDomain = entry.getValue();
+                    try {
+                        SqlExecutor executor = new SqlExecutor(sqlDomain);
+                        if (!indexedTables.contains(entry.getKey())) {
+                            //没有索引时按expire删除会全表扫描, 不自动修改表结构, 暂不清理该表
+                            if (!executor.hasIndex(sqlDomain.getTableName(), EXPIRE_INDEX)) {
+                                logger.warn("[purgeTask] skip the purge of {}, add the index "
+                                        + "first: alter table `{}` add index `{}` ({}).",
+                                    sqlDomain.getTableName(), sqlDomain.getTableName(),
+                                    EXPIRE_INDEX, EXPIRE_INDEX_COLUMNS);
+                                continue;
+                            }
+                            indexedTables.add(entry.getKey());
+                        }
+                        ResponseData<Integer> response =
+                            executor.purgeExpired(new Date(), batchSize);
+                        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                            logger.error("[purgeTask] purge the expired data of {} failed.",
+                                sqlDomain.getKey());
+                        } else if (response.getResult() > 0) {
+                            logger.info("[purgeTask] purge {} expired data of {}.",
+                                response.getResult(), sqlDomain.getKey());
+                        }
+                    } catch (Exception e) {
+                        logger.error("[purgeTask] purge the expired data error.", e);
+                    }
+                }
+            }
+        };
+        purgeTimer = new Timer("weid-mysql-purge", true);
+        purgeTimer.schedule(task, interval, interval);
     }
 
     /**
@@ -276,14 +564,27 @@ public class MysqlDriver implements Persistence {
      */
     @Override
     public ResponseData<Integer> addOrUpdate(String domain, String id, String data) {
-        ResponseData<String> getRes = this.get(domain, id);
-        //如果查询数据存在，或者失效 则进行更新 否则进行新增
-        if ((StringUtils.isNotBlank(getRes.getResult())
-            && getRes.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode())
-            || getRes.getErrorCode().intValue() == ErrorCode.PERSISTENCE_DATA_EXPIRE.getCode()) {
-            return this.update(domain, id, data);
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[mysql->addOrUpdate] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        String dataKey = DataToolUtils.getHash(id);
+        try {
+            SqlDomain sqlDomain = new SqlDomain(domain).route(dataKey);
+            Date now = sqlDomain.getNow();
+            Object[] datas = {dataKey, data, sqlDomain.getExpire(), now, now};
+            ResponseData<Integer> result =
+                new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_OR_UPDATE, datas);
+            //更新已存在的数据时受影响的行数为2, 统一返回1
+            if (result.getResult() != null && result.getResult() > 1) {
+                result.setResult(1);
+            }
+            return result;
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->addOrUpdate] addOrUpdate the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
         }
-        return this.add(domain, id, data);
     }
 
 
@@ -314,4 +615,42 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
         }
     }
+
+    /**
+     * 按request_id顺序分页查询某批次的离线交易.
+     * 首次查询时检查离线交易表的(batch, request_id)索引, 不存在时只打印告警, 不修改表结构.
+     *
+     * @param batch 批次
+     * @param afterRequestId 从该request_id之后开始查询, 从头查询时传入空字符串
+     * @param limit 最多返回的条数
+     * @return 离线交易列表
+     */
+    public ResponseData<List<TransactionArgs>> getTransactions(
+        String batch,
+        String afterRequestId,
+        int limit) {
+
+        try {
+            SqlDomain sqlDomain = new SqlDomain(DataDriverConstant.DOMAIN_DEFAULT_INFO);
+            SqlExecutor sqlExecutor = new SqlExecutor(sqlDomain);
+            if (!transactionIndexChecked) {
+                //只检查一次, 没有索引时仍可查询, 只是每页都会扫描该批次的全部数据
+                if (!sqlExecutor.hasIndex(TRANSACTION_TABLE, TRANSACTION_INDEX)) {
+                    logger.warn("[mysql->getTransactions] the replay scans the whole batch per "
+                            + "page, add the index first: alter table `{}` add index `{}` ({}).",
+                        TRANSACTION_TABLE, TRANSACTION_INDEX, TRANSACTION_INDEX_COLUMNS);
+                }
+                transactionIndexChecked = true;
+            }
+            return sqlExecutor.executeQueryForList(
+                SqlExecutor.SQL_QUERY_TRANSACTION,
+                TRANSACTION_ROW_MAPPER,
+                batch,
+                afterRequestId,
+                limit);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getTransactions] query the transactions error.", e);
+            return new ResponseData<List<TransactionArgs>>(null, e.getErrorCode());
+        }
+    }
 }
@@ -21,7 +21,10 @@ package com.webank.weid.suite.persistence.redis;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.redisson.api.BatchResult;
@@ -53,6 +56,11 @@ public class RedisExecutor {
      */
     private static final String VALUE_SPLIT_CHAR = ":";
 
+    /**
+     * 批量查询时单次MGET的key个数.
+     */
+    private static final int BATCH_QUERY_COUNT = 200;
+
     private RedisDomain redisDomain;
 
 
@@ -98,6 +106,47 @@ public class RedisExecutor {
         return result;
     }
 
+    /**
+     * 批量查询操作, 数据按批次拆分后通过MGET查询.
+     *
+     * @param tableDomain key的部分映射
+     * @param dataKeys 查询所需要的数据
+     * @param client redisson连接入口
+     * @return 返回查询出来的数据, key为Hash(id)
+     */
+    public ResponseData<Map<String, String>> executeBatchQuery(String tableDomain,
+                                                              List<String> dataKeys,
+                                                              RedissonClient client) {
+
+        ResponseData<Map<String, String>> result = new ResponseData<Map<String, String>>();
+        try {
+            if (client == null) {
+                return new ResponseData<Map<String, String>>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            String prefix = tableDomain + VALUE_SPLIT_CHAR;
+            Map<String, String> dataMap = new HashMap<String, String>();
+            for (int from = 0; from < dataKeys.size(); from += BATCH_QUERY_COUNT) {
+                int to = Math.min(from + BATCH_QUERY_COUNT, dataKeys.size());
+                String[] keys = new String[to - from];
+                for (int i = from; i < to; i++) {
+                    keys[i - from] = prefix + dataKeys.get(i);
+                }
+                Map<String, String> values = client.getBuckets().get(keys);
+                for (Map.Entry<String, String> entry : values.entrySet()) {
+                    dataMap.put(entry.getKey().substring(prefix.length()), entry.getValue());
+                }
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(dataMap);
+        } catch (Exception e) {
+            logger.error("Batch query data from {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        return result;
+    }
+
     /**
      * 增加的执行方法.
      *
@@ -142,15 +191,22 @@ public class RedisExecutor {
                 String valueString = DataToolUtils.serialize(value);
                 RBucket<String> rbucket = client.getBucket(
                         redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey);
-                //解决重复写问题
-                if (datas.length == 3 &&  rbucket.get() != null) {
+                long timeout = redisDomain.getTimeout();
+                //新增使用SET NX解决重复写问题, 更新使用SET XX, 过期时间交由redis处理
+                if (datas.length == 3
+                        && !rbucket.trySet(valueString, timeout, TimeUnit.MILLISECONDS)) {
                     return
                             new ResponseData<Integer>(
                                     DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
                                     ErrorCode.PERSISTENCE_EXECUTE_FAILED
                             );
                 }
-                rbucket.set(valueString);
+                if (datas.length == 2
+                        && !rbucket.setIfExists(valueString, timeout, TimeUnit.MILLISECONDS)) {
+                    result.setErrorCode(ErrorCode.SUCCESS);
+                    result.setResult(DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS);
+                    return result;
+                }
             }
             result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS);
@@ -163,6 +219,42 @@ public class RedisExecutor {
         return result;
     }
 
+    /**
+     * 新增或更新的执行方法, 通过单条SET命令完成.
+     *
+     * @param client redisson连接入口
+     * @param dataKey Hash(id)
+     * @param data 所需要的数据
+     * @return 返回执行成功或失败
+     */
+    public ResponseData<Integer> executeAddOrUpdate(RedissonClient client, String dataKey,
+                                                    String data) {
+
+        ResponseData<Integer> result = new ResponseData<Integer>();
+        try {
+            if (client == null) {
+                return
+                        new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            DefaultValue value = new DefaultValue();
+            value.setId(dataKey);
+            value.setData(data);
+            value.setExpire(redisDomain.getExpire());
+            value.setUpdated(redisDomain.getNow());
+            RBucket<String> rbucket = client.getBucket(
+                    redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey);
+            rbucket.set(DataToolUtils.serialize(value), redisDomain.getTimeout(),
+                    TimeUnit.MILLISECONDS);
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS);
+        } catch (Exception e) {
+            logger.error("Update data into {{}} with exception", redisDomain.getBaseDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            result.setResult(DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS);
+        }
+        return result;
+    }
+
     /**
      * 删除执行方法.
      *
@@ -205,26 +297,47 @@ public class RedisExecutor {
      */
     public ResponseData<Integer> batchAdd(List<List<Object>> dataList, RedissonClient client) {
 
-        ResponseData<Integer> result = new ResponseData<Integer>();
-        List<DefaultValue> value = new ArrayList<>();
-        RBatch rbatch = client.createBatch();
+        ResponseData<List<Integer>> response = batchAddRows(dataList, client);
+        if (response.getResult() == null) {
+            return new ResponseData<Integer>(
+                DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                ErrorCode.getTypeByErrorCode(response.getErrorCode())
+            );
+        }
+        int count = dataList.get(0).size() - response.getResult().size();
+        if (count == 0) {
+            count = DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS;
+        }
+        return new ResponseData<Integer>(
+            count, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+    }
+
+    /**
+     * 批量新增的语句, 与单条新增一致使用SET NX, 已存在的key不会被覆盖.
+     *
+     * @param dataList 占位符所需要的数据
+     * @param client redisson连接入口
+     * @return 返回未写入的行号, key已存在时部分失败的错误码为PERSISTENCE_BATCH_ADD_PARTIAL_FAILED
+     */
+    public ResponseData<List<Integer>> batchAddRows(
+        List<List<Object>> dataList,
+        RedissonClient client) {
+
         try {
             if (client == null) {
-                return
-                        new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+                return new ResponseData<List<Integer>>(
+                    null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
             }
             List<Object> values = dataList.get(dataList.size() - 1);
             int size = values.size();
             for (List<Object> list : dataList) {
                 if (CollectionUtils.isEmpty(list) || list.size() != size) {
-                    return
-                            new ResponseData<Integer>(
-                                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
-                                    ErrorCode.PERSISTENCE_BATCH_ADD_DATA_MISMATCH
-                            );
+                    return new ResponseData<List<Integer>>(
+                        null, ErrorCode.PERSISTENCE_BATCH_ADD_DATA_MISMATCH);
                 }
             }
 
+            RBatch rbatch = client.createBatch();
             for (int i = 0; i < size; i++) {
                 DefaultValue val = new DefaultValue();
                 val.setId((String) dataList.get(0).get(i));
@@ -232,21 +345,34 @@ public class RedisExecutor {
                 val.setExpire((Date)dataList.get(2).get(i));
                 val.setCreated((Date)dataList.get(3).get(i));
                 val.setUpdated((Date)dataList.get(4).get(i));
-                value.add(val);
-            }
-
-            for (DefaultValue val : value) {
                 rbatch.getBucket(redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + val.getId())
-                        .setAsync(DataToolUtils.serialize(val));
+                        .trySetAsync(DataToolUtils.serialize(val), redisDomain.getTimeout(),
+                                TimeUnit.MILLISECONDS);
             }
             BatchResult<?> batchResult = rbatch.execute();
 
-            result.setResult(size);
+            //SET NX的返回值与命令顺序一致, false表示key已存在
+            List<Integer> failedRows = new ArrayList<>();
+            List<?> responses = batchResult.getResponses();
+            for (int i = 0; i < size; i++) {
+                if (!Boolean.TRUE.equals(responses.get(i))) {
+                    failedRows.add(i);
+                }
+            }
+            ErrorCode errorCode = ErrorCode.SUCCESS;
+            if (failedRows.size() == size) {
+                errorCode = ErrorCode.PERSISTENCE_EXECUTE_FAILED;
+            } else if (!failedRows.isEmpty()) {
+                errorCode = ErrorCode.PERSISTENCE_BATCH_ADD_PARTIAL_FAILED;
+            }
+            if (errorCode != ErrorCode.SUCCESS) {
+                logger.error("Batch add data to {{}}, {} of {} keys already exist.",
+                        redisDomain.getBaseDomain(), failedRows.size(), size);
+            }
+            return new ResponseData<List<Integer>>(failedRows, errorCode);
         } catch (RedisException e) {
             logger.error("Batch add data to {{}} with exception", redisDomain.getBaseDomain(), e);
-            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
-            result.setResult(DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS);
+            return new ResponseData<List<Integer>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
         }
-        return result;
     }
 }
@@ -0,0 +1,134 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.redis;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RedissonClient;
+
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * 基于SCAN的遍历迭代器, 按tableDomain前缀匹配key, 每批最多batchSize个key通过MGET取值.
+ * SCAN在遍历过程中发生rehash时可能重复返回同一个key, 调用方需要自行处理.
+ */
+public class RedisScanIterator implements Iterator<PersistenceRecord> {
+
+    private static final String VALUE_SPLIT_CHAR = ":";
+
+    private final RedisExecutor executor;
+
+    private final RedissonClient client;
+
+    private final String tableDomain;
+
+    private final int batchSize;
+
+    private final Iterator<String> keys;
+
+    private final LinkedList<PersistenceRecord> buffer = new LinkedList<>();
+
+    /**
+     * 根据domain创建遍历迭代器.
+     *
+     * @param redisDomain the redisDomain
+     * @param client redisson连接入口
+     * @param batchSize 每批加载的key个数
+     */
+    public RedisScanIterator(RedisDomain redisDomain, RedissonClient client, int batchSize) {
+        if (client == null) {
+            throw new WeIdBaseException(ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+        }
+        this.executor = new RedisExecutor(redisDomain);
+        this.client = client;
+        this.tableDomain = redisDomain.getTableDomain();
+        this.batchSize = batchSize;
+        this.keys = client.getKeys()
+            .getKeysByPattern(tableDomain + VALUE_SPLIT_CHAR + "*", batchSize).iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (buffer.isEmpty() && keys.hasNext()) {
+            fetch();
+        }
+        return !buffer.isEmpty();
+    }
+
+    @Override
+    public PersistenceRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return buffer.poll();
+    }
+
+    private void fetch() {
+        int prefixLength = tableDomain.length() + VALUE_SPLIT_CHAR.length();
+        List<String> dataKeys = new ArrayList<>(batchSize);
+        while (dataKeys.size() < batchSize && keys.hasNext()) {
+            dataKeys.add(keys.next().substring(prefixLength));
+        }
+        ResponseData<Map<String, String>> response =
+            executor.executeBatchQuery(tableDomain, dataKeys, client);
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+            || response.getResult() == null) {
+            throw new WeIdBaseException(ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        Map<String, String> values = response.getResult();
+        //遍历期间被删除或过期的key在MGET时取不到值, 直接跳过
+        for (String dataKey : dataKeys) {
+            String json = values.get(dataKey);
+            if (json == null) {
+                continue;
+            }
+            DefaultValue value = DataToolUtils.deserialize(json, DefaultValue.class);
+            if (value == null) {
+                continue;
+            }
+            PersistenceRecord record = new PersistenceRecord();
+            record.setId(dataKey);
+            if (StringUtils.isNotBlank(value.getData())) {
+                record.setData(
+                    new String(
+                        value.getData().getBytes(DataDriverConstant.STANDARDCHARSETS_ISO),
+                        DataDriverConstant.STANDARDCHARSETS_UTF_8
+                    )
+                );
+            }
+            record.setCreated(value.getCreated());
+            record.setUpdated(value.getUpdated());
+            record.setExpire(value.getExpire());
+            buffer.add(record);
+        }
+    }
+}
@@ -22,7 +22,9 @@ package com.webank.weid.suite.persistence.redis.driver;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -37,9 +39,11 @@ import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.protocol.request.TransactionArgs;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
 import com.webank.weid.suite.persistence.DefaultValue;
 import com.webank.weid.suite.persistence.redis.RedisDomain;
 import com.webank.weid.suite.persistence.redis.RedisExecutor;
+import com.webank.weid.suite.persistence.redis.RedisScanIterator;
 import com.webank.weid.suite.persistence.redis.RedissonConfig;
 import com.webank.weid.util.DataToolUtils;
 
@@ -56,9 +60,25 @@ public class RedisDriver implements Persistence {
 
     private static final ErrorCode KEY_INVALID = ErrorCode.PRESISTENCE_DATA_KEY_INVALID;
 
-    RedissonConfig redissonConfig = new RedissonConfig();
+    private static volatile RedissonClient sharedClient;
 
-    RedissonClient client = redissonConfig.redismodelRecognition();
+    RedissonClient client = getClient();
+
+    /**
+     * get the redisson client shared by the redis drivers, created on first use.
+     *
+     * @return the shared redisson client
+     */
+    public static RedissonClient getClient() {
+        if (sharedClient == null) {
+            synchronized (RedisDriver.class) {
+                if (sharedClient == null) {
+                    sharedClient = new RedissonConfig().redismodelRecognition();
+                }
+            }
+        }
+        return sharedClient;
+    }
 
     @Override
     public ResponseData<Integer> add(String domain, String id, String data) {
@@ -82,17 +102,36 @@ public class RedisDriver implements Persistence {
     @Override
     public ResponseData<Integer> batchAdd(String domain, Map<String, String> keyValueList) {
 
+        ResponseData<List<String>> response = batchAddWithFailedIds(domain, keyValueList);
+        ErrorCode errorCode = ErrorCode.getTypeByErrorCode(response.getErrorCode());
+        if (response.getResult() == null) {
+            return new ResponseData<Integer>(FAILED_STATUS, errorCode);
+        }
+        int count = keyValueList.size() - response.getResult().size();
+        if (count == 0 && errorCode != ErrorCode.SUCCESS) {
+            return new ResponseData<Integer>(FAILED_STATUS, errorCode);
+        }
+        return new ResponseData<Integer>(count, errorCode);
+    }
+
+    @Override
+    public ResponseData<List<String>> batchAddWithFailedIds(
+        String domain,
+        Map<String, String> keyValueList) {
+
         try {
             List<Object> idHashList = new ArrayList<>();
             List<Object> dataList = new ArrayList<>();
+            List<String> ids = new ArrayList<>();
             Iterator<String> iterator = keyValueList.keySet().iterator();
             while (iterator.hasNext()) {
                 String id = iterator.next();
                 String data = keyValueList.get(id);
                 if (StringUtils.isEmpty(id)) {
                     logger.error("[redis->batchAdd] the id of the data is empty.");
-                    return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+                    return new ResponseData<List<String>>(null, KEY_INVALID);
                 }
+                ids.add(id);
                 idHashList.add(DataToolUtils.getHash(id));
                 dataList.add(data);
             }
@@ -106,10 +145,21 @@ public class RedisDriver implements Persistence {
             List<Object> nowList = fixedListWithDefault(idHashList.size(), redisDomain.getNow());
             dataLists.add(nowList);
             dataLists.add(nowList);
-            return new RedisExecutor(redisDomain).batchAdd(dataLists, client);
+            ResponseData<List<Integer>> response =
+                    new RedisExecutor(redisDomain).batchAddRows(dataLists, client);
+            ErrorCode errorCode = ErrorCode.getTypeByErrorCode(response.getErrorCode());
+            if (response.getResult() == null) {
+                return new ResponseData<List<String>>(null, errorCode);
+            }
+            //已存在的key不会被覆盖, 返回对应的id
+            List<String> failedIds = new ArrayList<>();
+            for (Integer row : response.getResult()) {
+                failedIds.add(ids.get(row));
+            }
+            return new ResponseData<List<String>>(failedIds, errorCode);
         } catch (WeIdBaseException e) {
             logger.error("[redis->batchAdd] batchAdd the data error.", e);
-            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+            return new ResponseData<List<String>>(null, e.getErrorCode());
         }
     }
 
@@ -171,6 +221,72 @@ public class RedisDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+
+        if (ids == null || ids.isEmpty()) {
+            logger.error("[redis->batchGet] the ids of the data is empty.");
+            return new ResponseData<Map<String, String>>(null, KEY_INVALID);
+        }
+        //dataKey:id的hash值, 相同的id对应同一个dataKey
+        Map<String, List<String>> idMapping = new LinkedHashMap<>();
+        for (String id : ids) {
+            if (StringUtils.isEmpty(id)) {
+                logger.error("[redis->batchGet] the id of the data is empty.");
+                return new ResponseData<Map<String, String>>(null, KEY_INVALID);
+            }
+            idMapping.computeIfAbsent(DataToolUtils.getHash(id), k -> new ArrayList<>()).add(id);
+        }
+        try {
+            RedisDomain redisDomain = new RedisDomain(domain);
+            ResponseData<Map<String, String>> response = new RedisExecutor(redisDomain)
+                    .executeBatchQuery(redisDomain.getTableDomain(),
+                            new ArrayList<>(idMapping.keySet()), client);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+                    || response.getResult() == null) {
+                return new ResponseData<Map<String, String>>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, String> result = new HashMap<>();
+            Date now = new Date();
+            for (Map.Entry<String, String> entry : response.getResult().entrySet()) {
+                DefaultValue data = DataToolUtils.deserialize(entry.getValue(), DefaultValue.class);
+                if (data == null) {
+                    continue;
+                }
+                //超过超时时间的数据不返回
+                if (data.getExpire() != null && data.getExpire().before(now)) {
+                    logger.info("[redis->batchGet] the data {} is expire.", entry.getKey());
+                    continue;
+                }
+                String value = StringUtils.EMPTY;
+                if (StringUtils.isNotBlank(data.getData())) {
+                    value = new String(
+                            data.getData().getBytes(DataDriverConstant.STANDARDCHARSETS_ISO),
+                            DataDriverConstant.STANDARDCHARSETS_UTF_8
+                    );
+                }
+                for (String id : idMapping.get(entry.getKey())) {
+                    result.put(id, value);
+                }
+            }
+            return new ResponseData<Map<String, String>>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[redis->batchGet] batchGet the data error.", e);
+            return new ResponseData<Map<String, String>>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public Iterator<PersistenceRecord> scan(String domain, int batchSize) {
+
+        if (batchSize <= 0) {
+            logger.error("[redis->scan] the batchSize {} is invalid.", batchSize);
+            throw new WeIdBaseException(ErrorCode.ILLEGAL_INPUT);
+        }
+        return new RedisScanIterator(new RedisDomain(domain), client, batchSize);
+    }
+
     @Override
     public ResponseData<Integer> delete(String domain, String id) {
 
@@ -191,7 +307,7 @@ public class RedisDriver implements Persistence {
     @Override
     public ResponseData<Integer> update(String domain, String id, String data) {
 
-        if (StringUtils.isEmpty(id) || StringUtils.isBlank(this.get(domain, id).getResult())) {
+        if (StringUtils.isEmpty(id)) {
             logger.error("[redis->update] the id of the data is empty.");
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
@@ -200,7 +316,14 @@ public class RedisDriver implements Persistence {
         try {
             RedisDomain redisDomain = new RedisDomain(domain);
             Object[] datas = {data, date};
-            return new RedisExecutor(redisDomain).execute(client, dataKey, datas);
+            ResponseData<Integer> result =
+                    new RedisExecutor(redisDomain).execute(client, dataKey, datas);
+            if (result.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+                    && result.getResult().intValue() == FAILED_STATUS) {
+                logger.error("[redis->update] the data does not exist.");
+                return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+            }
+            return result;
         } catch (WeIdBaseException e) {
             logger.error("[redis->update] update the data error.", e);
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
@@ -210,15 +333,18 @@ public class RedisDriver implements Persistence {
     @Override
     public ResponseData<Integer> addOrUpdate(String domain, String id, String data) {
 
-        ResponseData<String> getRes = this.get(domain, id);
-        //如果查询数据存在，或者失效 则进行更新 否则进行新增
-        if ((StringUtils.isNotBlank(getRes.getResult())
-                && getRes.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode())
-                ||
-                getRes.getErrorCode().intValue() == ErrorCode.PERSISTENCE_DATA_EXPIRE.getCode()) {
-            return this.update(domain, id, data);
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[redis->addOrUpdate] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        String dataKey = DataToolUtils.getHash(id);
+        try {
+            RedisDomain redisDomain = new RedisDomain(domain);
+            return new RedisExecutor(redisDomain).executeAddOrUpdate(client, dataKey, data);
+        } catch (WeIdBaseException e) {
+            logger.error("[redis->addOrUpdate] addOrUpdate the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
         }
-        return this.add(domain, id, data);
     }
 
     @Override
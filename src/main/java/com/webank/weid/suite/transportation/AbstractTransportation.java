@@ -34,13 +34,15 @@ import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.rpc.WeIdService;
 import com.webank.weid.service.BaseService;
 import com.webank.weid.service.impl.WeIdServiceImpl;
+import com.webank.weid.suite.api.persistence.PersistenceFactory;
 import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceType;
 import com.webank.weid.suite.api.transportation.params.ProtocolProperty;
 import com.webank.weid.suite.auth.impl.WeIdAuthImpl;
 import com.webank.weid.suite.auth.inf.WeIdAuth;
 import com.webank.weid.suite.auth.inf.WeIdAuthCallback;
 import com.webank.weid.suite.auth.protocol.WeIdAuthObj;
-import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+import com.webank.weid.util.PropertyUtils;
 import com.webank.weid.util.WeIdUtils;
 
 public abstract class AbstractTransportation extends BaseService {
@@ -55,6 +57,8 @@ public abstract class AbstractTransportation extends BaseService {
     private static WeIdAuth weIdAuthService;
     private static Persistence dataDriver;
 
+    private static PersistenceType persistenceType;
+
     protected WeIdAuth getWeIdAuthService() {
         if (weIdAuthService == null) {
             weIdAuthService = new WeIdAuthImpl();
@@ -64,7 +68,14 @@ public abstract class AbstractTransportation extends BaseService {
 
     protected Persistence getDataDriver() {
         if (dataDriver == null) {
-            dataDriver = new MysqlDriver();
+            // MySQL stays the default store when persistence_type is not configured
+            String type = PropertyUtils.getProperty("persistence_type");
+            if ("redis".equals(type)) {
+                persistenceType = PersistenceType.Redis;
+            } else {
+                persistenceType = PersistenceType.Mysql;
+            }
+            dataDriver = PersistenceFactory.build(persistenceType);
         }
         return dataDriver;
     }
@@ -1,9 +1,6 @@
 package com.webank.weid.util;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
@@ -15,7 +12,6 @@ import org.slf4j.LoggerFactory;
 
 import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.constant.ErrorCode;
-import com.webank.weid.constant.ParamKeyConstant;
 import com.webank.weid.constant.WeIdConstant;
 import com.webank.weid.protocol.request.TransactionArgs;
 import com.webank.weid.protocol.response.ResponseData;
@@ -36,30 +32,28 @@ public class BatchTransactionUtils {
      * 阈值，当写入的交易达到这个条数时，换新文件.
      */
     private static final Integer THRESHOLD = 10000;
-    private static OutputStreamWriter ow = null;
+
+    /**
+     * 离线交易的存储方式, db为存入数据库, binlog为写入本地binlog文件.
+     */
+    private static final String OFFLINE_STORAGE_KEY = "offline.transaction.storage";
+    private static final String OFFLINE_STORAGE_BINLOG = "binlog";
     private static String secretKey;
-    private static String currentFilePath;
 
     /**
      * 本机IP地址.
      */
     private static String ipAddr;
-    private static Integer count;
     private static String currentDir = System.getProperty("user.dir");
-    private static boolean isSaveToDb = true;
+    private static boolean isSaveToDb = !StringUtils.equals(
+        PropertyUtils.getProperty(OFFLINE_STORAGE_KEY), OFFLINE_STORAGE_BINLOG);
+    private static volatile BinlogWriter binlogWriter;
 
     /**
      * persistence.
      */
     private static Persistence dataDriver;
     private static PersistenceType persistenceType;
-    private static Integer index = 0;
-    private static String currentDay;
-
-    static {
-        Date date = new Date();
-        currentDay = new SimpleDateFormat("yyyyMMdd").format(date);
-    }
 
     /**
      * 获取本机IP.
@@ -164,8 +158,7 @@ public class BatchTransactionUtils {
             .append(WeIdConstant.PIPELINE)
             .append(timeStamp).toString();
 
-        String filePath = getFilePath();
-        return saveToLogFile(content, filePath);
+        return saveToLogFile(content);
     }
 
     private static String getCurrentDay() {
@@ -189,27 +182,20 @@ public class BatchTransactionUtils {
         return true;
     }
 
-    private static String getFilePath() {
-
-        String currentDate = getCurrentDay();
-        if (!StringUtils.equals(currentDay, currentDate)) {
-            index = 0;
-            count = 0;
-        }
-        String filePath =
-            currentDir + File.separator + currentDate + File.separator + getIp() + "_binlog_"
-                + index;
-        if (StringUtils.equals(currentFilePath, filePath)) {
-            count++;
-            //如果记录条数超过阈值，要换文件
-            if (count >= THRESHOLD) {
-                index++;
+    /**
+     * 获取binlog写入对象, 所有线程共用同一个写入对象.
+     *
+     * @return binlog写入对象
+     */
+    private static BinlogWriter getBinlogWriter() {
+        if (binlogWriter == null) {
+            synchronized (BatchTransactionUtils.class) {
+                if (binlogWriter == null) {
+                    binlogWriter = new BinlogWriter(new File(currentDir), getIp(), THRESHOLD);
+                }
             }
-        } else {
-            currentFilePath = filePath;
-            count = 1;
         }
-        return filePath;
+        return binlogWriter;
     }
 
     private static String processArgs(String[] args) {
@@ -246,47 +232,41 @@ public class BatchTransactionUtils {
     }
 
     /**
-     * 将交易信息写入binlog.
+     * 将交易信息写入binlog, 写入并刷盘后返回.
      *
      * @param content 要写入的内容
-     * @param fileName 文件名
      */
-    private static boolean saveToLogFile(
-        String content,
-        String fileName) {
-
-        File f = new File(fileName);
-        File parent = f.getParentFile();
-        if (!parent.exists()) {
-            parent.mkdirs();
-        }
-        if (!f.exists()) {
-            try {
-                f.createNewFile();
-            } catch (IOException e) {
-                logger.error("[writeToLogFile] create file failed. filePath:{}, error:{}", fileName,
-                    e);
-                return false;
-            }
+    private static boolean saveToLogFile(String content) {
+        return getBinlogWriter().append(content);
+    }
+
+    /**
+     * 解析binlog中的一条交易记录, 记录格式为: requestId|method|args|extra|timeStamp.
+     *
+     * @param content 记录内容
+     * @param batch 记录所属的批次, 即binlog所在的日期目录名
+     * @return 交易参数, 格式不正确时返回null
+     */
+    static TransactionArgs parseLogRecord(String content, String batch) {
+        int methodStart = content.indexOf(WeIdConstant.PIPELINE) + 1;
+        int argsStart = content.indexOf(WeIdConstant.PIPELINE, methodStart) + 1;
+        int timeStampStart = content.lastIndexOf(WeIdConstant.PIPELINE) + 1;
+        // the args may contain the pipeline from the evidence log, while the extra does not
+        int extraStart = content.lastIndexOf(WeIdConstant.PIPELINE, timeStampStart - 2) + 1;
+        if (methodStart <= 0 || argsStart <= methodStart || extraStart <= argsStart) {
+            return null;
         }
+        TransactionArgs transactionArgs = new TransactionArgs();
+        transactionArgs.setRequestId(content.substring(0, methodStart - 1));
+        transactionArgs.setMethod(content.substring(methodStart, argsStart - 1));
+        transactionArgs.setArgs(content.substring(argsStart, extraStart - 1));
+        transactionArgs.setExtra(content.substring(extraStart, timeStampStart - 1));
         try {
-            ow = new OutputStreamWriter(new FileOutputStream(fileName, true),
-                ParamKeyConstant.UTF_8);
-            ow.write(content);
-            ow.close();
-            return true;
-        } catch (IOException e) {
-            logger.error("writer file exception.", e);
-        } finally {
-            if (null != ow) {
-                try {
-                    ow.close();
-                } catch (IOException e) {
-                    logger.error("io close exception.", e);
-                    return false;
-                }
-            }
+            transactionArgs.setTimeStamp(Long.valueOf(content.substring(timeStampStart)));
+        } catch (NumberFormatException e) {
+            return null;
         }
-        return true;
+        transactionArgs.setBatch(batch);
+        return transactionArgs;
     }
 }
@@ -0,0 +1,170 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 交易binlog分段文件的顺序读取类, 通过内存映射读取BinlogWriter写入的记录.
+ * 遇到不完整或校验失败的记录时停止读取, 这种记录只会出现在进程异常退出时的文件末尾.
+ */
+final class BinlogReader implements Iterator<String>, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinlogReader.class);
+
+    private final File segment;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private String next;
+
+    private int nextStart;
+
+    private boolean isEnd;
+
+    /**
+     * 从头读取分段文件.
+     *
+     * @param segment 分段文件
+     * @throws IOException 打开文件失败
+     */
+    BinlogReader(File segment) throws IOException {
+        this(segment, 0L);
+    }
+
+    /**
+     * 从指定位置开始读取分段文件.
+     *
+     * @param segment 分段文件
+     * @param position 开始读取的位置, 需为某条记录的开始位置
+     * @throws IOException 打开文件失败
+     */
+    BinlogReader(File segment, long position) throws IOException {
+        this.segment = segment;
+        this.channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ);
+        this.buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+        this.buffer.position((int) Math.min(position, buffer.limit()));
+    }
+
+    /**
+     * 列出目录下的分段文件, 按文件名前缀和序号排序.
+     *
+     * @param dir 目录
+     * @return 分段文件列表
+     */
+    static List<File> listSegments(File dir) {
+        File[] files = dir.listFiles(
+            file -> file.isFile() && BinlogWriter.segmentIndex(file.getName()) >= 0);
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        List<File> segments = new ArrayList<>(Arrays.asList(files));
+        segments.sort(Comparator
+            .comparing((File file) -> file.getName().substring(
+                0, file.getName().lastIndexOf(BinlogWriter.SEGMENT_MARK)))
+            .thenComparingInt(file -> BinlogWriter.segmentIndex(file.getName())));
+        return segments;
+    }
+
+    /**
+     * 获取下一条未读取记录的开始位置, 可用于之后从该位置继续读取.
+     *
+     * @return 文件内的偏移量
+     */
+    long getPosition() {
+        return next != null ? nextStart : buffer.position();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !isEnd) {
+            nextStart = buffer.position();
+            next = readRecord();
+            isEnd = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String readRecord() {
+        int start = buffer.position();
+        if (buffer.remaining() < BinlogWriter.HEADER_LENGTH) {
+            logTail(start);
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            buffer.position(start);
+            logTail(start);
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        if ((int) crc.getValue() != checksum) {
+            buffer.position(start);
+            logger.error("[readRecord] crc check failed, segment:{}, position:{}", segment, start);
+            return null;
+        }
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private void logTail(int position) {
+        if (position < buffer.limit()) {
+            logger.warn("[readRecord] incomplete record at the end, segment:{}, position:{}",
+                segment, position);
+        }
+    }
+}
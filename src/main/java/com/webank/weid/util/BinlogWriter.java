@@ -0,0 +1,321 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 交易binlog的追加写入类.
+ * 每条记录格式为: 4字节内容长度 + 4字节内容的CRC32 + UTF-8内容. 每个分段文件只打开一次,
+ * 写满阈值条数或跨天时换新文件. 写入线程写完后等待后台线程刷盘, 并发的写入共用一次fsync.
+ */
+final class BinlogWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinlogWriter.class);
+
+    /**
+     * 记录头长度, 内容长度和CRC32各占4字节.
+     */
+    static final int HEADER_LENGTH = 8;
+
+    /**
+     * 分段文件名中的分隔标记, 文件名为: 前缀 + 标记 + 序号.
+     */
+    static final String SEGMENT_MARK = "_binlog_";
+
+    private final File baseDir;
+
+    private final String prefix;
+
+    private final int threshold;
+
+    private final Object lock = new Object();
+
+    private final Thread syncThread;
+
+    private FileChannel channel;
+
+    private String currentDay;
+
+    private int index;
+
+    private int count;
+
+    /**
+     * 已写入的最大记录序号.
+     */
+    private long writtenSeq;
+
+    /**
+     * 已完成刷盘的最大记录序号, 不论成功或失败.
+     */
+    private long resolvedSeq;
+
+    /**
+     * 刷盘失败的序号区间, key为区间结束序号(含), value为区间开始序号(不含).
+     */
+    private final TreeMap<Long, Long> failedRanges = new TreeMap<>();
+
+    private boolean closed;
+
+    /**
+     * 创建binlog写入对象, 文件路径为: baseDir/yyyyMMdd/prefix_binlog_序号.
+     *
+     * @param baseDir 根目录
+     * @param prefix 文件名前缀
+     * @param threshold 每个分段文件的最大记录条数
+     */
+    BinlogWriter(File baseDir, String prefix, int threshold) {
+        this.baseDir = baseDir;
+        this.prefix = prefix;
+        this.threshold = threshold;
+        this.syncThread = new Thread(this::syncLoop, "weid-binlog-sync");
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    /**
+     * 追加一条记录, 刷盘后返回. 等待刷盘时被中断会直接返回true, 此时记录已写入,
+     * 由后台线程继续刷盘, 不能按失败重写, 否则会产生重复记录.
+     *
+     * @param content 记录内容
+     * @return 记录已落盘或已写入后被中断返回true, 否则返回false
+     */
+    boolean append(String content) {
+        ByteBuffer record = encode(content.getBytes(StandardCharsets.UTF_8));
+        synchronized (lock) {
+            if (closed) {
+                logger.error("[append] the binlog writer is closed.");
+                return false;
+            }
+            try {
+                rollIfNeeded();
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } catch (IOException e) {
+                logger.error("[append] write binlog failed, segment:{}", currentSegment(), e);
+                // the segment may end with a partial record now, later records go to a new one
+                closeChannel();
+                return false;
+            }
+            count++;
+            long seq = ++writtenSeq;
+            lock.notifyAll();
+            try {
+                while (resolvedSeq < seq) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("[append] interrupted while waiting for the binlog sync, seq:{}", seq);
+                return true;
+            }
+            Map.Entry<Long, Long> failed = failedRanges.ceilingEntry(seq);
+            return failed == null || failed.getValue() >= seq;
+        }
+    }
+
+    /**
+     * 关闭当前分段文件并停止刷盘线程.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closeChannel();
+            closed = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 编码一条记录.
+     *
+     * @param payload 记录内容
+     * @return 包含记录头和内容的buffer
+     */
+    static ByteBuffer encode(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 获取分段文件名中的序号.
+     *
+     * @param name 文件名
+     * @return 序号, 不是分段文件时返回-1
+     */
+    static int segmentIndex(String name) {
+        int pos = name.lastIndexOf(SEGMENT_MARK);
+        if (pos < 0) {
+            return -1;
+        }
+        String suffix = name.substring(pos + SEGMENT_MARK.length());
+        if (suffix.isEmpty() || !suffix.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(suffix);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void rollIfNeeded() throws IOException {
+        String day = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        if (channel != null && count < threshold && day.equals(currentDay)) {
+            return;
+        }
+        closeChannel();
+        File dayDir = new File(baseDir, day);
+        if (!day.equals(currentDay)) {
+            currentDay = day;
+            // never append after the tail of a segment left by a previous process
+            index = nextIndex(dayDir);
+        } else {
+            index++;
+        }
+        if (!dayDir.exists() && !dayDir.mkdirs() && !dayDir.exists()) {
+            throw new IOException("create binlog directory failed: " + dayDir);
+        }
+        channel = FileChannel.open(
+            new File(dayDir, prefix + SEGMENT_MARK + index).toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        count = 0;
+    }
+
+    private int nextIndex(File dayDir) {
+        int next = 0;
+        File[] files = dayDir.listFiles();
+        if (files == null) {
+            return next;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(prefix + SEGMENT_MARK)) {
+                next = Math.max(next, segmentIndex(name) + 1);
+            }
+        }
+        return next;
+    }
+
+    private String currentSegment() {
+        return currentDay + File.separator + prefix + SEGMENT_MARK + index;
+    }
+
+    /**
+     * 刷盘并关闭当前分段文件, 需持有锁.
+     */
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        boolean isSuccess = true;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            logger.error("[closeChannel] sync binlog failed, segment:{}", currentSegment(), e);
+            isSuccess = false;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error("[closeChannel] close binlog failed, segment:{}", currentSegment(), e);
+        }
+        channel = null;
+        resolve(writtenSeq, isSuccess);
+    }
+
+    /**
+     * 记录刷盘结果并唤醒等待的写入线程, 需持有锁.
+     */
+    private void resolve(long seq, boolean isSuccess) {
+        if (seq <= resolvedSeq) {
+            return;
+        }
+        if (!isSuccess) {
+            failedRanges.put(seq, resolvedSeq);
+        }
+        resolvedSeq = seq;
+        lock.notifyAll();
+    }
+
+    private void syncLoop() {
+        while (true) {
+            FileChannel target;
+            long seq;
+            synchronized (lock) {
+                try {
+                    while (resolvedSeq >= writtenSeq && !closed) {
+                        lock.wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (closed) {
+                    // closing the channel has synced it
+                    return;
+                }
+                target = channel;
+                seq = writtenSeq;
+            }
+            boolean isSuccess = true;
+            try {
+                target.force(false);
+            } catch (ClosedChannelException e) {
+                // rotated, the channel was synced before it was closed
+                continue;
+            } catch (IOException e) {
+                logger.error("[syncLoop] sync binlog failed.", e);
+                isSuccess = false;
+            }
+            synchronized (lock) {
+                resolve(seq, isSuccess);
+            }
+        }
+    }
+}
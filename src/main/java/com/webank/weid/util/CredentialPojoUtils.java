@@ -21,11 +21,15 @@ package com.webank.weid.util;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -79,11 +83,12 @@ public final class CredentialPojoUtils {
         Map<String, Object> salt,
         Map<String, Object> disclosures) {
         try {
-            Map<String, Object> credMap = DataToolUtils.objToMap(credential);
+            ObjectNode credNode = (ObjectNode) DataToolUtils.objToJsonNode(credential);
             // Preserve the same behavior as in CredentialUtils - will merge later
-            credMap.remove(ParamKeyConstant.PROOF);
-            credMap.put(ParamKeyConstant.CLAIM, getClaimHash(credential, salt, disclosures));
-            return DataToolUtils.mapToCompactJson(credMap);
+            credNode.remove(ParamKeyConstant.PROOF);
+            addClaimHash(credNode, credential, salt, disclosures);
+            sortFields(credNode);
+            return DataToolUtils.jsonNodeToCompactJson(credNode);
         } catch (Exception e) {
             logger.error("get Credential Thumbprint WithoutSig error.", e);
             return StringUtils.EMPTY;
@@ -102,14 +107,15 @@ public final class CredentialPojoUtils {
     public static String getLiteCredentialThumbprintWithoutSig(
         CredentialPojo credential) {
         try {
-            Map<String, Object> credMap = DataToolUtils.objToMap(credential);
-            //credMap.remove(ParamKeyConstant.ISSUANCE_DATE);
-            credMap.remove(ParamKeyConstant.CONTEXT);
-            credMap.put(ParamKeyConstant.PROOF_TYPE, "lite1");
+            ObjectNode credNode = (ObjectNode) DataToolUtils.objToJsonNode(credential);
+            //credNode.remove(ParamKeyConstant.ISSUANCE_DATE);
+            credNode.remove(ParamKeyConstant.CONTEXT);
+            credNode.put(ParamKeyConstant.PROOF_TYPE, "lite1");
             // Preserve the same behavior as in CredentialUtils - will merge later
-            credMap.remove(ParamKeyConstant.PROOF);
-            credMap.put(ParamKeyConstant.CLAIM, getLiteClaimHash(credential));
-            return DataToolUtils.mapToCompactJson(credMap);
+            credNode.remove(ParamKeyConstant.PROOF);
+            // The lite claim is not salted, the claim node is used as it is
+            sortFields(credNode);
+            return DataToolUtils.jsonNodeToCompactJson(credNode);
         } catch (Exception e) {
             logger.error("get Credential Thumbprint WithoutSig error.", e);
             return StringUtils.EMPTY;
@@ -185,16 +191,15 @@ public final class CredentialPojoUtils {
         Map<String, Object> disclosures
     ) {
         try {
-            Map<String, Object> credMap = DataToolUtils.objToMap(credential);
+            ObjectNode credNode = (ObjectNode) DataToolUtils.objToJsonNode(credential);
             // Replace the Claim value object with claim hash value to preserve immutability
-            credMap.put(ParamKeyConstant.CLAIM, getClaimHash(credential, salt, disclosures));
+            addClaimHash(credNode, credential, salt, disclosures);
             // Remove the whole Salt field to preserve immutability
-            Map<String, Object> proof = (Map<String, Object>) credMap.get(ParamKeyConstant.PROOF);
-            proof.remove(ParamKeyConstant.PROOF_SALT);
-            proof.put(ParamKeyConstant.PROOF_SALT, null);
-            credMap.remove(ParamKeyConstant.PROOF);
-            credMap.put(ParamKeyConstant.PROOF, proof);
-            return DataToolUtils.mapToCompactJson(credMap);
+            ObjectNode proof = (ObjectNode) credNode.get(ParamKeyConstant.PROOF);
+            proof.putNull(ParamKeyConstant.PROOF_SALT);
+            sortFields(proof);
+            sortFields(credNode);
+            return DataToolUtils.jsonNodeToCompactJson(credNode);
         } catch (Exception e) {
             logger.error("get Credential Thumbprint error.", e);
             return StringUtils.EMPTY;
@@ -231,14 +236,13 @@ public final class CredentialPojoUtils {
     public static String getLiteCredentialPojoHash(CredentialPojo credentialPojo) {
 
         try {
-            Map<String, Object> credMap = DataToolUtils.objToMap(credentialPojo);
-            credMap.remove(ParamKeyConstant.CONTEXT);
-            credMap.put(ParamKeyConstant.PROOF_TYPE, "lite1");
-            credMap.remove(ParamKeyConstant.PROOF);
+            ObjectNode credNode = (ObjectNode) DataToolUtils.objToJsonNode(credentialPojo);
+            credNode.remove(ParamKeyConstant.CONTEXT);
+            credNode.put(ParamKeyConstant.PROOF_TYPE, "lite1");
             String signature = credentialPojo.getSignature();
-            credMap.put(ParamKeyConstant.PROOF, signature);
-            credMap.put(ParamKeyConstant.CLAIM, getLiteClaimHash(credentialPojo));
-            String rawData = DataToolUtils.mapToCompactJson(credMap);
+            credNode.put(ParamKeyConstant.PROOF, signature);
+            sortFields(credNode);
+            String rawData = DataToolUtils.jsonNodeToCompactJson(credNode);
             //System.out.println("LiteCredential's Pre-Hash for evidence: " + rawData);
             return DataToolUtils.sha3(rawData);
         } catch (Exception e) {
@@ -575,6 +579,130 @@ public final class CredentialPojoUtils {
         }
     }
 
+    /**
+     * Replace the claim in the credential Json tree with its claim hash, which is the same as
+     * getClaimHash(). The claim tree is salted in place instead of deep copying the claim.
+     *
+     * @param credNode the credential Json tree
+     * @param credential Credential
+     * @param salt Salt Map
+     * @param disclosures Disclosure Map
+     */
+    private static void addClaimHash(
+        ObjectNode credNode,
+        CredentialPojo credential,
+        Map<String, Object> salt,
+        Map<String, Object> disclosures
+    ) {
+        if (salt.isEmpty()) {
+            return;
+        }
+        addSaltAndGetHash((ObjectNode) credNode.get(ParamKeyConstant.CLAIM),
+            credential.getClaim(), salt, disclosures);
+    }
+
+    private static void addSaltAndGetHash(
+        ObjectNode claimNode,
+        Map<String, Object> claim,
+        Map<String, Object> salt,
+        Map<String, Object> disclosures
+    ) {
+        boolean fieldAdded = false;
+        for (Map.Entry<String, Object> entry : salt.entrySet()) {
+            String key = entry.getKey();
+            Object disclosureObj = null;
+            if (disclosures != null) {
+                disclosureObj = disclosures.get(key);
+            }
+            Object saltObj = salt.get(key);
+            Object newClaimObj = claim.get(key);
+
+            if (saltObj instanceof Map) {
+                addSaltAndGetHash(
+                    (ObjectNode) claimNode.get(key),
+                    (Map<String, Object>) newClaimObj,
+                    (Map<String, Object>) saltObj,
+                    (Map<String, Object>) disclosureObj
+                );
+            } else if (saltObj instanceof List) {
+                addSaltAndGetHashForList(
+                    (ArrayNode) claimNode.get(key),
+                    (List<Object>) newClaimObj,
+                    (List<Object>) saltObj,
+                    (List<Object>) disclosureObj
+                );
+            } else if (isFieldHashed(disclosureObj, saltObj)) {
+                fieldAdded = !claimNode.has(key) || fieldAdded;
+                claimNode.put(
+                    key,
+                    getFieldSaltHash(String.valueOf(newClaimObj), String.valueOf(saltObj))
+                );
+            }
+        }
+        // A salted field missing in claim is added, keep the fields ordered as a map
+        if (fieldAdded) {
+            sortFields(claimNode);
+        }
+    }
+
+    private static boolean isFieldHashed(Object disclosureObj, Object saltObj) {
+        if (disclosureObj == null) {
+            return !NOT_DISCLOSED.toString().equals(saltObj.toString());
+        }
+        return NOT_DISCLOSED.toString().equals(disclosureObj.toString());
+    }
+
+    private static void addSaltAndGetHashForList(
+        ArrayNode claimNode,
+        List<Object> claim,
+        List<Object> salt,
+        List<Object> disclosures
+    ) {
+        for (int i = 0; claim != null && i < claim.size(); i++) {
+            Object obj = claim.get(i);
+            Object saltObj = salt.get(i);
+            if (obj instanceof Map) {
+                Object disclosureObj = null;
+                if (disclosures != null) {
+                    disclosureObj = disclosures.get(0);
+                }
+                addSaltAndGetHash(
+                    (ObjectNode) claimNode.get(i),
+                    (Map<String, Object>) obj,
+                    (Map<String, Object>) saltObj,
+                    (Map<String, Object>) disclosureObj
+                );
+            } else if (obj instanceof List) {
+                List<Object> disclosureObjList = null;
+                if (disclosures != null) {
+                    disclosureObjList = (List<Object>) disclosures.get(i);
+                }
+                addSaltAndGetHashForList(
+                    (ArrayNode) claimNode.get(i),
+                    (List<Object>) obj,
+                    (List<Object>) saltObj,
+                    disclosureObjList
+                );
+            }
+        }
+    }
+
+    /**
+     * Order the fields of a Json object by keys, as a serialized map does.
+     *
+     * @param node the Json object
+     */
+    private static void sortFields(ObjectNode node) {
+        Map<String, JsonNode> fields = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> field = iterator.next();
+            fields.put(field.getKey(), field.getValue());
+        }
+        node.removeAll();
+        node.setAll(fields);
+    }
+
     /**
      * Set all the values in a map to be null while preserving its key structure recursively.
      *
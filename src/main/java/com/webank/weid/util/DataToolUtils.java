@@ -56,6 +56,7 @@ import java.util.zip.GZIPOutputStream;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -110,10 +111,13 @@ import com.webank.weid.constant.JsonSchemaConstant;
 import com.webank.weid.constant.WeIdConstant;
 import com.webank.weid.exception.DataTypeCastException;
 import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.protocol.base.Cpt;
 import com.webank.weid.protocol.base.PublicKeyProperty;
 import com.webank.weid.protocol.base.WeIdDocument;
 import com.webank.weid.protocol.request.CptMapArgs;
 import com.webank.weid.protocol.response.RsvSignature;
+import com.webank.weid.suite.cache.CacheManager;
+import com.webank.weid.suite.cache.CacheNode;
 
 /**
  * 数据工具类.
@@ -159,6 +163,34 @@ public final class DataToolUtils {
 
     private static final String encryptType;
 
+    /**
+     * Reused buffer of compact Json output, a buffer grown beyond the limit is not kept.
+     */
+    private static final ThreadLocal<StringWriter> COMPACT_JSON_BUFFER =
+        ThreadLocal.withInitial(StringWriter::new);
+
+    private static final int COMPACT_JSON_BUFFER_LIMIT = 64 * 1024;
+
+    private static final ObjectWriter COMPACT_TREE_WRITER;
+
+    /**
+     * Compiled CPT Json Schema cache, keyed by cptId and cptVersion.
+     */
+    private static CacheNode<JsonSchema> cptJsonSchemaCacheNode =
+        CacheManager.registerCacheNode("SYS_CPT_JSON_SCHEMA", 1000 * 3600 * 24L);
+
+    /**
+     * Parsed WeID public keys, keyed by the decimal public key string in WeID Document.
+     */
+    private static CacheNode<BigInteger> publicKeyCacheNode =
+        CacheManager.registerCacheNode("SYS_PUBLIC_KEY", 1000 * 3600 * 24L);
+
+    /**
+     * The public key which verified the last signature of a WeID, keyed by WeID.
+     */
+    private static CacheNode<String> matchedPublicKeyCacheNode =
+        CacheManager.registerCacheNode("SYS_MATCHED_PUBLIC_KEY", 1000 * 3600 * 24L);
+
     static {
         // sort by letter
         OBJECT_MAPPER.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
@@ -173,6 +205,8 @@ public final class DataToolUtils {
         OBJECT_MAPPER.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
 
         OBJECT_WRITER_UN_PRETTY_PRINTER = OBJECT_MAPPER.writer();
+        COMPACT_TREE_WRITER =
+            OBJECT_MAPPER.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
 
         CONVERT_UTC_LONG_KEYLIST.add(KEY_CREATED);
         CONVERT_UTC_LONG_KEYLIST.add(KEY_ISSUANCEDATE);
@@ -355,6 +389,77 @@ public final class DataToolUtils {
         return OBJECT_MAPPER.readTree(serialize(map)).toString();
     }
 
+    /**
+     * Convert a POJO to Json tree without the text round trip. Field order follows serialize(),
+     * i.e. properties and map entries are ordered by keys.
+     *
+     * @param object POJO
+     * @return the Json tree
+     */
+    public static JsonNode objToJsonNode(Object object) {
+        return OBJECT_MAPPER.valueToTree(object);
+    }
+
+    /**
+     * Write a Json tree to compact Json output in its field order, in a reused buffer. Floating
+     * numbers are written as double, the same as they are read back from Json text, so that the
+     * output equals mapToCompactJson() of the same content.
+     *
+     * @param node the Json tree
+     * @return JsonString
+     * @throws IOException IOException
+     */
+    public static String jsonNodeToCompactJson(JsonNode node) throws IOException {
+        StringWriter writer = COMPACT_JSON_BUFFER.get();
+        writer.getBuffer().setLength(0);
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(writer)) {
+            writeCompactJson(generator, node);
+        }
+        String json = writer.toString();
+        if (writer.getBuffer().capacity() > COMPACT_JSON_BUFFER_LIMIT) {
+            COMPACT_JSON_BUFFER.remove();
+        }
+        return json;
+    }
+
+    private static void writeCompactJson(JsonGenerator generator, JsonNode node)
+        throws IOException {
+        if (node.isObject()) {
+            generator.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                writeCompactJson(generator, field.getValue());
+            }
+            generator.writeEndObject();
+        } else if (node.isArray()) {
+            generator.writeStartArray();
+            for (JsonNode element : node) {
+                writeCompactJson(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (node.isTextual()) {
+            generator.writeString(node.textValue());
+        } else if (node.isBoolean()) {
+            generator.writeBoolean(node.booleanValue());
+        } else if (node.isNull()) {
+            generator.writeNull();
+        } else if (node.isInt() || node.isShort()) {
+            generator.writeNumber(node.intValue());
+        } else if (node.isLong()) {
+            generator.writeNumber(node.longValue());
+        } else if (node.isBigInteger()) {
+            generator.writeNumber(node.bigIntegerValue());
+        } else if (node.isDouble()) {
+            generator.writeNumber(node.doubleValue());
+        } else if (node.isFloatingPointNumber()) {
+            generator.writeNumber(Double.parseDouble(node.asText()));
+        } else {
+            COMPACT_TREE_WRITER.writeValue(generator, node);
+        }
+    }
+
     /**
      * Convert a Map to compact Json output, with keys ordered. Use Jackson JsonNode toString() to
      * ensure key order and compact output.
@@ -440,9 +545,22 @@ public final class DataToolUtils {
      */
     public static ProcessingReport checkJsonVersusSchema(String jsonData, String jsonSchema)
         throws Exception {
-        JsonNode jsonDataNode = loadJsonObject(jsonData);
         JsonNode jsonSchemaNode = loadJsonObject(jsonSchema);
         JsonSchema schema = JsonSchemaFactory.byDefault().getJsonSchema(jsonSchemaNode);
+        return checkJsonVersusSchema(jsonData, schema);
+    }
+
+    /**
+     * Validate Json Data versus a compiled Json Schema.
+     *
+     * @param jsonData the json data
+     * @param schema the compiled json schema
+     * @return empty if yes, not empty otherwise
+     * @throws Exception the exception
+     */
+    public static ProcessingReport checkJsonVersusSchema(String jsonData, JsonSchema schema)
+        throws Exception {
+        JsonNode jsonDataNode = loadJsonObject(jsonData);
         ProcessingReport report = schema.validate(jsonDataNode);
         if (report.isSuccess()) {
             logger.info(report.toString());
@@ -484,6 +602,31 @@ public final class DataToolUtils {
             && cptJsonSchema.length() <= WeIdConstant.JSON_SCHEMA_MAX_LENGTH;
     }
 
+    /**
+     * Load the compiled Json Schema of an on-chain CPT. The schema is validated and compiled
+     * only once for each CPT version.
+     *
+     * @param cpt the cpt queried from chain
+     * @return the compiled json schema, null if the cpt json schema is invalid
+     * @throws Exception the exception
+     */
+    public static JsonSchema loadCptJsonSchema(Cpt cpt) throws Exception {
+        String cacheKey = cpt.getCptId() + SEPARATOR_CHAR + cpt.getCptVersion();
+        JsonSchema schema = cptJsonSchemaCacheNode.get(cacheKey);
+        if (schema != null) {
+            return schema;
+        }
+        String cptJsonSchema = serialize(cpt.getCptJsonSchema());
+        if (!isCptJsonSchemaValid(cptJsonSchema)) {
+            return null;
+        }
+        schema = JsonSchemaFactory.byDefault().getJsonSchema(loadJsonObject(cptJsonSchema));
+        if (cpt.getCptId() != null && cpt.getCptVersion() != null) {
+            cptJsonSchemaCacheNode.put(cacheKey, schema);
+        }
+        return schema;
+    }
+
     /**
      * Check if this json string is in valid format.
      *
@@ -647,18 +790,54 @@ public final class DataToolUtils {
             if (rawData == null) {
                 return false;
             }
+            byte[] hashBytes = hashRawData(rawData);
+            SignatureData sigData = null;
+            if (encryptType.equals(String.valueOf(EncryptType.ECDSA_TYPE))) {
+                sigData = secp256k1SigBase64Deserialization(signatureBase64);
+            }
+            return verifySecp256k1Signature(hashBytes, signatureBase64, sigData, publicKey);
+        } catch (Exception e) {
+            logger.error("Error occurred during secp256k1 sig verification: {}", e);
+            return false;
+        }
+    }
+
+    /**
+     * Hash the raw data with the digest of the current encrypt type.
+     *
+     * @param rawData Original raw data
+     * @return the hash bytes
+     */
+    private static byte[] hashRawData(String rawData) {
+        if (encryptType.equals(String.valueOf(EncryptType.ECDSA_TYPE))) {
+            return Hash.sha3(rawData.getBytes());
+        }
+        return new SM3Digest().hash(rawData.getBytes());
+    }
+
+    /**
+     * Verify a hashed message against a public key, the ECDSA signature only needs to be
+     * deserialized once for all the candidate public keys.
+     *
+     * @param hashBytes the hashed raw data
+     * @param signatureBase64 the signature in base64
+     * @param sigData the deserialized ECDSA signature, not used for SM2
+     * @param publicKey the public key
+     * @return true if the signature is valid
+     */
+    private static boolean verifySecp256k1Signature(
+        byte[] hashBytes,
+        String signatureBase64,
+        SignatureData sigData,
+        BigInteger publicKey
+    ) {
+        try {
             if (encryptType.equals(String.valueOf(EncryptType.ECDSA_TYPE))) {
-                SignatureData sigData =
-                        secp256k1SigBase64Deserialization(signatureBase64);
-                byte[] hashBytes = Hash.sha3(rawData.getBytes());
                 ECDSASign ecdsaSign = new ECDSASign();
                 return ecdsaSign.secp256Verify(hashBytes, publicKey, sigData);
             } else {
-                SM3Digest sm3Digest = new SM3Digest();
-                byte[] hashBytes = sm3Digest.hash(rawData.getBytes());
-                SignatureData sigData =
-                        secp256k1SigBase64Deserialization(signatureBase64, publicKey);
-                return SM2Sign.verify(hashBytes, sigData);
+                return SM2Sign.verify(hashBytes,
+                    secp256k1SigBase64Deserialization(signatureBase64, publicKey));
             }
         } catch (Exception e) {
             logger.error("Error occurred during secp256k1 sig verification: {}", e);
@@ -666,6 +845,16 @@ public final class DataToolUtils {
         }
     }
 
+    /**
+     * Get the parsed public key of a decimal public key string, from cache if present.
+     *
+     * @param publicKey the decimal public key string
+     * @return the public key
+     */
+    private static BigInteger getPublicKeyValue(String publicKey) {
+        return publicKeyCacheNode.get(publicKey, BigInteger::new);
+    }
+
     /**
      * Recover WeID from message and Signature (Secp256k1 type of sig only).
      *
@@ -887,35 +1076,47 @@ public final class DataToolUtils {
         // Traverse public key list indexed Authentication key list
 
         for (PublicKeyProperty publicKeyProperty : weIdDocument.getPublicKey()) {
-            if (publicKeyProperty.getRevoked()) {
+            if (publicKeyProperty.getRevoked()
+                || StringUtils.isEmpty(publicKeyProperty.getPublicKey())) {
                 continue;
             }
             publicKeysListToVerify.add(publicKeyProperty.getPublicKey());
         }
+        // The key which verified the last signature of this WeID is the most likely one
+        String lastMatchedPubKey = matchedPublicKeyCacheNode.get(weIdDocument.getId());
+        if (lastMatchedPubKey != null && publicKeysListToVerify.remove(lastMatchedPubKey)) {
+            publicKeysListToVerify.add(0, lastMatchedPubKey);
+        }
         String foundMatchingPubKeyId = StringUtils.EMPTY;
         try {
-            boolean result = false;
+            if (rawData == null) {
+                return ErrorCode.CREDENTIAL_VERIFY_FAIL;
+            }
+            byte[] hashBytes = hashRawData(rawData);
+            SignatureData sigData = null;
+            if (encryptType.equals(String.valueOf(EncryptType.ECDSA_TYPE))) {
+                sigData = secp256k1SigBase64Deserialization(signature);
+            }
+            String matchedPubKey = null;
             for (String publicKeyItem : publicKeysListToVerify) {
-                if (StringUtils.isNotEmpty(publicKeyItem)) {
-                    boolean currentResult = verifySecp256k1Signature(
-                        rawData, signature, new BigInteger(publicKeyItem));
-                    result = currentResult || result;
-                    if (currentResult) {
-                        for (PublicKeyProperty pkp : weIdDocument.getPublicKey()) {
-                            if (pkp.getRevoked()) {
-                                continue;
-                            }
-                            if (pkp.getPublicKey().equalsIgnoreCase(publicKeyItem)) {
-                                foundMatchingPubKeyId = pkp.getId();
-                            }
-                        }
-                        break;
-                    }
+                if (verifySecp256k1Signature(
+                    hashBytes, signature, sigData, getPublicKeyValue(publicKeyItem))) {
+                    matchedPubKey = publicKeyItem;
+                    break;
                 }
             }
-            if (!result) {
+            if (matchedPubKey == null) {
                 return ErrorCode.CREDENTIAL_VERIFY_FAIL;
             }
+            matchedPublicKeyCacheNode.put(weIdDocument.getId(), matchedPubKey);
+            for (PublicKeyProperty pkp : weIdDocument.getPublicKey()) {
+                if (pkp.getRevoked()) {
+                    continue;
+                }
+                if (pkp.getPublicKey().equalsIgnoreCase(matchedPubKey)) {
+                    foundMatchingPubKeyId = pkp.getId();
+                }
+            }
         } catch (Exception e) {
             logger.error("some exceptions occurred in signature verification", e);
             return ErrorCode.CREDENTIAL_EXCEPTION_VERIFYSIGNATURE;
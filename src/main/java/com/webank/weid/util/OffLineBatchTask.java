@@ -1,13 +1,24 @@
 package com.webank.weid.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.fisco.bcos.web3j.crypto.ECKeyPair;
 import org.fisco.bcos.web3j.crypto.gm.GenCredential;
 import org.slf4j.Logger;
@@ -15,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.protocol.request.TransactionArgs;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.service.impl.AbstractService;
@@ -22,8 +34,8 @@ import com.webank.weid.service.impl.engine.EngineFactory;
 import com.webank.weid.service.impl.engine.EvidenceServiceEngine;
 import com.webank.weid.suite.api.crypto.CryptoServiceFactory;
 import com.webank.weid.suite.api.crypto.params.CryptoType;
-import com.webank.weid.suite.api.persistence.inf.Persistence;
 import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+import com.webank.weid.util.OfflineTransactionReplayer.ReplaySource;
 
 /**
  * 离线交易批处理工具类.
@@ -35,6 +47,37 @@ public class OffLineBatchTask extends AbstractService {
 
     private static final Logger logger = LoggerFactory.getLogger(OffLineBatchTask.class);
 
+    /**
+     * 每次读取的离线交易条数, 也是每笔批量上链交易的最大条数.
+     */
+    private static final String REPLAY_CHUNK_SIZE_KEY = "offline.replay.chunkSize";
+
+    /**
+     * 并发上链的线程数, 也是同时在途的读取批次数.
+     */
+    private static final String REPLAY_THREADS_KEY = "offline.replay.threads";
+
+    private static final int CHUNK_SIZE = Math.max(1,
+        NumberUtils.toInt(PropertyUtils.getProperty(REPLAY_CHUNK_SIZE_KEY), 1000));
+
+    private static final int THREADS = Math.max(1,
+        NumberUtils.toInt(PropertyUtils.getProperty(REPLAY_THREADS_KEY), 4));
+
+    /**
+     * binlog重放进度文件名, 存放在binlog所在的日期目录下.
+     */
+    private static final String CHECKPOINT_FILE = "replay.checkpoint";
+
+    /**
+     * 数据库重放进度的key前缀, 进度存放在DOMAIN_DEFAULT_INFO中.
+     */
+    private static final String CHECKPOINT_KEY_PREFIX = "offline_replay_checkpoint_";
+
+    private static final Map<Integer, EvidenceServiceEngine> evidenceServiceEngines =
+        new ConcurrentHashMap<>();
+
+    private static volatile ExecutorService replayExecutor;
+
     private static Map<String, String> userKey = new HashMap<>();
 
     private static String secretKey;
@@ -44,7 +87,7 @@ public class OffLineBatchTask extends AbstractService {
     /**
      * persistence.
      */
-    private static Persistence dataDriver;
+    private static MysqlDriver dataDriver;
 
     static {
 
@@ -56,7 +99,7 @@ public class OffLineBatchTask extends AbstractService {
         }
     }
 
-    private static Persistence getDataDriver() {
+    private static MysqlDriver getDataDriver() {
 
         if (dataDriver == null) {
             dataDriver = new MysqlDriver();
@@ -64,6 +107,26 @@ public class OffLineBatchTask extends AbstractService {
         return dataDriver;
     }
 
+    private static ExecutorService getReplayExecutor() {
+        if (replayExecutor == null) {
+            synchronized (OffLineBatchTask.class) {
+                if (replayExecutor == null) {
+                    replayExecutor = Executors.newFixedThreadPool(THREADS, runnable -> {
+                        Thread thread = new Thread(runnable, "weid-offline-replay");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return replayExecutor;
+    }
+
+    private static EvidenceServiceEngine getEvidenceServiceEngine(Integer groupId) {
+        return evidenceServiceEngines.computeIfAbsent(
+            groupId, EngineFactory::createEvidenceServiceEngine);
+    }
+
     private static String getKey() {
 
         if (!StringUtils.isBlank(secretKey)) {
@@ -93,149 +156,71 @@ public class OffLineBatchTask extends AbstractService {
     public static ResponseData<List<Boolean>> sendBatchTransaction(
         List<TransactionArgs> transactionArgs) {
 
-        Map<Integer, List<String>> hashesByGroup = new HashMap<>();
-        Map<Integer, List<String>> signaturesByGroup = new HashMap<>();
-        Map<Integer, List<String>> logsByGroup = new HashMap<>();
-        Map<Integer, List<Long>> timestampsByGroup = new HashMap<>();
-        Map<Integer, List<String>> signersByGroup = new HashMap<>();
-        Map<Integer, List<String>> customKeysByGroup = new HashMap<>();
-
-        // Preserve order
-        Map<Integer, List<Integer>> orderByGroup = new HashMap<>();
-
-        for (TransactionArgs transaction : transactionArgs) {
-
-            String args = transaction.getArgs();
-            String[] argArray = StringUtils.splitByWholeSeparatorPreserveAllTokens(args, ",");
-
-            String method = transaction.getMethod();
-            Integer groupId = Integer.valueOf(fiscoConfig.getGroupId());
-            switch (method) {
+        return new ResponseData<>(
+            newReplayer().send(transactionArgs), ErrorCode.SUCCESS, null);
+    }
 
-                case "createEvidence":
-                    if (argArray.length > 5) {
-                        groupId = Integer.valueOf(argArray[5]);
-                    }
-                    updateCommonFields(hashesByGroup, signaturesByGroup, logsByGroup,
-                        timestampsByGroup, groupId, argArray);
-                    if (CollectionUtils.size(customKeysByGroup.get(groupId)) == 0) {
-                        List<String> list = new ArrayList<>();
-                        list.add(StringUtils.EMPTY);
-                        customKeysByGroup.put(groupId, list);
-                    } else {
-                        customKeysByGroup.get(groupId).add(StringUtils.EMPTY);
-                    }
-                    if (CollectionUtils.size(signersByGroup.get(groupId)) == 0) {
-                        List<String> list = new ArrayList<>();
-                        list.add(argArray[4]);
-                        signersByGroup.put(groupId, list);
-                    } else {
-                        signersByGroup.get(groupId).add(argArray[4]);
-                    }
-                    if (CollectionUtils.size(orderByGroup.get(groupId)) == 0) {
-                        List<Integer> list = new ArrayList<>();
-                        list.add(transactionArgs.indexOf(transaction));
-                        orderByGroup.put(groupId, list);
-                    } else {
-                        orderByGroup.get(groupId).add(transactionArgs.indexOf(transaction));
-                    }
-                    break;
-                case "createEvidenceWithCustomKey":
-                    if (argArray.length > 6) {
-                        groupId = Integer.valueOf(argArray[6]);
-                    }
-                    updateCommonFields(hashesByGroup, signaturesByGroup, logsByGroup,
-                        timestampsByGroup, groupId, argArray);
-                    if (CollectionUtils.size(customKeysByGroup.get(groupId)) == 0) {
-                        List<String> list = new ArrayList<>();
-                        list.add(argArray[4]);
-                        customKeysByGroup.put(groupId, list);
-                    } else {
-                        customKeysByGroup.get(groupId).add(argArray[4]);
-                    }
-                    if (CollectionUtils.size(signersByGroup.get(groupId)) == 0) {
-                        List<String> list = new ArrayList<>();
-                        list.add(argArray[5]);
-                        signersByGroup.put(groupId, list);
-                    } else {
-                        signersByGroup.get(groupId).add(argArray[5]);
-                    }
-                    if (CollectionUtils.size(orderByGroup.get(groupId)) == 0) {
-                        List<Integer> list = new ArrayList<>();
-                        list.add(transactionArgs.indexOf(transaction));
-                        orderByGroup.put(groupId, list);
-                    } else {
-                        orderByGroup.get(groupId).add(transactionArgs.indexOf(transaction));
-                    }
-                    break;
-                default:
-                    break;
-            }
+    /**
+     * 重放数据库中某批次的离线交易.
+     * 按request_id顺序分块读取并发上链, 每块上链完成后记录进度, 再次调用时从上次的进度继续,
+     * 进程异常退出时最多重复上链在途的几块交易, 重复的存证会上链失败而不会重复创建.
+     * 某块交易上链失败时停止重放, 进度停留在该块之前.
+     *
+     * @param batch 批次, 即交易写入时的日期yyyyMMdd
+     * @return 上链成功的交易条数
+     */
+    public static ResponseData<Long> replayTransactions(String batch) {
+        try {
+            return newReplayer().replay(new DbReplaySource(batch));
+        } catch (WeIdBaseException e) {
+            logger.error("[replayTransactions] replay batch {} failed.", batch, e);
+            return new ResponseData<>(0L, e.getErrorCode());
         }
+    }
 
-        List<Boolean> resp = Arrays.asList(new Boolean[transactionArgs.size()]);
-
-        // Separately go batch creation and merge responses
-        for (Integer groupId : hashesByGroup.keySet()) {
-            EvidenceServiceEngine evidenceServiceEngine = EngineFactory
-                .createEvidenceServiceEngine(groupId);
-            List<Boolean> subResp = evidenceServiceEngine.batchCreateEvidenceWithCustomKey(
-                hashesByGroup.get(groupId),
-                signaturesByGroup.get(groupId),
-                logsByGroup.get(groupId),
-                timestampsByGroup.get(groupId),
-                signersByGroup.get(groupId),
-                customKeysByGroup.get(groupId),
-                privateKey
-            ).getResult();
-
-            // merge
-            List<Integer> orders = orderByGroup.get(groupId);
-            int index = 0;
-            for (Boolean boolValue : subResp) {
-                resp.set(orders.get(index), boolValue);
-                index++;
-            }
+    /**
+     * 重放某天binlog目录下的离线交易, 进度记录在该目录的replay.checkpoint文件中,
+     * 其余同replayTransactions.
+     *
+     * @param dir binlog所在的日期目录
+     * @return 上链成功的交易条数
+     */
+    public static ResponseData<Long> replayBinlog(File dir) {
+        try {
+            return newReplayer().replay(new BinlogReplaySource(dir));
+        } catch (IOException e) {
+            logger.error("[replayBinlog] replay binlog {} failed.", dir, e);
+            return new ResponseData<>(0L, ErrorCode.OFFLINE_TRANSACTION_REPLAY_FAILED);
         }
-        return new ResponseData<>(resp, ErrorCode.SUCCESS, null);
     }
 
-    private static void updateCommonFields(
-        Map<Integer, List<String>> hashesByGroup,
-        Map<Integer, List<String>> signaturesByGroup,
-        Map<Integer, List<String>> logsByGroup,
-        Map<Integer, List<Long>> timestampsByGroup,
+    private static OfflineTransactionReplayer newReplayer() {
+        return new OfflineTransactionReplayer(
+            OffLineBatchTask::sendEvidences,
+            Integer.valueOf(fiscoConfig.getGroupId()),
+            CHUNK_SIZE,
+            THREADS,
+            getReplayExecutor());
+    }
+
+    private static ResponseData<List<Boolean>> sendEvidences(
         Integer groupId,
-        String[] argArray
-    ) {
-        if (CollectionUtils.size(hashesByGroup.get(groupId)) == 0) {
-            List<String> list = new ArrayList<>();
-            list.add(argArray[0]);
-            hashesByGroup.put(groupId, list);
-        } else {
-            hashesByGroup.get(groupId).add(argArray[0]);
-        }
-        if (CollectionUtils.size(signaturesByGroup.get(groupId)) == 0) {
-            List<String> list = new ArrayList<>();
-            list.add(argArray[1]);
-            signaturesByGroup.put(groupId, list);
-        } else {
-            signaturesByGroup.get(groupId).add(argArray[1]);
-        }
-        if (CollectionUtils.size(logsByGroup.get(groupId)) == 0) {
-            List<String> list = new ArrayList<>();
-            list.add(argArray[2]);
-            logsByGroup.put(groupId, list);
-        } else {
-            logsByGroup.get(groupId).add(argArray[2]);
-        }
-        if (CollectionUtils.size(timestampsByGroup.get(groupId)) == 0) {
-            List<Long> list = new ArrayList<>();
-            list.add(Long.valueOf(argArray[3]));
-            timestampsByGroup.put(groupId, list);
-        } else {
-            timestampsByGroup.get(groupId).add(Long.valueOf(argArray[3]));
-        }
+        List<String> hashValues,
+        List<String> signatures,
+        List<String> logs,
+        List<Long> timestamps,
+        List<String> signers,
+        List<String> customKeys) {
+
+        return getEvidenceServiceEngine(groupId).batchCreateEvidenceWithCustomKey(
+            hashValues,
+            signatures,
+            logs,
+            timestamps,
+            signers,
+            customKeys,
+            privateKey
+        );
     }
 
     private static String getPrivateKeyByWeId(String weId) {
@@ -259,4 +244,156 @@ public class OffLineBatchTask extends AbstractService {
         }
         return null;
     }
+
+    /**
+     * 从weidentity_offline_transaction_info表按request_id顺序分页读取.
+     */
+    private static final class DbReplaySource implements ReplaySource {
+
+        private final String batch;
+
+        private String lastRequestId;
+
+        private DbReplaySource(String batch) {
+            this.batch = batch;
+            ResponseData<String> resp = getDataDriver()
+                .get(DataDriverConstant.DOMAIN_DEFAULT_INFO, CHECKPOINT_KEY_PREFIX + batch);
+            if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                throw new WeIdBaseException(ErrorCode.getTypeByErrorCode(resp.getErrorCode()));
+            }
+            this.lastRequestId = StringUtils.defaultString(resp.getResult());
+        }
+
+        @Override
+        public List<TransactionArgs> nextChunk(int size) {
+            ResponseData<List<TransactionArgs>> resp =
+                getDataDriver().getTransactions(batch, lastRequestId, size);
+            if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                throw new WeIdBaseException(ErrorCode.getTypeByErrorCode(resp.getErrorCode()));
+            }
+            List<TransactionArgs> transactions = resp.getResult();
+            if (!transactions.isEmpty()) {
+                lastRequestId = transactions.get(transactions.size() - 1).getRequestId();
+            }
+            return transactions;
+        }
+
+        @Override
+        public String getPosition() {
+            return lastRequestId;
+        }
+
+        @Override
+        public void saveCheckpoint(String position) {
+            ResponseData<Integer> resp = getDataDriver().addOrUpdate(
+                DataDriverConstant.DOMAIN_DEFAULT_INFO, CHECKPOINT_KEY_PREFIX + batch, position);
+            if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                throw new WeIdBaseException(ErrorCode.getTypeByErrorCode(resp.getErrorCode()));
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 按顺序读取日期目录下的binlog分段文件, 进度格式为: 分段文件名:文件内偏移量.
+     */
+    private static final class BinlogReplaySource implements ReplaySource {
+
+        private final File dir;
+
+        private final Iterator<File> segments;
+
+        private BinlogReader reader;
+
+        private String segmentName;
+
+        private long endPosition;
+
+        private BinlogReplaySource(File dir) throws IOException {
+            this.dir = dir;
+            String checkpointSegment = null;
+            long checkpointPosition = 0L;
+            File checkpointFile = new File(dir, CHECKPOINT_FILE);
+            if (checkpointFile.exists()) {
+                String checkpoint = new String(
+                    Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8).trim();
+                int separator = checkpoint.lastIndexOf(':');
+                checkpointSegment = checkpoint.substring(0, separator);
+                checkpointPosition = Long.parseLong(checkpoint.substring(separator + 1));
+            }
+            List<File> files = BinlogReader.listSegments(dir);
+            int start = 0;
+            long position = 0L;
+            for (int i = 0; i < files.size(); i++) {
+                if (files.get(i).getName().equals(checkpointSegment)) {
+                    start = i;
+                    position = checkpointPosition;
+                    break;
+                }
+            }
+            this.segments = files.subList(start, files.size()).iterator();
+            if (segments.hasNext()) {
+                open(segments.next(), position);
+            }
+        }
+
+        private void open(File segment, long position) throws IOException {
+            reader = new BinlogReader(segment, position);
+            segmentName = segment.getName();
+        }
+
+        @Override
+        public List<TransactionArgs> nextChunk(int size) throws IOException {
+            List<TransactionArgs> transactions = new ArrayList<>(size);
+            while (reader != null && transactions.size() < size) {
+                if (reader.hasNext()) {
+                    TransactionArgs transaction =
+                        BatchTransactionUtils.parseLogRecord(reader.next(), dir.getName());
+                    if (transaction == null) {
+                        logger.error("[nextChunk] skip the illegal record in {}", segmentName);
+                    } else {
+                        transactions.add(transaction);
+                    }
+                    continue;
+                }
+                endPosition = reader.getPosition();
+                reader.close();
+                reader = null;
+                if (segments.hasNext()) {
+                    open(segments.next(), 0L);
+                }
+            }
+            return transactions;
+        }
+
+        @Override
+        public String getPosition() {
+            return segmentName + ":" + (reader != null ? reader.getPosition() : endPosition);
+        }
+
+        @Override
+        public void saveCheckpoint(String position) throws IOException {
+            // write a new file and rename it, so a crash never leaves a partial checkpoint
+            File tmp = new File(dir, CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(position.getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            Files.move(tmp.toPath(), new File(dir, CHECKPOINT_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
 }
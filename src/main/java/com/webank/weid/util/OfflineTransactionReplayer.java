@@ -0,0 +1,423 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.protocol.request.TransactionArgs;
+import com.webank.weid.protocol.response.ResponseData;
+
+/**
+ * 离线交易的解析和重放, 交易的读取来源和上链方式由调用方提供.
+ */
+final class OfflineTransactionReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfflineTransactionReplayer.class);
+
+    private final EvidenceSender sender;
+
+    private final Integer defaultGroupId;
+
+    private final int chunkSize;
+
+    private final int maxInFlight;
+
+    private final Executor executor;
+
+    /**
+     * 创建重放器.
+     *
+     * @param sender 批量上链方式
+     * @param defaultGroupId 交易中没有群组时使用的群组
+     * @param chunkSize 每次读取的条数, 也是每笔批量上链交易的最大条数
+     * @param maxInFlight 同时在途的读取批次数
+     * @param executor 上链使用的线程池
+     */
+    OfflineTransactionReplayer(
+        EvidenceSender sender,
+        Integer defaultGroupId,
+        int chunkSize,
+        int maxInFlight,
+        Executor executor) {
+
+        this.sender = sender;
+        this.defaultGroupId = defaultGroupId;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+        this.executor = executor;
+    }
+
+    /**
+     * 批量上链, 上链失败的交易结果为false.
+     *
+     * @param transactionArgs 上链交易参数
+     * @return 每条交易的上链结果
+     */
+    List<Boolean> send(List<TransactionArgs> transactionArgs) {
+        Boolean[] results = new Boolean[transactionArgs.size()];
+        try {
+            sendEvidences(parse(transactionArgs), results).join();
+        } catch (CompletionException e) {
+            logger.error("[send] send the offline transactions failed.", e.getCause());
+        }
+        for (int i = 0; i < results.length; i++) {
+            results[i] = Boolean.TRUE.equals(results[i]);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 分块读取并发上链, 每块上链完成后按读取顺序记录进度.
+     * 某块上链失败时停止重放且不再记录进度, 再次重放时从该块重新开始.
+     *
+     * @param source 离线交易的读取来源
+     * @return 上链成功的交易条数
+     */
+    ResponseData<Long> replay(ReplaySource source) {
+        Deque<ReplayChunk> inFlight = new ArrayDeque<>();
+        long succeeded = 0;
+        try {
+            while (true) {
+                List<TransactionArgs> transactions = source.nextChunk(chunkSize);
+                if (transactions.isEmpty()) {
+                    break;
+                }
+                Boolean[] results = new Boolean[transactions.size()];
+                CompletableFuture<Void> future = sendEvidences(parse(transactions), results);
+                inFlight.add(new ReplayChunk(transactions, results, source.getPosition(), future));
+                // the checkpoints are saved in order, so a chunk is never skipped after a crash
+                if (inFlight.size() >= maxInFlight) {
+                    succeeded += commit(inFlight.poll(), source);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                succeeded += commit(inFlight.poll(), source);
+            }
+        } catch (WeIdBaseException e) {
+            logger.error("[replay] replay offline transactions failed.", e);
+            return new ResponseData<>(succeeded, e.getErrorCode());
+        } catch (Exception e) {
+            logger.error("[replay] replay offline transactions failed.", e);
+            return new ResponseData<>(succeeded, ErrorCode.OFFLINE_TRANSACTION_REPLAY_FAILED);
+        } finally {
+            try {
+                source.close();
+            } catch (IOException e) {
+                logger.error("[replay] close the replay source failed.", e);
+            }
+        }
+        return new ResponseData<>(succeeded, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 等待一块交易上链完成并记录进度, 上链失败时抛出异常, 不记录进度.
+     *
+     * @return 上链成功的交易条数
+     */
+    private long commit(ReplayChunk chunk, ReplaySource source) throws IOException {
+        try {
+            chunk.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof WeIdBaseException) {
+                throw (WeIdBaseException) e.getCause();
+            }
+            throw e;
+        }
+        long succeeded = 0;
+        String firstFailed = null;
+        for (int i = 0; i < chunk.results.length; i++) {
+            if (Boolean.TRUE.equals(chunk.results[i])) {
+                succeeded++;
+            } else if (firstFailed == null) {
+                firstFailed = chunk.transactions.get(i).getRequestId();
+            }
+        }
+        if (firstFailed != null) {
+            logger.warn("[replay] {} of {} transactions failed, the first is requestId:{}",
+                chunk.results.length - succeeded, chunk.results.length, firstFailed);
+        }
+        source.saveCheckpoint(chunk.position);
+        return succeeded;
+    }
+
+    private List<OfflineEvidence> parse(List<TransactionArgs> transactions) {
+        List<OfflineEvidence> evidences = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            OfflineEvidence evidence =
+                OfflineEvidence.parse(i, transactions.get(i), defaultGroupId);
+            if (evidence != null) {
+                evidences.add(evidence);
+            }
+        }
+        return evidences;
+    }
+
+    /**
+     * 按群组拆分存证, 每个群组按chunkSize分块并发上链.
+     *
+     * @param evidences 存证列表
+     * @param results 上链结果, 按存证的index写入
+     * @return 全部上链完成时完成, 任一块上链失败时异常完成
+     */
+    private CompletableFuture<Void> sendEvidences(
+        List<OfflineEvidence> evidences,
+        Boolean[] results) {
+
+        Map<Integer, List<OfflineEvidence>> evidencesByGroup = new HashMap<>();
+        for (OfflineEvidence evidence : evidences) {
+            evidencesByGroup
+                .computeIfAbsent(evidence.groupId, groupId -> new ArrayList<>())
+                .add(evidence);
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map.Entry<Integer, List<OfflineEvidence>> entry : evidencesByGroup.entrySet()) {
+            List<OfflineEvidence> groupEvidences = entry.getValue();
+            for (int from = 0; from < groupEvidences.size(); from += chunkSize) {
+                List<OfflineEvidence> chunk = groupEvidences
+                    .subList(from, Math.min(groupEvidences.size(), from + chunkSize));
+                futures.add(CompletableFuture.runAsync(
+                    () -> sendChunk(entry.getKey(), chunk, results), executor));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * 一块存证上链, 交易没有执行时抛出异常, 已存在的存证只记为失败.
+     */
+    private void sendChunk(
+        Integer groupId,
+        List<OfflineEvidence> chunk,
+        Boolean[] results) {
+
+        List<String> hashValues = new ArrayList<>(chunk.size());
+        List<String> signatures = new ArrayList<>(chunk.size());
+        List<String> logs = new ArrayList<>(chunk.size());
+        List<Long> timestamps = new ArrayList<>(chunk.size());
+        List<String> signers = new ArrayList<>(chunk.size());
+        List<String> customKeys = new ArrayList<>(chunk.size());
+        for (OfflineEvidence evidence : chunk) {
+            hashValues.add(evidence.hashValue);
+            signatures.add(evidence.signature);
+            logs.add(evidence.log);
+            timestamps.add(evidence.timestamp);
+            signers.add(evidence.signer);
+            customKeys.add(evidence.customKey);
+        }
+        ResponseData<List<Boolean>> response;
+        try {
+            response = sender.send(
+                groupId, hashValues, signatures, logs, timestamps, signers, customKeys);
+        } catch (Exception e) {
+            logger.error("[sendChunk] batch create evidence failed, groupId:{}.", groupId, e);
+            throw new WeIdBaseException(ErrorCode.OFFLINE_TRANSACTION_REPLAY_FAILED);
+        }
+        Integer errorCode = response == null ? null : response.getErrorCode();
+        if (response == null || response.getResult() == null
+            || (errorCode.intValue() != ErrorCode.SUCCESS.getCode()
+            && errorCode.intValue() != ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS.getCode())) {
+            logger.error("[sendChunk] batch create evidence failed, groupId:{}, errorCode:{}.",
+                groupId, errorCode);
+            throw new WeIdBaseException(ErrorCode.OFFLINE_TRANSACTION_REPLAY_FAILED);
+        }
+        List<Boolean> subResp = response.getResult();
+        for (int i = 0; i < chunk.size(); i++) {
+            results[chunk.get(i).index] = i < subResp.size() && Boolean.TRUE.equals(subResp.get(i));
+        }
+    }
+
+    /**
+     * 批量上链方式.
+     */
+    @FunctionalInterface
+    interface EvidenceSender {
+
+        /**
+         * 在群组上批量创建存证.
+         *
+         * @param groupId 群组
+         * @param hashValues 存证hash
+         * @param signatures 签名
+         * @param logs 日志
+         * @param timestamps 时间戳
+         * @param signers 签名者
+         * @param customKeys 自定义key
+         * @return 每条存证的创建结果
+         */
+        ResponseData<List<Boolean>> send(
+            Integer groupId,
+            List<String> hashValues,
+            List<String> signatures,
+            List<String> logs,
+            List<Long> timestamps,
+            List<String> signers,
+            List<String> customKeys);
+    }
+
+    /**
+     * 离线交易的读取来源.
+     */
+    interface ReplaySource extends Closeable {
+
+        /**
+         * 读取下一块交易.
+         *
+         * @param size 最多读取的条数
+         * @return 交易列表, 读完时返回空列表
+         * @throws IOException 读取失败
+         */
+        List<TransactionArgs> nextChunk(int size) throws IOException;
+
+        /**
+         * 获取当前的读取进度.
+         *
+         * @return 读取进度
+         */
+        String getPosition();
+
+        /**
+         * 记录重放进度, 下次重放从该进度开始读取.
+         *
+         * @param position 读取进度
+         * @throws IOException 记录失败
+         */
+        void saveCheckpoint(String position) throws IOException;
+    }
+
+    /**
+     * 从离线交易中解析出的一条存证.
+     */
+    private static final class OfflineEvidence {
+
+        /**
+         * 在所属交易列表中的下标.
+         */
+        private int index;
+
+        private Integer groupId;
+
+        private String hashValue;
+
+        private String signature;
+
+        private String log;
+
+        private Long timestamp;
+
+        private String customKey;
+
+        private String signer;
+
+        /**
+         * 解析离线交易, args格式为: hash,signature,log,timestamp,[customKey,]signer,groupId.
+         *
+         * @param index 交易在列表中的下标
+         * @param transaction 离线交易
+         * @param defaultGroupId 交易中没有群组时使用的群组
+         * @return 存证, 不支持的交易或格式不正确时返回null
+         */
+        private static OfflineEvidence parse(
+            int index,
+            TransactionArgs transaction,
+            Integer defaultGroupId) {
+
+            String[] argArray = StringUtils
+                .splitByWholeSeparatorPreserveAllTokens(transaction.getArgs(), ",");
+            if (argArray == null) {
+                return null;
+            }
+            String method = transaction.getMethod();
+            OfflineEvidence evidence = new OfflineEvidence();
+            int groupIndex;
+            if ("createEvidence".equals(method) && argArray.length > 4) {
+                evidence.customKey = StringUtils.EMPTY;
+                evidence.signer = argArray[4];
+                groupIndex = 5;
+            } else if ("createEvidenceWithCustomKey".equals(method) && argArray.length > 5) {
+                evidence.customKey = argArray[4];
+                evidence.signer = argArray[5];
+                groupIndex = 6;
+            } else {
+                logger.error("[parse] unsupported transaction, requestId:{}, method:{}",
+                    transaction.getRequestId(), method);
+                return null;
+            }
+            try {
+                evidence.groupId = argArray.length > groupIndex
+                    ? Integer.valueOf(argArray[groupIndex]) : defaultGroupId;
+                evidence.timestamp = Long.valueOf(argArray[3]);
+            } catch (NumberFormatException e) {
+                logger.error("[parse] illegal transaction args, requestId:{}",
+                    transaction.getRequestId());
+                return null;
+            }
+            evidence.index = index;
+            evidence.hashValue = argArray[0];
+            evidence.signature = argArray[1];
+            evidence.log = argArray[2];
+            return evidence;
+        }
+    }
+
+    /**
+     * 一块已提交上链的离线交易.
+     */
+    private static final class ReplayChunk {
+
+        private final List<TransactionArgs> transactions;
+
+        private final Boolean[] results;
+
+        /**
+         * 读完这块交易后的读取进度.
+         */
+        private final String position;
+
+        private final CompletableFuture<Void> future;
+
+        private ReplayChunk(
+            List<TransactionArgs> transactions,
+            Boolean[] results,
+            String position,
+            CompletableFuture<Void> future) {
+            this.transactions = transactions;
+            this.results = results;
+            this.position = position;
+            this.future = future;
+        }
+    }
+}
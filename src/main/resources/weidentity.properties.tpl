@@ -42,6 +42,60 @@ datasource1.jdbc.maxWait=10000
 datasource1.jdbc.timeBetweenEvictionRunsMillis=600000
 datasource1.jdbc.numTestsPerEvictionRun=5
 datasource1.jdbc.minEvictableIdleTimeMillis=1800000
+# Whether to cache the prepared statements, and the number cached per connection.
+datasource1.jdbc.poolPreparedStatements=true
+datasource1.jdbc.maxOpenPreparedStatements=100
+
+# The pool and per-domain query latency metrics are registered as JMX MXBeans under com.webank.weid,
+# persistence.metrics.listener optionally names a PoolMetricsListener class to export them.
+# When persistence.pool.adaptive.interval is greater than 0, maxActive grows while the mean borrow
+# wait exceeds persistence.pool.adaptive.waitThreshold milliseconds and shrinks while the pool is
+# mostly idle, within xxx.jdbc.adaptive.minActive (default minIdle) and xxx.jdbc.adaptive.maxActive
+# (default 2 * maxActive).
+persistence.metrics.jmx=true
+persistence.metrics.listener=
+persistence.pool.adaptive.interval=0
+persistence.pool.adaptive.waitThreshold=20
+
+# The expired MySQL data is deleted in the background every persistence.purge.interval milliseconds,
+# persistence.purge.batchSize rows per statement, e.g. 3600000 for hourly. It is disabled by 0.
+# The purge relies on the index idx_expire(expire). The tables created by this version have it,
+# the tables created by the older versions are skipped until it is added by hand:
+#   alter table `weidentity_xxx` add index `idx_expire` (`expire`);
+persistence.purge.interval=0
+persistence.purge.batchSize=1000
+
+# The MySQL batch add inserts persistence.batchAdd.chunkSize rows per statement and commits each
+# chunk separately, a failed chunk is rolled back without affecting the others.
+persistence.batchAdd.chunkSize=500
+
+# The domains read through a local near cache, separated by commas, e.g. domain.encryptKey,domain.weIdAuth.
+# Each domain is cached in SYS_PERSISTENCE_<domain>, configured by caffeineCache.maximumSize.xxx
+# and caffeineCache.timeout.xxx. Only cache the domains which are not updated by other nodes,
+# unless caffeineCache.invalidation.channel is configured.
+persistence.cache.domains=
+
+# Group commit: the concurrent add requests are queued and written by one background thread as
+# multi-row batches, every persistence.groupCommit.interval milliseconds or
+# persistence.groupCommit.batchSize rows. Set the interval to 0 to disable it.
+# persistence.groupCommit.ack=flush acknowledges a write after its batch is stored,
+# persistence.groupCommit.ack=enqueue acknowledges it once queued and may lose it on crash.
+persistence.groupCommit.interval=0
+persistence.groupCommit.batchSize=100
+persistence.groupCommit.queueSize=10000
+persistence.groupCommit.ack=flush
+
+# Storage of the transactions in ProcessingMode.PERIODIC_AND_BATCH: db stores them by persistence,
+# binlog appends them to <user.dir>/<yyyyMMdd>/<ip>_binlog_<n> files, each fsynced before returning.
+offline.transaction.storage=db
+# Replay of the offline transactions: the records read and sent in one batch transaction,
+# and the number of batches sent concurrently.
+# The db replay pages weidentity_offline_transaction_info by (batch, request_id). Its index is a
+# prerequisite which is not added automatically, create it once before the first replay:
+#   alter table `weidentity_offline_transaction_info`
+#     add index `idx_batch_request_id` (`batch`, `request_id`);
+offline.replay.chunkSize=1000
+offline.replay.threads=4
 
 # Redis config
 # If you want to configure redis in cluster mode, enter multiple node addresses separated by commas.
@@ -70,6 +124,11 @@ redis_cluster.master_connection_pool_size=64
 # domain.credential.timeout=86400000
 # domain.weIdDocument=datasource1:weid_document_info
 # domain.credential.timeout=86400000
+# A MySQL domain can be split into N tables (xxx_0 ... xxx_N-1) by the hash of the id,
+# and the tables can be spread over several data sources. Only enable it on a new domain,
+# the existing data is not migrated into the shard tables.
+# domain.credential.shards=16
+# domain.credential.shardDataSources=datasource1,datasource2
 
 # the default domain
 domain.defaultInfo=datasource1:default_info
@@ -104,6 +163,25 @@ domain.resourceInfo.timeout=31556908799941
 #######################################################################################################
 # You can configure the maximumSize of the default cache module through caffeineCache.maximumSize.xxx.
 caffeineCache.maximumSize.SYS_CPT=100
+# Resolved WeID Documents, one entry per WeID.
+caffeineCache.maximumSize.SYS_WEID_DOCUMENT=1000
+# Compiled CPT json schemas, one entry per CPT version.
+caffeineCache.maximumSize.SYS_CPT_JSON_SCHEMA=100
+# Resolved evidences, one entry per evidence and its latest related block.
+caffeineCache.maximumSize.SYS_EVIDENCE_INFO=1000
+# Parsed public keys and decoded secp256k1 points of WeID Documents, and the last matched
+# public key of each WeID.
+caffeineCache.maximumSize.SYS_PUBLIC_KEY=1000
+caffeineCache.maximumSize.SYS_MATCHED_PUBLIC_KEY=1000
+# Credentials of the transaction signers, and the contracts loaded for each signer.
+caffeineCache.maximumSize.SYS_CREDENTIALS=1000
+caffeineCache.maximumSize.SYS_SIGNER_CONTRACT=1000
+# Block transaction receipts shared by all engines, bounded by their total size in bytes through
+# caffeineCache.maximumWeight.xxx.
+caffeineCache.maximumWeight.SYS_BLOCK_RECEIPTS=67108864
+# Broadcast the cache invalidation of each node to the other SDK nodes, only redis is supported now.
+# Leave it blank if only one SDK node is deployed.
+caffeineCache.invalidation.channel=
 
 # Salt length for Proof creation.
 salt.length=5
@@ -111,6 +189,14 @@ salt.length=5
 # Default length of array value in CPT when creating credential based on ZKP.
 zkp.cpt.array.length=5
 
+# Thread count of the default executor for batch credential verification, default: CPU cores.
+#credential.verify.batch.threads=8
+
+# Evidence creations merged into one transaction per group and signer in ProcessingMode.MICRO_BATCH:
+# the max milliseconds a hash waits for the others, and the max number of hashes in a transaction.
+evidence.batch.interval=10
+evidence.batch.size=100
+
 
 #######################################################################################################
 #                                                                                                     #
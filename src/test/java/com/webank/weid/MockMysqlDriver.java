@@ -19,9 +19,12 @@
 
 package com.webank.weid;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import mockit.Invocation;
 import mockit.Mock;
@@ -31,6 +34,8 @@ import org.apache.commons.collections4.CollectionUtils;
 import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.suite.persistence.mysql.RowMapper;
 import com.webank.weid.suite.persistence.mysql.SqlDomain;
 import com.webank.weid.suite.persistence.mysql.SqlExecutor;
 
@@ -69,7 +74,8 @@ public abstract class MockMysqlDriver {
                             ErrorCode.PERSISTENCE_EXECUTE_FAILED
                         );
                     }
-                    if (dbMap.containsKey(data[0].toString())) {
+                    if (dbMap.containsKey(data[0].toString())
+                        && !sql.contains("on duplicate key update")) {
                         return new ResponseData<Integer>(
                             DataDriverConstant.SQL_EXECUTE_FAILED_STATUS,
                             ErrorCode.PERSISTENCE_EXECUTE_FAILED
@@ -135,6 +141,74 @@ public abstract class MockMysqlDriver {
                         ErrorCode.PERSISTENCE_EXECUTE_FAILED);
             }
             
+            @SuppressWarnings("unchecked")
+            @Mock
+            public <T> ResponseData<T> executeQueryForObject(
+                String sql,
+                RowMapper<T> rowMapper,
+                Object... data) {
+                String tableName = sqlDomain.getTableName();
+                if (!mockDbMap.containsKey(tableName)) {
+                    return new ResponseData<T>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+                }
+                Object value = mockDbMap.get(tableName).get(data[0]);
+                if (value == null) {
+                    return new ResponseData<T>(null, ErrorCode.SUCCESS);
+                }
+                DefaultValue defaultValue = new DefaultValue();
+                defaultValue.setData((String) value);
+                return new ResponseData<T>((T) defaultValue, ErrorCode.SUCCESS);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Mock
+            public <T> ResponseData<List<T>> executeBatchQuery(
+                String sql,
+                List<?> dataList,
+                RowMapper<T> rowMapper) {
+                String tableName = sqlDomain.getTableName();
+                if (!mockDbMap.containsKey(tableName)) {
+                    return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+                }
+                List<T> values = new ArrayList<T>();
+                for (Object id : dataList) {
+                    Object value = mockDbMap.get(tableName).get(id);
+                    if (value != null) {
+                        DefaultValue defaultValue = new DefaultValue();
+                        defaultValue.setId(id.toString());
+                        defaultValue.setData((String) value);
+                        values.add((T) defaultValue);
+                    }
+                }
+                return new ResponseData<List<T>>(values, ErrorCode.SUCCESS);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Mock
+            public <T> ResponseData<List<T>> executeQueryForList(
+                String sql,
+                RowMapper<T> rowMapper,
+                Object... data) {
+                String tableName = sqlDomain.getTableName();
+                if (!mockDbMap.containsKey(tableName)) {
+                    return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+                }
+                // keyset pagination: id > data[0] order by id limit data[1]
+                NavigableMap<String, Object> sorted = new TreeMap<String, Object>(
+                    mockDbMap.get(tableName)).tailMap(data[0].toString(), false);
+                List<T> values = new ArrayList<T>();
+                for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                    if (values.size() >= (Integer) data[1]) {
+                        break;
+                    }
+                    DefaultValue defaultValue = new DefaultValue();
+                    defaultValue.setId(entry.getKey());
+                    defaultValue.setData((String) entry.getValue());
+                    values.add((T) defaultValue);
+                }
+                return new ResponseData<List<T>>(values, ErrorCode.SUCCESS);
+            }
+
             @Mock
             public ResponseData<Integer> batchAdd(String sql, List<List<Object>> dataList) {
                 System.out.println("mock...........");
@@ -165,7 +239,33 @@ public abstract class MockMysqlDriver {
                 }
                 return new ResponseData<Integer>(saveCount, ErrorCode.SUCCESS);
             }
-            
+
+            @Mock
+            public ResponseData<List<Integer>> batchAddRows(
+                String sql,
+                List<List<Object>> dataList) {
+                String tableName = sqlDomain.getTableName();
+                List<Object> idList = dataList.get(0);
+                List<Integer> failedRows = new ArrayList<Integer>();
+                for (int i = 0; i < idList.size(); i++) {
+                    if (mockDbMap.get(tableName).containsKey(idList.get(i))) {
+                        failedRows.add(i);
+                    } else {
+                        mockDbMap.get(tableName)
+                            .put(idList.get(i).toString(), dataList.get(1).get(i).toString());
+                    }
+                }
+                if (failedRows.isEmpty()) {
+                    return new ResponseData<List<Integer>>(failedRows, ErrorCode.SUCCESS);
+                }
+                if (failedRows.size() == idList.size()) {
+                    return new ResponseData<List<Integer>>(
+                        failedRows, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+                }
+                return new ResponseData<List<Integer>>(
+                    failedRows, ErrorCode.PERSISTENCE_BATCH_ADD_PARTIAL_FAILED);
+            }
+
             @Mock
             public void resolveTableDomain(String checkTableSql, String createTableSql) {
                 if (!mockDbMap.containsKey(sqlDomain.getTableName())) {
@@ -169,6 +169,36 @@ public class TestRegisterAuthorityIssuer extends TestBaseService {
         Assert.assertEquals(true, response.getResult());
     }
 
+    /**
+     * case: register asynchronously success, and the same name fails like the synchronous one.
+     */
+    @Test
+    public void testRegisterAuthorityIssuerAsync_success() {
+
+        RegisterAuthorityIssuerArgs registerAuthorityIssuerArgs =
+            TestBaseUtil.buildRegisterAuthorityIssuerArgs(super.createWeId(), privateKey);
+        String name = registerAuthorityIssuerArgs.getAuthorityIssuer().getName();
+        registerAuthorityIssuerArgs.getAuthorityIssuer().setName(name + Math.random());
+
+        ResponseData<Boolean> response = authorityIssuerService
+            .registerAuthorityIssuerAsync(registerAuthorityIssuerArgs).join();
+        LogUtil.info(logger, "registerAuthorityIssuerAsync", response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(true, response.getResult());
+
+        RegisterAuthorityIssuerArgs sameNameArgs =
+            TestBaseUtil.buildRegisterAuthorityIssuerArgs(super.createWeId(), privateKey);
+        sameNameArgs.getAuthorityIssuer()
+            .setName(registerAuthorityIssuerArgs.getAuthorityIssuer().getName());
+        response = authorityIssuerService.registerAuthorityIssuerAsync(sameNameArgs).join();
+        LogUtil.info(logger, "registerAuthorityIssuerAsync", response);
+
+        Assert.assertEquals(ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NAME_ALREADY_EXISTS.getCode(),
+            response.getErrorCode().intValue());
+        Assert.assertEquals(false, response.getResult());
+    }
+
     /**
      * case: the created before now .
      */
@@ -19,13 +19,28 @@
 
 package com.webank.weid.full.cache;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.protocol.cpt.Cpt103;
+import com.webank.weid.suite.cache.CacheInvalidationMessage;
 import com.webank.weid.suite.cache.CacheManager;
 import com.webank.weid.suite.cache.CacheNode;
+import com.webank.weid.suite.cache.CacheStatistics;
+import com.webank.weid.suite.cache.LocalCacheInvalidationChannel;
+import com.webank.weid.util.PropertyUtils;
 
 public class TestCacheManager {
 
@@ -70,6 +85,30 @@ public class TestCacheManager {
         Assert.assertNull(getValue);
     }
 
+    @Test
+    public void testWeighedTimeoutConfig() throws InterruptedException {
+        MockUp<PropertyUtils> mockUp = new MockUp<PropertyUtils>() {
+            @Mock
+            public String getProperty(Invocation invocation, String key) {
+                if ("caffeineCache.timeout.TestWeighedTimeout".equals(key)) {
+                    return "1000";
+                }
+                return invocation.proceed(key);
+            }
+        };
+        CacheNode<String> cacheNode;
+        try {
+            cacheNode = CacheManager.registerWeighedCacheNode(
+                "TestWeighedTimeout", 60000L, (key, value) -> value.length());
+        } finally {
+            mockUp.tearDown();
+        }
+        cacheNode.put("timeout", "test");
+        Assert.assertEquals("test", cacheNode.get("timeout"));
+        Thread.sleep(1500);
+        Assert.assertNull(cacheNode.get("timeout"));
+    }
+
     @Test
     public void testPutAndGetObject() {
         CacheNode<Cpt103> cacheNode = CacheManager.registerCacheNode("obj", 10000L, 100);
@@ -102,4 +141,191 @@ public class TestCacheManager {
         }
         Assert.assertEquals(10, count);
     }
+
+    @Test
+    public void testGetWithValidator() {
+        CacheNode<String> cacheNode = CacheManager.registerCacheNode("TestValidator", 10000L, 100);
+        cacheNode.put("key", "value1");
+        Assert.assertEquals("value1", cacheNode.getIfValid("key", value -> value.equals("value1")));
+        Assert.assertNull(cacheNode.getIfValid("key", value -> value.equals("value2")));
+        // the invalid value has been evicted
+        Assert.assertNull(cacheNode.get("key"));
+    }
+
+    @Test
+    public void testStatistics() {
+        CacheNode<String> cacheNode = CacheManager.registerCacheNode("TestStatistics", 10000L, 100);
+        cacheNode.put("key", "value");
+        cacheNode.get("key");
+        cacheNode.get("none");
+        cacheNode.getIfValid("key", value -> false);
+        CacheStatistics statistics = CacheManager.getStatistics("TestStatistics");
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(2, statistics.getMissCount());
+        Assert.assertEquals(1, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void testMaxWeight() throws InterruptedException {
+        CacheNode<String> cacheNode = CacheManager.registerWeighedCacheNode(
+            "TestMaxWeight", 10000L, 100L, (key, value) -> value.length());
+        //初始化10个权重为10的值
+        for (int i = 0; i < 10; i++) {
+            cacheNode.put("key" + i, "abcdefghij");
+        }
+        //再次加入一个权重为50的值
+        cacheNode.put("big", "abcdefghijabcdefghijabcdefghijabcdefghijabcdefghij");
+        //给清除机制缓冲时间
+        Thread.sleep(1000);
+        int weight = 0;
+        for (int i = 0; i < 10; i++) {
+            String value = cacheNode.get("key" + i);
+            weight += value == null ? 0 : value.length();
+        }
+        String value = cacheNode.get("big");
+        weight += value == null ? 0 : value.length();
+        Assert.assertTrue(weight <= 100);
+    }
+
+    @Test
+    public void testGetWithLoader() throws Exception {
+        CacheNode<String> cacheNode = CacheManager.registerCacheNode("TestLoader", 10000L, 100);
+        AtomicInteger loadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<String>> futures = new ArrayList<>();
+        //10个线程同时未命中，只加载一次
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit(() -> cacheNode.get("key", key -> {
+                loadCount.incrementAndGet();
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "value";
+            })));
+        }
+        for (Future<String> future : futures) {
+            Assert.assertEquals("value", future.get());
+        }
+        executor.shutdown();
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals("value", cacheNode.get("key"));
+    }
+
+    @Test
+    public void testGetWithLoaderNotCacheable() {
+        CacheNode<String> cacheNode =
+            CacheManager.registerCacheNode("TestLoaderNotCacheable", 10000L, 100);
+        String value = cacheNode.get("key", key -> "error", result -> !"error".equals(result));
+        Assert.assertEquals("error", value);
+        Assert.assertNull(cacheNode.get("key"));
+    }
+
+    @Test
+    public void testGetWithValidatorAndLoader() {
+        CacheNode<String> cacheNode =
+            CacheManager.registerCacheNode("TestValidatorLoader", 10000L, 100);
+        cacheNode.put("key", "value1");
+        //旧数据未通过校验时传给加载器
+        String value = cacheNode.get("key", cached -> cached.endsWith("2"),
+            (key, stale) -> stale == null ? "value2" : stale.replace("1", "2"));
+        Assert.assertEquals("value2", value);
+        Assert.assertEquals("value2", cacheNode.get("key"));
+
+        //未通过校验的旧数据与getIfValid一样记为未命中和淘汰，缓存中没有数据时只记为未命中
+        cacheNode.get("none", cached -> true, (key, stale) -> "value");
+        CacheStatistics statistics = CacheManager.getStatistics("TestValidatorLoader");
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(2, statistics.getMissCount());
+        Assert.assertEquals(1, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void testGetWithValidatorAndOrder() {
+        CacheNode<String> cacheNode =
+            CacheManager.registerCacheNode("TestValidatorOrder", 10000L, 100);
+        cacheNode.put("key", "value2");
+        //按旧版本校验加载的数据返回给调用方，但不覆盖缓存中更新的数据
+        String value = cacheNode.get("key", cached -> cached.endsWith("1"),
+            (key, stale) -> "value1", Comparator.naturalOrder());
+        Assert.assertEquals("value1", value);
+        Assert.assertEquals("value2", cacheNode.get("key"));
+
+        //更新的数据正常覆盖
+        value = cacheNode.get("key", cached -> cached.endsWith("3"),
+            (key, stale) -> "value3", Comparator.naturalOrder());
+        Assert.assertEquals("value3", value);
+        Assert.assertEquals("value3", cacheNode.get("key"));
+
+        Assert.assertFalse(cacheNode.putIfNewer("key", "value2", Comparator.naturalOrder()));
+        Assert.assertTrue(cacheNode.putIfNewer("key", "value3", Comparator.naturalOrder()));
+        Assert.assertTrue(cacheNode.putIfNewer("key2", "value1", Comparator.naturalOrder()));
+        Assert.assertEquals("value3", cacheNode.get("key"));
+        Assert.assertEquals("value1", cacheNode.get("key2"));
+    }
+
+    @Test
+    public void testPutIfGeneration() {
+        CacheNode<String> cacheNode =
+            CacheManager.registerCacheNode("TestGeneration", 10000L, 100);
+        //加载期间被删除，加载的旧数据不缓存
+        long generation = cacheNode.getGeneration("key");
+        cacheNode.remove("key");
+        Assert.assertFalse(cacheNode.putIfGeneration("key", "stale", generation));
+        Assert.assertNull(cacheNode.get("key"));
+
+        //删除之后重新加载的数据正常缓存
+        generation = cacheNode.getGeneration("key");
+        Assert.assertTrue(cacheNode.putIfGeneration("key", "fresh", generation));
+        Assert.assertEquals("fresh", cacheNode.get("key"));
+
+        //删除所有缓存数据同样丢弃旧数据
+        generation = cacheNode.getGeneration("key");
+        cacheNode.removeAll();
+        Assert.assertFalse(cacheNode.putIfGeneration("key", "stale", generation));
+        Assert.assertNull(cacheNode.get("key"));
+    }
+
+    @Test
+    public void testGetWithLoaderRemovedDuringLoad() {
+        CacheNode<String> cacheNode =
+            CacheManager.registerCacheNode("TestLoaderRemoved", 10000L, 100);
+        String value = cacheNode.get("key", key -> {
+            cacheNode.remove(key);
+            return "stale";
+        });
+        Assert.assertEquals("stale", value);
+        Assert.assertNull(cacheNode.get("key"));
+    }
+
+    @Test
+    public void testInvalidationChannel() {
+        CacheNode<String> cacheNode =
+            CacheManager.registerCacheNode("TestInvalidation", 10000L, 100);
+        LocalCacheInvalidationChannel channel = new LocalCacheInvalidationChannel();
+        List<CacheInvalidationMessage> published = new ArrayList<>();
+        channel.subscribe(published::add);
+        CacheManager.setInvalidationChannel(channel);
+        try {
+            //本节点的删除会发布失效消息
+            cacheNode.put("key1", "value1");
+            cacheNode.remove("key1");
+            Assert.assertEquals(1, published.size());
+            Assert.assertEquals("TestInvalidation", published.get(0).getCacheName());
+            Assert.assertEquals("key1", published.get(0).getKey());
+
+            //其他节点的失效消息只删除本地缓存，不再次发布
+            cacheNode.put("key2", "value2");
+            cacheNode.put("key3", "value3");
+            channel.publish(new CacheInvalidationMessage("other", "TestInvalidation", "key2"));
+            Assert.assertNull(cacheNode.get("key2"));
+            Assert.assertEquals("value3", cacheNode.get("key3"));
+            channel.publish(new CacheInvalidationMessage("other", "TestInvalidation", null));
+            Assert.assertNull(cacheNode.get("key3"));
+            Assert.assertEquals(3, published.size());
+        } finally {
+            CacheManager.setInvalidationChannel(null);
+        }
+    }
 }
@@ -90,6 +90,24 @@ public class TestRegisterCptArgs extends TestBaseService {
         ResponseData<Cpt> reponse = cptService.queryCpt(cptId);
     }
 
+    /**
+     * case： cpt register asynchronously success and query sucess.
+     */
+    @Test
+    public void testRegisterCptAsync_success() {
+
+        CptMapArgs registerCptArgs = TestBaseUtil.buildCptArgs(createWeId);
+
+        ResponseData<CptBaseInfo> response = cptService.registerCptAsync(registerCptArgs).join();
+        LogUtil.info(logger, "registerCptAsync", response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Integer cptId = response.getResult().getCptId();
+        ResponseData<Cpt> queryResponse = cptService.queryCpt(cptId);
+        LogUtil.info(logger, "queryCpt", queryResponse);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), queryResponse.getErrorCode().intValue());
+    }
+
     /**
      * case： weId who has not register auth issuer register cpt  success and query sucess.
      */
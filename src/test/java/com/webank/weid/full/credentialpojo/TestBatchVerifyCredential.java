@@ -0,0 +1,162 @@
+/*
+ *       Copyright© (2018-2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.credentialpojo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.common.LogUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseService;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.protocol.response.ResponseData;
+
+/**
+ * batchVerify method for testing CredentialPojoService.
+ */
+public class TestBatchVerifyCredential extends TestBaseService {
+
+    private static final Logger logger = LoggerFactory
+        .getLogger(TestBatchVerifyCredential.class);
+
+    private static CredentialPojo credentialPojo = null;
+
+    private static CredentialPojo selectiveCredentialPojo = null;
+
+    @Override
+    public synchronized void testInit() {
+        super.testInit();
+        if (credentialPojo == null) {
+            credentialPojo = super.createCredentialPojo(createCredentialPojoArgs);
+        }
+        if (selectiveCredentialPojo == null) {
+            selectiveCredentialPojo = super.createSelectiveCredentialPojo(credentialPojo);
+        }
+    }
+
+    /**
+     * case: batch verify credentials success and keep the input order.
+     */
+    @Test
+    public void testBatchVerify_success() {
+
+        CredentialPojo brokenCredentialPojo = copyCredentialPojo(credentialPojo);
+        brokenCredentialPojo.setContext(null);
+        List<CredentialPojo> credentialList = new ArrayList<>();
+        credentialList.add(credentialPojo);
+        credentialList.add(brokenCredentialPojo);
+        credentialList.add(selectiveCredentialPojo);
+        credentialList.add(null);
+
+        ResponseData<List<ResponseData<Boolean>>> response =
+            credentialPojoService.batchVerify(credentialList);
+        LogUtil.info(logger, "batchVerify", response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        List<ResponseData<Boolean>> result = response.getResult();
+        Assert.assertEquals(credentialList.size(), result.size());
+        Assert.assertTrue(result.get(0).getResult());
+        Assert.assertEquals(ErrorCode.CREDENTIAL_CONTEXT_NOT_EXISTS.getCode(),
+            result.get(1).getErrorCode().intValue());
+        Assert.assertTrue(result.get(2).getResult());
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(),
+            result.get(3).getErrorCode().intValue());
+    }
+
+    /**
+     * case: the issuer fails to resolve, only its credentials fail and the batch goes on.
+     */
+    @Test
+    public void testBatchVerify_resolveIssuerFailed() {
+
+        List<CredentialPojo> credentialList = new ArrayList<>();
+        credentialList.add(credentialPojo);
+        credentialList.add(selectiveCredentialPojo);
+        credentialList.add(null);
+        ExecutorService executor = new FirstTaskFailedExecutor();
+
+        ResponseData<List<ResponseData<Boolean>>> response;
+        try {
+            response = credentialPojoService.batchVerify(credentialList, executor);
+        } finally {
+            executor.shutdown();
+        }
+        LogUtil.info(logger, "batchVerify", response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        List<ResponseData<Boolean>> result = response.getResult();
+        Assert.assertEquals(credentialList.size(), result.size());
+        Assert.assertEquals(ErrorCode.UNKNOW_ERROR.getCode(),
+            result.get(0).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.UNKNOW_ERROR.getCode(),
+            result.get(1).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(),
+            result.get(2).getErrorCode().intValue());
+    }
+
+    /**
+     * case: credential list is null.
+     */
+    @Test
+    public void testBatchVerify_listNull() {
+
+        ResponseData<List<ResponseData<Boolean>>> response =
+            credentialPojoService.batchVerify(null);
+        LogUtil.info(logger, "batchVerify", response);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertNull(response.getResult());
+    }
+
+    /**
+     * an executor failing the first submitted task, which resolves the first issuer.
+     */
+    private static class FirstTaskFailedExecutor extends ThreadPoolExecutor {
+
+        private final AtomicBoolean first = new AtomicBoolean(true);
+
+        private FirstTaskFailedExecutor() {
+            super(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            if (first.compareAndSet(true, false)) {
+                Callable<T> failed = () -> {
+                    throw new IllegalStateException("resolve issuer failed.");
+                };
+                return super.submit(failed);
+            }
+            return super.submit(task);
+        }
+    }
+}
@@ -107,6 +107,32 @@ public class TestCreateEvidence extends TestBaseService {
         Assert.assertTrue(resp.getResult());
     }
 
+    /**
+     * case: create evidence asynchronously, the second creation of the same hash fails.
+     */
+    @Test
+    public void testCreateEvidenceAsync_success() {
+        CreateWeIdDataResult tempCreateWeIdResultWithSetAttr =
+            super.copyCreateWeId(createWeIdResultWithSetAttr);
+        CredentialPojo credential = createCredentialPojo(createCredentialPojoArgs);
+        credential.setId(UUID.randomUUID().toString());
+        String hash = evidenceService.generateHash(credential).getResult().getHash();
+
+        ResponseData<String> response = evidenceService.createEvidenceAsync(credential,
+            tempCreateWeIdResultWithSetAttr.getUserWeIdPrivateKey()).join();
+        LogUtil.info(logger, "createEvidenceAsync", response);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertTrue(response.getResult().equalsIgnoreCase(hash));
+        ResponseData<EvidenceInfo> eviInfo = evidenceService.getEvidence(hash);
+        Assert.assertTrue(eviInfo.getResult().getSigners()
+            .contains(tempCreateWeIdResultWithSetAttr.getWeId()));
+
+        response = evidenceService.createEvidenceAsync(credential,
+            tempCreateWeIdResultWithSetAttr.getUserWeIdPrivateKey()).join();
+        LogUtil.info(logger, "createEvidenceAsync", response);
+        Assert.assertNotEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+    }
+
     @Test
     public void testEvidenceManipulationFailures() {
         CredentialPojo credential = createCredentialPojo(createCredentialPojoArgs);
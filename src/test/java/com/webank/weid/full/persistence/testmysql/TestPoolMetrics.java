@@ -0,0 +1,142 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.persistence.testmysql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.suite.persistence.mysql.ConnectionPool;
+import com.webank.weid.suite.persistence.mysql.LatencyHistogram;
+import com.webank.weid.suite.persistence.mysql.PoolMetrics;
+import com.webank.weid.suite.persistence.mysql.PoolMetricsListener;
+
+public class TestPoolMetrics {
+
+    private static final int MIN = 4;
+
+    private static final int MAX = 64;
+
+    private static final long THRESHOLD = 20L;
+
+    @Test
+    /**
+     * case:the percentiles fall into the upper bound of the bucket.
+     */
+    public void testLatencyHistogram() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(1500), true);
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(300), false);
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(1, histogram.getFailureCount());
+        Assert.assertEquals(2, histogram.getP50Millis());
+        Assert.assertEquals(2, histogram.getP99Millis());
+        Assert.assertEquals(500, histogram.getPercentileMillis(1.0));
+        Assert.assertEquals(300.0, histogram.getMaxMillis(), 0.001);
+        Assert.assertEquals(99L, histogram.getBuckets().get("<2ms").longValue());
+    }
+
+    @Test
+    /**
+     * case:the query latency is recorded per domain and passed to the listeners.
+     */
+    public void testRecordQuery() {
+
+        String domain = "domain.testPoolMetrics";
+        List<String> queries = new ArrayList<>();
+        PoolMetricsListener listener = new PoolMetricsListener() {
+            @Override
+            public void onQuery(String queryDomain, long nanos, boolean success) {
+                queries.add(queryDomain + ":" + success);
+            }
+        };
+        ConnectionPool.addMetricsListener(listener);
+        try {
+            ConnectionPool.recordQuery(domain, TimeUnit.MILLISECONDS.toNanos(3), true);
+            ConnectionPool.recordQuery(domain, TimeUnit.MILLISECONDS.toNanos(30), false);
+        } finally {
+            ConnectionPool.removeMetricsListener(listener);
+        }
+
+        LatencyHistogram histogram = ConnectionPool.getQueryMetrics(domain);
+        Assert.assertNotNull(histogram);
+        Assert.assertEquals(2, histogram.getCount());
+        Assert.assertEquals(1, histogram.getFailureCount());
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(domain + ":false", queries.get(1));
+    }
+
+    @Test
+    /**
+     * case:the pool grows by a quarter when threads are waiting or the wait is too long.
+     */
+    public void testNextMaxActive_grow() {
+
+        Assert.assertEquals(20, PoolMetrics.nextMaxActive(16, MIN, MAX, 0, THRESHOLD, 1, 16));
+        Assert.assertEquals(
+            20, PoolMetrics.nextMaxActive(16, MIN, MAX, THRESHOLD, THRESHOLD, 0, 16));
+        // the step is at least one connection
+        Assert.assertEquals(MIN, PoolMetrics.nextMaxActive(3, MIN, MAX, 0, THRESHOLD, 2, 3));
+    }
+
+    @Test
+    /**
+     * case:the pool shrinks by a quarter when the wait is short and the peak is below half.
+     */
+    public void testNextMaxActive_shrink() {
+
+        Assert.assertEquals(12, PoolMetrics.nextMaxActive(16, MIN, MAX, 0, THRESHOLD, 0, 8));
+        Assert.assertEquals(
+            12, PoolMetrics.nextMaxActive(16, MIN, MAX, THRESHOLD / 4.0 - 1, THRESHOLD, 0, 0));
+    }
+
+    @Test
+    /**
+     * case:the pool keeps its size between the grow and the shrink thresholds.
+     */
+    public void testNextMaxActive_keep() {
+
+        // the mean wait is neither long enough to grow nor short enough to shrink
+        Assert.assertEquals(
+            16, PoolMetrics.nextMaxActive(16, MIN, MAX, THRESHOLD / 4.0, THRESHOLD, 0, 0));
+        Assert.assertEquals(16, PoolMetrics.nextMaxActive(16, MIN, MAX, 10, THRESHOLD, 0, 8));
+        // the peak uses more than half of the pool
+        Assert.assertEquals(16, PoolMetrics.nextMaxActive(16, MIN, MAX, 0, THRESHOLD, 0, 9));
+    }
+
+    @Test
+    /**
+     * case:the pool is clamped to [minActive, maxActive].
+     */
+    public void testNextMaxActive_clamp() {
+
+        Assert.assertEquals(MAX, PoolMetrics.nextMaxActive(60, MIN, MAX, 0, THRESHOLD, 1, 60));
+        Assert.assertEquals(MAX, PoolMetrics.nextMaxActive(MAX, MIN, MAX, 0, THRESHOLD, 1, MAX));
+        Assert.assertEquals(14, PoolMetrics.nextMaxActive(16, 14, MAX, 0, THRESHOLD, 0, 0));
+        Assert.assertEquals(MIN, PoolMetrics.nextMaxActive(MIN, MIN, MAX, 0, THRESHOLD, 0, 0));
+    }
+}
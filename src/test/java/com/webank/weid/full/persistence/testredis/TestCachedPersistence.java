@@ -0,0 +1,108 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.persistence.testredis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.transportation.TestBaseTransportation;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.PersistenceFactory;
+import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceType;
+import com.webank.weid.suite.cache.CacheStatistics;
+import com.webank.weid.suite.persistence.CachedPersistence;
+import com.webank.weid.util.PropertyUtils;
+
+public class TestCachedPersistence extends TestBaseTransportation {
+
+    private Persistence persistence = null;
+
+    private static final String domain = "domain.defaultInfo";
+
+    private static PersistenceType persistenceType = null;
+
+    @Override
+    public synchronized void testInit() {
+
+        String type = PropertyUtils.getProperty("persistence_type");
+        if (type.equals("mysql")) {
+            persistenceType = PersistenceType.Mysql;
+        } else if (type.equals("redis")) {
+            persistenceType = PersistenceType.Redis;
+        }
+        persistence = new CachedPersistence(
+            PersistenceFactory.build(persistenceType), Collections.singleton(domain));
+    }
+
+    @Test
+    /**
+     * case:test the second get hits the cache and update invalidates it.
+     */
+    public void testCachedGet_invalidateOnUpdate() {
+
+        String id = "cached" + Math.random();
+        ResponseData<Integer> res = persistence.add(domain, id, "data1");
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+
+        Assert.assertEquals("data1", persistence.get(domain, id).getResult());
+        CacheStatistics statistics = CachedPersistence.getStatistics(domain);
+        long hitCount = statistics.getHitCount();
+        Assert.assertEquals("data1", persistence.get(domain, id).getResult());
+        Assert.assertEquals(hitCount + 1, statistics.getHitCount());
+
+        res = persistence.update(domain, id, "data2");
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals("data2", persistence.get(domain, id).getResult());
+
+        persistence.delete(domain, id);
+        ResponseData<String> getRes = persistence.get(domain, id);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), getRes.getErrorCode().intValue());
+        Assert.assertTrue(getRes.getResult().isEmpty());
+    }
+
+    @Test
+    /**
+     * case:test batchGet mixes the cached and the loaded data.
+     */
+    public void testCachedBatchGet_success() {
+
+        String id1 = "cached" + Math.random();
+        String id2 = "cached" + Math.random();
+        persistence.add(domain, id1, "data1");
+        persistence.add(domain, id2, "data2");
+        Assert.assertEquals("data1", persistence.get(domain, id1).getResult());
+
+        ResponseData<Map<String, String>> res =
+            persistence.batchGet(domain, Arrays.asList(id1, id2));
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals(2, res.getResult().size());
+        Assert.assertEquals("data1", res.getResult().get(id1));
+        Assert.assertEquals("data2", res.getResult().get(id2));
+
+        persistence.delete(domain, id1);
+        persistence.delete(domain, id2);
+    }
+}
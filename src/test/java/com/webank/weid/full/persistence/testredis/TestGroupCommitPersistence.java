@@ -0,0 +1,99 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.persistence.testredis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.transportation.TestBaseTransportation;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.PersistenceFactory;
+import com.webank.weid.suite.api.persistence.params.PersistenceType;
+import com.webank.weid.suite.persistence.GroupCommitPersistence;
+import com.webank.weid.suite.persistence.GroupCommitPersistence.AckMode;
+import com.webank.weid.util.PropertyUtils;
+
+public class TestGroupCommitPersistence extends TestBaseTransportation {
+
+    private GroupCommitPersistence persistence = null;
+
+    private static final String domain = "domain.defaultInfo";
+
+    private static PersistenceType persistenceType = null;
+
+    @Override
+    public synchronized void testInit() {
+
+        String type = PropertyUtils.getProperty("persistence_type");
+        if (type.equals("mysql")) {
+            persistenceType = PersistenceType.Mysql;
+        } else if (type.equals("redis")) {
+            persistenceType = PersistenceType.Redis;
+        }
+        persistence = new GroupCommitPersistence(
+            PersistenceFactory.build(persistenceType), 50L, 10, 100, AckMode.FLUSH);
+    }
+
+    @Override
+    public void testFinalize() {
+        persistence.close();
+        super.testFinalize();
+    }
+
+    @Test
+    /**
+     * case:test the concurrent adds are flushed in batches and readable afterwards.
+     */
+    public void testAddAsync_success() {
+
+        String prefix = "groupCommit" + Math.random();
+        List<CompletableFuture<ResponseData<Integer>>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            futures.add(persistence.addAsync(domain, prefix + i, "data" + i));
+        }
+        for (CompletableFuture<ResponseData<Integer>> future : futures) {
+            Assert.assertEquals(
+                ErrorCode.SUCCESS.getCode(), future.join().getErrorCode().intValue());
+        }
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals("data" + i, persistence.get(domain, prefix + i).getResult());
+            persistence.delete(domain, prefix + i);
+        }
+    }
+
+    @Test
+    /**
+     * case:test get waits for the queued add of the same id.
+     */
+    public void testAdd_readYourWrite() {
+
+        String id = "groupCommit" + Math.random();
+        persistence.addAsync(domain, id, "data");
+        ResponseData<String> res = persistence.get(domain, id);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals("data", res.getResult());
+        persistence.delete(domain, id);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *       Copyright© (2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.persistence.testredis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.common.LogUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.transportation.TestBaseTransportation;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.PersistenceFactory;
+import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceType;
+import com.webank.weid.util.PropertyUtils;
+
+public class TestRedisAddOrUpdate extends TestBaseTransportation {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisAddOrUpdate.class);
+
+    private Persistence persistence = null;
+
+    private static final String domain = "domain.defaultInfo";
+
+    private static final String id = "addOrUpdate123456";
+
+    private static PersistenceType persistenceType = null;
+
+    @Override
+    public synchronized void testInit() {
+
+        String type = PropertyUtils.getProperty("persistence_type");
+        if (type.equals("mysql")) {
+            persistenceType = PersistenceType.Mysql;
+        } else if (type.equals("redis")) {
+            persistenceType = PersistenceType.Redis;
+        }
+        persistence = PersistenceFactory.build(persistenceType);
+        persistence.delete(domain, id);
+    }
+
+    @Test
+    /**
+     * case:test addOrUpdate adds the data then updates it.
+     */
+    public void testAddOrUpdate_success() {
+
+        ResponseData<Integer> res = persistence.addOrUpdate(domain, id, "data1");
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals(1, res.getResult().intValue());
+        Assert.assertEquals("data1", persistence.get(domain, id).getResult());
+
+        res = persistence.addOrUpdate(domain, id, "data2");
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals(1, res.getResult().intValue());
+        Assert.assertEquals("data2", persistence.get(domain, id).getResult());
+    }
+
+    @Test
+    /**
+     * case:test update the data which is not exist.
+     */
+    public void testUpdate_idNotExist() {
+
+        ResponseData<Integer> res = persistence.update(domain, id, "data1");
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(0, res.getResult().intValue());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *       Copyright© (2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.persistence.testredis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.common.LogUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.transportation.TestBaseTransportation;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.PersistenceFactory;
+import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceType;
+import com.webank.weid.util.PropertyUtils;
+
+public class TestRedisBatchGet extends TestBaseTransportation {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisBatchGet.class);
+
+    private Persistence persistence = null;
+
+    private static final String domain = "domain.defaultInfo";
+
+    private static final Map<String, String> dataMap = new HashMap<>();
+
+    private static PersistenceType persistenceType = null;
+
+    @Override
+    public synchronized void testInit() {
+
+        String type = PropertyUtils.getProperty("persistence_type");
+        if (type.equals("mysql")) {
+            persistenceType = PersistenceType.Mysql;
+        } else if (type.equals("redis")) {
+            persistenceType = PersistenceType.Redis;
+        }
+        persistence = PersistenceFactory.build(persistenceType);
+        for (int i = 0; i < 3; i++) {
+            dataMap.put("batchGet" + i, "data" + i);
+        }
+        for (String id : dataMap.keySet()) {
+            persistence.delete(domain, id);
+        }
+        ResponseData<Integer> response = persistence.batchAdd(domain, dataMap);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+    }
+
+    @Test
+    /**
+     * case:test batchGet.
+     */
+    public void testBatchGet_success() {
+
+        List<String> ids = new ArrayList<>(dataMap.keySet());
+        ids.add("batchGet0");
+        ResponseData<Map<String, String>> res = persistence.batchGet(domain, ids);
+        LogUtil.info(logger, "persistence", res);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals(dataMap, res.getResult());
+    }
+
+    @Test
+    /**
+     * case:test some ids are not exist.
+     */
+    public void testBatchGet_idNotExist() {
+
+        String notExistId = "batchGet" + Math.random();
+        ResponseData<Map<String, String>> res =
+            persistence.batchGet(domain, Arrays.asList("batchGet1", notExistId));
+        LogUtil.info(logger, "persistence", res);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals(1, res.getResult().size());
+        Assert.assertEquals("data1", res.getResult().get("batchGet1"));
+        Assert.assertFalse(res.getResult().containsKey(notExistId));
+    }
+
+    @Test
+    /**
+     * case:test id is blank.
+     */
+    public void testBatchGet_idBlank() {
+
+        ResponseData<Map<String, String>> res =
+            persistence.batchGet(domain, Arrays.asList("batchGet1", ""));
+        LogUtil.info(logger, "persistence", res);
+
+        Assert.assertEquals(
+            ErrorCode.PRESISTENCE_DATA_KEY_INVALID.getCode(), res.getErrorCode().intValue());
+    }
+}
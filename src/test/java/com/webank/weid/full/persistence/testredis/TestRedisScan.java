@@ -0,0 +1,107 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.persistence.testredis;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.full.transportation.TestBaseTransportation;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.PersistenceFactory;
+import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
+import com.webank.weid.suite.api.persistence.params.PersistenceType;
+import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.PropertyUtils;
+
+public class TestRedisScan extends TestBaseTransportation {
+
+    private Persistence persistence = null;
+
+    private static final String domain = "domain.defaultInfo";
+
+    private static final Map<String, String> dataMap = new HashMap<>();
+
+    private static PersistenceType persistenceType = null;
+
+    @Override
+    public synchronized void testInit() {
+
+        String type = PropertyUtils.getProperty("persistence_type");
+        if (type.equals("mysql")) {
+            persistenceType = PersistenceType.Mysql;
+        } else if (type.equals("redis")) {
+            persistenceType = PersistenceType.Redis;
+        }
+        persistence = PersistenceFactory.build(persistenceType);
+        for (int i = 0; i < 5; i++) {
+            dataMap.put("scan" + i, "data" + i);
+        }
+        for (String id : dataMap.keySet()) {
+            persistence.delete(domain, id);
+        }
+        ResponseData<Integer> response = persistence.batchAdd(domain, dataMap);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+    }
+
+    @Test
+    /**
+     * case:test scan the domain with a batchSize smaller than the data.
+     */
+    public void testScan_success() {
+
+        Map<String, String> expected = new HashMap<>();
+        for (Map.Entry<String, String> entry : dataMap.entrySet()) {
+            expected.put(DataToolUtils.getHash(entry.getKey()), entry.getValue());
+        }
+        Set<String> found = new HashSet<>();
+        Iterator<PersistenceRecord> iterator = persistence.scan(domain, 2);
+        while (iterator.hasNext()) {
+            PersistenceRecord value = iterator.next();
+            if (expected.containsKey(value.getId())) {
+                Assert.assertEquals(expected.get(value.getId()), value.getData());
+                found.add(value.getId());
+            }
+        }
+        Assert.assertEquals(expected.keySet(), found);
+    }
+
+    @Test
+    /**
+     * case:test batchSize is invalid.
+     */
+    public void testScan_batchSizeInvalid() {
+
+        try {
+            persistence.scan(domain, 0);
+            Assert.fail();
+        } catch (WeIdBaseException e) {
+            Assert.assertEquals(ErrorCode.ILLEGAL_INPUT, e.getErrorCode());
+        }
+    }
+}
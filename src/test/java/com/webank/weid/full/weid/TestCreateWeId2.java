@@ -61,6 +61,35 @@ public class TestCreateWeId2 extends TestBaseService {
         Assert.assertNotNull(response.getResult());
     }
 
+    /**
+     * case: create weid asynchronously success, the weid exists once the future completes.
+     */
+    @Test
+    public void testCreateWeIdAsync_paramSucess() {
+        CreateWeIdArgs createWeIdArgs = TestBaseUtil.buildCreateWeIdArgs();
+        ResponseData<String> response = weIdService.createWeIdAsync(createWeIdArgs).join();
+        LogUtil.info(logger, "createWeIdAsync", response);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertTrue(weIdService.isWeIdExist(response.getResult()).getResult());
+
+        response = weIdService.createWeIdAsync(createWeIdArgs).join();
+        LogUtil.info(logger, "createWeIdAsync", response);
+        Assert.assertEquals(ErrorCode.WEID_ALREADY_EXIST.getCode(),
+            response.getErrorCode().intValue());
+    }
+
+    /**
+     * case: when createWeIdArgs is null, the future completes with ILLEGAL_INPUT.
+     */
+    @Test
+    public void testCreateWeIdAsync_weIdArgsIsNull() {
+        ResponseData<String> response = weIdService.createWeIdAsync(null).join();
+        LogUtil.info(logger, "createWeIdAsync", response);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(StringUtils.EMPTY, response.getResult());
+    }
+
     /**
      * case: when createWeIdArgs is null,then return ILLEGAL_INPUT.
      */
@@ -0,0 +1,194 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.weid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.common.LogUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseService;
+import com.webank.weid.full.TestBaseUtil;
+import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.request.PublicKeyArgs;
+import com.webank.weid.protocol.request.ServiceArgs;
+import com.webank.weid.protocol.response.CreateWeIdDataResult;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.cache.CacheManager;
+
+/**
+ * the WeID Document rebuilt from the cached snapshot is the same as the one rebuilt from the
+ * full event history.
+ */
+public class TestGetWeIdDocumentIncremental extends TestBaseService {
+
+    private static final Logger logger =
+        LoggerFactory.getLogger(TestGetWeIdDocumentIncremental.class);
+
+    /**
+     * case: a public key is added after the snapshot.
+     */
+    @Test
+    public void testGetWeIdDocument_keyAdded() {
+
+        CreateWeIdDataResult createWeId = super.createWeIdWithSetAttr();
+        cacheSnapshot(createWeId.getWeId());
+
+        addPublicKey(createWeId, TestBaseUtil.createEcKeyPair().getPublicKey());
+
+        WeIdDocument document = assertSameAsFullRebuild(createWeId.getWeId());
+        Assert.assertEquals(2, document.getPublicKey().size());
+    }
+
+    /**
+     * case: a public key added before the snapshot is revoked after it.
+     */
+    @Test
+    public void testGetWeIdDocument_keyRevoked() {
+
+        CreateWeIdDataResult createWeId = super.createWeIdWithSetAttr();
+        PublicKeyArgs publicKeyArgs =
+            addPublicKey(createWeId, TestBaseUtil.createEcKeyPair().getPublicKey());
+        cacheSnapshot(createWeId.getWeId());
+
+        ResponseData<Boolean> response = weIdService.revokePublicKeyWithAuthentication(
+            createWeId.getWeId(), publicKeyArgs, createWeId.getUserWeIdPrivateKey());
+        LogUtil.info(logger, "revokePublicKeyWithAuthentication", response);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+
+        WeIdDocument document = assertSameAsFullRebuild(createWeId.getWeId());
+        Assert.assertTrue(document.getPublicKey().get(1).getRevoked());
+    }
+
+    /**
+     * case: a service is added after the snapshot.
+     */
+    @Test
+    public void testGetWeIdDocument_serviceAdded() {
+
+        CreateWeIdDataResult createWeId = super.createWeIdWithSetAttr();
+        cacheSnapshot(createWeId.getWeId());
+
+        super.setService(createWeId,
+            "incrementalService", "https://weidentity.webank.com/endpoint/incremental");
+
+        WeIdDocument document = assertSameAsFullRebuild(createWeId.getWeId());
+        Assert.assertEquals(2, document.getService().size());
+    }
+
+    /**
+     * case: several transactions of two WeIDs sent together after the snapshots, which mostly
+     *     land in the same block, one WeID resolved alone and the other in a batch.
+     */
+    @Test
+    public void testGetWeIdDocument_transactionsInSameBlock() {
+
+        CreateWeIdDataResult single = super.createWeIdWithSetAttr();
+        CreateWeIdDataResult batch = super.createWeIdWithSetAttr();
+        cacheSnapshot(single.getWeId());
+        cacheSnapshot(batch.getWeId());
+
+        List<CompletableFuture<ResponseData<Boolean>>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(setServiceAsync(single, i));
+            futures.add(setServiceAsync(batch, i));
+        }
+        for (CompletableFuture<ResponseData<Boolean>> future : futures) {
+            Assert.assertEquals(
+                ErrorCode.SUCCESS.getCode(), future.join().getErrorCode().intValue());
+        }
+
+        ResponseData<WeIdDocument> singleIncremental =
+            weIdService.getWeIdDocument(single.getWeId());
+        Assert.assertEquals(
+            ErrorCode.SUCCESS.getCode(), singleIncremental.getErrorCode().intValue());
+        ResponseData<List<ResponseData<WeIdDocument>>> batchIncremental =
+            weIdService.getWeIdDocuments(Arrays.asList(batch.getWeId()));
+        Assert.assertEquals(
+            ErrorCode.SUCCESS.getCode(), batchIncremental.getErrorCode().intValue());
+        LogUtil.info(logger, "getWeIdDocuments-incremental", batchIncremental);
+
+        CacheManager.clearAll();
+        WeIdDocument singleFull = weIdService.getWeIdDocument(single.getWeId()).getResult();
+        WeIdDocument batchFull = weIdService.getWeIdDocument(batch.getWeId()).getResult();
+        Assert.assertEquals(4, singleFull.getService().size());
+        Assert.assertEquals(4, batchFull.getService().size());
+        Assert.assertEquals(singleFull.toJson(), singleIncremental.getResult().toJson());
+        Assert.assertEquals(
+            batchFull.toJson(), batchIncremental.getResult().get(0).getResult().toJson());
+    }
+
+    private CompletableFuture<ResponseData<Boolean>> setServiceAsync(
+        CreateWeIdDataResult createWeId,
+        int index) {
+
+        ServiceArgs serviceArgs = TestBaseUtil.buildSetServiceArgs(createWeId);
+        serviceArgs.setType("sameBlockService" + index);
+        serviceArgs.setServiceEndpoint("https://weidentity.webank.com/endpoint/" + index);
+        return weIdService.setServiceAsync(
+            createWeId.getWeId(), serviceArgs, createWeId.getUserWeIdPrivateKey());
+    }
+
+    private PublicKeyArgs addPublicKey(CreateWeIdDataResult createWeId, String publicKey) {
+
+        PublicKeyArgs publicKeyArgs = TestBaseUtil.buildSetPublicKeyArgs(createWeId);
+        publicKeyArgs.setPublicKey(publicKey);
+        publicKeyArgs.setOwner(createWeId.getWeId());
+        ResponseData<Integer> response = weIdService.addPublicKey(
+            createWeId.getWeId(), publicKeyArgs, createWeId.getUserWeIdPrivateKey());
+        LogUtil.info(logger, "addPublicKey", response);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        return publicKeyArgs;
+    }
+
+    private void cacheSnapshot(String weId) {
+
+        ResponseData<WeIdDocument> response = weIdService.getWeIdDocument(weId);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+    }
+
+    /**
+     * resolve the document from the cached snapshot, then from the full history.
+     *
+     * @param weId the WeID
+     * @return the incrementally resolved document
+     */
+    private WeIdDocument assertSameAsFullRebuild(String weId) {
+
+        ResponseData<WeIdDocument> incremental = weIdService.getWeIdDocument(weId);
+        LogUtil.info(logger, "getWeIdDocument-incremental", incremental);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), incremental.getErrorCode().intValue());
+
+        CacheManager.clearAll();
+        ResponseData<WeIdDocument> full = weIdService.getWeIdDocument(weId);
+        LogUtil.info(logger, "getWeIdDocument-full", full);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), full.getErrorCode().intValue());
+
+        Assert.assertEquals(full.getResult().toJson(), incremental.getResult().toJson());
+        return incremental.getResult();
+    }
+}
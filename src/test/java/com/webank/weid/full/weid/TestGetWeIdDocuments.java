@@ -0,0 +1,117 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.weid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.common.LogUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseService;
+import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.response.CreateWeIdDataResult;
+import com.webank.weid.protocol.response.ResponseData;
+
+/**
+ * getWeIdDocuments method for testing WeIdService.
+ */
+public class TestGetWeIdDocuments extends TestBaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestGetWeIdDocuments.class);
+
+    private static CreateWeIdDataResult createWeIdForGetDocs = null;
+
+    @Override
+    public synchronized void testInit() {
+        super.testInit();
+        if (createWeIdForGetDocs == null) {
+            createWeIdForGetDocs = super.createWeIdWithSetAttr();
+        }
+    }
+
+    /**
+     * case: the batch result is the same as querying one by one.
+     */
+    @Test
+    public void testGetWeIdDocuments_success() {
+
+        List<String> weIdList = Arrays.asList(
+            createWeIdForGetDocs.getWeId(),
+            createWeIdNew.getWeId(),
+            createWeIdForGetDocs.getWeId());
+        ResponseData<List<ResponseData<WeIdDocument>>> response =
+            weIdService.getWeIdDocuments(weIdList);
+        LogUtil.info(logger, "getWeIdDocuments", response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(weIdList.size(), response.getResult().size());
+        for (int i = 0; i < weIdList.size(); i++) {
+            ResponseData<WeIdDocument> single = weIdService.getWeIdDocument(weIdList.get(i));
+            ResponseData<WeIdDocument> batch = response.getResult().get(i);
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), batch.getErrorCode().intValue());
+            Assert.assertEquals(weIdList.get(i), batch.getResult().getId());
+            Assert.assertEquals(single.getResult().toJson(), batch.getResult().toJson());
+        }
+    }
+
+    /**
+     * case: invalid or not exist weId only fails its own entry.
+     */
+    @Test
+    public void testGetWeIdDocuments_partialFailed() {
+
+        List<String> weIdList = new ArrayList<>();
+        weIdList.add(createWeIdNew.getWeId());
+        weIdList.add("xxxxxxxxxx");
+        weIdList.add("did:weid:0xbb1670306aedfaeb75cff9581c99e56ba4797431");
+
+        ResponseData<List<ResponseData<WeIdDocument>>> response =
+            weIdService.getWeIdDocuments(weIdList);
+        LogUtil.info(logger, "getWeIdDocuments", response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(),
+            response.getResult().get(0).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.WEID_INVALID.getCode(),
+            response.getResult().get(1).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.WEID_DOES_NOT_EXIST.getCode(),
+            response.getResult().get(2).getErrorCode().intValue());
+    }
+
+    /**
+     * case: empty weId list.
+     */
+    @Test
+    public void testGetWeIdDocuments_emptyList() {
+
+        ResponseData<List<ResponseData<WeIdDocument>>> response =
+            weIdService.getWeIdDocuments(new ArrayList<>());
+        LogUtil.info(logger, "getWeIdDocuments", response);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertNull(response.getResult());
+    }
+}
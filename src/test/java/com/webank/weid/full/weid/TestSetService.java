@@ -64,6 +64,42 @@ public class TestSetService extends TestBaseService {
         Assert.assertEquals(true, response.getResult());
     }
 
+    /**
+     * case: set asynchronously success.
+     */
+    @Test
+    public void testSetServiceAsync_sucess() {
+
+        ServiceArgs setServiceArgs = TestBaseUtil.buildSetServiceArgs(createWeIdResult);
+
+        ResponseData<Boolean> response = weIdService.setServiceAsync(createWeIdResult.getWeId(),
+            setServiceArgs, createWeIdResult.getUserWeIdPrivateKey()).join();
+        LogUtil.info(logger, "setServiceAsync", response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(true, response.getResult());
+    }
+
+    /**
+     * case: set asynchronously with the private key of other WeIdentity DID, the receipt is
+     * mapped like the synchronous method.
+     */
+    @Test
+    public void testSetServiceAsync_priKeyIsOtherWeid() {
+
+        ServiceArgs setServiceArgs = TestBaseUtil.buildSetServiceArgs(createWeIdResult);
+
+        ResponseData<Boolean> response = weIdService.setServiceAsync(
+            createWeIdResult.getWeId(),
+            setServiceArgs,
+            createWeIdNew.getUserWeIdPrivateKey()).join();
+        LogUtil.info(logger, "setServiceAsync", response);
+
+        Assert.assertEquals(ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH.getCode(),
+            response.getErrorCode().intValue());
+        Assert.assertEquals(false, response.getResult());
+    }
+
     /**
      * case: two services(type different) set success.
      */
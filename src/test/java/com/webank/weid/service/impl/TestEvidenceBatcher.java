@@ -0,0 +1,406 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.EvidenceInfo;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.service.impl.engine.EvidenceServiceEngine;
+
+/**
+ * test the merging of the single evidence creations with a fake evidence engine.
+ */
+public class TestEvidenceBatcher {
+
+    private static final String PRIVATE_KEY = "123456789";
+
+    private static final String OTHER_PRIVATE_KEY = "987654321";
+
+    private static final long TIMEOUT = 5000L;
+
+    @Test
+    /**
+     * case:the hashes submitted within the interval are sent in one batch.
+     */
+    public void testSubmit_batched() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 200L, 100);
+
+        List<CompletableFuture<ResponseData<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(submit(batcher, hash(i), PRIVATE_KEY));
+        }
+        for (int i = 0; i < 3; i++) {
+            ResponseData<String> response = futures.get(i).get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+            Assert.assertEquals(hash(i), response.getResult());
+        }
+        Assert.assertEquals(1, engine.batches.size());
+        Assert.assertEquals(Arrays.asList(hash(0), hash(1), hash(2)), engine.batches.get(0));
+        Assert.assertEquals(Collections.singletonList(PRIVATE_KEY), engine.privateKeys);
+    }
+
+    @Test
+    /**
+     * case:a full batch is sent at once, without waiting for the interval.
+     */
+    public void testSubmit_flushOnSize() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 60000L, 2);
+
+        CompletableFuture<ResponseData<String>> first = submit(batcher, hash(0), PRIVATE_KEY);
+        CompletableFuture<ResponseData<String>> second = submit(batcher, hash(1), PRIVATE_KEY);
+        CompletableFuture<ResponseData<String>> third = submit(batcher, hash(2), PRIVATE_KEY);
+
+        Assert.assertEquals(
+            ErrorCode.SUCCESS.getCode(),
+            first.get(TIMEOUT, TimeUnit.MILLISECONDS).getErrorCode().intValue());
+        Assert.assertEquals(
+            ErrorCode.SUCCESS.getCode(),
+            second.get(TIMEOUT, TimeUnit.MILLISECONDS).getErrorCode().intValue());
+        // the third hash waits for the next batch to be filled
+        Assert.assertFalse(third.isDone());
+        Assert.assertEquals(1, engine.batches.size());
+        Assert.assertEquals(Arrays.asList(hash(0), hash(1)), engine.batches.get(0));
+    }
+
+    @Test
+    /**
+     * case:a batch which is not full is sent once the interval elapses.
+     */
+    public void testSubmit_flushOnTime() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 50L, 100);
+
+        long start = System.currentTimeMillis();
+        ResponseData<String> response =
+            submit(batcher, hash(0), PRIVATE_KEY).get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(System.currentTimeMillis() - start >= 50L);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(Collections.singletonList(hash(0)), engine.batches.get(0));
+    }
+
+    @Test
+    /**
+     * case:a slow batch does not hold back the timed flush of another signer.
+     */
+    public void testSubmit_flushOnTimeWhileSending() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        engine.blockedKey = PRIVATE_KEY;
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 50L, 100);
+
+        CompletableFuture<ResponseData<String>> blocked;
+        try {
+            blocked = submit(batcher, hash(0), PRIVATE_KEY);
+            long deadline = System.currentTimeMillis() + TIMEOUT;
+            while (engine.batches.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            Assert.assertEquals(1, engine.batches.size());
+
+            ResponseData<String> other = submit(batcher, hash(1), OTHER_PRIVATE_KEY)
+                .get(TIMEOUT, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(hash(1), other.getResult());
+            Assert.assertFalse(blocked.isDone());
+        } finally {
+            engine.unblocked.countDown();
+        }
+        Assert.assertEquals(hash(0), blocked.get(TIMEOUT, TimeUnit.MILLISECONDS).getResult());
+    }
+
+    @Test
+    /**
+     * case:the hashes of different signers are sent in different batches.
+     */
+    public void testSubmit_batchPerSigner() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 60000L, 2);
+
+        CompletableFuture<ResponseData<String>> first = submit(batcher, hash(0), PRIVATE_KEY);
+        CompletableFuture<ResponseData<String>> other =
+            submit(batcher, hash(1), OTHER_PRIVATE_KEY);
+        CompletableFuture<ResponseData<String>> second = submit(batcher, hash(2), PRIVATE_KEY);
+
+        Assert.assertEquals(hash(0), first.get(TIMEOUT, TimeUnit.MILLISECONDS).getResult());
+        Assert.assertEquals(hash(2), second.get(TIMEOUT, TimeUnit.MILLISECONDS).getResult());
+        Assert.assertFalse(other.isDone());
+        Assert.assertEquals(Collections.singletonList(PRIVATE_KEY), engine.privateKeys);
+        Assert.assertEquals(Arrays.asList(hash(0), hash(2)), engine.batches.get(0));
+    }
+
+    @Test
+    /**
+     * case:each hash gets its own result, the hashes not created fail alone.
+     */
+    public void testSubmit_partialFailed() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        engine.response = hashValues -> {
+            List<Boolean> result = new ArrayList<>();
+            for (String hashValue : hashValues) {
+                result.add(!hash(1).equals(hashValue));
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        };
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 60000L, 3);
+
+        List<CompletableFuture<ResponseData<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(submit(batcher, hash(i), PRIVATE_KEY));
+        }
+
+        ResponseData<String> failed = futures.get(1).get(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(
+            ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT.getCode(),
+            failed.getErrorCode().intValue());
+        Assert.assertEquals(StringUtils.EMPTY, failed.getResult());
+        Assert.assertEquals(hash(0), futures.get(0).get().getResult());
+        Assert.assertEquals(hash(2), futures.get(2).get().getResult());
+    }
+
+    @Test
+    /**
+     * case:the error of the batch is returned to all its hashes.
+     */
+    public void testSubmit_batchFailed() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        engine.response = hashValues ->
+            new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT);
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 60000L, 2);
+
+        CompletableFuture<ResponseData<String>> first = submit(batcher, hash(0), PRIVATE_KEY);
+        CompletableFuture<ResponseData<String>> second = submit(batcher, hash(1), PRIVATE_KEY);
+
+        Assert.assertEquals(
+            ErrorCode.TRANSACTION_TIMEOUT.getCode(),
+            first.get(TIMEOUT, TimeUnit.MILLISECONDS).getErrorCode().intValue());
+        Assert.assertEquals(
+            ErrorCode.TRANSACTION_TIMEOUT.getCode(),
+            second.get(TIMEOUT, TimeUnit.MILLISECONDS).getErrorCode().intValue());
+
+        engine.response = hashValues -> {
+            throw new IllegalStateException("connection lost");
+        };
+        first = submit(batcher, hash(2), PRIVATE_KEY);
+        second = submit(batcher, hash(3), PRIVATE_KEY);
+
+        Assert.assertEquals(
+            ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR.getCode(),
+            first.get(TIMEOUT, TimeUnit.MILLISECONDS).getErrorCode().intValue());
+        Assert.assertEquals(
+            ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR.getCode(),
+            second.get(TIMEOUT, TimeUnit.MILLISECONDS).getErrorCode().intValue());
+    }
+
+    @Test
+    /**
+     * case:the invalid hash and the hash repeated in a batch are rejected without sending.
+     */
+    public void testSubmit_rejected() throws Exception {
+
+        FakeEngine engine = new FakeEngine();
+        EvidenceBatcher batcher = new EvidenceBatcher(engine, 60000L, 2);
+
+        Assert.assertEquals(
+            ErrorCode.ILLEGAL_INPUT.getCode(),
+            submit(batcher, "0x01", PRIVATE_KEY).get().getErrorCode().intValue());
+        CompletableFuture<ResponseData<String>> first = submit(batcher, hash(0), PRIVATE_KEY);
+        Assert.assertEquals(
+            ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS.getCode(),
+            submit(batcher, hash(0), PRIVATE_KEY).get().getErrorCode().intValue());
+        Assert.assertFalse(first.isDone());
+        Assert.assertTrue(engine.batches.isEmpty());
+    }
+
+    private static CompletableFuture<ResponseData<String>> submit(
+        EvidenceBatcher batcher,
+        String hashValue,
+        String privateKey) {
+        return batcher.submit(hashValue, "sig-" + hashValue, StringUtils.EMPTY,
+            System.currentTimeMillis(), privateKey);
+    }
+
+    private static String hash(int index) {
+        return String.format("0x%064x", index + 1);
+    }
+
+    /**
+     * records the batches and answers them with the response, all the hashes are created by
+     * default. The send of blockedKey waits until unblocked is counted down.
+     */
+    private static class FakeEngine implements EvidenceServiceEngine {
+
+        private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<String> privateKeys = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile Function<List<String>, ResponseData<List<Boolean>>> response =
+            hashValues -> new ResponseData<>(
+                new ArrayList<>(Collections.nCopies(hashValues.size(), true)),
+                ErrorCode.SUCCESS);
+
+        private volatile String blockedKey;
+
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+
+        @Override
+        public CompletableFuture<ResponseData<List<Boolean>>> batchCreateEvidenceAsync(
+            List<String> hashValues,
+            List<String> signatures,
+            List<String> logs,
+            List<Long> timestamp,
+            List<String> signers,
+            String privateKey) {
+
+            Assert.assertEquals(hashValues.size(), signatures.size());
+            Assert.assertEquals(hashValues.size(), signers.size());
+            batches.add(new ArrayList<>(hashValues));
+            privateKeys.add(privateKey);
+            if (privateKey.equals(blockedKey)) {
+                try {
+                    unblocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return CompletableFuture.supplyAsync(() -> response.apply(hashValues));
+        }
+
+        @Override
+        public ResponseData<String> createEvidence(
+            String hashValue,
+            String signature,
+            String log,
+            Long timestamp,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<ResponseData<String>> createEvidenceAsync(
+            String hashValue,
+            String signature,
+            String log,
+            Long timestamp,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<List<Boolean>> batchCreateEvidence(
+            List<String> hashValues,
+            List<String> signatures,
+            List<String> logs,
+            List<Long> timestamp,
+            List<String> signers,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<Boolean> addLog(
+            String hashValue,
+            String sig,
+            String log,
+            Long timestamp,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<Boolean> addLogByCustomKey(
+            String hashValue,
+            String signature,
+            String log,
+            Long timestamp,
+            String customKey,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<String> getHashByCustomKey(String customKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<String> createEvidenceWithCustomKey(
+            String hashValue,
+            String signature,
+            String log,
+            Long timestamp,
+            String customKey,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<List<Boolean>> batchCreateEvidenceWithCustomKey(
+            List<String> hashValues,
+            List<String> signatures,
+            List<String> logs,
+            List<Long> timestamps,
+            List<String> signers,
+            List<String> customKeys,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<EvidenceInfo> getInfo(String evidenceAddress) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<EvidenceInfo> getInfoByCustomKey(String extraKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<Boolean> setAttribute(
+            String hashValue,
+            String key,
+            String value,
+            Long timestamp,
+            String privateKey) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.impl.engine;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fisco.bcos.web3j.crypto.Credentials;
+import org.fisco.bcos.web3j.crypto.gm.GenCredential;
+import org.fisco.bcos.web3j.precompile.cns.CnsInfo;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.webank.weid.constant.CnsType;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.LoadContractException;
+import com.webank.weid.protocol.response.AmopResponse;
+import com.webank.weid.rpc.callback.OnNotifyCallbackV2;
+import com.webank.weid.service.fisco.WeServer;
+import com.webank.weid.service.impl.base.AmopCommonArgs;
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * test the helpers of BaseEngine without a chain.
+ */
+public class TestBaseEngine {
+
+    /**
+     * a group id no chain uses, the engines of this group get the fake WeServer.
+     */
+    private static final Integer GROUP_ID = 10086;
+
+    private static final String ADDRESS = "0x0000000000000000000000000000000000000001";
+
+    private FakeWeServer weServer;
+
+    private FakeEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        weServer = new FakeWeServer();
+        weServerContext().put(GROUP_ID, weServer);
+        engine = new FakeEngine(GROUP_ID);
+        FakeContract.LOADS.set(0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        weServerContext().remove(GROUP_ID);
+    }
+
+    @Test
+    /**
+     * case:the future completes with the receipt delivered to the callback.
+     */
+    public void testSendAsync_receipt() {
+
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash("0x01");
+
+        CompletableFuture<TransactionReceipt> future =
+            BaseEngine.sendAsync(callback -> callback.onResponse(receipt));
+
+        Assert.assertSame(receipt, future.join());
+    }
+
+    @Test
+    /**
+     * case:the exception thrown by the sender fails the future instead of the caller.
+     */
+    public void testSendAsync_senderException() {
+
+        CompletableFuture<TransactionReceipt> future = BaseEngine.sendAsync(callback -> {
+            throw new LoadContractException();
+        });
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof LoadContractException);
+        }
+    }
+
+    @Test
+    /**
+     * case:the failures map to the error code of the synchronous method, except the timeout.
+     */
+    public void testToErrorCode() {
+
+        Assert.assertEquals(
+            ErrorCode.AUTHORITY_ISSUER_ERROR,
+            BaseEngine.toErrorCode(
+                "test", new IllegalStateException(), ErrorCode.AUTHORITY_ISSUER_ERROR));
+        Assert.assertEquals(
+            ErrorCode.AUTHORITY_ISSUER_ERROR,
+            BaseEngine.toErrorCode(
+                "test",
+                new CompletionException(new LoadContractException()),
+                ErrorCode.AUTHORITY_ISSUER_ERROR));
+        Assert.assertEquals(
+            ErrorCode.TRANSACTION_TIMEOUT,
+            BaseEngine.toErrorCode(
+                "test",
+                new CompletionException(new TimeoutException()),
+                ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR));
+    }
+
+    @Test
+    /**
+     * case:the receipts are still processed when the async executor is full.
+     */
+    public void testAsyncExecutor_callerRuns() throws InterruptedException {
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch processed = new CountDownLatch(threads + 2048);
+        try {
+            // occupy all the threads, then overflow the queue
+            for (int i = 0; i < threads; i++) {
+                BaseEngine.getAsyncExecutor().execute(() -> {
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    processed.countDown();
+                });
+            }
+            for (int i = 0; i < 2048; i++) {
+                BaseEngine.getAsyncExecutor().execute(processed::countDown);
+            }
+        } finally {
+            blocked.countDown();
+        }
+        Assert.assertTrue(processed.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    /**
+     * case:the credentials and the contract of a signer are created once.
+     */
+    public void testReloadContract_cached() {
+
+        String privateKey = "20200618";
+
+        FakeContract contract = engine.reloadContract(ADDRESS, privateKey, FakeContract.class);
+        FakeContract cached = engine.reloadContract(ADDRESS, privateKey, FakeContract.class);
+
+        Assert.assertSame(contract, cached);
+        Assert.assertEquals(1, weServer.createdCredentials.get());
+        Assert.assertEquals(1, FakeContract.LOADS.get());
+        Assert.assertEquals(ADDRESS, contract.address);
+        Assert.assertEquals(
+            weServer.createCredentials(privateKey).getAddress(), contract.credentials.getAddress());
+    }
+
+    @Test
+    /**
+     * case:the signers of different private keys get their own credentials and contracts.
+     */
+    public void testReloadContract_keyedByPrivateKey() {
+
+        FakeContract first = engine.reloadContract(ADDRESS, "20200619", FakeContract.class);
+        FakeContract second = engine.reloadContract(ADDRESS, "20200620", FakeContract.class);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertNotEquals(
+            first.credentials.getAddress(), second.credentials.getAddress());
+        Assert.assertEquals(2, weServer.createdCredentials.get());
+        Assert.assertEquals(2, FakeContract.LOADS.get());
+        Assert.assertSame(
+            first, engine.reloadContract(ADDRESS, "20200619", FakeContract.class));
+        Assert.assertSame(
+            second, engine.reloadContract(ADDRESS, "20200620", FakeContract.class));
+    }
+
+    @Test
+    /**
+     * case:the contract is loaded again after its address changes, the credentials are not.
+     */
+    public void testReloadContract_addressChanged() {
+
+        String privateKey = "20200621";
+        String newAddress = "0x0000000000000000000000000000000000000002";
+
+        FakeContract contract = engine.reloadContract(ADDRESS, privateKey, FakeContract.class);
+        FakeContract reloaded =
+            engine.reloadContract(newAddress, privateKey, FakeContract.class);
+
+        Assert.assertNotSame(contract, reloaded);
+        Assert.assertEquals(newAddress, reloaded.address);
+        Assert.assertSame(contract.credentials, reloaded.credentials);
+        Assert.assertEquals(1, weServer.createdCredentials.get());
+        Assert.assertEquals(2, FakeContract.LOADS.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, WeServer<?, ?, ?>> weServerContext() throws Exception {
+        Field field = WeServer.class.getDeclaredField("weServerContext");
+        field.setAccessible(true);
+        return (Map<Integer, WeServer<?, ?, ?>>) field.get(null);
+    }
+
+    private static class FakeEngine extends BaseEngine {
+
+        private FakeEngine(Integer groupId) {
+            super(groupId);
+        }
+    }
+
+    /**
+     * a contract wrapper with the static load method of the generated wrappers.
+     */
+    public static class FakeContract {
+
+        private static final AtomicInteger LOADS = new AtomicInteger();
+
+        private final String address;
+
+        private final Credentials credentials;
+
+        private FakeContract(String address, Credentials credentials) {
+            this.address = address;
+            this.credentials = credentials;
+        }
+
+        /**
+         * load the contract like the generated wrappers.
+         *
+         * @param address the contract address
+         * @param web3j the web3j
+         * @param credentials the credentials of the signer
+         * @param gasPrice the gas price
+         * @param gasLimit the gas limit
+         * @return the contract
+         */
+        public static FakeContract load(
+            String address,
+            Web3j web3j,
+            Credentials credentials,
+            BigInteger gasPrice,
+            BigInteger gasLimit) {
+
+            LOADS.incrementAndGet();
+            return new FakeContract(address, credentials);
+        }
+    }
+
+    /**
+     * a WeServer without a chain, which only creates the credentials.
+     */
+    private static class FakeWeServer extends WeServer<Web3j, Credentials, Object> {
+
+        private final AtomicInteger createdCredentials = new AtomicInteger();
+
+        private FakeWeServer() {
+            super(null, new OnNotifyCallbackV2());
+        }
+
+        @Override
+        public Web3j getWeb3j() {
+            return null;
+        }
+
+        @Override
+        public Class<?> getWeb3jClass() {
+            return Web3j.class;
+        }
+
+        @Override
+        public Object getService() {
+            return null;
+        }
+
+        @Override
+        public Credentials getCredentials() {
+            return null;
+        }
+
+        @Override
+        public Credentials createCredentials(String privateKey) {
+            createdCredentials.incrementAndGet();
+            return GenCredential.create(
+                DataToolUtils.createKeyPairFromPrivate(new BigInteger(privateKey)));
+        }
+
+        @Override
+        protected void initWeb3j(Integer groupId) {
+        }
+
+        @Override
+        public AmopResponse sendChannelMessage(AmopCommonArgs amopCommonArgs, int timeOut) {
+            return null;
+        }
+
+        @Override
+        public int getBlockNumber() throws IOException {
+            return 0;
+        }
+
+        @Override
+        public String getVersion() throws IOException {
+            return null;
+        }
+
+        @Override
+        protected CnsInfo queryCnsInfo(CnsType cnsType) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.request.TransactionArgs;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.suite.api.persistence.inf.Persistence;
+import com.webank.weid.suite.api.persistence.params.PersistenceRecord;
+import com.webank.weid.suite.persistence.GroupCommitPersistence.AckMode;
+
+/**
+ * test the flush of GroupCommitPersistence with an in-memory persistence.
+ */
+public class TestGroupCommitFlush {
+
+    private static final String DOMAIN = "domain.defaultInfo";
+
+    @Test
+    /**
+     * case:only the ids not added by batchAdd are retried one by one.
+     */
+    public void testFlush_partialFailed() {
+
+        FakePersistence fake = new FakePersistence();
+        fake.stored.put("b", "old");
+        fake.rejectOnce.add("c");
+        GroupCommitPersistence persistence =
+            new GroupCommitPersistence(fake, 50L, 10, 100, AckMode.FLUSH);
+
+        List<CompletableFuture<ResponseData<Integer>>> futures = new ArrayList<>();
+        for (String id : Arrays.asList("a", "b", "c", "d")) {
+            futures.add(persistence.addAsync(DOMAIN, id, "data-" + id));
+        }
+        List<Integer> errorCodes = new ArrayList<>();
+        for (CompletableFuture<ResponseData<Integer>> future : futures) {
+            errorCodes.add(future.join().getErrorCode());
+        }
+        persistence.close();
+
+        Assert.assertEquals(1, fake.batchAdds);
+        // b already exists and c fails in the batch, a and d are not written again
+        Assert.assertEquals(Arrays.asList("b", "c"), fake.adds);
+        Assert.assertEquals(
+            Arrays.asList(
+                ErrorCode.SUCCESS.getCode(),
+                ErrorCode.PERSISTENCE_EXECUTE_FAILED.getCode(),
+                ErrorCode.SUCCESS.getCode(),
+                ErrorCode.SUCCESS.getCode()),
+            errorCodes);
+        Assert.assertEquals("old", fake.stored.get("b"));
+        Assert.assertEquals("data-c", fake.stored.get("c"));
+    }
+
+    @Test
+    /**
+     * case:all the ids are added one by one when batchAdd throws.
+     */
+    public void testFlush_batchAddException() {
+
+        FakePersistence fake = new FakePersistence();
+        fake.batchAddException = true;
+        GroupCommitPersistence persistence =
+            new GroupCommitPersistence(fake, 50L, 10, 100, AckMode.FLUSH);
+
+        CompletableFuture<ResponseData<Integer>> first = persistence.addAsync(DOMAIN, "a", "1");
+        CompletableFuture<ResponseData<Integer>> second = persistence.addAsync(DOMAIN, "b", "2");
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), first.join().getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), second.join().getErrorCode().intValue());
+        persistence.close();
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(fake.adds));
+        Assert.assertEquals(2, fake.stored.size());
+    }
+
+    @Test
+    /**
+     * case:every add racing with close completes, the ones after close are added directly.
+     */
+    public void testClose_concurrentAdd() throws Exception {
+
+        for (int round = 0; round < 20; round++) {
+            FakePersistence fake = new FakePersistence();
+            GroupCommitPersistence persistence =
+                new GroupCommitPersistence(fake, 1L, 10, 4, AckMode.FLUSH);
+
+            List<CompletableFuture<ResponseData<Integer>>> futures =
+                Collections.synchronizedList(new ArrayList<>());
+            List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String prefix = "t" + i + "-";
+                Thread producer = new Thread(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        futures.add(persistence.addAsync(DOMAIN, prefix + j, "data"));
+                    }
+                });
+                producer.start();
+                producers.add(producer);
+            }
+            persistence.close();
+            for (Thread producer : producers) {
+                producer.join(10000L);
+                Assert.assertFalse(producer.isAlive());
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .get(10, TimeUnit.SECONDS);
+            for (CompletableFuture<ResponseData<Integer>> future : futures) {
+                Assert.assertEquals(
+                    ErrorCode.SUCCESS.getCode(), future.join().getErrorCode().intValue());
+            }
+            Assert.assertEquals(400, fake.stored.size());
+        }
+    }
+
+    @Test
+    /**
+     * case:an add waiting on the full queue does not block close forever.
+     */
+    public void testClose_queueFull() throws Exception {
+
+        FakePersistence fake = new FakePersistence();
+        fake.batchAddBlocked = new CountDownLatch(1);
+        GroupCommitPersistence persistence =
+            new GroupCommitPersistence(fake, 5L, 1, 1, AckMode.FLUSH);
+
+        // the flusher is blocked on a, b fills the queue and c waits for room
+        List<CompletableFuture<ResponseData<Integer>>> futures =
+            Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (String id : Arrays.asList("a", "b", "c")) {
+            Thread producer = new Thread(() -> futures.add(persistence.addAsync(DOMAIN, id, id)));
+            producer.start();
+            threads.add(producer);
+        }
+        Thread closer = new Thread(persistence::close);
+        closer.start();
+        threads.add(closer);
+        fake.batchAddBlocked.countDown();
+        for (Thread thread : threads) {
+            thread.join(10000L);
+            Assert.assertFalse(thread.isAlive());
+        }
+
+        Assert.assertEquals(3, futures.size());
+        for (CompletableFuture<ResponseData<Integer>> future : futures) {
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(),
+                future.get(10, TimeUnit.SECONDS).getErrorCode().intValue());
+        }
+        Assert.assertEquals(3, fake.stored.size());
+    }
+
+    /**
+     * an in-memory persistence, add fails on the existing ids like the drivers.
+     */
+    private static class FakePersistence implements Persistence {
+
+        private final Map<String, String> stored = new ConcurrentHashMap<>();
+
+        private final Set<String> rejectOnce = Collections.newSetFromMap(
+            new ConcurrentHashMap<>());
+
+        private final List<String> adds = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile int batchAdds;
+
+        private volatile boolean batchAddException;
+
+        private volatile CountDownLatch batchAddBlocked;
+
+        @Override
+        public ResponseData<Integer> add(String domain, String id, String data) {
+            adds.add(id);
+            if (stored.putIfAbsent(id, data) != null) {
+                return new ResponseData<>(
+                    DataDriverConstant.SQL_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            }
+            return new ResponseData<>(1, ErrorCode.SUCCESS);
+        }
+
+        @Override
+        public ResponseData<Integer> batchAdd(String domain, Map<String, String> keyValueList) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<List<String>> batchAddWithFailedIds(
+            String domain,
+            Map<String, String> keyValueList) {
+            batchAdds++;
+            if (batchAddBlocked != null) {
+                try {
+                    batchAddBlocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (batchAddException) {
+                throw new IllegalStateException("connection lost");
+            }
+            List<String> failedIds = new ArrayList<>();
+            for (Map.Entry<String, String> entry : keyValueList.entrySet()) {
+                if (rejectOnce.remove(entry.getKey())
+                    || stored.putIfAbsent(entry.getKey(), entry.getValue()) != null) {
+                    failedIds.add(entry.getKey());
+                }
+            }
+            return new ResponseData<>(
+                failedIds,
+                failedIds.isEmpty()
+                    ? ErrorCode.SUCCESS : ErrorCode.PERSISTENCE_BATCH_ADD_PARTIAL_FAILED);
+        }
+
+        @Override
+        public ResponseData<String> get(String domain, String id) {
+            return new ResponseData<>(stored.get(id), ErrorCode.SUCCESS);
+        }
+
+        @Override
+        public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterator<PersistenceRecord> scan(String domain, int batchSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<Integer> delete(String domain, String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<Integer> update(String domain, String id, String data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<Integer> addOrUpdate(String domain, String id, String data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseData<Integer> addTransaction(TransactionArgs transactionArgs) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
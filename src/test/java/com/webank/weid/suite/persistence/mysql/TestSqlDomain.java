@@ -0,0 +1,177 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.mysql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * test the routing of the sharded domains without a database.
+ */
+public class TestSqlDomain {
+
+    private static final String DOMAIN_KEY = "domain.encryptKey";
+
+    @Test
+    /**
+     * case:the domain without shards is routed to itself.
+     */
+    public void testRoute_notSharded() {
+
+        SqlDomain domain = new SqlDomain(DOMAIN_KEY, "datasource1", "encrypt_key", 1);
+
+        Assert.assertFalse(domain.isSharded());
+        Assert.assertSame(domain, domain.route(key(1)));
+        Assert.assertEquals(0, domain.shardOf(key(1)));
+        Assert.assertEquals(1, domain.getShards().size());
+        Assert.assertSame(domain, domain.getShards().get(0));
+        Assert.assertTrue(domain.getTableName().endsWith("_encrypt_key"));
+    }
+
+    @Test
+    /**
+     * case:the keys are spread evenly over the shards, and always to the same shard.
+     */
+    public void testShardOf_distribution() {
+
+        int shardCount = 8;
+        int keyCount = 8000;
+        SqlDomain domain = new SqlDomain(DOMAIN_KEY, "datasource1", "encrypt_key", shardCount);
+
+        int[] counts = new int[shardCount];
+        for (int i = 0; i < keyCount; i++) {
+            String dataKey = key(i);
+            int shard = domain.shardOf(dataKey);
+            Assert.assertEquals(shard, domain.shardOf(dataKey));
+            SqlDomain routed = domain.route(dataKey);
+            Assert.assertEquals(shard, routed.getShardIndex());
+            // a routed domain is not routed again
+            Assert.assertSame(routed, routed.route(key(i + 1)));
+            counts[shard]++;
+        }
+        for (int count : counts) {
+            Assert.assertTrue(
+                Arrays.toString(counts),
+                Math.abs(count - keyCount / shardCount) < keyCount / shardCount / 5);
+        }
+    }
+
+    @Test
+    /**
+     * case:the shard tables are suffixed by the index and spread over the data sources.
+     */
+    public void testGetShards() {
+
+        SqlDomain domain = new SqlDomain(
+            DOMAIN_KEY, "datasource1", "encrypt_key", 4, "datasource1", "datasource2");
+
+        List<SqlDomain> shards = domain.getShards();
+
+        Assert.assertEquals(4, shards.size());
+        Set<String> tableNames = new HashSet<>();
+        for (int i = 0; i < shards.size(); i++) {
+            SqlDomain shard = shards.get(i);
+            Assert.assertEquals(i, shard.getShardIndex());
+            Assert.assertEquals(DOMAIN_KEY, shard.getKey());
+            Assert.assertEquals(domain.getTableName() + "_" + i, shard.getTableName());
+            Assert.assertEquals(i % 2 == 0 ? "datasource1" : "datasource2", shard.getBaseDomain());
+            Assert.assertEquals(shard.getTableName(), domain.route(keyOfShard(domain, i))
+                .getTableName());
+            Assert.assertEquals(Arrays.asList(shard), shard.getShards());
+            tableNames.add(shard.getTableName());
+        }
+        Assert.assertEquals(4, tableNames.size());
+
+        // the shards share the data source of the domain without shardDataSources
+        for (SqlDomain shard : new SqlDomain(DOMAIN_KEY, "datasource3", "t", 3).getShards()) {
+            Assert.assertEquals("datasource3", shard.getBaseDomain());
+        }
+    }
+
+    @Test
+    /**
+     * case:the keys of batchGet and batchAdd are grouped in the order of getShards().
+     */
+    public void testGroupByShard() {
+
+        SqlDomain domain = new SqlDomain(DOMAIN_KEY, "datasource1", "encrypt_key", 4);
+        List<String> dataKeys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            dataKeys.add(key(i));
+        }
+
+        List<List<String>> shardKeys = domain.groupByShard(dataKeys);
+
+        Assert.assertEquals(4, shardKeys.size());
+        List<String> grouped = new ArrayList<>();
+        for (int i = 0; i < shardKeys.size(); i++) {
+            Assert.assertFalse(shardKeys.get(i).isEmpty());
+            int previous = -1;
+            for (String dataKey : shardKeys.get(i)) {
+                Assert.assertEquals(i, domain.shardOf(dataKey));
+                // the keys keep their order in a shard
+                Assert.assertTrue(dataKeys.indexOf(dataKey) > previous);
+                previous = dataKeys.indexOf(dataKey);
+                grouped.add(dataKey);
+            }
+        }
+        Assert.assertEquals(new HashSet<>(dataKeys), new HashSet<>(grouped));
+        Assert.assertEquals(dataKeys.size(), grouped.size());
+
+        SqlDomain notSharded = new SqlDomain(DOMAIN_KEY, "datasource1", "encrypt_key", 1);
+        Assert.assertEquals(Arrays.asList(dataKeys), notSharded.groupByShard(dataKeys));
+    }
+
+    @Test
+    /**
+     * case:the fixed statements are cached once per shard table.
+     */
+    public void testReplaceTableName_shards() {
+
+        SqlDomain domain = new SqlDomain(DOMAIN_KEY, "datasource1", "encrypt_key", 4);
+
+        for (SqlDomain shard : domain.getShards()) {
+            String sql = SqlExecutor.replaceTableName(SqlExecutor.SQL_DELETE, shard.getTableName());
+            Assert.assertEquals("delete from " + shard.getTableName() + " where id = ?", sql);
+            Assert.assertSame(
+                sql, SqlExecutor.replaceTableName(SqlExecutor.SQL_DELETE, shard.getTableName()));
+        }
+    }
+
+    private static String key(int index) {
+        return DataToolUtils.getHash(String.valueOf(index));
+    }
+
+    private static String keyOfShard(SqlDomain domain, int shard) {
+        for (int i = 0; ; i++) {
+            if (domain.shardOf(key(i)) == shard) {
+                return key(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.suite.persistence.mysql;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * test the multi-row insert of SqlExecutor without a database.
+ */
+public class TestSqlExecutor {
+
+    private static final String SQL =
+        "insert into t(id, data, expire) values(?,?,?) on duplicate key update data = data";
+
+    @Test
+    /**
+     * case:the values group is repeated once per row and the tail is kept.
+     */
+    public void testBuildMultiRowSql() {
+
+        Assert.assertEquals(SQL, SqlExecutor.buildMultiRowSql(SQL, 1));
+        Assert.assertEquals(
+            "insert into t(id, data, expire) values(?,?,?),(?,?,?),(?,?,?)"
+                + " on duplicate key update data = data",
+            SqlExecutor.buildMultiRowSql(SQL, 3));
+        Assert.assertEquals(
+            "INSERT INTO t(id) VALUES(?),(?)",
+            SqlExecutor.buildMultiRowSql("INSERT INTO t(id) VALUES(?)", 2));
+        Assert.assertEquals("delete from t", SqlExecutor.buildMultiRowSql("delete from t", 2));
+    }
+
+    @Test
+    /**
+     * case:only the fixed statements are cached per table, the other statements are not.
+     */
+    public void testReplaceTableName() {
+
+        String sql = SqlExecutor.replaceTableName(SqlExecutor.SQL_QUERY_DATA, "weidentity_t1");
+        Assert.assertEquals("select data,expire from weidentity_t1 where id = ?", sql);
+        Assert.assertSame(
+            sql, SqlExecutor.replaceTableName(SqlExecutor.SQL_QUERY_DATA, "weidentity_t1"));
+        Assert.assertEquals(
+            "select data,expire from weidentity_t2 where id = ?",
+            SqlExecutor.replaceTableName(SqlExecutor.SQL_QUERY_DATA, "weidentity_t2"));
+
+        String custom = "select count(*) from $1 where id = 'a'";
+        sql = SqlExecutor.replaceTableName(custom, "weidentity_t1");
+        Assert.assertEquals("select count(*) from weidentity_t1 where id = 'a'", sql);
+        Assert.assertNotSame(sql, SqlExecutor.replaceTableName(custom, "weidentity_t1"));
+    }
+
+    @Test
+    /**
+     * case:the binder is chosen by the first non-null value of the column.
+     */
+    public void testResolveBinder() throws SQLException {
+
+        FakeDatabase db = new FakeDatabase();
+        PreparedStatement ps = db.connection().prepareStatement("insert");
+        Date date = new Date(1000L);
+
+        SqlExecutor.resolveBinder(Arrays.<Object>asList(null, "a")).bind(ps, 1, "a");
+        SqlExecutor.resolveBinder(Arrays.<Object>asList(date)).bind(ps, 2, date);
+        SqlExecutor.resolveBinder(Arrays.<Object>asList(date)).bind(ps, 3, null);
+        SqlExecutor.resolveBinder(Arrays.<Object>asList(1L)).bind(ps, 4, 2L);
+        SqlExecutor.resolveBinder(Arrays.<Object>asList(1L)).bind(ps, 5, null);
+        SqlExecutor.resolveBinder(Arrays.<Object>asList(1)).bind(ps, 6, 3);
+        SqlExecutor.resolveBinder(Arrays.<Object>asList((Object) null)).bind(ps, 7, true);
+
+        Assert.assertEquals(
+            Arrays.asList("setString:a", "setTimestamp:" + new Timestamp(1000L),
+                "setTimestamp:null", "setLong:2", "setNull:-5", "setInt:3", "setObject:true"),
+            db.calls);
+    }
+
+    @Test
+    /**
+     * case:the chunks are committed separately, and only the duplicate rows fail.
+     */
+    public void testAddInChunks_partialFailed() {
+
+        FakeDatabase db = new FakeDatabase();
+        db.existing.add("id3");
+        db.existing.add("id7");
+        List<Object> ids = new ArrayList<>();
+        List<Object> datas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add("id" + i);
+            datas.add("data" + i);
+        }
+
+        List<Integer> failedRows = SqlExecutor.addInChunks(
+            db.connection(), "insert into t(id, data) values(?,?)", Arrays.asList(ids, datas), 4);
+
+        Assert.assertEquals(Arrays.asList(3, 7), failedRows);
+        Assert.assertEquals(8, db.stored.size());
+        Assert.assertEquals("data0", db.stored.get("id0"));
+        Assert.assertEquals("data9", db.stored.get("id9"));
+        // chunk [0, 4) and [4, 8) fail and are retried row by row, chunk [8, 10) is committed
+        Assert.assertEquals(4, db.rollbacks);
+        Assert.assertEquals(7, db.commits);
+    }
+
+    @Test
+    /**
+     * case:all rows are added when there is no duplicate id.
+     */
+    public void testAddInChunks_success() {
+
+        FakeDatabase db = new FakeDatabase();
+        List<Object> ids = Arrays.<Object>asList("a", "b", "c");
+        List<Object> datas = Arrays.<Object>asList("1", "2", "3");
+
+        List<Integer> failedRows = SqlExecutor.addInChunks(
+            db.connection(), "insert into t(id, data) values(?,?)", Arrays.asList(ids, datas), 2);
+
+        Assert.assertTrue(failedRows.isEmpty());
+        Assert.assertEquals(3, db.stored.size());
+        Assert.assertEquals(2, db.commits);
+        Assert.assertEquals(0, db.rollbacks);
+        Assert.assertEquals(
+            new HashSet<>(Arrays.asList(
+                "insert into t(id, data) values(?,?),(?,?)",
+                "insert into t(id, data) values(?,?)")),
+            new HashSet<>(db.statements));
+    }
+
+    /**
+     * an in-memory table with the id as the primary key, the rows of a statement are only
+     * visible after commit.
+     */
+    private static class FakeDatabase {
+
+        private final Set<String> existing = new HashSet<>();
+
+        private final Map<String, String> stored = new HashMap<>();
+
+        private final Map<String, String> uncommitted = new HashMap<>();
+
+        private final List<String> statements = new ArrayList<>();
+
+        private final List<String> calls = new ArrayList<>();
+
+        private int commits;
+
+        private int rollbacks;
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            statements.add((String) args[0]);
+                            return statement();
+                        case "commit":
+                            commits++;
+                            stored.putAll(uncommitted);
+                            uncommitted.clear();
+                            return null;
+                        case "rollback":
+                            rollbacks++;
+                            uncommitted.clear();
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        private PreparedStatement statement() {
+            Map<Integer, Object> params = new HashMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set")) {
+                        params.put((Integer) args[0], args[1]);
+                        calls.add(name + ":" + args[1]);
+                        return null;
+                    }
+                    if ("executeUpdate".equals(name)) {
+                        // two columns per row: id, data
+                        for (int i = 1; i <= params.size(); i += 2) {
+                            String id = (String) params.get(i);
+                            if (existing.contains(id) || stored.containsKey(id)) {
+                                throw new SQLIntegrityConstraintViolationException(
+                                    "Duplicate entry '" + id + "' for key 'PRIMARY'");
+                            }
+                            uncommitted.put(id, (String) params.get(i + 1));
+                        }
+                        return params.size() / 2;
+                    }
+                    return null;
+                });
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.webank.weid.protocol.request.TransactionArgs;
+
+/**
+ * test BinlogWriter and BinlogReader.
+ */
+public class TestBinlog {
+
+    private File baseDir;
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = Files.createTempDirectory("weid-binlog").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.walk(baseDir.toPath())
+            .sorted(Comparator.reverseOrder())
+            .map(Path::toFile)
+            .forEach(File::delete);
+    }
+
+    @Test
+    public void testConcurrentAppendAndRotate() throws Exception {
+        BinlogWriter writer = new BinlogWriter(baseDir, "127.0.0.1", 100);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String content = "request" + i + "|createEvidence|0x1,sig,log,1|" + "|" + i;
+            futures.add(pool.submit(() -> writer.append(content)));
+        }
+        for (Future<Boolean> future : futures) {
+            Assert.assertTrue(future.get());
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        writer.close();
+        Assert.assertFalse(writer.append("closed"));
+
+        File[] dayDirs = baseDir.listFiles();
+        Assert.assertEquals(1, dayDirs.length);
+        List<File> segments = BinlogReader.listSegments(dayDirs[0]);
+        Assert.assertEquals(10, segments.size());
+        Set<String> records = new HashSet<>();
+        for (int i = 0; i < segments.size(); i++) {
+            Assert.assertTrue(segments.get(i).getName().endsWith("_binlog_" + i));
+            try (BinlogReader reader = new BinlogReader(segments.get(i))) {
+                while (reader.hasNext()) {
+                    records.add(reader.next());
+                }
+            }
+        }
+        Assert.assertEquals(1000, records.size());
+    }
+
+    @Test
+    public void testTornTailAndResume() throws Exception {
+        BinlogWriter writer = new BinlogWriter(baseDir, "127.0.0.1", 100);
+        Assert.assertTrue(writer.append("first"));
+        Assert.assertTrue(writer.append("second"));
+        Assert.assertTrue(writer.append("third"));
+        writer.close();
+        File segment = BinlogReader.listSegments(baseDir.listFiles()[0]).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 2);
+        }
+
+        long position;
+        try (BinlogReader reader = new BinlogReader(segment)) {
+            Assert.assertEquals("first", reader.next());
+            position = reader.getPosition();
+            Assert.assertTrue(reader.hasNext());
+            Assert.assertEquals(position, reader.getPosition());
+            Assert.assertEquals("second", reader.next());
+            Assert.assertFalse(reader.hasNext());
+        }
+        try (BinlogReader reader = new BinlogReader(segment, position)) {
+            Assert.assertEquals("second", reader.next());
+            Assert.assertFalse(reader.hasNext());
+        }
+
+        // a new writer never appends after the torn record
+        writer = new BinlogWriter(baseDir, "127.0.0.1", 100);
+        Assert.assertTrue(writer.append("fourth"));
+        writer.close();
+        List<File> segments = BinlogReader.listSegments(baseDir.listFiles()[0]);
+        Assert.assertEquals(2, segments.size());
+        try (BinlogReader reader = new BinlogReader(segments.get(1))) {
+            Assert.assertEquals("fourth", reader.next());
+        }
+    }
+
+    @Test
+    public void testAppendInterrupted() throws Exception {
+        BinlogWriter writer = new BinlogWriter(baseDir, "127.0.0.1", 100);
+        Object lock = field(writer, "lock");
+        int appended = 0;
+        boolean isInterrupted = false;
+        while (!isInterrupted) {
+            AtomicBoolean result = new AtomicBoolean();
+            Thread appender = new Thread(() -> result.set(writer.append("record")));
+            appender.start();
+            while (appender.isAlive() && appender.getState() != Thread.State.WAITING) {
+                Thread.yield();
+            }
+            synchronized (lock) {
+                // interrupt only while the record is written but not synced yet
+                if (appender.getState() == Thread.State.WAITING
+                    && (long) field(writer, "resolvedSeq") < (long) field(writer, "writtenSeq")) {
+                    appender.interrupt();
+                    isInterrupted = true;
+                }
+            }
+            appender.join();
+            // the record is written before the wait, so it must not be reported as failed
+            Assert.assertTrue(result.get());
+            appended++;
+        }
+        writer.close();
+
+        File segment = BinlogReader.listSegments(baseDir.listFiles()[0]).get(0);
+        try (BinlogReader reader = new BinlogReader(segment)) {
+            for (int i = 0; i < appended; i++) {
+                Assert.assertEquals("record", reader.next());
+            }
+            Assert.assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testParseLogRecord() {
+        TransactionArgs args = BatchTransactionUtils.parseLogRecord(
+            "123|createEvidence|0x1,sig,a|b,1,did:weid:0x1,1||1586000000000", "20200401");
+        Assert.assertNotNull(args);
+        Assert.assertEquals("123", args.getRequestId());
+        Assert.assertEquals("createEvidence", args.getMethod());
+        Assert.assertEquals("0x1,sig,a|b,1,did:weid:0x1,1", args.getArgs());
+        Assert.assertEquals("", args.getExtra());
+        Assert.assertEquals(Long.valueOf(1586000000000L), args.getTimeStamp());
+        Assert.assertEquals("20200401", args.getBatch());
+        Assert.assertNull(BatchTransactionUtils.parseLogRecord("broken", "20200401"));
+    }
+
+    private static Object field(BinlogWriter writer, String name) throws Exception {
+        Field field = BinlogWriter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(writer);
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.constant.CredentialConstant;
+import com.webank.weid.constant.CredentialFieldDisclosureValue;
+import com.webank.weid.constant.CredentialType;
+import com.webank.weid.constant.ParamKeyConstant;
+import com.webank.weid.protocol.base.CredentialPojo;
+
+/**
+ * test the thumbprints and hashes of CredentialPojoUtils against the golden values, which are
+ * the output of the previous map based pipeline, so the existing signatures still verify.
+ */
+public class TestCredentialPojoUtils {
+
+    private static final String ISSUER = "did:weid:101:0x39e5e6f663ef77409144014ceb063713b65600e7";
+
+    private static final String THUMBPRINT_DISCLOSED =
+        "{\"claim\":{\"address\":{"
+            + "\"city\":\"0xf1afc85f1bb5ba162a79ee2368bd535dc56cf9bd4e260144ccc4b21e38b50a90\","
+            + "\"zip\":\"518000\"},"
+            + "\"age\":\"0x00cd5660247b1c49d9f86a36c95b579ac3b8ccaa998a94c8a92b106454213c65\","
+            + "\"amount\":\"0x16cd12a905b2a51b402fe4f2780869bce13157a3dd625480f31062dfec870a91\","
+            + "\"gender\":\"F\","
+            + "\"hobbies\":[{"
+            + "\"level\":\"0x39a8ab1f35fd299ea4bdb5ef974a5b65c57696babfab73052f831731ddbf3233\","
+            + "\"title\":\"0xcd36198298ccad661cf6ba8936ca5222dc88425afc11a342e79a3e1f3d00616f\"},"
+            + "{\"level\":\"0x39a8ab1f35fd299ea4bdb5ef974a5b65c57696babfab73052f831731ddbf3233\","
+            + "\"title\":\"0x4ccb80a6116ec713aae810221d182c50835e8acbe6018e881b29033850bf2d67\"}],"
+            + "\"name\":\"0x37f7277a7dd1415bd5e24d5a40e5a6f06575b14104116ab80b1c681f4c171b30\","
+            + "\"ratio\":\"0x673029451ca5aad1cab07106ef49e81a23dd83980f6258cd8284718596eeba07\","
+            + "\"score\":99.5,\"tags\":[\"a\",null,1]},"
+            + "\"context\":\"https://github.com/WeBankFinTech/WeIdentity/blob/master/context/v1\","
+            + "\"cptId\":2000000,\"expirationDate\":1680000000,"
+            + "\"id\":\"04a3e89d-825a-49fe-b8f5-8ccb9f487a52\",\"issuanceDate\":1580000000,"
+            + "\"issuer\":\"did:weid:101:0x39e5e6f663ef77409144014ceb063713b65600e7\","
+            + "\"type\":[\"VerifiableCredential\",\"original\"]}";
+
+    private static final String THUMBPRINT_SELECTIVE =
+        "{\"claim\":{\"address\":{"
+            + "\"city\":\"0xf1afc85f1bb5ba162a79ee2368bd535dc56cf9bd4e260144ccc4b21e38b50a90\","
+            + "\"zip\":\"518000\"},"
+            + "\"age\":\"0x00cd5660247b1c49d9f86a36c95b579ac3b8ccaa998a94c8a92b106454213c65\","
+            + "\"amount\":\"0x16cd12a905b2a51b402fe4f2780869bce13157a3dd625480f31062dfec870a91\","
+            + "\"gender\":\"F\","
+            + "\"hobbies\":[{"
+            + "\"level\":\"0x39a8ab1f35fd299ea4bdb5ef974a5b65c57696babfab73052f831731ddbf3233\","
+            + "\"title\":\"chess\"},"
+            + "{\"level\":\"0x39a8ab1f35fd299ea4bdb5ef974a5b65c57696babfab73052f831731ddbf3233\","
+            + "\"title\":\"swim\\u0001\\\"\"}],\"name\":\"zhangsan\",\"ratio\":1.1,\"score\":99.5,"
+            + "\"tags\":[\"a\",null,1]},"
+            + "\"context\":\"https://github.com/WeBankFinTech/WeIdentity/blob/master/context/v1\","
+            + "\"cptId\":2000000,\"expirationDate\":1680000000,"
+            + "\"id\":\"04a3e89d-825a-49fe-b8f5-8ccb9f487a52\",\"issuanceDate\":1580000000,"
+            + "\"issuer\":\"did:weid:101:0x39e5e6f663ef77409144014ceb063713b65600e7\","
+            + "\"type\":[\"VerifiableCredential\",\"original\"]}";
+
+    private static final String LITE_THUMBPRINT =
+        "{\"claim\":{\"address\":{"
+            + "\"city\":\"深圳\",\"zip\":\"518000\"},\"age\":18,"
+            + "\"amount\":12345.678901234567,\"gender\":\"F\",\"hobbies\":[{\"level\":3,"
+            + "\"title\":\"chess\"},{\"level\":3,\"title\":\"swim\\u0001\\\"\"}],"
+            + "\"name\":\"zhangsan\",\"ratio\":1.1,\"score\":99.5,\"tags\":[\"a\",null,1]},"
+            + "\"cptId\":2000000,\"expirationDate\":1680000000,"
+            + "\"id\":\"04a3e89d-825a-49fe-b8f5-8ccb9f487a52\",\"issuanceDate\":1580000000,"
+            + "\"issuer\":\"did:weid:101:0x39e5e6f663ef77409144014ceb063713b65600e7\","
+            + "\"type\":\"lite1\"}";
+
+    private static final String HASH =
+        "0x5789463cd3e617f30a61eb2fc2d25c042007453e06802916d6501c845f955af7";
+
+    private static final String HASH_SELECTIVE =
+        "0x55f3ca1347134d854c663200d6ae4ade9efe03ef3e6286fad4766110951c5e0e";
+
+    private static final String LITE_HASH =
+        "0x853c1eeb36edb6dd2fded84cb74ab0ff63f42823ffd5bd0e72ed198fa772c7c7";
+
+    @Test
+    /**
+     * case:the salted claim fields are hashed, the fields with salt 0 are kept.
+     */
+    public void testGetCredentialThumbprintWithoutSig() {
+
+        CredentialPojo credential = buildCredential();
+
+        String thumbprint = CredentialPojoUtils.getCredentialThumbprintWithoutSig(
+            credential, credential.getSalt(), null);
+
+        Assert.assertEquals(THUMBPRINT_DISCLOSED, thumbprint);
+        Assert.assertEquals(thumbprint, credential.getSignatureThumbprint());
+    }
+
+    @Test
+    /**
+     * case:the fields marked as not disclosed are hashed, the disclosed fields are kept.
+     */
+    public void testGetCredentialThumbprintWithoutSig_selectiveDisclosure() {
+
+        CredentialPojo credential = buildCredential();
+
+        String thumbprint = CredentialPojoUtils.getCredentialThumbprintWithoutSig(
+            credential, credential.getSalt(), buildDisclosures());
+
+        Assert.assertEquals(THUMBPRINT_SELECTIVE, thumbprint);
+    }
+
+    @Test
+    /**
+     * case:the lite thumbprint keeps the claim as it is and drops the context.
+     */
+    public void testGetLiteCredentialThumbprintWithoutSig() {
+
+        Assert.assertEquals(
+            LITE_THUMBPRINT,
+            CredentialPojoUtils.getLiteCredentialThumbprintWithoutSig(buildLiteCredential()));
+    }
+
+    @Test
+    /**
+     * case:the credential hash covers the proof without the salt.
+     */
+    public void testGetCredentialPojoHash() {
+
+        CredentialPojo credential = buildCredential();
+
+        Assert.assertEquals(HASH, CredentialPojoUtils.getCredentialPojoHash(credential, null));
+        Assert.assertEquals(
+            HASH_SELECTIVE,
+            CredentialPojoUtils.getCredentialPojoHash(credential, buildDisclosures()));
+    }
+
+    @Test
+    /**
+     * case:the lite credential hash covers the signature.
+     */
+    public void testGetLiteCredentialPojoHash() {
+
+        CredentialPojo credential = buildLiteCredential();
+
+        Assert.assertEquals(LITE_HASH, CredentialPojoUtils.getLiteCredentialPojoHash(credential));
+        Assert.assertEquals(LITE_HASH, credential.getHash());
+    }
+
+    @Test
+    /**
+     * case:the thumbprint does not change the claim and the salt of the credential.
+     */
+    public void testGetCredentialThumbprintWithoutSig_unchanged() {
+
+        CredentialPojo credential = buildCredential();
+        String json = DataToolUtils.serialize(credential);
+
+        CredentialPojoUtils.getCredentialThumbprintWithoutSig(
+            credential, credential.getSalt(), buildDisclosures());
+        CredentialPojoUtils.getCredentialPojoHash(credential, buildDisclosures());
+
+        Assert.assertEquals(json, DataToolUtils.serialize(credential));
+    }
+
+    private static CredentialPojo buildCredential() {
+
+        CredentialPojo credential = buildBaseCredential(CredentialType.ORIGINAL);
+        credential.setContext(CredentialConstant.DEFAULT_CREDENTIAL_CONTEXT);
+        credential.putProofValue(ParamKeyConstant.PROOF_CREATED, 1580000000L);
+        credential.putProofValue(ParamKeyConstant.PROOF_CREATOR, ISSUER + "#keys-0");
+        credential.putProofValue(ParamKeyConstant.PROOF_TYPE, "Secp256k1");
+        credential.putProofValue(ParamKeyConstant.PROOF_SIGNATURE, "c2lnbmF0dXJl");
+
+        String notDisclosed = CredentialFieldDisclosureValue.NOT_DISCLOSED.getStatus().toString();
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", "AbCdE");
+        address.put("zip", notDisclosed);
+        Map<String, Object> hobby = new HashMap<>();
+        hobby.put("title", "FgHiJ");
+        hobby.put("level", "KlMnO");
+        Map<String, Object> salt = new HashMap<>();
+        salt.put("name", "PqRsT");
+        salt.put("gender", notDisclosed);
+        salt.put("age", "UvWxY");
+        salt.put("ratio", "Zabcd");
+        salt.put("amount", "efghi");
+        salt.put("address", address);
+        salt.put("hobbies", new ArrayList<>(Arrays.asList(hobby, hobby)));
+        credential.setSalt(salt);
+        return credential;
+    }
+
+    private static CredentialPojo buildLiteCredential() {
+
+        CredentialPojo credential = buildBaseCredential(CredentialType.LITE1);
+        credential.putProofValue(ParamKeyConstant.PROOF_SIGNATURE, "c2lnbmF0dXJl");
+        return credential;
+    }
+
+    private static CredentialPojo buildBaseCredential(CredentialType type) {
+
+        CredentialPojo credential = new CredentialPojo();
+        credential.setId("04a3e89d-825a-49fe-b8f5-8ccb9f487a52");
+        credential.setCptId(2000000);
+        credential.setIssuer(ISSUER);
+        credential.setIssuanceDate(1580000000L);
+        credential.setExpirationDate(1680000000L);
+        credential.setType(new ArrayList<>(Arrays.asList(
+            CredentialConstant.DEFAULT_CREDENTIAL_TYPE, type.getName())));
+
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", "深圳");
+        address.put("zip", "518000");
+        List<Object> hobbies = new ArrayList<>();
+        for (String title : Arrays.asList("chess", "swim\u0001\"")) {
+            Map<String, Object> hobby = new HashMap<>();
+            hobby.put("title", title);
+            hobby.put("level", 3);
+            hobbies.add(hobby);
+        }
+        Map<String, Object> claim = new HashMap<>();
+        claim.put("name", "zhangsan");
+        claim.put("gender", "F");
+        claim.put("age", 18);
+        claim.put("ratio", 1.1f);
+        claim.put("amount", new BigDecimal("12345.678901234567890"));
+        claim.put("score", 99.5d);
+        claim.put("address", address);
+        claim.put("hobbies", hobbies);
+        claim.put("tags", new ArrayList<>(Arrays.asList("a", null, 1)));
+        credential.setClaim(claim);
+        return credential;
+    }
+
+    private static Map<String, Object> buildDisclosures() {
+
+        Integer disclosed = CredentialFieldDisclosureValue.DISCLOSED.getStatus();
+        Integer notDisclosed = CredentialFieldDisclosureValue.NOT_DISCLOSED.getStatus();
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", notDisclosed);
+        Map<String, Object> hobby = new HashMap<>();
+        hobby.put("title", disclosed);
+        hobby.put("level", notDisclosed);
+        Map<String, Object> disclosures = new HashMap<>();
+        disclosures.put("name", disclosed);
+        disclosures.put("age", notDisclosed);
+        disclosures.put("ratio", disclosed);
+        disclosures.put("address", address);
+        disclosures.put("hobbies", new ArrayList<>(Arrays.asList(hobby)));
+        return disclosures;
+    }
+}
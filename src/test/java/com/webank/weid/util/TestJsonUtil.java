@@ -19,12 +19,15 @@
 
 package com.webank.weid.util;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.UUID;
 
 import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -32,6 +35,7 @@ import org.junit.Test;
 import com.webank.weid.constant.CredentialConstant;
 import com.webank.weid.constant.JsonSchemaConstant;
 import com.webank.weid.protocol.base.Challenge;
+import com.webank.weid.protocol.base.Cpt;
 import com.webank.weid.protocol.base.Credential;
 import com.webank.weid.protocol.cpt.Cpt103;
 
@@ -85,6 +89,29 @@ public class TestJsonUtil {
         Assert.assertNotNull(newcred);
     }
 
+    @Test
+    public void testJsonNodeToCompactJson() throws Exception {
+        Credential cred = new Credential();
+        cred.setIssuer("did:weid:0x00000011111111111");
+        cred.setIssuanceDate(System.currentTimeMillis());
+        cred.setContext(CredentialConstant.DEFAULT_CREDENTIAL_CONTEXT);
+        cred.setId(UUID.randomUUID().toString());
+        cred.setCptId(55);
+        HashMap<String, Object> inner = new HashMap<>();
+        inner.put("zz", 1.1f);
+        inner.put("aa", new BigDecimal("12345.678901234567890"));
+        HashMap<String, Object> claim = new HashMap<>();
+        claim.put("xxy", "yyx\u0001\"");
+        claim.put("age", 12);
+        claim.put("acc", new BigInteger("111111111111111111111111111"));
+        claim.put("inner", inner);
+        claim.put("list", Arrays.asList(inner, "x", null));
+        cred.setClaim(claim);
+        String expected = DataToolUtils.mapToCompactJson(DataToolUtils.objToMap(cred));
+        String json = DataToolUtils.jsonNodeToCompactJson(DataToolUtils.objToJsonNode(cred));
+        Assert.assertEquals(expected, json);
+    }
+
     @Test
     public void testCptGenerator() throws Exception {
         String cptSchema = DataToolUtils.generateDefaultCptJsonSchema(11);
@@ -105,4 +132,26 @@ public class TestJsonUtil {
         cptSchema = DataToolUtils.generateUnformattedCptJsonSchema();
         Assert.assertTrue(DataToolUtils.isCptJsonSchemaValid(cptSchema));
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLoadCptJsonSchema() throws Exception {
+        Cpt cpt = new Cpt();
+        cpt.setCptId(Integer.MAX_VALUE);
+        cpt.setCptVersion(1);
+        cpt.setCptJsonSchema(DataToolUtils.deserialize(
+            DataToolUtils.generateDefaultCptJsonSchema(103), HashMap.class));
+
+        JsonSchema schema = DataToolUtils.loadCptJsonSchema(cpt);
+        Assert.assertNotNull(schema);
+        // verifying the same cpt version again reuses the compiled schema
+        Assert.assertSame(schema, DataToolUtils.loadCptJsonSchema(cpt));
+
+        // an updated cpt gets a new version, which is compiled again
+        cpt.setCptVersion(2);
+        JsonSchema updated = DataToolUtils.loadCptJsonSchema(cpt);
+        Assert.assertNotNull(updated);
+        Assert.assertNotSame(schema, updated);
+        Assert.assertSame(updated, DataToolUtils.loadCptJsonSchema(cpt));
+    }
 }
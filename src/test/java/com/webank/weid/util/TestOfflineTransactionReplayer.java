@@ -0,0 +1,246 @@
+/*
+ *       Copyright© (2018-2020) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-java-sdk.
+ *
+ *       weid-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.request.TransactionArgs;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.OfflineTransactionReplayer.EvidenceSender;
+import com.webank.weid.util.OfflineTransactionReplayer.ReplaySource;
+
+/**
+ * test the chunked replay of the offline transactions with a fake source and a fake chain.
+ */
+public class TestOfflineTransactionReplayer {
+
+    private static final Integer GROUP_ID = 1;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    /**
+     * case:the transactions are sent in chunks and the checkpoint is saved after each chunk.
+     */
+    public void testReplay_chunked() {
+
+        FakeChain chain = new FakeChain();
+        FakeSource source = new FakeSource(transactions(10), 0);
+
+        ResponseData<Long> response = newReplayer(chain, 3).replay(source);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(10L, response.getResult().longValue());
+        List<Integer> chunkSizes = new ArrayList<>(chain.chunkSizes);
+        Collections.sort(chunkSizes);
+        Assert.assertEquals(Arrays.asList(1, 3, 3, 3), chunkSizes);
+        Assert.assertEquals(Arrays.asList("3", "6", "9", "10"), source.checkpoints);
+        Assert.assertEquals(10, chain.created.size());
+        Assert.assertTrue(source.closed);
+    }
+
+    @Test
+    /**
+     * case:the replay stops at the failed chunk, and resumes from the last checkpoint.
+     */
+    public void testReplay_failedAndResume() {
+
+        List<TransactionArgs> transactions = transactions(10);
+        FakeChain chain = new FakeChain();
+        chain.failedHash = "hash7";
+        FakeSource source = new FakeSource(transactions, 0);
+
+        // one chunk in flight, so no chunk after the failed one is sent
+        ResponseData<Long> response = newReplayer(chain, 3, 1).replay(source);
+
+        Assert.assertEquals(
+            ErrorCode.OFFLINE_TRANSACTION_REPLAY_FAILED.getCode(),
+            response.getErrorCode().intValue());
+        Assert.assertEquals(6L, response.getResult().longValue());
+        // the chunk [6, 9) failed, so the checkpoint stays at 6
+        Assert.assertEquals(Arrays.asList("3", "6"), source.checkpoints);
+
+        chain.failedHash = null;
+        FakeSource resumed = new FakeSource(transactions, 6);
+        response = newReplayer(chain, 3).replay(resumed);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(4L, response.getResult().longValue());
+        Assert.assertEquals(Arrays.asList("9", "10"), resumed.checkpoints);
+        Assert.assertEquals(10, chain.created.size());
+    }
+
+    @Test
+    /**
+     * case:the existing evidences fail without stopping the replay, the chain error stops it.
+     */
+    public void testReplay_errorCode() {
+
+        FakeChain chain = new FakeChain();
+        chain.created.add("hash1");
+        FakeSource source = new FakeSource(transactions(4), 0);
+
+        ResponseData<Long> response = newReplayer(chain, 2).replay(source);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(3L, response.getResult().longValue());
+        Assert.assertEquals(Arrays.asList("2", "4"), source.checkpoints);
+
+        chain.errorCode = ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR;
+        source = new FakeSource(transactions(4), 0);
+        response = newReplayer(chain, 2).replay(source);
+
+        Assert.assertEquals(
+            ErrorCode.OFFLINE_TRANSACTION_REPLAY_FAILED.getCode(),
+            response.getErrorCode().intValue());
+        Assert.assertTrue(source.checkpoints.isEmpty());
+    }
+
+    @Test
+    /**
+     * case:send returns false for the failed chunk instead of throwing.
+     */
+    public void testSend_failed() {
+
+        FakeChain chain = new FakeChain();
+        chain.failedHash = "hash0";
+
+        List<Boolean> results = newReplayer(chain, 2).send(transactions(3));
+
+        Assert.assertEquals(Arrays.asList(false, false, true), results);
+    }
+
+    private OfflineTransactionReplayer newReplayer(FakeChain chain, int chunkSize) {
+        return newReplayer(chain, chunkSize, 2);
+    }
+
+    private OfflineTransactionReplayer newReplayer(
+        FakeChain chain,
+        int chunkSize,
+        int maxInFlight) {
+        return new OfflineTransactionReplayer(chain, GROUP_ID, chunkSize, maxInFlight, executor);
+    }
+
+    private static List<TransactionArgs> transactions(int count) {
+        List<TransactionArgs> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TransactionArgs transaction = new TransactionArgs();
+            transaction.setRequestId(String.valueOf(i));
+            transaction.setMethod("createEvidence");
+            transaction.setArgs("hash" + i + ",sig,log," + (1000L + i) + ",did:weid:1:0x0");
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    /**
+     * reads the transactions from a list, the position is the index of the next transaction.
+     */
+    private static class FakeSource implements ReplaySource {
+
+        private final List<TransactionArgs> transactions;
+
+        private final List<String> checkpoints = new ArrayList<>();
+
+        private int position;
+
+        private boolean closed;
+
+        private FakeSource(List<TransactionArgs> transactions, int checkpoint) {
+            this.transactions = transactions;
+            this.position = checkpoint;
+        }
+
+        @Override
+        public List<TransactionArgs> nextChunk(int size) {
+            int from = position;
+            position = Math.min(transactions.size(), position + size);
+            return new ArrayList<>(transactions.subList(from, position));
+        }
+
+        @Override
+        public String getPosition() {
+            return String.valueOf(position);
+        }
+
+        @Override
+        public synchronized void saveCheckpoint(String position) {
+            checkpoints.add(position);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * creates the evidences in memory, the existing hashes are not created again.
+     */
+    private static class FakeChain implements EvidenceSender {
+
+        private final Set<String> created = Collections.synchronizedSet(new HashSet<>());
+
+        private final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile String failedHash;
+
+        private volatile ErrorCode errorCode = ErrorCode.SUCCESS;
+
+        @Override
+        public ResponseData<List<Boolean>> send(
+            Integer groupId,
+            List<String> hashValues,
+            List<String> signatures,
+            List<String> logs,
+            List<Long> timestamps,
+            List<String> signers,
+            List<String> customKeys) {
+
+            Assert.assertEquals(GROUP_ID, groupId);
+            chunkSizes.add(hashValues.size());
+            if (hashValues.contains(failedHash)) {
+                throw new IllegalStateException("the transaction receipt timeout");
+            }
+            List<Boolean> results = new ArrayList<>();
+            for (String hashValue : hashValues) {
+                results.add(errorCode == ErrorCode.SUCCESS && created.add(hashValue));
+            }
+            return new ResponseData<>(results, errorCode);
+        }
+    }
+}
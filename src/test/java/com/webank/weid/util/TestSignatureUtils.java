@@ -20,6 +20,7 @@
 package com.webank.weid.util;
 
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 
 import com.lambdaworks.codec.Base64;
 import org.fisco.bcos.web3j.crypto.ECKeyPair;
@@ -29,7 +30,10 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.full.TestBaseUtil;
+import com.webank.weid.protocol.base.PublicKeyProperty;
+import com.webank.weid.protocol.base.WeIdDocument;
 
 /**
  * Test SignatureUtils.
@@ -75,4 +79,76 @@ public class TestSignatureUtils {
         Boolean result = DataToolUtils.verifySecp256k1Signature(msg, sig, keyPair.getPublicKey());
         Assert.assertTrue(result);
     }
+
+    @Test
+    public void testSecp256k1Signatures_tampered() {
+        String msg = "12345";
+        ECKeyPair keyPair = TestBaseUtil.createKeyPair();
+        String sig = DataToolUtils.secp256k1Sign(msg, keyPair.getPrivateKey());
+        BigInteger publicKey = keyPair.getPublicKey();
+        Assert.assertTrue(DataToolUtils.verifySecp256k1Signature(msg, sig, publicKey));
+
+        // the signature is in R, S, V format: r is 0-31, s is 32-63 and v is 64
+        Assert.assertFalse(DataToolUtils.verifySecp256k1Signature("12346", sig, publicKey));
+        Assert.assertFalse(DataToolUtils.verifySecp256k1Signature(msg, tamper(sig, 0), publicKey));
+        Assert.assertFalse(DataToolUtils.verifySecp256k1Signature(msg, tamper(sig, 32), publicKey));
+        Assert.assertFalse(DataToolUtils.verifySecp256k1Signature(msg, tamper(sig, 64), publicKey));
+
+        ECKeyPair otherKeyPair = TestBaseUtil.createKeyPair();
+        Assert.assertFalse(
+            DataToolUtils.verifySecp256k1Signature(msg, sig, otherKeyPair.getPublicKey()));
+    }
+
+    @Test
+    public void testSecp256k1SignatureFromWeId_matchedKeyRevoked() {
+        String msg = "12345";
+        ECKeyPair firstKeyPair = TestBaseUtil.createKeyPair();
+        ECKeyPair secondKeyPair = TestBaseUtil.createKeyPair();
+        WeIdDocument weIdDocument = new WeIdDocument();
+        weIdDocument.setId(
+            WeIdUtils.convertPublicKeyToWeId(firstKeyPair.getPublicKey().toString(10)));
+        PublicKeyProperty firstKey = buildPublicKey(weIdDocument, 0, firstKeyPair);
+        PublicKeyProperty secondKey = buildPublicKey(weIdDocument, 1, secondKeyPair);
+
+        String firstSig = DataToolUtils.secp256k1Sign(msg, firstKeyPair.getPrivateKey());
+        String secondSig = DataToolUtils.secp256k1Sign(msg, secondKeyPair.getPrivateKey());
+        Assert.assertEquals(ErrorCode.SUCCESS, DataToolUtils
+            .verifySecp256k1SignatureFromWeId(msg, firstSig, weIdDocument, firstKey.getId()));
+        Assert.assertEquals(ErrorCode.SUCCESS, DataToolUtils
+            .verifySecp256k1SignatureFromWeId(msg, secondSig, weIdDocument, secondKey.getId()));
+        Assert.assertEquals(ErrorCode.CREDENTIAL_VERIFY_SUCCEEDED_WITH_WRONG_PUBLIC_KEY_ID,
+            DataToolUtils
+                .verifySecp256k1SignatureFromWeId(msg, secondSig, weIdDocument, firstKey.getId()));
+        // the second key matched last is tried first, but it does not match the first signature
+        Assert.assertEquals(ErrorCode.SUCCESS, DataToolUtils
+            .verifySecp256k1SignatureFromWeId(msg, firstSig, weIdDocument, firstKey.getId()));
+
+        // the first key matched last is revoked
+        firstKey.setRevoked(true);
+        Assert.assertEquals(ErrorCode.CREDENTIAL_VERIFY_FAIL, DataToolUtils
+            .verifySecp256k1SignatureFromWeId(msg, firstSig, weIdDocument, null));
+        Assert.assertEquals(ErrorCode.SUCCESS, DataToolUtils
+            .verifySecp256k1SignatureFromWeId(msg, secondSig, weIdDocument, secondKey.getId()));
+        Assert.assertEquals(ErrorCode.CREDENTIAL_VERIFY_FAIL, DataToolUtils
+            .verifySecp256k1SignatureFromWeId(msg, firstSig, weIdDocument, firstKey.getId()));
+    }
+
+    private static String tamper(String signature, int index) {
+        byte[] sigBytes = DataToolUtils.base64Decode(signature.getBytes(StandardCharsets.UTF_8));
+        sigBytes[index] ^= 1;
+        return new String(DataToolUtils.base64Encode(sigBytes), StandardCharsets.UTF_8);
+    }
+
+    private static PublicKeyProperty buildPublicKey(
+        WeIdDocument weIdDocument,
+        int index,
+        ECKeyPair keyPair) {
+
+        PublicKeyProperty publicKey = new PublicKeyProperty();
+        publicKey.setId(weIdDocument.getId() + "#keys-" + index);
+        publicKey.setOwner(weIdDocument.getId());
+        publicKey.setPublicKey(keyPair.getPublicKey().toString());
+        weIdDocument.getPublicKey().add(publicKey);
+        return publicKey;
+    }
 }